@@ -27,6 +27,10 @@ public class CliConfig {
     private String restEndpoint;
     private String dbConnectString;
     private String dbEncPassword;
+    private int sharedBandwidthLimit;
+    private int sharedThroughputLimit;
+    private int maxTotalThreads;
+    private int maxJobThreads;
     private String xmlConfig;
     private LogLevel logLevel;
     private int perfReportSeconds;
@@ -97,6 +101,42 @@ public class CliConfig {
         this.dbEncPassword = dbEncPassword;
     }
 
+    @Option(valueHint = "bytes/s", description = "Specifies a bandwidth limit in bytes/s shared by all jobs submitted to the REST server. The limit is divided fairly between running jobs according to their share weight, and capacity unused by one job is given to the others. Default is 0 (no shared limit)")
+    public int getSharedBandwidthLimit() {
+        return sharedBandwidthLimit;
+    }
+
+    public void setSharedBandwidthLimit(int sharedBandwidthLimit) {
+        this.sharedBandwidthLimit = sharedBandwidthLimit;
+    }
+
+    @Option(valueHint = "objects/s", description = "Specifies a throughput limit in objects/s shared by all jobs submitted to the REST server. The limit is divided fairly between running jobs according to their share weight, and capacity unused by one job is given to the others. Default is 0 (no shared limit)")
+    public int getSharedThroughputLimit() {
+        return sharedThroughputLimit;
+    }
+
+    public void setSharedThroughputLimit(int sharedThroughputLimit) {
+        this.sharedThroughputLimit = sharedThroughputLimit;
+    }
+
+    @Option(valueHint = "threads", description = "Specifies the total number of worker threads that all jobs running in the REST server may use together. Threads are divided fairly between running jobs, up to each job's threadCount. Default is 0 (unlimited)")
+    public int getMaxTotalThreads() {
+        return maxTotalThreads;
+    }
+
+    public void setMaxTotalThreads(int maxTotalThreads) {
+        this.maxTotalThreads = maxTotalThreads;
+    }
+
+    @Option(valueHint = "threads", description = "Specifies the most worker threads any single job running in the REST server may use, regardless of its threadCount. Default is 0 (unlimited)")
+    public int getMaxJobThreads() {
+        return maxJobThreads;
+    }
+
+    public void setMaxJobThreads(int maxJobThreads) {
+        this.maxJobThreads = maxJobThreads;
+    }
+
     @Option(description = "Specifies an XML configuration file. In this mode, the XML file contains all of the configuration for the sync job. In this mode, most other CLI arguments are ignored.")
     public String getXmlConfig() {
         return xmlConfig;
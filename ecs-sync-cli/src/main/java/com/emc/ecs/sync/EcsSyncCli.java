@@ -71,6 +71,20 @@ public class EcsSyncCli {
                     if (cliConfig.getDbEncPassword() != null) {
                         SyncJobService.getInstance().setDbEncPassword(cliConfig.getDbEncPassword());
                     }
+                    // set shared (fair-share) limits if provided
+                    if (cliConfig.getSharedBandwidthLimit() > 0) {
+                        SyncJobService.getInstance().setSharedBandwidthLimit(cliConfig.getSharedBandwidthLimit());
+                    }
+                    if (cliConfig.getSharedThroughputLimit() > 0) {
+                        SyncJobService.getInstance().setSharedThroughputLimit(cliConfig.getSharedThroughputLimit());
+                    }
+                    // set global thread budget if provided
+                    if (cliConfig.getMaxTotalThreads() > 0) {
+                        SyncJobService.getInstance().setMaxTotalThreads(cliConfig.getMaxTotalThreads());
+                    }
+                    if (cliConfig.getMaxJobThreads() > 0) {
+                        SyncJobService.getInstance().setMaxJobThreads(cliConfig.getMaxJobThreads());
+                    }
                     restServer.start();
                 }
 
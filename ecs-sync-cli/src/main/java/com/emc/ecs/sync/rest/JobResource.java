@@ -18,6 +18,7 @@ package com.emc.ecs.sync.rest;
 import com.emc.ecs.sync.config.ConfigurationException;
 import com.emc.ecs.sync.config.SyncConfig;
 import com.emc.ecs.sync.service.JobNotFoundException;
+import com.emc.ecs.sync.service.ProgressPublisher;
 import com.emc.ecs.sync.service.SyncJobService;
 import com.sun.jersey.api.NotFoundException;
 
@@ -102,6 +103,19 @@ public class JobResource {
         return syncProgress;
     }
 
+    /**
+     * Streams progress as server-sent events (see {@link ProgressEventWriter}). <code>interval</code> is the minimum
+     * time in milliseconds between events for this client (default and minimum is the server's progress interval)
+     */
+    @GET
+    @Path("{jobId}/progress/stream")
+    @Produces(ProgressEventWriter.MEDIA_TYPE)
+    public Response streamProgress(@PathParam("jobId") int jobId, @QueryParam("interval") long intervalMs) {
+        ProgressPublisher.Subscription subscription = SyncJobService.getInstance().subscribeProgress(jobId, intervalMs);
+        if (subscription == null) throw new NotFoundException(); // job not found
+        return Response.ok(new ProgressEventWriter(subscription)).header("Cache-Control", "no-cache").build();
+    }
+
     @GET
     @Path("{jobId}/errors.csv")
     @Produces("text/csv")
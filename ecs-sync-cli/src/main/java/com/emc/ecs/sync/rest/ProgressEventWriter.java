@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2026 Dell Inc. or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.emc.ecs.sync.rest;
+
+import com.emc.ecs.sync.service.ProgressPublisher;
+
+import javax.ws.rs.core.StreamingOutput;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Writes pushed progress updates as a server-sent event stream. The first event (<code>snapshot</code>) holds every
+ * {@link SyncProgress} property; following <code>progress</code> events hold only the properties that changed. The
+ * last event is <code>complete</code>, after which the stream ends. Event data is a flat JSON object keyed by
+ * property name. A comment line is sent when there is nothing to report, so idle connections stay open.
+ */
+public class ProgressEventWriter implements StreamingOutput {
+    public static final String MEDIA_TYPE = "text/event-stream";
+    public static final long KEEP_ALIVE_MS = 15000;
+
+    private final ProgressPublisher.Subscription subscription;
+
+    public ProgressEventWriter(ProgressPublisher.Subscription subscription) {
+        this.subscription = subscription;
+    }
+
+    @Override
+    public void write(OutputStream outputStream) throws IOException {
+        Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+        try {
+            while (true) {
+                ProgressPublisher.ProgressUpdate update = subscription.next(KEEP_ALIVE_MS);
+                if (update == null) {
+                    if (subscription.isClosed()) break;
+                    writer.write(": keep-alive\n\n");
+                } else {
+                    writeEvent(writer, update);
+                }
+                writer.flush();
+                if (update != null && update.isComplete()) break;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            // also reached when the client disconnects (write fails)
+            subscription.close();
+        }
+    }
+
+    static void writeEvent(Writer writer, ProgressPublisher.ProgressUpdate update) throws IOException {
+        String event = update.isComplete() ? "complete" : update.isFull() ? "snapshot" : "progress";
+        writer.write("id: " + update.getSequence() + "\n");
+        writer.write("event: " + event + "\n");
+        writer.write("data: " + toJson(update.getValues()) + "\n\n");
+    }
+
+    static String toJson(Map<String, Object> values) {
+        StringBuilder json = new StringBuilder("{");
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            if (json.length() > 1) json.append(',');
+            appendString(json, entry.getKey());
+            json.append(':');
+            Object value = entry.getValue();
+            if (value == null) json.append("null");
+            else if (value instanceof Double && !Double.isFinite((Double) value)) json.append("null");
+            else if (value instanceof Number || value instanceof Boolean) json.append(value);
+            else appendString(json, value.toString());
+        }
+        return json.append('}').toString();
+    }
+
+    private static void appendString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) json.append(String.format("\\u%04x", (int) c));
+                    else json.append(c);
+            }
+        }
+        json.append('"');
+    }
+}
@@ -30,6 +30,7 @@ public class CliConfigTest {
         String filters = "myFilters", rest = "myRestEndpoint";
         String source = "mySource", target = "myTarget", xml = "myXmlFile";
         LogLevel log = LogLevel.silent;
+        int sharedBandwidth = 1024 * 1024, sharedThroughput = 500, maxTotalThreads = 200, maxJobThreads = 48;
         String[] args = {
                 "--help",
                 "--version",
@@ -37,6 +38,10 @@ public class CliConfigTest {
                 "--rest-only",
                 "--db-connect-string", db,
                 "--db-enc-password", encPw,
+                "--shared-bandwidth-limit", "" + sharedBandwidth,
+                "--shared-throughput-limit", "" + sharedThroughput,
+                "--max-total-threads", "" + maxTotalThreads,
+                "--max-job-threads", "" + maxJobThreads,
                 "--filters", filters,
                 "--rest-endpoint", rest,
                 "--source", source,
@@ -55,6 +60,10 @@ public class CliConfigTest {
         Assertions.assertTrue(cliConfig.isRestOnly());
         Assertions.assertEquals(db, cliConfig.getDbConnectString());
         Assertions.assertEquals(encPw, cliConfig.getDbEncPassword());
+        Assertions.assertEquals(sharedBandwidth, cliConfig.getSharedBandwidthLimit());
+        Assertions.assertEquals(sharedThroughput, cliConfig.getSharedThroughputLimit());
+        Assertions.assertEquals(maxTotalThreads, cliConfig.getMaxTotalThreads());
+        Assertions.assertEquals(maxJobThreads, cliConfig.getMaxJobThreads());
         Assertions.assertEquals(filters, cliConfig.getFilters());
         Assertions.assertEquals(rest, cliConfig.getRestEndpoint());
         Assertions.assertEquals(source, cliConfig.getSource());
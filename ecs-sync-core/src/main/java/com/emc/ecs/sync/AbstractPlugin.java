@@ -18,6 +18,7 @@ package com.emc.ecs.sync;
 import com.emc.ecs.sync.config.SyncOptions;
 import com.emc.ecs.sync.filter.SyncFilter;
 import com.emc.ecs.sync.storage.SyncStorage;
+import com.emc.ecs.sync.util.BufferPool;
 import com.emc.ecs.sync.util.Function;
 import com.emc.ecs.sync.util.TimingUtil;
 import org.apache.commons.csv.CSVFormat;
@@ -67,6 +68,11 @@ public abstract class AbstractPlugin<C> implements SyncPlugin<C> {
     public void close() {
     }
 
+    /**
+     * @deprecated use {@link com.emc.ecs.sync.model.ObjectSummary#getListFileRecord()}, which parses the row only once
+     * and shares the record with all plugins
+     */
+    @Deprecated
     protected CSVRecord getListFileCsvRecord(String listFileLine) {
         try {
             return CSVFormat.EXCEL.parse(new StringReader(listFileLine)).iterator().next();
@@ -75,6 +81,14 @@ public abstract class AbstractPlugin<C> implements SyncPlugin<C> {
         }
     }
 
+    /**
+     * Returns the pool to lease I/O buffers from (the job's pool, or the shared pool if there is no job). Be sure to
+     * release leased buffers when done with them
+     */
+    protected BufferPool getBufferPool() {
+        return syncJob != null ? syncJob.getBufferPool() : BufferPool.getShared();
+    }
+
     protected <T> T time(Function<T> function, String name) {
         return TimingUtil.time(options, getTimingPrefix() + name, function);
     }
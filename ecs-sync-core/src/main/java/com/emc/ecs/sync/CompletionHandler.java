@@ -0,0 +1,26 @@
+/*
+ * Copyright (c) 2026 Dell Inc. or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.emc.ecs.sync;
+
+import com.emc.ecs.sync.model.ObjectContext;
+
+public interface CompletionHandler {
+    /**
+     * Called once an object has reached a final state (transferred, verified, skipped or failed) and will not be
+     * retried. This is not called for objects that are aborted because the job was terminated
+     */
+    void objectComplete(ObjectContext objectContext);
+}
@@ -16,14 +16,19 @@
 package com.emc.ecs.sync;
 
 import com.emc.ecs.sync.config.ConfigUtil;
+import com.emc.ecs.sync.config.ConfigurationException;
 import com.emc.ecs.sync.config.SyncConfig;
 import com.emc.ecs.sync.config.SyncOptions;
+import com.emc.ecs.sync.config.WorkLeaseRole;
 import com.emc.ecs.sync.filter.SyncFilter;
 import com.emc.ecs.sync.model.*;
+import com.emc.ecs.sync.service.AbstractDbService;
 import com.emc.ecs.sync.service.DbService;
 import com.emc.ecs.sync.service.MySQLDbService;
 import com.emc.ecs.sync.service.NoDbService;
 import com.emc.ecs.sync.service.SqliteDbService;
+import com.emc.ecs.sync.service.VerifySampleService;
+import com.emc.ecs.sync.service.WorkLeaseService;
 import com.emc.ecs.sync.storage.SyncStorage;
 import com.emc.ecs.sync.util.*;
 import com.sun.management.OperatingSystemMXBean;
@@ -34,7 +39,10 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.lang.management.ManagementFactory;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -52,14 +60,18 @@ public class EcsSync implements Runnable, RetryHandler, AutoCloseable {
     private EnhancedThreadPoolExecutor listExecutor;
     private EnhancedThreadPoolExecutor syncExecutor;
     private EnhancedThreadPoolExecutor queryExecutor;
-    private EnhancedThreadPoolExecutor estimateQueryExecutor;
-    private EnhancedThreadPoolExecutor estimateExecutor;
     private EnhancedThreadPoolExecutor retrySubmitter;
+    private WorkLeaseService workLeaseService;
+    private VerifySampleService verifySampler;
+    private ListingSpool listingSpool;
     private SyncFilter<?> firstFilter;
     private SyncEstimate syncEstimate;
+    private volatile boolean enumerating;
     private volatile boolean terminated;
     private volatile boolean closed;
+    private volatile int threadQuota;
     private SyncStats stats = new SyncStats();
+    private final BufferPool bufferPool = new BufferPool(BufferPool.DEFAULT_MAX_POOLED_BYTES);
 
     private SyncConfig syncConfig;
     private SyncStorage<?> source;
@@ -147,6 +159,9 @@ public class EcsSync implements Runnable, RetryHandler, AutoCloseable {
             // Summarize config for reference
             if (log.isInfoEnabled()) log.info(summarizeConfig());
 
+            // I/O buffers are leased from a pool sized for this job
+            bufferPool.setMaxPooledBytes(getBufferPoolSize(options));
+
             // Ask each plugin to configure itself and validate the chain (resolves incompatible plugins)
             String currentPlugin = "source storage";
             try {
@@ -205,24 +220,44 @@ public class EcsSync implements Runnable, RetryHandler, AutoCloseable {
                 if (options.getDbTable() != null) dbService.setObjectsTableName(options.getDbTable());
             }
 
+            // work leasing requires a shared DB
+            if (options.getWorkLeaseRole() != null) {
+                if (!(dbService instanceof AbstractDbService) || dbService instanceof NoDbService)
+                    throw new ConfigurationException("workLeaseRole requires a shared database (dbConnectString or dbFile)");
+                workLeaseService = new WorkLeaseService((AbstractDbService) dbService, options);
+            }
+            if (options.getListingSpoolFile() != null) {
+                if (workLeaseService != null)
+                    throw new ConfigurationException("listingSpoolFile cannot be combined with workLeaseRole (the work table is already a spool)");
+                listingSpool = new ListingSpool(new File(options.getListingSpoolFile()), getListingIdentity(options));
+            }
+
             // create thread pools
-            listExecutor = new EnhancedThreadPoolExecutor(options.getThreadCount(),
+            int threadCount = getEffectiveThreadCount();
+            if (threadCount < options.getThreadCount())
+                log.info("thread quota applied: using {} of {} requested threads", threadCount, options.getThreadCount());
+            listExecutor = new EnhancedThreadPoolExecutor(threadCount,
                     new LinkedBlockingDeque<>(1000), "list-pool");
-            estimateQueryExecutor = options.isEstimationEnabled()
-                    ? new EnhancedThreadPoolExecutor(options.getThreadCount(), new LinkedBlockingDeque<>(), "estimate-q-pool")
-                    : null;
-            estimateExecutor = options.isEstimationEnabled()
-                    ? new EnhancedThreadPoolExecutor(options.getThreadCount(), new LinkedBlockingDeque<>(1000), "estimate-pool")
-                    : null;
-            queryExecutor = new EnhancedThreadPoolExecutor(options.getThreadCount(),
+            queryExecutor = new EnhancedThreadPoolExecutor(threadCount,
                     new LinkedBlockingDeque<>(), "query-pool");
-            syncExecutor = new EnhancedThreadPoolExecutor(options.getThreadCount(),
+            syncExecutor = new EnhancedThreadPoolExecutor(threadCount,
                     new LinkedBlockingDeque<>(1000), "sync-pool");
-            retrySubmitter = new EnhancedThreadPoolExecutor(options.getThreadCount(),
+            retrySubmitter = new EnhancedThreadPoolExecutor(threadCount,
                     new LinkedBlockingDeque<>(), "retry-submitter");
 
             // initialize verifier
-            verifier = new Md5Verifier(options);
+            verifier = new ChecksumVerifier(options, threadCount);
+            if (options.isVerify() || options.isVerifyOnly()) {
+                if (options.getVerifySamplePercent() < 0 || options.getVerifySamplePercent() > 100)
+                    throw new ConfigurationException("verifySamplePercent must be between 0 and 100");
+                if (options.getVerifySampleBudgetMb() < 0)
+                    throw new ConfigurationException("verifySampleBudgetMb cannot be negative");
+                if (options.getVerifySamplePercent() > 0 || options.getVerifySampleBudgetMb() > 0) {
+                    verifySampler = new VerifySampleService(dbService, options);
+                    verifySampler.start();
+                    stats.setVerifySampler(verifySampler);
+                }
+            }
 
             // setup performance reporting
             startPerformanceReporting();
@@ -233,82 +268,22 @@ public class EcsSync implements Runnable, RetryHandler, AutoCloseable {
             log.info("syncing from {} to {}", ConfigUtil.generateUri(syncConfig.getSource(), true),
                     ConfigUtil.generateUri(syncConfig.getTarget(), true));
 
-            if (options.isEstimationEnabled()) {
-                // start estimating
+            // the estimate is tallied from the same enumeration that feeds the sync (the source is only listed once)
+            // workers in work-leasing mode do not enumerate, so they have no estimate
+            if (options.isEstimationEnabled()
+                    && (workLeaseService == null || workLeaseService.getRole() == WorkLeaseRole.Coordinator)) {
                 syncEstimate = new SyncEstimate();
-                estimateExecutor.submit(() -> {
-                    // do we have a raw list?
-                    if (options.getSourceList() != null) {
-                        for (String line : options.getSourceList()) {
-                            estimateExecutor.blockingSubmit(new EstimateTask(line, source, syncEstimate));
-                        }
-                        // do we have a list file?
-                    } else if (options.getSourceListFile() != null) {
-                        LineIterator lineIterator = new LineIterator(options.getSourceListFile(),
-                                options.isSourceListRawValues());
-                        while (lineIterator.hasNext()) {
-                            estimateExecutor.blockingSubmit(new EstimateTask(lineIterator.next(), source, syncEstimate));
-                        }
-                        // otherwise, enumerate the source storage
-                    } else {
-                        for (ObjectSummary summary : source.allObjects()) {
-                            estimateExecutor.blockingSubmit(new EstimateTask(summary, source, syncEstimate));
-                        }
-                    }
-                });
             }
 
-            // iterate through root objects and submit tasks for syncing and crawling (querying).
-            // raw list
-            if (options.getSourceList() != null) {
-                AtomicLong lineNum = new AtomicLong(0);
-                for (String line : options.getSourceList()) {
-                    lineNum.incrementAndGet();
-                    if (!syncControl.isRunning()) break;
-                    ObjectSummary summary = source.parseListLine(line);
-                    summary.setListRowNum(lineNum.get()); // record the line number in the summary
-                    submitForSync(source, summary);
-                    if (options.isRecursive() && summary.isDirectory()) submitForQuery(source, summary);
-                }
-                // list file
-            } else if (options.getSourceListFile() != null) { // do we have a list-file?
-                LineIterator lineIterator = new LineIterator(options.getSourceListFile(),
-                        options.isSourceListRawValues());
-                AtomicLong lineNum = new AtomicLong(0);
-                while (lineIterator.hasNext()) {
-                    lineNum.incrementAndGet();
-                    if (!syncControl.isRunning()) break;
-                    String listLine = lineIterator.next();
-                    listExecutor.blockingSubmit(() -> {
-                        ObjectSummary summary = source.parseListLine(listLine);
-                        summary.setListRowNum(lineNum.get()); // record the line number in the summary
-                        submitForSync(source, summary);
-                        if (options.isRecursive() && summary.isDirectory()) submitForQuery(source, summary);
-                    });
-                }
-                // otherwise, enumerate the source
+            if (workLeaseService != null) {
+                runWorkLeasing(options);
+            } else if (listingSpool != null) {
+                runSpooled(options);
             } else {
-                for (ObjectSummary summary : source.allObjects()) {
-                    if (!syncControl.isRunning()) break;
-                    submitForSync(source, summary);
-                    if (options.isRecursive() && summary.isDirectory()) submitForQuery(source, summary);
-                }
-            }
+                enumerate(options);
 
-            // now we must wait until all submitted tasks are complete
-            while (syncControl.isRunning()) {
-                if (listExecutor.getUnfinishedTasks() <= 0 && queryExecutor.getUnfinishedTasks() <= 0
-                        && syncExecutor.getUnfinishedTasks() <= 0) {
-                    // done
-                    log.info("all tasks complete");
-                    break;
-                } else {
-                    try {
-                        Thread.sleep(1000);
-                    } catch (InterruptedException e) {
-                        log.warn("interrupted while sleeping", e);
-                    }
-                }
+                // now we must wait until all submitted tasks are complete
+                waitForCompletion();
             }
 
             // run a final timing log
@@ -321,8 +296,6 @@ public class EcsSync implements Runnable, RetryHandler, AutoCloseable {
             if (!syncControl.isRunning()) log.warn("terminated early!");
             syncControl.setRunning(false);
             if (listExecutor != null) listExecutor.shutdown();
-            if (estimateQueryExecutor != null) estimateQueryExecutor.shutdown();
-            if (estimateExecutor != null) estimateExecutor.shutdown();
             if (queryExecutor != null) queryExecutor.shutdown();
             if (retrySubmitter != null) retrySubmitter.shutdown();
             if (syncExecutor != null) {
@@ -334,8 +307,257 @@ public class EcsSync implements Runnable, RetryHandler, AutoCloseable {
                     log.warn("interrupted after termination while waiting for sync threads to finish", e);
                 }
             }
+            // batched source deletes finish after their tasks and record their results in the DB
+            if (source != null) try {
+                source.completeDeletes();
+            } catch (Throwable t) {
+                log.warn("could not complete source deletes", t);
+            }
+            safeClose(verifySampler);
 
             if (stats != null) stats.setStopTime(System.currentTimeMillis());
+            log.info("buffer pool usage: {}", bufferPool);
+        }
+    }
+
+    private void enumerate(SyncOptions options) {
+        enumerating = true;
+        try {
+            enumerateSource(options);
+        } finally {
+            enumerating = false;
+        }
+    }
+
+    private void enumerateSource(SyncOptions options) {
+        // iterate through root objects and submit tasks for syncing and crawling (querying).
+        // raw list
+        if (options.getSourceList() != null) {
+            AtomicLong lineNum = new AtomicLong(0);
+            for (String line : options.getSourceList()) {
+                lineNum.incrementAndGet();
+                if (!syncControl.isRunning()) break;
+                ObjectSummary summary = source.parseListLine(line);
+                summary.setListRowNum(lineNum.get()); // record the line number in the summary
+                submitForSync(source, summary);
+                if (options.isRecursive() && summary.isDirectory()) submitForQuery(source, summary);
+            }
+            // list file
+        } else if (options.getSourceListFile() != null) { // do we have a list-file?
+            if ("-".equals(options.getSourceListFile())) {
+                // stdin can only be read serially
+                LineIterator lineIterator = new LineIterator(options.getSourceListFile(),
+                        options.isSourceListRawValues());
+                while (lineIterator.hasNext()) {
+                    if (!syncControl.isRunning()) break;
+                    String listLine = lineIterator.next();
+                    long rowNum = lineIterator.getCurrentLine();
+                    listExecutor.blockingSubmit(() -> submitListLine(source, listLine, rowNum));
+                }
+            } else {
+                // the list file is read in chunks, which are parsed in parallel by the list executor
+                new ListFileReader(new File(options.getSourceListFile()), options.isSourceListRawValues())
+                        .read(listExecutor, syncControl::isRunning, batch -> {
+                            for (int i = 0; i < batch.size(); i++) {
+                                if (!syncControl.isRunning()) break;
+                                submitListLine(source, batch.getLine(i), batch.getRowNum(i));
+                            }
+                        });
+            }
+            // otherwise, enumerate the source
+        } else {
+            for (ObjectSummary summary : source.allObjects()) {
+                if (!syncControl.isRunning()) break;
+                submitForSync(source, summary);
+                if (options.isRecursive() && summary.isDirectory()) submitForQuery(source, summary);
+            }
+        }
+    }
+
+    private void submitListLine(SyncStorage<?> source, String listLine, long rowNum) {
+        try {
+            ObjectSummary summary = source.parseListLine(listLine);
+            summary.setListRowNum(rowNum); // record the line number in the summary
+            submitForSync(source, summary);
+            if (syncConfig.getOptions().isRecursive() && summary.isDirectory()) submitForQuery(source, summary);
+        } catch (Throwable t) {
+            log.warn("could not submit row {} of the source list ({}): {}", rowNum, listLine, SyncUtil.summarize(t));
+            stats.incObjectsFailed();
+            if (syncConfig.getOptions().isRememberFailed()) stats.addFailedObject(new FailedObject(rowNum, listLine));
+        }
+    }
+
+    private void waitForCompletion() {
+        while (syncControl.isRunning()) {
+            if (listExecutor.getUnfinishedTasks() <= 0 && queryExecutor.getUnfinishedTasks() <= 0
+                    && syncExecutor.getUnfinishedTasks() <= 0) {
+                // done
+                log.info("all tasks complete");
+                break;
+            } else {
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException e) {
+                    log.warn("interrupted while sleeping", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * With a listing spool, the source is enumerated into the spool in the background (so listing is never blocked
+     * by the sync queue) while this thread drains the spool and submits objects for sync. A complete spool from an
+     * interrupted run of the same job is re-used without enumerating the source. The spool is deleted once everything
+     * in it has been synced.
+     */
+    private void runSpooled(SyncOptions options) {
+        ExecutorService enumerationExecutor = null;
+        try {
+            Future<?> enumerationFuture = null;
+            if (listingSpool.isReused()) {
+                if (syncEstimate != null) {
+                    syncEstimate.incTotalObjectCount(listingSpool.getRecordCount());
+                    syncEstimate.incTotalByteCount(listingSpool.getByteCount());
+                }
+            } else {
+                enumerationExecutor = Executors.newSingleThreadExecutor();
+                enumerationFuture = enumerationExecutor.submit(() -> {
+                    boolean complete = false;
+                    try {
+                        // enumerated objects (including crawled children) go to the spool (see submitForSync)
+                        enumerate(options);
+                        while (syncControl.isRunning() && (listExecutor.getUnfinishedTasks() > 0 || queryExecutor.getUnfinishedTasks() > 0)) {
+                            Thread.sleep(500);
+                        }
+                        complete = syncControl.isRunning();
+                    } finally {
+                        // an incomplete listing must not be re-used
+                        if (complete) listingSpool.complete();
+                        else listingSpool.abort();
+                    }
+                    return null;
+                });
+            }
+
+            // the spool iterator blocks until more objects are listed, and ends when the listing is finished
+            for (ObjectSummary summary : listingSpool) {
+                if (!syncControl.isRunning()) break;
+                submitForSync(source, newObjectContext(summary));
+            }
+
+            // surface any enumeration error
+            if (enumerationFuture != null) {
+                try {
+                    enumerationFuture.get();
+                } catch (ExecutionException e) {
+                    throw new RuntimeException("enumeration failed", e.getCause());
+                } catch (InterruptedException e) {
+                    throw new RuntimeException("interrupted while waiting for enumeration", e);
+                }
+            }
+
+            // now we must wait until all submitted tasks are complete
+            waitForCompletion();
+
+            // the listing was finished and fully drained; the next run must list the source again
+            if (syncControl.isRunning()) {
+                log.info("listing spool {} fully synced; deleting it", listingSpool.getFile());
+                listingSpool.delete();
+            }
+        } finally {
+            if (enumerationExecutor != null) {
+                enumerationExecutor.shutdownNow();
+                // the enumeration thread may still be appending to the spool
+                awaitTermination(enumerationExecutor, "enumeration");
+            }
+            listingSpool.abort();
+            safeClose(listingSpool);
+        }
+    }
+
+    /**
+     * Identifies the source listing of this job, so a listing spool is only re-used by the same job and source
+     */
+    private String getListingIdentity(SyncOptions options) {
+        return syncConfig.getJobName() + "|" + ConfigUtil.generateUri(syncConfig.getSource(), false)
+                + "|" + Arrays.toString(options.getSourceList()) + "|" + options.getSourceListFile()
+                + "|" + options.isRecursive();
+    }
+
+    private void awaitTermination(ExecutorService executor, String name) {
+        try {
+            while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                log.warn("still waiting for {} to terminate", name);
+            }
+        } catch (InterruptedException e) {
+            log.warn("interrupted while waiting for {} to terminate", name);
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * In work-leasing mode, the coordinator enumerates the source into the work table (in the background) while all
+     * processes (including the coordinator) lease batches of work from the table and sync them. This process is
+     * finished when enumeration is complete and there is no pending work left in the table.
+     */
+    private void runWorkLeasing(SyncOptions options) {
+        workLeaseService.start();
+        ExecutorService enumerationExecutor = null;
+        try {
+            Future<?> enumerationFuture = null;
+            if (workLeaseService.getRole() == WorkLeaseRole.Coordinator) {
+                enumerationExecutor = Executors.newSingleThreadExecutor();
+                enumerationFuture = enumerationExecutor.submit(() -> {
+                    // enumerated objects (including crawled children) go to the work table (see submitForSync)
+                    enumerate(options);
+                    while (syncControl.isRunning() && (listExecutor.getUnfinishedTasks() > 0 || queryExecutor.getUnfinishedTasks() > 0)) {
+                        Thread.sleep(500);
+                    }
+                    if (syncControl.isRunning()) workLeaseService.setEnumerationComplete();
+                    return null;
+                });
+            }
+
+            while (syncControl.isRunning()) {
+                // surface any enumeration error
+                if (enumerationFuture != null && enumerationFuture.isDone()) {
+                    try {
+                        enumerationFuture.get();
+                    } catch (ExecutionException e) {
+                        throw new RuntimeException("enumeration failed", e.getCause());
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException("interrupted while checking enumeration", e);
+                    }
+                    enumerationFuture = null;
+                }
+
+                // keep no more than one batch queued locally, so work stays available to other processes
+                if (syncExecutor.getUnfinishedTasks() <= options.getWorkLeaseBatchSize()) {
+                    List<ObjectSummary> batch = workLeaseService.lease();
+                    for (ObjectSummary summary : batch) {
+                        if (!syncControl.isRunning()) break;
+                        submitForSync(source, newObjectContext(summary));
+                    }
+                    if (!batch.isEmpty()) continue;
+
+                    if (syncExecutor.getUnfinishedTasks() <= 0 && retrySubmitter.getUnfinishedTasks() <= 0
+                            && workLeaseService.isDrained()) {
+                        log.info("all leased work complete");
+                        break;
+                    }
+                }
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException e) {
+                    log.warn("interrupted while sleeping", e);
+                }
+            }
+
+            // wait for anything still in progress locally
+            waitForCompletion();
+        } finally {
+            if (enumerationExecutor != null) enumerationExecutor.shutdownNow();
+            safeClose(workLeaseService);
         }
     }
 
@@ -366,8 +588,6 @@ public class EcsSync implements Runnable, RetryHandler, AutoCloseable {
     public void pause() {
         if (!syncControl.isRunning()) throw new IllegalStateException("sync is not running");
         listExecutor.pause();
-        if (estimateQueryExecutor != null) estimateQueryExecutor.pause();
-        if (estimateExecutor != null) estimateExecutor.pause();
         queryExecutor.pause();
         retrySubmitter.pause();
         syncExecutor.pause();
@@ -383,8 +603,6 @@ public class EcsSync implements Runnable, RetryHandler, AutoCloseable {
     public void resume() {
         if (!syncControl.isRunning()) throw new IllegalStateException("sync is not running");
         listExecutor.resume();
-        if (estimateQueryExecutor != null) estimateQueryExecutor.resume();
-        if (estimateExecutor != null) estimateExecutor.resume();
         queryExecutor.resume();
         retrySubmitter.resume();
         syncExecutor.resume();
@@ -395,8 +613,6 @@ public class EcsSync implements Runnable, RetryHandler, AutoCloseable {
         syncControl.setRunning(false);
         terminated = true;
         if (listExecutor != null) listExecutor.stop();
-        if (estimateQueryExecutor != null) estimateQueryExecutor.stop();
-        if (estimateExecutor != null) estimateExecutor.stop();
         if (queryExecutor != null) queryExecutor.stop();
         if (retrySubmitter != null) retrySubmitter.stop();
         if (syncExecutor != null) syncExecutor.stop();
@@ -438,6 +654,9 @@ public class EcsSync implements Runnable, RetryHandler, AutoCloseable {
 
                     SyncTask syncTask = new SyncTask(objectContext, source, firstFilter, verifier,
                             dbService, this, syncControl, stats);
+                    if (workLeaseService != null) syncTask.setCompletionHandler(context ->
+                            workLeaseService.complete(context.getSourceSummary().getIdentifier()));
+                    syncTask.setVerifySampler(verifySampler);
                     syncExecutor.blockingSubmit(syncTask);
                 } else {
                     log.debug("not submitting task for sync because terminate() was called: " + objectContext.getSourceSummary().getIdentifier());
@@ -451,11 +670,32 @@ public class EcsSync implements Runnable, RetryHandler, AutoCloseable {
     }
 
     private void submitForSync(SyncStorage<?> source, ObjectSummary summary) {
+        // every enumerated object passes through here, so this is where we tally the estimate
+        if (syncEstimate != null) {
+            syncEstimate.incTotalObjectCount(1);
+            if (!(syncConfig.getOptions().isRecursive() && summary.isDirectory()))
+                syncEstimate.incTotalByteCount(summary.getSize());
+        }
+
+        // in work-leasing mode, enumerated objects are added to the work table and synced when they are leased
+        if (workLeaseService != null) {
+            workLeaseService.enqueue(summary);
+            return;
+        }
+        // when spooling, enumerated objects are added to the spool and submitted as the spool is drained
+        if (listingSpool != null) {
+            listingSpool.append(summary);
+            return;
+        }
+        submitForSync(source, newObjectContext(summary));
+    }
+
+    private ObjectContext newObjectContext(ObjectSummary summary) {
         ObjectContext objectContext = new ObjectContext();
         objectContext.setSourceSummary(summary);
         objectContext.setOptions(syncConfig.getOptions());
         objectContext.setStatus(ObjectStatus.Queue);
-        submitForSync(source, objectContext);
+        return objectContext;
     }
 
     @Override
@@ -511,13 +751,47 @@ public class EcsSync implements Runnable, RetryHandler, AutoCloseable {
 
     public void setThreadCount(int threadCount) {
         syncConfig.getOptions().setThreadCount(threadCount);
+        resizeThreadPools();
+        bufferPool.setMaxPooledBytes(getBufferPoolSize(syncConfig.getOptions()));
+        fireOptionsChangedEvent();
+    }
+
+    /**
+     * Caps the number of worker threads this job may use, regardless of its configured threadCount. Set by a
+     * {@link com.emc.ecs.sync.service.ResourceGovernor} when several jobs share one process. 0 removes the cap
+     */
+    public void setThreadQuota(int threadQuota) {
+        if (this.threadQuota == threadQuota) return;
+        this.threadQuota = threadQuota;
+        resizeThreadPools();
+    }
+
+    public int getThreadQuota() {
+        return threadQuota;
+    }
+
+    /**
+     * The configured threadCount, limited by the thread quota (if any)
+     */
+    public int getEffectiveThreadCount() {
+        int threadCount = syncConfig.getOptions().getThreadCount();
+        return threadQuota > 0 ? Math.min(threadCount, threadQuota) : threadCount;
+    }
+
+    private void resizeThreadPools() {
+        int threadCount = getEffectiveThreadCount();
         if (listExecutor != null) listExecutor.resizeThreadPool(threadCount);
-        if (estimateQueryExecutor != null) estimateQueryExecutor.resizeThreadPool(threadCount);
-        if (estimateExecutor != null) estimateExecutor.resizeThreadPool(threadCount);
         if (queryExecutor != null) queryExecutor.resizeThreadPool(threadCount);
         if (syncExecutor != null) syncExecutor.resizeThreadPool(threadCount);
         if (retrySubmitter != null) retrySubmitter.resizeThreadPool(threadCount);
-        fireOptionsChangedEvent();
+        if (verifier instanceof ChecksumVerifier) ((ChecksumVerifier) verifier).setThreadCount(threadCount);
+    }
+
+    /**
+     * Enough for every sync thread to hold a transfer buffer and a read-ahead buffer, but at least the default
+     */
+    private long getBufferPoolSize(SyncOptions options) {
+        return Math.max(BufferPool.DEFAULT_MAX_POOLED_BYTES, 2L * options.getThreadCount() * options.getBufferSize());
     }
 
     public DbService getDbService() {
@@ -537,6 +811,20 @@ public class EcsSync implements Runnable, RetryHandler, AutoCloseable {
         return stats;
     }
 
+    /**
+     * The pool from which plugins of this job lease their I/O buffers
+     */
+    public BufferPool getBufferPool() {
+        return bufferPool;
+    }
+
+    /**
+     * The verification sampler of the current run (null if sampling verification is not enabled)
+     */
+    public VerifySampleService getVerifySampler() {
+        return verifySampler;
+    }
+
     public boolean isRunning() {
         return syncControl.isRunning();
     }
@@ -549,17 +837,30 @@ public class EcsSync implements Runnable, RetryHandler, AutoCloseable {
         return terminated;
     }
 
+    /**
+     * The estimate is final once the source has been completely enumerated (including crawled directories)
+     */
     public boolean isEstimating() {
-        return estimateExecutor != null && estimateExecutor.getUnfinishedTasks() > 0;
+        return syncEstimate != null && (enumerating
+                || (listExecutor != null && listExecutor.getUnfinishedTasks() > 0)
+                || (queryExecutor != null && queryExecutor.getUnfinishedTasks() > 0));
     }
 
+    /**
+     * Returns the number of objects enumerated so far (this converges on the total as enumeration progresses - see
+     * {@link #isEstimating()}), or -1 if estimation is disabled
+     */
     public long getEstimatedTotalObjects() {
-        if (isEstimating() || syncEstimate == null) return -1;
+        if (syncEstimate == null) return -1;
         return syncEstimate.getTotalObjectCount();
     }
 
+    /**
+     * Returns the number of bytes enumerated so far (this converges on the total as enumeration progresses - see
+     * {@link #isEstimating()}), or -1 if estimation is disabled
+     */
     public long getEstimatedTotalBytes() {
-        if (isEstimating() || syncEstimate == null) return -1;
+        if (syncEstimate == null) return -1;
         return syncEstimate.getTotalByteCount();
     }
 
@@ -717,48 +1018,4 @@ public class EcsSync implements Runnable, RetryHandler, AutoCloseable {
             }
         }
     }
-
-    private class EstimateTask implements Runnable {
-        private String listLine;
-        private ObjectSummary summary;
-        private final SyncStorage<?> storage;
-        private final SyncEstimate syncEstimate;
-
-        EstimateTask(ObjectSummary summary, SyncStorage<?> storage, SyncEstimate syncEstimate) {
-            this.summary = summary;
-            this.storage = storage;
-            this.syncEstimate = syncEstimate;
-        }
-
-        EstimateTask(String listLine, SyncStorage<?> storage, SyncEstimate syncEstimate) {
-            this.listLine = listLine;
-            this.storage = storage;
-            this.syncEstimate = syncEstimate;
-        }
-
-        @Override
-        public void run() {
-            if (!syncControl.isRunning()) {
-                log.debug("aborting estimate task because terminate() was called: " + summary.getIdentifier());
-                return;
-            }
-            try {
-                if (summary == null) summary = storage.parseListLine(listLine);
-                syncEstimate.incTotalObjectCount(1);
-                if (syncConfig.getOptions().isRecursive() && summary.isDirectory()) {
-                    estimateQueryExecutor.blockingSubmit(() -> {
-                        log.debug("[est.]>>>> querying children of {}", summary.getIdentifier());
-                        for (ObjectSummary child : storage.children(summary)) {
-                            estimateExecutor.blockingSubmit(new EstimateTask(child, storage, syncEstimate));
-                        }
-                        log.debug("[est.]<<<< finished querying children of {}", summary.getIdentifier());
-                    });
-                } else {
-                    syncEstimate.incTotalByteCount(summary.getSize());
-                }
-            } catch (Throwable t) {
-                log.warn("unexpected exception", t);
-            }
-        }
-    }
 }
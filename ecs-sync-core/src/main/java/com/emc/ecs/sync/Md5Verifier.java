@@ -15,85 +15,27 @@
  */
 package com.emc.ecs.sync;
 
+import com.emc.ecs.sync.config.ChecksumAlgorithm;
 import com.emc.ecs.sync.config.SyncOptions;
 import com.emc.ecs.sync.model.SyncObject;
-import com.emc.ecs.sync.util.EnhancedThreadPoolExecutor;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
-import java.util.List;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Future;
-import java.util.concurrent.LinkedBlockingDeque;
-
-public class Md5Verifier implements SyncVerifier {
-    private static final Logger log = LoggerFactory.getLogger(Md5Verifier.class);
-
-    private ExecutorService executor;
-    private SyncOptions options;
 
+/**
+ * Always verifies using MD5, regardless of {@link SyncOptions#getChecksumAlgorithm()}
+ *
+ * @deprecated use {@link ChecksumVerifier}
+ */
+@Deprecated
+public class Md5Verifier extends ChecksumVerifier {
     public Md5Verifier(SyncOptions syncOptions) {
-        executor = new EnhancedThreadPoolExecutor(syncOptions.getThreadCount() * 2, new LinkedBlockingDeque<Runnable>(), "verify-pool");
-        this.options = syncOptions;
+        super(syncOptions);
     }
 
     @Override
-    public void verify(final SyncObject sourceObject, final SyncObject targetObject) {
-
-        // this implementation only verifies data objects
-        if (sourceObject.getMetadata().isDirectory()) {
-            if (!targetObject.getMetadata().isDirectory())
-                throw new RuntimeException("source is directory; target is not");
-        } else {
-            if (targetObject.getMetadata().isDirectory())
-                throw new RuntimeException("source is data object; target is directory");
-
-            // XXX: this method does not belong here - must find a different way to negotiate snapshots/versions
-            targetObject.compareSyncObject(sourceObject);
-
-            // thread the streams for efficiency (in case of verify-only)
-            Future<String> futureSourceMd5 = executor.submit(new Callable<String>() {
-                @Override
-                public String call() throws Exception {
-                    return getMd5HexForObject(sourceObject);
-                }
-            });
-            Future<String> futureTargetMd5 = executor.submit(new Callable<String>() {
-                @Override
-                public String call() throws Exception {
-                    return getMd5HexForObject(targetObject);
-                }
-            });
-
-            try {
-                String sourceMd5Hex = futureSourceMd5.get(), targetMd5Hex = futureTargetMd5.get();
-
-                if (!sourceMd5Hex.equals(targetMd5Hex))
-                    throw new RuntimeException(String.format("MD5 sum mismatch (%s != %s)", sourceMd5Hex, targetMd5Hex));
-                else
-                    log.debug("MD5 sum verified ({} == {})", sourceMd5Hex, targetMd5Hex);
-
-            } catch (Exception e) {
-                if (e instanceof RuntimeException) throw (RuntimeException) e;
-                throw new RuntimeException(e);
-            }
-        }
+    protected ChecksumAlgorithm selectAlgorithm(SyncObject sourceObject, SyncObject targetObject) {
+        return ChecksumAlgorithm.MD5;
     }
 
     protected String getMd5HexForObject(SyncObject object) {
-        if (options.isUseMetadataChecksumForVerification()
-                && object.getMetadata().getChecksum() != null
-                && object.getMetadata().getChecksum().getAlgorithm().equals("MD5")) {
-            return object.getMetadata().getChecksum().getHexValue();
-        } else {
-            return object.getMd5Hex(true);
-        }
-    }
-
-    @Override
-    public void close() throws Exception {
-        List<Runnable> tasks = executor.shutdownNow();
-        if (!tasks.isEmpty()) log.warn(tasks.size() + " verification tasks still running when closed");
+        return getChecksumHexForObject(object, ChecksumAlgorithm.MD5);
     }
 }
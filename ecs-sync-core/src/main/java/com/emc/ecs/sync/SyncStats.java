@@ -16,6 +16,7 @@
 package com.emc.ecs.sync;
 
 import com.emc.ecs.sync.model.FailedObject;
+import com.emc.ecs.sync.service.VerifySampleService;
 import com.emc.ecs.sync.util.PerformanceWindow;
 import com.sun.management.OperatingSystemMXBean;
 
@@ -40,6 +41,7 @@ public class SyncStats implements AutoCloseable {
     private long objectsCopySkipped;
     private long bytesCopySkipped;
     private SortedSet<FailedObject> failedObjects = Collections.synchronizedSortedSet(new TreeSet<>());
+    private VerifySampleService verifySampler;
     private final PerformanceWindow objectCompleteRate = new PerformanceWindow(500, 20);
     private final PerformanceWindow objectSkipRate = new PerformanceWindow(500, 20);
     private final PerformanceWindow objectErrorRate = new PerformanceWindow(500, 20);
@@ -72,6 +74,16 @@ public class SyncStats implements AutoCloseable {
         objectErrorRate.increment(1);
     }
 
+    /**
+     * Moves an object that was already counted as complete to the failed objects (i.e. when its data was buffered by
+     * the target, but could not be written later)
+     */
+    public synchronized void failCompletedObject(long bytes) {
+        objectsComplete--;
+        bytesComplete -= bytes;
+        incObjectsFailed();
+    }
+
     public synchronized void incObjectsCopySkipped() {
         objectsCopySkipped++;
     }
@@ -143,7 +155,16 @@ public class SyncStats implements AutoCloseable {
                 bytesComplete, secs, byteRate, bytesSkipped) +
                 MessageFormat.format("Successful files: {0} ({2,number,#.##}/s) Skipped files: {3} Failed Files: {1}\n",
                         objectsComplete, objectsFailed, objectRate, objectsSkipped) +
-                MessageFormat.format("Failed files: {0}\n", failedObjects);
+                MessageFormat.format("Failed files: {0}\n", failedObjects) +
+                (verifySampler != null ? verifySampler.getSummary() : "");
+    }
+
+    public VerifySampleService getVerifySampler() {
+        return verifySampler;
+    }
+
+    public void setVerifySampler(VerifySampleService verifySampler) {
+        this.verifySampler = verifySampler;
     }
 
     public long getObjectsComplete() {
@@ -19,15 +19,23 @@ import com.emc.ecs.sync.filter.SyncFilter;
 import com.emc.ecs.sync.model.*;
 import com.emc.ecs.sync.service.DbService;
 import com.emc.ecs.sync.service.SyncRecord;
+import com.emc.ecs.sync.service.VerifySampleService;
 import com.emc.ecs.sync.storage.SyncStorage;
 import com.emc.ecs.sync.util.SyncUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Date;
+import java.util.concurrent.CompletableFuture;
 
 public class SyncTask implements Runnable {
     public static final String PROP_FAILURE_COUNT = "syncTask.failureCount";
+    /**
+     * A target that acknowledges an object before it is stored (i.e. when it is buffered) sets this property on the
+     * object to a CompletableFuture that completes when the object is stored. The object is only recorded as
+     * transferred when the future completes (or as an error if it completes exceptionally)
+     */
+    public static final String PROP_PENDING_WRITE = "syncTask.pendingWrite";
 
     private static final Logger log = LoggerFactory.getLogger(SyncTask.class);
 
@@ -39,6 +47,8 @@ public class SyncTask implements Runnable {
     private RetryHandler retryHandler;
     private SyncControl syncControl;
     private SyncStats syncStats;
+    private CompletionHandler completionHandler;
+    private VerifySampleService verifySampler;
 
     public SyncTask(ObjectContext objectContext, SyncStorage source, SyncFilter filterChain,
                     SyncVerifier verifier, DbService dbService, RetryHandler retryHandler, SyncControl syncControl,
@@ -65,6 +75,8 @@ public class SyncTask implements Runnable {
         boolean recordExists = false;
         boolean copySkipped = false;
         boolean verifySkipped = false;
+        boolean retrying = false;
+        CompletableFuture<Void> pendingDelete = null;
         SyncRecord record;
         try {
             dbService.lock(sourceId);
@@ -103,8 +115,14 @@ public class SyncTask implements Runnable {
                         else
                             log.info("O--O finished syncing object {} ({} bytes transferred)", sourceId, objectContext.getObject().getBytesRead());
 
-                        objectContext.setStatus(ObjectStatus.Transferred);
-                        dbService.setStatus(objectContext, null, false);
+                        CompletableFuture<?> pendingWrite = (CompletableFuture<?>) objectContext.getObject().getProperty(PROP_PENDING_WRITE);
+                        if (pendingWrite != null) {
+                            // the record stays InTransfer until the object is stored, so it is synced again if it is lost
+                            pendingWrite.whenComplete((result, t) -> writeComplete(sourceId, t));
+                        } else {
+                            objectContext.setStatus(ObjectStatus.Transferred);
+                            dbService.setStatus(objectContext, null, false);
+                        }
                     } catch (SkipObjectException e) {
                         log.info("O--* skipping(copy) {}: {}", sourceId, e.getMessage());
                         copySkipped = true;
@@ -114,6 +132,7 @@ public class SyncTask implements Runnable {
                         // make sure this reference to the object is closed before the retry re-opens it
                         if (objectContext.getObject() != null) objectContext.getObject().close();
                         retryHandler.submitForRetry(source, objectContext, t);
+                        retrying = true;
                         return;
                     }
                 } else {
@@ -123,8 +142,17 @@ public class SyncTask implements Runnable {
             }
 
             if (objectContext.getOptions().isVerify() || objectContext.getOptions().isVerifyOnly()) {
-                if (record == null || objectContext.getOptions().isForceSync() || record.getStatus() != ObjectStatus.Verified
-                        || (mtime != null && record.getMtime() != null && mtime.after(record.getMtime()))) {
+                boolean verifyObject;
+                if (verifySampler != null) {
+                    // in sampling mode, the sample decides (even if the object was verified before)
+                    if (objectContext.getVerifySampled() == null)
+                        objectContext.setVerifySampled(verifySampler.isSampled(sourceId, metadata.getContentLength()));
+                    verifyObject = objectContext.getVerifySampled();
+                } else {
+                    verifyObject = record == null || objectContext.getOptions().isForceSync() || record.getStatus() != ObjectStatus.Verified
+                            || (mtime != null && record.getMtime() != null && mtime.after(record.getMtime()));
+                }
+                if (verifyObject) {
 
                     log.debug("O==? verifying {} {}", sourceId, metadata.isDirectory() ? "directory" : "object");
 
@@ -154,28 +182,49 @@ public class SyncTask implements Runnable {
                         }
 
                     } catch (Throwable t) {
-                        if (!objectContext.getOptions().isVerifyOnly()) { // if we just copied the data and verification failed, we should retry
-                            // make sure this reference to the object is closed before the retry re-opens it
-                            if (objectContext.getObject() != null) objectContext.getObject().close();
-                            retryHandler.submitForRetry(source, objectContext, t);
-                            return;
-                        } else throw t;
+                        try {
+                            if (!objectContext.getOptions().isVerifyOnly()) { // if we just copied the data and verification failed, we should retry
+                                // make sure this reference to the object is closed before the retry re-opens it
+                                if (objectContext.getObject() != null) objectContext.getObject().close();
+                                retryHandler.submitForRetry(source, objectContext, t);
+                                retrying = true;
+                                return;
+                            } else throw t;
+                        } catch (Throwable t2) {
+                            // no more retries; this is the final result for the sample
+                            if (verifySampler != null) verifySampler.recordResult(sourceId, metadata.getContentLength(), false);
+                            throw t2;
+                        }
                     }
 
+                    if (verifySampler != null) verifySampler.recordResult(sourceId, metadata.getContentLength(), true);
                     log.info("O==O verification successful for {}", sourceId);
                     objectContext.setStatus(ObjectStatus.Verified);
                     dbService.setStatus(objectContext, null, false);
                 } else {
                     verifySkipped = true;
-                    log.info("O==* skipping {} because it has already been verified", sourceId);
+                    if (verifySampler != null) log.info("O==* skipping(verify) {} because it is not in the sample", sourceId);
+                    else log.info("O==* skipping {} because it has already been verified", sourceId);
                 }
             }
 
             try { // delete object if the source supports deletion (implements the delete() method)
                 if (objectContext.getOptions().isDeleteSource()) {
-                    source.delete(sourceId, objectContext.getObject());
-                    log.info("X--O deleted {} from source", sourceId);
-                    dbService.setDeleted(objectContext, !recordExists);
+                    // a batched delete completes after this task, so the DB is only updated once the object is gone
+                    // (the object stays locked and open until then; see the finally block)
+                    final boolean insertRecord = !recordExists;
+                    pendingDelete = source.deleteAsync(sourceId, objectContext.getObject()).whenComplete((result, t) -> {
+                        if (t != null) {
+                            log.warn("!--O could not delete {} from source: {}", sourceId, t);
+                            return;
+                        }
+                        log.info("X--O deleted {} from source", sourceId);
+                        try {
+                            dbService.setDeleted(objectContext, insertRecord);
+                        } catch (Throwable t2) {
+                            log.warn("error setting DB status", t2);
+                        }
+                    });
                 }
             } catch (Throwable t) {
                 log.warn("!--O could not delete {} from source: {}", sourceId, t);
@@ -213,13 +262,40 @@ public class SyncTask implements Runnable {
             }
 
         } finally {
-            dbService.unlock(sourceId);
-            try {
-                // be sure to close all object resources
-                if (objectContext.getObject() != null) objectContext.getObject().close();
-            } catch (Throwable t) {
-                log.warn("could not close object resources", t);
+            if (pendingDelete != null) pendingDelete.whenComplete((result, t) -> release(sourceId));
+            else release(sourceId);
+            if (!retrying && completionHandler != null) {
+                try {
+                    completionHandler.objectComplete(objectContext);
+                } catch (Throwable t) {
+                    log.warn("completion handler failed for " + sourceId, t);
+                }
+            }
+        }
+    }
+
+    private void writeComplete(String sourceId, Throwable t) {
+        try {
+            if (t == null) {
+                objectContext.setStatus(ObjectStatus.Transferred);
+                dbService.setStatus(objectContext, null, false);
+            } else {
+                log.warn("O--! object " + sourceId + " was not stored", SyncUtil.getCause(t));
+                objectContext.setStatus(ObjectStatus.Error);
+                dbService.setStatus(objectContext, SyncUtil.summarize(t), false);
             }
+        } catch (Throwable t2) {
+            log.warn("error setting DB status", t2);
+        }
+    }
+
+    private void release(String sourceId) {
+        dbService.unlock(sourceId);
+        try {
+            // be sure to close all object resources
+            if (objectContext.getObject() != null) objectContext.getObject().close();
+        } catch (Throwable t) {
+            log.warn("could not close object resources", t);
         }
     }
 
@@ -254,4 +330,26 @@ public class SyncTask implements Runnable {
     public SyncStats getSyncStats() {
         return syncStats;
     }
+
+    public CompletionHandler getCompletionHandler() {
+        return completionHandler;
+    }
+
+    /**
+     * Optional handler that is notified once the object has reached a final state
+     */
+    public void setCompletionHandler(CompletionHandler completionHandler) {
+        this.completionHandler = completionHandler;
+    }
+
+    public VerifySampleService getVerifySampler() {
+        return verifySampler;
+    }
+
+    /**
+     * Optional sampler that decides which objects are verified (sampling mode)
+     */
+    public void setVerifySampler(VerifySampleService verifySampler) {
+        this.verifySampler = verifySampler;
+    }
 }
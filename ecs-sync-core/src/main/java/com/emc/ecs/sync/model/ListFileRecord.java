@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2026 Dell Inc. or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.emc.ecs.sync.model;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable, parsed form of a source list file row. Rows are parsed as a single CSV record with the same rules as
+ * Commons CSV's <code>CSVFormat.EXCEL</code> (comma delimited, double-quote encapsulation with doubled quotes as
+ * escapes, no trimming), but with a single pass over the row and no intermediate reader or lexer objects.
+ * <p>
+ * Use {@link ObjectSummary#getListFileRecord()} to get the (lazily parsed) record for an object, so that the row is
+ * only parsed once no matter how many plugins need it.
+ */
+public final class ListFileRecord {
+    private static final char DELIMITER = ',';
+    private static final char QUOTE = '"';
+
+    /**
+     * Parses a list file row into a record
+     *
+     * @throws IllegalArgumentException if the row is not valid CSV (i.e. an unterminated quoted value, or characters
+     *                                  between a closing quote and the next delimiter)
+     */
+    public static ListFileRecord parse(String row) {
+        if (row == null) throw new NullPointerException("row is null");
+
+        String[] values = new String[8];
+        int count = 0, length = row.length(), i = 0;
+        StringBuilder quoted = null;
+        while (true) {
+            String value;
+            if (i < length && row.charAt(i) == QUOTE) {
+                // encapsulated value
+                if (quoted == null) quoted = new StringBuilder();
+                else quoted.setLength(0);
+                i++;
+                while (true) {
+                    if (i >= length)
+                        throw new IllegalArgumentException("EOF reached before encapsulated token finished: " + row);
+                    char c = row.charAt(i++);
+                    if (c == QUOTE) {
+                        if (i < length && row.charAt(i) == QUOTE) { // escaped quote
+                            quoted.append(QUOTE);
+                            i++;
+                        } else break;
+                    } else quoted.append(c);
+                }
+                // only whitespace is allowed until the next delimiter
+                while (i < length && row.charAt(i) != DELIMITER && !isEndOfLine(row.charAt(i))) {
+                    if (!Character.isWhitespace(row.charAt(i)))
+                        throw new IllegalArgumentException("invalid char between encapsulated token and delimiter: " + row);
+                    i++;
+                }
+                value = quoted.toString();
+            } else {
+                // simple value (quotes inside are literal)
+                int start = i;
+                while (i < length && row.charAt(i) != DELIMITER && !isEndOfLine(row.charAt(i))) i++;
+                value = row.substring(start, i);
+            }
+
+            if (count == values.length) values = Arrays.copyOf(values, count * 2);
+            values[count++] = value;
+
+            if (i < length && row.charAt(i) == DELIMITER) i++; // next value (a trailing delimiter means an empty value)
+            else break; // end of row
+        }
+        return new ListFileRecord(row, count == values.length ? values : Arrays.copyOf(values, count));
+    }
+
+    private static boolean isEndOfLine(char c) {
+        return c == '\n' || c == '\r';
+    }
+
+    private final String row;
+    private final String[] values;
+
+    private ListFileRecord(String row, String[] values) {
+        this.row = row;
+        this.values = values;
+    }
+
+    /**
+     * The original (unparsed) row
+     */
+    public String getRow() {
+        return row;
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * @throws ArrayIndexOutOfBoundsException if the record has no value at the index
+     */
+    public String get(int index) {
+        return values[index];
+    }
+
+    public List<String> getValues() {
+        return Collections.unmodifiableList(Arrays.asList(values));
+    }
+
+    @Override
+    public String toString() {
+        return "ListFileRecord" + Arrays.toString(values);
+    }
+}
@@ -30,6 +30,7 @@ public class ObjectContext {
     private ObjectStatus status;
     private AtomicInteger failures = new AtomicInteger();
     private SyncOptions options;
+    private Boolean verifySampled;
 
     public ObjectSummary getSourceSummary() {
         return sourceSummary;
@@ -95,6 +96,18 @@ public class ObjectContext {
         failures.incrementAndGet();
     }
 
+    /**
+     * Whether the object was selected for verification in sampling mode (null if not yet decided). This is kept across
+     * retries, so a retried object is not sampled twice
+     */
+    public Boolean getVerifySampled() {
+        return verifySampled;
+    }
+
+    public void setVerifySampled(Boolean verifySampled) {
+        this.verifySampled = verifySampled;
+    }
+
     public SyncOptions getOptions() {
         return options;
     }
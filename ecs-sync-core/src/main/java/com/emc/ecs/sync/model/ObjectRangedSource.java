@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2026 Dell Inc. or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.emc.ecs.sync.model;
+
+import com.emc.ecs.sync.config.ChecksumAlgorithm;
+import com.emc.ecs.sync.util.ChecksumEngine;
+import com.emc.ecs.sync.config.SyncOptions;
+import com.emc.ecs.sync.util.EnhancedInputStream;
+import com.emc.ecs.sync.util.MultipartMd5InputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Wraps the {@link RangedSource} of a {@link SyncObject}, so that every range stream is throttled, counted in the
+ * source read window and the object's bytes-read, and checksummed. The checksums of completely read ranges are kept,
+ * so the object checksum can be composed after a parallel transfer.
+ */
+class ObjectRangedSource implements RangedSource {
+    private final SyncObject object;
+    private final RangedSource delegate;
+    private final NavigableMap<Long, CompletedRange> completedRanges = new ConcurrentSkipListMap<>();
+
+    ObjectRangedSource(SyncObject object, RangedSource delegate) {
+        this.object = object;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public long getTotalSize() {
+        return delegate.getTotalSize();
+    }
+
+    @Override
+    public InputStream getRangeStream(final long offset, final long length) {
+        final Set<ChecksumAlgorithm> algorithms = object.getStreamChecksums();
+        SyncOptions options = object.getSource() == null ? null : object.getSource().getOptions();
+        // range MD5s are needed to compare with the multipart ETag of the target
+        if (options != null && options.isVerify() && options.isUseMetadataChecksumForVerification())
+            algorithms.add(ChecksumAlgorithm.MD5);
+        InputStream rangeStream = object.wrapSourceStream(delegate.getRangeStream(offset, length));
+        return new EnhancedInputStream(rangeStream, length, algorithms) {
+            @Override
+            public synchronized void close() throws IOException {
+                boolean wasClosed = isClosed();
+                super.close();
+                if (!wasClosed) {
+                    Map<ChecksumAlgorithm, byte[]> checksums = new EnumMap<>(ChecksumAlgorithm.class);
+                    for (ChecksumAlgorithm algorithm : algorithms) {
+                        checksums.put(algorithm, getDigest(algorithm));
+                    }
+                    rangeClosed(offset, length, getBytesRead(), checksums);
+                }
+            }
+        };
+    }
+
+    private void rangeClosed(long offset, long length, long bytesRead, Map<ChecksumAlgorithm, byte[]> checksums) {
+        synchronized (object) {
+            // ranges may be read again (i.e. when a part is retried), so do not count more than the object size
+            object.setBytesRead(Math.min(object.getBytesRead() + bytesRead, getTotalSize()));
+        }
+        if (bytesRead == length) completedRanges.put(offset, new CompletedRange(length, checksums));
+    }
+
+    /**
+     * @return the checksum of the object data if it was read completely as a single range, or as consecutive ranges
+     * and the algorithm is combinable (see {@link ChecksumEngine#combine}), otherwise null
+     */
+    byte[] getChecksum(ChecksumAlgorithm algorithm) {
+        List<CompletedRange> ranges = getTilingRanges();
+        if (ranges == null) return null;
+        for (CompletedRange range : ranges) {
+            if (!range.checksums.containsKey(algorithm)) return null;
+        }
+        if (ranges.size() == 1) return ranges.get(0).checksums.get(algorithm);
+        if (!ChecksumEngine.isCombinable(algorithm)) return null;
+        List<byte[]> partChecksums = new ArrayList<>();
+        List<Long> partLengths = new ArrayList<>();
+        for (CompletedRange range : ranges) {
+            partChecksums.add(range.checksums.get(algorithm));
+            partLengths.add(range.length);
+        }
+        return ChecksumEngine.combine(algorithm, partChecksums, partLengths);
+    }
+
+    /**
+     * @return the composite checksum of the completed ranges in multipart ETag format (the MD5 of the concatenated
+     * range MD5s, followed by "-" and the number of ranges), or null if the ranges do not exactly cover the object
+     */
+    String getCompositeMd5Hex() {
+        List<CompletedRange> ranges = getTilingRanges();
+        if (ranges == null) return null;
+        List<byte[]> partMd5s = new ArrayList<>();
+        for (CompletedRange range : ranges) {
+            byte[] md5 = range.checksums.get(ChecksumAlgorithm.MD5);
+            if (md5 == null) return null;
+            partMd5s.add(md5);
+        }
+        return MultipartMd5InputStream.compositeMd5Hex(partMd5s);
+    }
+
+    /**
+     * @return the completed ranges in order, if they exactly cover the object, otherwise null
+     */
+    private List<CompletedRange> getTilingRanges() {
+        if (completedRanges.isEmpty()) return null;
+        List<CompletedRange> ranges = new ArrayList<>();
+        long nextOffset = 0;
+        for (Map.Entry<Long, CompletedRange> entry : completedRanges.entrySet()) {
+            if (entry.getKey() != nextOffset) return null;
+            ranges.add(entry.getValue());
+            nextOffset += entry.getValue().length;
+        }
+        if (nextOffset != getTotalSize()) return null;
+        return ranges;
+    }
+
+    private static class CompletedRange {
+        final long length;
+        final Map<ChecksumAlgorithm, byte[]> checksums;
+
+        CompletedRange(long length, Map<ChecksumAlgorithm, byte[]> checksums) {
+            this.length = length;
+            this.checksums = checksums;
+        }
+    }
+}
@@ -20,6 +20,7 @@ public class ObjectSummary {
     private final boolean directory;
     private final long size;
     private String listFileRow;
+    private volatile ListFileRecord listFileRecord;
     private long listRowNum = -1; // -1 means there was no list, or we do not know the line number
 
     public ObjectSummary(String identifier, boolean directory, long size) {
@@ -50,6 +51,30 @@ public class ObjectSummary {
 
     public void setListFileRow(String listFileRow) {
         this.listFileRow = listFileRow;
+        this.listFileRecord = null;
+    }
+
+    /**
+     * The parsed form of {@link #getListFileRow()} (or null if there is no list file row). The row is parsed the first
+     * time this is called and the record is shared by all plugins
+     *
+     * @throws IllegalArgumentException if the row is not valid CSV
+     */
+    public ListFileRecord getListFileRecord() {
+        ListFileRecord record = listFileRecord;
+        if (record == null && listFileRow != null) {
+            record = ListFileRecord.parse(listFileRow);
+            listFileRecord = record;
+        }
+        return record;
+    }
+
+    /**
+     * Sets an already parsed list file record (and its row)
+     */
+    public void setListFileRecord(ListFileRecord listFileRecord) {
+        this.listFileRow = listFileRecord == null ? null : listFileRecord.getRow();
+        this.listFileRecord = listFileRecord;
     }
 
     /**
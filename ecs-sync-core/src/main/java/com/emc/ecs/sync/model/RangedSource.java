@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2026 Dell Inc. or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.emc.ecs.sync.model;
+
+import java.io.InputStream;
+
+/**
+ * Random access to the data of an object, so that targets can read parts of it in parallel (i.e. for multipart
+ * uploads). Storage plugins that support ranged reads (positional file reads, HTTP range requests, etc.) should set
+ * one on the objects they load (see {@link SyncObject#setRangedSource(RangedSource)}).
+ * <p>
+ * Implementations must be thread-safe and should return the raw data; throttling, performance windows and checksums
+ * are applied by the {@link SyncObject}.
+ */
+public interface RangedSource {
+    /**
+     * @return the total size of the object data
+     */
+    long getTotalSize();
+
+    /**
+     * @return a stream of <code>length</code> bytes of the object data, starting at <code>offset</code>. The caller
+     * is responsible for closing the stream
+     */
+    InputStream getRangeStream(long offset, long length);
+}
@@ -15,6 +15,8 @@
  */
 package com.emc.ecs.sync.model;
 
+import com.emc.ecs.sync.config.ChecksumAlgorithm;
+import com.emc.ecs.sync.config.SyncOptions;
 import com.emc.ecs.sync.storage.SyncStorage;
 import com.emc.ecs.sync.util.*;
 import com.emc.object.util.ProgressInputStream;
@@ -23,8 +25,7 @@ import org.slf4j.LoggerFactory;
 
 import javax.xml.bind.DatatypeConverter;
 import java.io.InputStream;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
 
 public class SyncObject implements AutoCloseable {
     private static final Logger log = LoggerFactory.getLogger(SyncObject.class);
@@ -36,9 +37,14 @@ public class SyncObject implements AutoCloseable {
     private ObjectAcl acl;
     private boolean postStreamUpdateRequired;
     private Map<String, Object> properties = new HashMap<>();
-    private byte[] md5;
+    private final Map<ChecksumAlgorithm, byte[]> checksums = new EnumMap<>(ChecksumAlgorithm.class);
+    private final Set<ChecksumAlgorithm> requestedChecksums = EnumSet.noneOf(ChecksumAlgorithm.class);
     private LazyValue<InputStream> lazyStream;
     private LazyValue<ObjectAcl> lazyAcl;
+    private LazyChecksum lazyChecksum;
+    private RangedSource rangedSource;
+    private ObjectRangedSource objectRangedSource;
+    private String compositeMd5Hex;
     private long bytesRead;
 
     public SyncObject(SyncStorage<?> source, String relativePath, ObjectMetadata metadata) {
@@ -101,8 +107,93 @@ public class SyncObject implements AutoCloseable {
         }
     }
 
+    /**
+     * Replaces the data stream with data that was already read from the source through {@link #getDataStream()} (i.e.
+     * read ahead into memory). Unlike {@link #setDataStream(InputStream)}, the stream is not counted in the source read
+     * rate or throttled a second time
+     */
+    public void setPrefetchedDataStream(InputStream dataStream) {
+        enhancedStream = new EnhancedInputStream(dataStream, EnhancedInputStream.UNSIZED, getStreamChecksums());
+    }
+
     public void setLazyStream(LazyValue<InputStream> lazyStream) {
         this.lazyStream = lazyStream;
+        // a checksum or ranged source supplied for the previous stream no longer applies
+        this.lazyChecksum = null;
+        setRangedSource(null);
+    }
+
+    /**
+     * Returns true if the data stream has been opened or replaced (i.e. by a filter). Storage plugins that can move
+     * the object data without going through the stream (i.e. a zero-copy file transfer) must only do so when this
+     * is false.
+     */
+    public synchronized boolean isDataStreamInitialized() {
+        return enhancedStream != null;
+    }
+
+    /**
+     * Sets a lazy checksum for storage plugins that can calculate the checksum of the object data more efficiently
+     * than reading it through the data stream. This is only used if the data stream is never opened. Note that
+     * setting a new lazy stream will clear this value.
+     */
+    public void setLazyChecksum(LazyChecksum lazyChecksum) {
+        this.lazyChecksum = lazyChecksum;
+    }
+
+    /**
+     * Storage plugins that transfer the object data without reading the data stream (and calculate a checksum while
+     * doing so) should set it here. Only valid if the data stream has not been opened
+     */
+    public synchronized void setChecksum(ChecksumAlgorithm algorithm, byte[] checksum) {
+        if (enhancedStream != null) throw new IllegalStateException("the data stream has already been opened");
+        checksums.put(algorithm, checksum);
+    }
+
+    /**
+     * Returns a ranged source for the object data, which allows a target to read parts of the object in parallel, or
+     * null if the source storage does not support ranged reads or the data stream has been opened or replaced (i.e.
+     * by a filter). Ranges read from the returned source are throttled, counted in the source read window and the
+     * object's bytes-read, and checksummed just like the data stream.
+     * <p>
+     * If the object is read as a single range, its checksums are available as usual after the transfer. If it is read
+     * in multiple ranges, combinable checksums (CRC32C) are still available, and the MD5s of the ranges are available
+     * from {@link #getCompositeMd5Hex()}.
+     */
+    public synchronized RangedSource getRangedSource() {
+        if (rangedSource == null || enhancedStream != null) return null;
+        if (objectRangedSource == null) objectRangedSource = new ObjectRangedSource(this, rangedSource);
+        return objectRangedSource;
+    }
+
+    /**
+     * Storage plugins that support ranged reads of the object data should set a ranged source on the objects they load.
+     * Note that setting a new lazy stream will clear this value.
+     */
+    public synchronized void setRangedSource(RangedSource rangedSource) {
+        this.rangedSource = rangedSource;
+        this.objectRangedSource = null;
+    }
+
+    /**
+     * Returns the composite checksum of the object data in multipart ETag format (hex MD5 of the concatenated part
+     * MD5s, followed by "-" and the number of parts), as set by the target storage after a multipart upload, or as
+     * calculated from the ranges read from the ranged source. Returns null if neither is available, or the ranges read
+     * do not exactly cover the object.
+     */
+    public synchronized String getCompositeMd5Hex() {
+        if (compositeMd5Hex != null) return compositeMd5Hex;
+        if (objectRangedSource == null) return null;
+        return objectRangedSource.getCompositeMd5Hex();
+    }
+
+    /**
+     * Target storage plugins that upload the object data in parts (and calculate the part MD5s while doing so, see
+     * {@link com.emc.ecs.sync.util.MultipartMd5InputStream}) should set the resulting multipart ETag here, so that
+     * verification can compare it to the ETag of the target object instead of reading the data back
+     */
+    public synchronized void setCompositeMd5Hex(String compositeMd5Hex) {
+        this.compositeMd5Hex = compositeMd5Hex;
     }
 
     public synchronized ObjectAcl getAcl() {
@@ -172,11 +263,41 @@ public class SyncObject implements AutoCloseable {
     }
 
     public String getMd5Hex(boolean forceRead) {
-        byte[] md5 = getMd5(forceRead);
+        byte[] md5 = getChecksum(ChecksumAlgorithm.MD5, forceRead);
         if (md5 == null) return null;
         return DatatypeConverter.printHexBinary(md5);
     }
 
+    /**
+     * Returns the checksum of the object data in the specified algorithm. If <code>forceRead</code> is true and the
+     * data has not been read yet, it will be read (or the storage will be asked for the checksum, if it can provide
+     * one more efficiently). Note that MD5 delegates to {@link #getMd5Hex(boolean)}, so subclasses that aggregate
+     * MD5s (i.e. for versions) keep working.
+     */
+    public String getChecksumHex(ChecksumAlgorithm algorithm, boolean forceRead) {
+        if (algorithm == ChecksumAlgorithm.MD5) return getMd5Hex(forceRead);
+        byte[] checksum = getChecksum(algorithm, forceRead);
+        if (checksum == null) return null;
+        return DatatypeConverter.printHexBinary(checksum);
+    }
+
+    /**
+     * Subclasses that can only provide (aggregated) MD5 checksums should override this
+     */
+    public boolean isChecksumSupported(ChecksumAlgorithm algorithm) {
+        return true;
+    }
+
+    /**
+     * Returns true if the checksum can still be provided, i.e. it was calculated, the data has not been read yet, or
+     * the storage can supply it. Returns false if the data was streamed without calculating this checksum.
+     */
+    public synchronized boolean isChecksumAvailable(ChecksumAlgorithm algorithm) {
+        if (!isChecksumSupported(algorithm)) return false;
+        if (checksums.containsKey(algorithm) || enhancedStream == null) return true;
+        return enhancedStream.isChecksumEnabled(algorithm) || enhancedStream.getBytesRead() == 0 && !enhancedStream.isClosed();
+    }
+
     @Override
     public void close() throws Exception {
         try {
@@ -202,21 +323,70 @@ public class SyncObject implements AutoCloseable {
         return relativePath.hashCode();
     }
 
-    private synchronized byte[] getMd5(boolean forceRead) {
-        if (md5 == null) {
-            if (forceRead) getDataStream(); // make sure lazy streams are initialized
+    private synchronized byte[] getChecksum(ChecksumAlgorithm algorithm, boolean forceRead) {
+        byte[] checksum = checksums.get(algorithm);
+        if (checksum == null) {
+            if (enhancedStream == null && objectRangedSource != null) {
+                // the data may have been read from the ranged source
+                checksum = objectRangedSource.getChecksum(algorithm);
+                if (checksum != null) {
+                    checksums.put(algorithm, checksum);
+                    return checksum;
+                }
+            }
+            if (forceRead && enhancedStream == null && lazyChecksum != null) {
+                // the stream was never read (i.e. the data was transferred directly), so ask the storage instead
+                checksum = lazyChecksum.get(algorithm);
+                checksums.put(algorithm, checksum);
+                return checksum;
+            }
+            if (forceRead) {
+                requestedChecksums.add(algorithm);
+                getDataStream(); // make sure lazy streams are initialized
+            }
             if (enhancedStream == null) return null;
+            if (!enhancedStream.enableChecksum(algorithm)) {
+                // the data was streamed without this checksum
+                if (forceRead) throw new IllegalStateException(algorithm + " checksum was not calculated for this object");
+                return null;
+            }
             if (!enhancedStream.isClosed()) {
                 if (!forceRead || enhancedStream.getBytesRead() > 0)
                     throw new IllegalStateException("Cannot call getMd5 until stream is closed");
                 SyncUtil.consumeAndCloseStream(enhancedStream);
             }
-            md5 = enhancedStream.getMd5Digest();
+            checksum = enhancedStream.getDigest(algorithm);
+            checksums.put(algorithm, checksum);
         }
-        return md5;
+        return checksum;
     }
 
     private void wrap(InputStream dataStream) {
+        enhancedStream = new EnhancedInputStream(wrapSourceStream(dataStream), EnhancedInputStream.UNSIZED, getStreamChecksums());
+    }
+
+    /**
+     * Returns the checksums to calculate while streaming the object data: the configured checksum algorithm (MD5 by
+     * default), MD5 if it is recorded in the database or the object only supports MD5, and any checksum that was
+     * requested before the data was read
+     */
+    synchronized Set<ChecksumAlgorithm> getStreamChecksums() {
+        Set<ChecksumAlgorithm> algorithms = EnumSet.copyOf(requestedChecksums);
+        SyncOptions options = source == null ? null : source.getOptions();
+        if (options == null || options.getChecksumAlgorithm() == null) {
+            algorithms.add(ChecksumAlgorithm.MD5);
+        } else {
+            algorithms.add(options.getChecksumAlgorithm());
+            if (options.isDbEnhancedDetailsEnabled() || !isChecksumSupported(options.getChecksumAlgorithm()))
+                algorithms.add(ChecksumAlgorithm.MD5);
+        }
+        return algorithms;
+    }
+
+    /**
+     * Applies the source read window and bandwidth throttle to a stream of the object data
+     */
+    InputStream wrapSourceStream(InputStream dataStream) {
         if (source != null) {
             if (source.getOptions().isMonitorPerformance())
                 dataStream = new ProgressInputStream(dataStream, new PerformanceListener(source.getReadWindow()));
@@ -224,8 +394,7 @@ public class SyncObject implements AutoCloseable {
             // apply bandwidth throttle if necessary
             dataStream = SyncUtil.throttleStream(dataStream, source.getSyncJob());
         }
-
-        enhancedStream = new EnhancedInputStream(dataStream, true);
+        return dataStream;
     }
 
     public SyncObject withAcl(ObjectAcl acl) {
@@ -243,5 +412,15 @@ public class SyncObject implements AutoCloseable {
         return this;
     }
 
+    public SyncObject withLazyChecksum(LazyChecksum lazyChecksum) {
+        setLazyChecksum(lazyChecksum);
+        return this;
+    }
+
+    public SyncObject withRangedSource(RangedSource rangedSource) {
+        setRangedSource(rangedSource);
+        return this;
+    }
+
     public void compareSyncObject(SyncObject syncObject) {}
 }
@@ -0,0 +1,252 @@
+/*
+ * Copyright (c) 2026 Dell Inc. or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.emc.ecs.sync.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Persists the state of in-progress multipart uploads (MPUs), so an interrupted upload can be resumed by a later
+ * attempt or a restarted job instead of starting over. An uploads table (next to the objects table) maps each source
+ * object (by source ID, like the objects table) to its upload ID, and a parts table records the ETag of every part
+ * that was uploaded. An upload's state is removed when it is completed or aborted.
+ * <p>
+ * The tracked upload IDs also tell which MPUs under the target are still in use by the job, so any others can be
+ * aborted as stale.
+ */
+public class MultipartUploadStateService {
+    private static final Logger log = LoggerFactory.getLogger(MultipartUploadStateService.class);
+
+    public static final String UPLOADS_TABLE_SUFFIX = "_mpu_uploads";
+    public static final String PARTS_TABLE_SUFFIX = "_mpu_parts";
+
+    private final AbstractDbService dbService;
+    private final String uploadsTable;
+    private final String partsTable;
+    private volatile boolean started;
+
+    public MultipartUploadStateService(AbstractDbService dbService) {
+        this.dbService = dbService;
+        this.uploadsTable = dbService.getObjectsTableName() + UPLOADS_TABLE_SUFFIX;
+        this.partsTable = dbService.getObjectsTableName() + PARTS_TABLE_SUFFIX;
+    }
+
+    public synchronized void start() {
+        if (started) return;
+        dbService.initCheck();
+        createTables();
+        started = true;
+    }
+
+    protected void createTables() {
+        try {
+            if (isMySql()) {
+                getJdbcTemplate().update("CREATE TABLE IF NOT EXISTS " + uploadsTable + " (" +
+                        "source_id VARCHAR(750) PRIMARY KEY NOT NULL," +
+                        "target_key VARCHAR(1024) NOT NULL," +
+                        "upload_id VARCHAR(512) NOT NULL," +
+                        "total_size BIGINT NOT NULL," +
+                        "part_size BIGINT NOT NULL," +
+                        "source_mtime BIGINT NOT NULL," +
+                        "initiated BIGINT NOT NULL," +
+                        "INDEX " + uploadsTable + "_upload_idx (upload_id)" +
+                        ") ENGINE=InnoDB ROW_FORMAT=COMPRESSED");
+                getJdbcTemplate().update("CREATE TABLE IF NOT EXISTS " + partsTable + " (" +
+                        "upload_id VARCHAR(512) NOT NULL," +
+                        "part_number INT NOT NULL," +
+                        "etag VARCHAR(128) NOT NULL," +
+                        "PRIMARY KEY (upload_id, part_number)" +
+                        ") ENGINE=InnoDB ROW_FORMAT=COMPRESSED");
+            } else {
+                getJdbcTemplate().update("CREATE TABLE IF NOT EXISTS " + uploadsTable + " (" +
+                        "source_id VARCHAR(1500) PRIMARY KEY NOT NULL," +
+                        "target_key VARCHAR(1024) NOT NULL," +
+                        "upload_id VARCHAR(512) NOT NULL," +
+                        "total_size BIGINT NOT NULL," +
+                        "part_size BIGINT NOT NULL," +
+                        "source_mtime BIGINT NOT NULL," +
+                        "initiated BIGINT NOT NULL" +
+                        ")");
+                getJdbcTemplate().update("CREATE INDEX IF NOT EXISTS " + uploadsTable + "_upload_idx ON " + uploadsTable + " (upload_id)");
+                getJdbcTemplate().update("CREATE TABLE IF NOT EXISTS " + partsTable + " (" +
+                        "upload_id VARCHAR(512) NOT NULL," +
+                        "part_number INT NOT NULL," +
+                        "etag VARCHAR(128) NOT NULL," +
+                        "PRIMARY KEY (upload_id, part_number)" +
+                        ")");
+            }
+        } catch (RuntimeException e) {
+            log.error("could not create MPU state tables {}/{}. note: name may only contain alphanumeric or underscore",
+                    uploadsTable, partsTable);
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the upload recorded for the source object (including its uploaded parts), or null if there is none
+     */
+    public MultipartUploadState getUpload(String sourceId) {
+        List<MultipartUploadState> uploads = getJdbcTemplate().query("SELECT * FROM " + uploadsTable + " WHERE source_id = ?",
+                (rs, rowNum) -> {
+                    MultipartUploadState upload = new MultipartUploadState();
+                    upload.setSourceId(rs.getString("source_id"));
+                    upload.setTargetKey(rs.getString("target_key"));
+                    upload.setUploadId(rs.getString("upload_id"));
+                    upload.setTotalSize(rs.getLong("total_size"));
+                    upload.setPartSize(rs.getLong("part_size"));
+                    upload.setSourceMtime(rs.getLong("source_mtime"));
+                    upload.setInitiated(rs.getLong("initiated"));
+                    return upload;
+                }, sourceId);
+        if (uploads.isEmpty()) return null;
+        MultipartUploadState upload = uploads.get(0);
+        getJdbcTemplate().query("SELECT part_number, etag FROM " + partsTable + " WHERE upload_id = ?",
+                rs -> {
+                    upload.getPartETags().put(rs.getInt("part_number"), rs.getString("etag"));
+                }, upload.getUploadId());
+        return upload;
+    }
+
+    /**
+     * Records a new upload of the source object, replacing any upload previously recorded for it
+     */
+    public void uploadInitiated(MultipartUploadState upload) {
+        MultipartUploadState previous = getUpload(upload.getSourceId());
+        getJdbcTemplate().update("REPLACE INTO " + uploadsTable
+                        + " (source_id, target_key, upload_id, total_size, part_size, source_mtime, initiated)"
+                        + " VALUES (?, ?, ?, ?, ?, ?, ?)",
+                upload.getSourceId(), upload.getTargetKey(), upload.getUploadId(), upload.getTotalSize(),
+                upload.getPartSize(), upload.getSourceMtime(), upload.getInitiated());
+        if (previous != null && !previous.getUploadId().equals(upload.getUploadId()))
+            getJdbcTemplate().update("DELETE FROM " + partsTable + " WHERE upload_id = ?", previous.getUploadId());
+    }
+
+    /**
+     * Records a part that was uploaded (or re-uploaded) successfully
+     */
+    public void partUploaded(String uploadId, int partNumber, String eTag) {
+        getJdbcTemplate().update("REPLACE INTO " + partsTable + " (upload_id, part_number, etag) VALUES (?, ?, ?)",
+                uploadId, partNumber, eTag);
+    }
+
+    /**
+     * Removes the state of an upload that was completed or aborted (or no longer exists). If the source object was
+     * uploaded again since, its newer upload is left alone
+     */
+    public void uploadFinished(String sourceId, String uploadId) {
+        getJdbcTemplate().update("DELETE FROM " + uploadsTable + " WHERE source_id = ? AND upload_id = ?", sourceId, uploadId);
+        getJdbcTemplate().update("DELETE FROM " + partsTable + " WHERE upload_id = ?", uploadId);
+    }
+
+    /**
+     * Returns the IDs of all tracked uploads
+     */
+    public Set<String> getUploadIds() {
+        return new HashSet<>(getJdbcTemplate().queryForList("SELECT upload_id FROM " + uploadsTable, String.class));
+    }
+
+    protected boolean isMySql() {
+        return dbService instanceof MySQLDbService;
+    }
+
+    protected JdbcTemplate getJdbcTemplate() {
+        return dbService.getJdbcTemplate();
+    }
+
+    public static class MultipartUploadState {
+        private String sourceId;
+        private String targetKey;
+        private String uploadId;
+        private long totalSize;
+        private long partSize;
+        private long sourceMtime;
+        private long initiated;
+        private final Map<Integer, String> partETags = new TreeMap<>();
+
+        public String getSourceId() {
+            return sourceId;
+        }
+
+        public void setSourceId(String sourceId) {
+            this.sourceId = sourceId;
+        }
+
+        public String getTargetKey() {
+            return targetKey;
+        }
+
+        public void setTargetKey(String targetKey) {
+            this.targetKey = targetKey;
+        }
+
+        public String getUploadId() {
+            return uploadId;
+        }
+
+        public void setUploadId(String uploadId) {
+            this.uploadId = uploadId;
+        }
+
+        public long getTotalSize() {
+            return totalSize;
+        }
+
+        public void setTotalSize(long totalSize) {
+            this.totalSize = totalSize;
+        }
+
+        public long getPartSize() {
+            return partSize;
+        }
+
+        public void setPartSize(long partSize) {
+            this.partSize = partSize;
+        }
+
+        /**
+         * The mtime (epoch millis) of the source object when the upload was initiated (0 if unknown)
+         */
+        public long getSourceMtime() {
+            return sourceMtime;
+        }
+
+        public void setSourceMtime(long sourceMtime) {
+            this.sourceMtime = sourceMtime;
+        }
+
+        public long getInitiated() {
+            return initiated;
+        }
+
+        public void setInitiated(long initiated) {
+            this.initiated = initiated;
+        }
+
+        /**
+         * ETags of the uploaded parts, by part number
+         */
+        public Map<Integer, String> getPartETags() {
+            return partETags;
+        }
+    }
+}
@@ -102,6 +102,15 @@ public class MySQLDbService extends AbstractDbService {
         JdbcTemplate template = createJdbcTemplate();
         try {
             template.execute("drop table if exists " + getObjectsTableName());
+            // work lease tables (only present in work-leasing mode)
+            template.execute("drop table if exists " + getObjectsTableName() + WorkLeaseService.WORK_TABLE_SUFFIX);
+            template.execute("drop table if exists " + getObjectsTableName() + WorkLeaseService.WORKERS_TABLE_SUFFIX);
+            // verification sample tables (only present in sampling mode)
+            template.execute("drop table if exists " + getObjectsTableName() + VerifySampleService.RUNS_TABLE_SUFFIX);
+            template.execute("drop table if exists " + getObjectsTableName() + VerifySampleService.SAMPLES_TABLE_SUFFIX);
+            // MPU resume tables (only present when MPU resume is enabled)
+            template.execute("drop table if exists " + getObjectsTableName() + MultipartUploadStateService.UPLOADS_TABLE_SUFFIX);
+            template.execute("drop table if exists " + getObjectsTableName() + MultipartUploadStateService.PARTS_TABLE_SUFFIX);
         } finally {
             close(template);
         }
@@ -0,0 +1,276 @@
+/*
+ * Copyright (c) 2026 Dell Inc. or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.emc.ecs.sync.service;
+
+import com.emc.ecs.sync.rest.SyncProgress;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.util.*;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Pushes progress for one job to any number of subscribers. A single snapshot is sampled per interval (only while
+ * someone is subscribed) and only the properties that changed since the previous sample are handed to subscribers,
+ * so the cost of monitoring a job does not grow with the number of clients watching it.
+ * <p>
+ * Each subscriber may ask for a slower interval than the sampling interval; deltas are merged until the subscriber is
+ * due, so a slow or lagging client only ever holds one pending update. The first update a subscriber receives is a
+ * full snapshot. When the job reaches a final state, a last update is sent with {@link ProgressUpdate#isComplete()}
+ * set, and the publisher stops sampling. The same happens when the publisher is {@link #close() closed} (i.e. when
+ * the job is deleted).
+ */
+public class ProgressPublisher {
+    private static final Logger log = LoggerFactory.getLogger(ProgressPublisher.class);
+
+    private static final List<PropertyDescriptor> properties = new ArrayList<>();
+
+    static {
+        try {
+            BeanInfo beanInfo = Introspector.getBeanInfo(SyncProgress.class, Object.class);
+            for (PropertyDescriptor descriptor : beanInfo.getPropertyDescriptors()) {
+                if (descriptor.getReadMethod() != null) properties.add(descriptor);
+            }
+            properties.sort(Comparator.comparing(PropertyDescriptor::getName));
+        } catch (IntrospectionException e) {
+            throw new RuntimeException("could not introspect SyncProgress", e);
+        }
+    }
+
+    private final Supplier<SyncProgress> progressSource;
+    private final ScheduledExecutorService scheduler;
+    private final long intervalMs;
+    private final List<Subscription> subscriptions = new ArrayList<>();
+    private Map<String, Object> snapshot;
+    private long sequence;
+    private boolean complete;
+    private ScheduledFuture<?> sampleFuture;
+
+    public ProgressPublisher(Supplier<SyncProgress> progressSource, ScheduledExecutorService scheduler, long intervalMs) {
+        this.progressSource = progressSource;
+        this.scheduler = scheduler;
+        this.intervalMs = intervalMs;
+    }
+
+    /**
+     * Subscribes to updates no more often than every <code>intervalMs</code> (never faster than the sampling
+     * interval). The first update is a full snapshot. Close the subscription when done
+     */
+    public synchronized Subscription subscribe(long intervalMs) {
+        Subscription subscription = new Subscription(Math.max(intervalMs, this.intervalMs));
+        if (snapshot != null) subscription.offer(snapshot, sequence, complete);
+        if (!complete) {
+            subscriptions.add(subscription);
+            if (sampleFuture == null)
+                sampleFuture = scheduler.scheduleAtFixedRate(this::sample, 0, this.intervalMs, TimeUnit.MILLISECONDS);
+        }
+        return subscription;
+    }
+
+    synchronized void unsubscribe(Subscription subscription) {
+        subscriptions.remove(subscription);
+        // nobody is watching; stop sampling (the last snapshot is kept so deltas stay consistent)
+        if (subscriptions.isEmpty() && sampleFuture != null) {
+            sampleFuture.cancel(false);
+            sampleFuture = null;
+        }
+    }
+
+    public synchronized int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    public synchronized boolean isComplete() {
+        return complete;
+    }
+
+    synchronized void sample() {
+        // a sample may already be waiting when the publisher completes
+        if (complete) return;
+        try {
+            SyncProgress progress = progressSource.get();
+            Map<String, Object> current = toMap(progress);
+            Map<String, Object> delta = diff(snapshot, current);
+            snapshot = current;
+            complete = progress == null || (progress.getStatus() != null && progress.getStatus().isFinalState());
+            if (delta.isEmpty() && !complete) return;
+            sequence++;
+            for (Subscription subscription : subscriptions) {
+                if (subscription.isNew()) subscription.offer(current, sequence, complete);
+                else subscription.offer(delta, sequence, complete);
+            }
+            if (complete) {
+                subscriptions.clear();
+                if (sampleFuture != null) sampleFuture.cancel(false);
+                sampleFuture = null;
+            }
+        } catch (Throwable t) {
+            log.warn("could not sample progress", t);
+        }
+    }
+
+    /**
+     * Sends a final update (with {@link ProgressUpdate#isComplete()} set) to all subscribers, which closes their
+     * subscriptions, and stops sampling. Call this before the job goes away
+     */
+    public synchronized void close() {
+        if (!complete) {
+            Map<String, Object> current;
+            try {
+                current = toMap(progressSource.get());
+            } catch (Throwable t) {
+                log.warn("could not sample final progress", t);
+                current = snapshot == null ? new TreeMap<>() : snapshot;
+            }
+            Map<String, Object> delta = diff(snapshot, current);
+            snapshot = current;
+            complete = true;
+            sequence++;
+            for (Subscription subscription : subscriptions) {
+                subscription.offer(subscription.isNew() ? current : delta, sequence, true);
+            }
+        }
+        subscriptions.clear();
+        if (sampleFuture != null) sampleFuture.cancel(false);
+        sampleFuture = null;
+    }
+
+    static Map<String, Object> toMap(SyncProgress progress) {
+        Map<String, Object> map = new TreeMap<>();
+        if (progress == null) return map;
+        for (PropertyDescriptor property : properties) {
+            try {
+                Object value = property.getReadMethod().invoke(progress);
+                map.put(property.getName(), value instanceof Enum ? value.toString() : value);
+            } catch (ReflectiveOperationException e) {
+                throw new RuntimeException("could not read " + property.getName(), e);
+            }
+        }
+        return map;
+    }
+
+    static Map<String, Object> diff(Map<String, Object> previous, Map<String, Object> current) {
+        if (previous == null) return current;
+        Map<String, Object> delta = new TreeMap<>();
+        for (Map.Entry<String, Object> entry : current.entrySet()) {
+            if (!Objects.equals(previous.get(entry.getKey()), entry.getValue()))
+                delta.put(entry.getKey(), entry.getValue());
+        }
+        return delta;
+    }
+
+    /**
+     * One (full or delta) progress update. Values are the SyncProgress properties by name (enums as strings)
+     */
+    public static class ProgressUpdate {
+        private final long sequence;
+        private final boolean full;
+        private final boolean complete;
+        private final Map<String, Object> values;
+
+        ProgressUpdate(long sequence, boolean full, boolean complete, Map<String, Object> values) {
+            this.sequence = sequence;
+            this.full = full;
+            this.complete = complete;
+            this.values = Collections.unmodifiableMap(values);
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        public boolean isFull() {
+            return full;
+        }
+
+        public boolean isComplete() {
+            return complete;
+        }
+
+        public Map<String, Object> getValues() {
+            return values;
+        }
+    }
+
+    public class Subscription implements AutoCloseable {
+        private final long intervalMs;
+        private final Map<String, Object> pending = new TreeMap<>();
+        private boolean received, pendingFull = true, pendingComplete, closed;
+        private long pendingSequence, nextDueMs;
+
+        Subscription(long intervalMs) {
+            this.intervalMs = intervalMs;
+        }
+
+        synchronized boolean isNew() {
+            return !received && pending.isEmpty();
+        }
+
+        synchronized void offer(Map<String, Object> values, long sequence, boolean complete) {
+            pending.putAll(values);
+            pendingSequence = sequence;
+            pendingComplete |= complete;
+            notifyAll();
+        }
+
+        private boolean isReady() {
+            return pendingComplete || (!pending.isEmpty() && System.currentTimeMillis() >= nextDueMs);
+        }
+
+        /**
+         * Waits up to <code>timeoutMs</code> for the next update. Returns null if none is available in time, or if
+         * the subscription is closed or has already delivered the final update
+         */
+        public synchronized ProgressUpdate next(long timeoutMs) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + timeoutMs;
+            while (!closed && !isReady()) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) return null;
+                // wake up when the subscriber is due, even if the sampler has nothing new to say
+                if (!pending.isEmpty()) remaining = Math.min(remaining, Math.max(1, nextDueMs - System.currentTimeMillis()));
+                wait(remaining);
+            }
+            if (closed) return null;
+            ProgressUpdate update = new ProgressUpdate(pendingSequence, pendingFull, pendingComplete, new TreeMap<>(pending));
+            pending.clear();
+            received = true;
+            pendingFull = false;
+            nextDueMs = System.currentTimeMillis() + intervalMs;
+            if (pendingComplete) closed = true;
+            return update;
+        }
+
+        public synchronized boolean isClosed() {
+            return closed;
+        }
+
+        @Override
+        public void close() {
+            synchronized (this) {
+                closed = true;
+                notifyAll();
+            }
+            unsubscribe(this);
+        }
+    }
+}
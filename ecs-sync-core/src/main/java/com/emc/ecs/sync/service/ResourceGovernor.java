@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2026 Dell Inc. or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.emc.ecs.sync.service;
+
+import com.emc.ecs.sync.EcsSync;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+
+/**
+ * Keeps the total number of worker threads used by all running jobs in one process within a global budget.
+ * Each job asks for its configured threadCount; the governor hands out thread quotas using max-min fairness (jobs
+ * asking for less than an even split get what they ask for, and the rest is split evenly between the others),
+ * optionally capped per job. Quotas are re-applied whenever a job starts, finishes or changes its thread count, so
+ * threads freed by one job are given to the others. Every running job gets at least one thread, even if that
+ * exceeds the budget.
+ */
+public class ResourceGovernor {
+    private static final Logger log = LoggerFactory.getLogger(ResourceGovernor.class);
+
+    private final Map<Integer, EcsSync> jobs = new TreeMap<>();
+    private int maxTotalThreads;
+    private int maxJobThreads;
+
+    /**
+     * @param maxTotalThreads the thread budget shared by all running jobs (0 means unlimited)
+     * @param maxJobThreads   the most threads any single job may use (0 means unlimited)
+     */
+    public ResourceGovernor(int maxTotalThreads, int maxJobThreads) {
+        this.maxTotalThreads = maxTotalThreads;
+        this.maxJobThreads = maxJobThreads;
+    }
+
+    public synchronized void register(int jobId, EcsSync sync) {
+        jobs.put(jobId, sync);
+        rebalance();
+    }
+
+    public synchronized void unregister(int jobId) {
+        if (jobs.remove(jobId) != null) rebalance();
+    }
+
+    /**
+     * Recalculates and applies the thread quota of every registered job
+     */
+    public synchronized void rebalance() {
+        Map<Integer, Integer> requested = new TreeMap<>();
+        for (Map.Entry<Integer, EcsSync> entry : jobs.entrySet()) {
+            requested.put(entry.getKey(), entry.getValue().getSyncConfig().getOptions().getThreadCount());
+        }
+        Map<Integer, Integer> quotas = allocate(requested, maxTotalThreads, maxJobThreads);
+        for (Map.Entry<Integer, Integer> entry : quotas.entrySet()) {
+            jobs.get(entry.getKey()).setThreadQuota(entry.getValue());
+        }
+        log.debug("thread quotas (budget: {}, per-job cap: {}): {}", maxTotalThreads, maxJobThreads, quotas);
+    }
+
+    /**
+     * Max-min fair allocation of <code>maxTotal</code> threads to the requested thread counts (keyed by job ID).
+     * A quota of 0 means the job is unconstrained.
+     */
+    static Map<Integer, Integer> allocate(Map<Integer, Integer> requested, int maxTotal, int maxJob) {
+        Map<Integer, Integer> quotas = new TreeMap<>();
+        if (maxTotal <= 0) {
+            for (Integer jobId : requested.keySet()) quotas.put(jobId, Math.max(maxJob, 0));
+            return quotas;
+        }
+
+        // serve the smallest requests first, so whatever they leave is split between the larger ones
+        List<Map.Entry<Integer, Integer>> entries = new ArrayList<>(requested.entrySet());
+        entries.sort(Map.Entry.comparingByValue());
+        int remaining = maxTotal, jobsLeft = entries.size();
+        for (Map.Entry<Integer, Integer> entry : entries) {
+            int want = entry.getValue();
+            if (maxJob > 0) want = Math.min(want, maxJob);
+            int quota = Math.max(1, Math.min(want, remaining / jobsLeft));
+            quotas.put(entry.getKey(), quota);
+            remaining = Math.max(0, remaining - quota);
+            jobsLeft--;
+        }
+        return quotas;
+    }
+
+    public synchronized Map<Integer, Integer> getQuotas() {
+        Map<Integer, Integer> quotas = new TreeMap<>();
+        for (Map.Entry<Integer, EcsSync> entry : jobs.entrySet()) {
+            quotas.put(entry.getKey(), entry.getValue().getThreadQuota());
+        }
+        return quotas;
+    }
+
+    public synchronized int getMaxTotalThreads() {
+        return maxTotalThreads;
+    }
+
+    public synchronized void setMaxTotalThreads(int maxTotalThreads) {
+        this.maxTotalThreads = maxTotalThreads;
+        rebalance();
+    }
+
+    public synchronized int getMaxJobThreads() {
+        return maxJobThreads;
+    }
+
+    public synchronized void setMaxJobThreads(int maxJobThreads) {
+        this.maxJobThreads = maxJobThreads;
+        rebalance();
+    }
+}
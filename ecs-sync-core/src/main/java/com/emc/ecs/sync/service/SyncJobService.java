@@ -20,6 +20,7 @@ import com.emc.ecs.sync.SyncStats;
 import com.emc.ecs.sync.config.SyncConfig;
 import com.emc.ecs.sync.config.SyncOptions;
 import com.emc.ecs.sync.rest.*;
+import com.emc.ecs.sync.util.FairShareThrottle;
 import com.emc.ecs.sync.util.SyncUtil;
 import com.sun.management.OperatingSystemMXBean;
 import org.slf4j.Logger;
@@ -30,14 +31,23 @@ import java.lang.management.ManagementFactory;
 import java.util.Collections;
 import java.util.Map;
 import java.util.TreeMap;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class SyncJobService {
     private static final Logger log = LoggerFactory.getLogger(SyncJobService.class);
 
-    public static final int MAX_JOBS = 10; // maximum of 10 sync jobs per JVM process
+    public static final int MAX_JOBS = 10; // maximum of 10 concurrently running sync jobs per JVM process
+    public static final int MAX_QUEUED_JOBS = 100; // jobs beyond MAX_JOBS wait in a queue of up to 100 jobs
+    public static final int MAX_TOTAL_JOBS = MAX_JOBS + MAX_QUEUED_JOBS; // jobs are kept until they are deleted
+    public static final double DEFAULT_SHARE_WEIGHT = 1;
+    public static final double DEFAULT_MINIMUM_SHARE = 0.05; // each job is guaranteed 5% of the shared limits
+    public static final long DEFAULT_PROGRESS_INTERVAL_MS = 1000;
 
     private static SyncJobService instance;
 
@@ -53,6 +63,26 @@ public class SyncJobService {
     private Map<Integer, EcsSync> syncCache = new TreeMap<>();
     private Map<Integer, SyncConfig> configCache = new TreeMap<>();
     private AtomicInteger nextJobId = new AtomicInteger(0);
+    private FairShareThrottle sharedBandwidthThrottle;
+    private FairShareThrottle sharedThroughputThrottle;
+    private double minimumShare = DEFAULT_MINIMUM_SHARE;
+    private Map<Integer, FairShareThrottle.Share> bandwidthShares = new TreeMap<>();
+    private Map<Integer, FairShareThrottle.Share> throughputShares = new TreeMap<>();
+    private Map<Integer, Double> shareWeights = new TreeMap<>();
+    private Map<Integer, SyncTask> pendingTasks = new ConcurrentHashMap<>();
+    private ResourceGovernor resourceGovernor = new ResourceGovernor(0, 0);
+    private ThreadPoolExecutor jobExecutor;
+    private AtomicInteger jobThreadCount = new AtomicInteger();
+    private Map<Integer, ProgressPublisher> progressPublishers = new TreeMap<>();
+    private ScheduledExecutorService progressScheduler;
+    private long progressIntervalMs = DEFAULT_PROGRESS_INTERVAL_MS;
+
+    public SyncJobService() {
+        // runs at most MAX_JOBS jobs at once; the rest wait in the queue until a slot frees up
+        jobExecutor = new ThreadPoolExecutor(MAX_JOBS, MAX_JOBS, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                r -> new Thread(r, "sync-job-" + jobThreadCount.incrementAndGet()));
+        jobExecutor.allowCoreThreadTimeOut(true);
+    }
 
     public JobList getAllJobs() {
         JobList jobList = new JobList();
@@ -68,8 +98,10 @@ public class SyncJobService {
     }
 
     public int createJob(SyncConfig syncConfig) {
-        if (syncCache.size() >= MAX_JOBS)
-            throw new UnsupportedOperationException("the maximum number of jobs (" + MAX_JOBS + ") has been reached");
+        if (syncCache.size() >= MAX_TOTAL_JOBS)
+            throw new UnsupportedOperationException("the maximum number of jobs (" + MAX_TOTAL_JOBS + ") has been reached; delete finished jobs first");
+        if (getQueuedJobCount() >= MAX_QUEUED_JOBS)
+            throw new UnsupportedOperationException("the maximum number of queued jobs (" + MAX_QUEUED_JOBS + ") has been reached");
 
         int jobId = nextJobId.incrementAndGet();
 
@@ -86,10 +118,13 @@ public class SyncJobService {
         syncCache.put(jobId, sync);
         configCache.put(jobId, syncConfig);
 
-        // start a background thread (otherwise this will block until the entire sync is done!)
-        ExecutorService executor = Executors.newSingleThreadExecutor();
-        executor.submit(new SyncTask(jobId, sync));
-        executor.shutdown();
+        // run in the background (otherwise this will block until the entire sync is done!)
+        // if MAX_JOBS are already running, the job is queued until one of them finishes
+        SyncTask syncTask = new SyncTask(jobId, sync);
+        pendingTasks.put(jobId, syncTask);
+        jobExecutor.execute(syncTask);
+        if (!jobExecutor.getQueue().isEmpty())
+            log.info("job {} is queued; {} jobs are waiting to run", jobId, jobExecutor.getQueue().size());
 
         return jobId;
     }
@@ -98,6 +133,7 @@ public class SyncJobService {
         int jobId = nextJobId.incrementAndGet();
 
         syncCache.put(jobId, sync);
+        assignShares(jobId, sync);
 
         return jobId;
     }
@@ -120,8 +156,19 @@ public class SyncJobService {
         if (!getJobStatus(sync).isFinalState())
             throw new UnsupportedOperationException("the job must be stopped before it can be deleted");
 
+        // streaming subscribers get a final event and are closed while the job can still be sampled
+        ProgressPublisher publisher;
+        synchronized (this) {
+            publisher = progressPublishers.remove(jobId);
+        }
+        if (publisher != null) publisher.close();
+
         syncCache.remove(jobId);
         configCache.remove(jobId);
+        releaseShares(jobId);
+        synchronized (this) {
+            shareWeights.remove(jobId);
+        }
 
         // delete database
         if (sync.getDbService() != null) {
@@ -142,6 +189,7 @@ public class SyncJobService {
         JobControl jobControl = new JobControl();
         jobControl.setStatus(getJobStatus(sync));
         jobControl.setThreadCount(sync.getSyncConfig().getOptions().getThreadCount());
+        jobControl.setShareWeight(getShareWeight(jobId));
 
         return jobControl;
     }
@@ -153,12 +201,18 @@ public class SyncJobService {
 
         if (jobControl.getThreadCount() > 0) {
             sync.setThreadCount(jobControl.getThreadCount());
+            resourceGovernor.rebalance();
+        }
+
+        if (jobControl.getShareWeight() > 0) {
+            setShareWeight(jobId, jobControl.getShareWeight());
         }
 
         if (jobControl.getStatus() != null) {
             switch (jobControl.getStatus()) {
                 case Stopped:
                     sync.terminate();
+                    dequeue(jobId);
                     break;
                 case Paused:
                     sync.pause();
@@ -204,20 +258,48 @@ public class SyncJobService {
         if (sync.getSource() != null) {
             syncProgress.setSourceReadRate(sync.getSource().getReadRate());
             syncProgress.setSourceWriteRate(sync.getSource().getWriteRate());
+            syncProgress.getHostStats().addAll(sync.getSource().getHostStats());
         }
         if (sync.getTarget() != null) {
             syncProgress.setTargetReadRate(sync.getTarget().getReadRate());
             syncProgress.setTargetWriteRate(sync.getTarget().getWriteRate());
+            syncProgress.getHostStats().addAll(sync.getTarget().getHostStats());
         }
         syncProgress.setObjectCompleteRate(sync.getStats().getObjectCompleteRate());
         syncProgress.setObjectSkipRate(sync.getStats().getObjectSkipRate());
         syncProgress.setObjectErrorRate(sync.getStats().getObjectErrorRate());
 
+        if (sync.getVerifySampler() != null) {
+            syncProgress.setVerifySampledObjects(sync.getVerifySampler().getSampledObjects());
+            syncProgress.setVerifySampleFailures(sync.getVerifySampler().getFailedObjects());
+            syncProgress.setVerifyFailureRateUpperBound(sync.getVerifySampler().getFailureRateUpperBound());
+        }
+
         if (sync.getRunError() != null) syncProgress.setRunError(SyncUtil.summarize(sync.getRunError()));
 
         return syncProgress;
     }
 
+    /**
+     * Subscribes to pushed progress updates for a job. All subscribers of a job share one progress snapshot that is
+     * sampled every {@link #getProgressIntervalMs() progress interval} while anyone is subscribed; subscribers
+     * receive only the properties that changed (after a first full snapshot), no more often than
+     * <code>intervalMs</code>. Returns null if the job does not exist
+     */
+    public synchronized ProgressPublisher.Subscription subscribeProgress(int jobId, long intervalMs) {
+        if (!syncCache.containsKey(jobId)) return null;
+        if (progressScheduler == null) {
+            progressScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "progress-publisher");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        ProgressPublisher publisher = progressPublishers.computeIfAbsent(jobId,
+                id -> new ProgressPublisher(() -> getProgress(id), progressScheduler, progressIntervalMs));
+        return publisher.subscribe(intervalMs);
+    }
+
     public Iterable<SyncRecord> getAllRecords(int jobId) {
         EcsSync sync = syncCache.get(jobId);
 
@@ -245,7 +327,58 @@ public class SyncJobService {
         else return sync.getDbService().getSyncRetries();
     }
 
+    /**
+     * Gives the job its own fair share of each shared limit (if any are set). Shares are handed to the job through the
+     * existing shared throttle hooks, so everything that acquires from them (TPS throttling and
+     * ThrottledInputStream) is unchanged. Shares are assigned when the job starts running (queued jobs do not take
+     * any capacity)
+     */
+    protected synchronized void assignShares(int jobId, EcsSync sync) {
+        String shareName = "job-" + jobId;
+        double weight = shareWeights.getOrDefault(jobId, DEFAULT_SHARE_WEIGHT);
+        if (sharedBandwidthThrottle != null) {
+            FairShareThrottle.Share share = sharedBandwidthThrottle.newShare(shareName, weight,
+                    sharedBandwidthThrottle.getRate() * minimumShare);
+            bandwidthShares.put(jobId, share);
+            sync.setSharedBandwidthThrottle(share);
+        }
+        if (sharedThroughputThrottle != null) {
+            FairShareThrottle.Share share = sharedThroughputThrottle.newShare(shareName, weight,
+                    sharedThroughputThrottle.getRate() * minimumShare);
+            throughputShares.put(jobId, share);
+            sync.setSharedThroughputThrottle(share);
+        }
+    }
+
+    /**
+     * Returns the job's shares to the pool so the remaining jobs can use its capacity
+     */
+    protected synchronized void releaseShares(int jobId) {
+        FairShareThrottle.Share share = bandwidthShares.remove(jobId);
+        if (share != null) share.getParent().removeShare(share);
+        share = throughputShares.remove(jobId);
+        if (share != null) share.getParent().removeShare(share);
+    }
+
+    protected synchronized double getShareWeight(int jobId) {
+        FairShareThrottle.Share share = bandwidthShares.get(jobId);
+        if (share == null) share = throughputShares.get(jobId);
+        if (share != null) return share.getWeight();
+        // a job that is not running yet gets its share when it starts
+        if (sharedBandwidthThrottle == null && sharedThroughputThrottle == null) return 0;
+        return shareWeights.getOrDefault(jobId, DEFAULT_SHARE_WEIGHT);
+    }
+
+    protected synchronized void setShareWeight(int jobId, double weight) {
+        shareWeights.put(jobId, weight);
+        FairShareThrottle.Share share = bandwidthShares.get(jobId);
+        if (share != null) share.setWeight(weight);
+        share = throughputShares.get(jobId);
+        if (share != null) share.setWeight(weight);
+    }
+
     protected JobControlStatus getJobStatus(EcsSync sync) {
+        if (!sync.isTerminated() && isQueued(sync)) return JobControlStatus.Queued;
         if (sync.isPaused()) {
             if (sync.getActiveSyncThreads() > 0 || sync.getActiveQueryThreads() > 0) return JobControlStatus.Pausing;
             else return JobControlStatus.Paused;
@@ -262,6 +395,61 @@ public class SyncJobService {
         return JobControlStatus.Initializing;
     }
 
+    /**
+     * Removes a job that was stopped before it started from the queue, so it does not hold a queue slot
+     */
+    private void dequeue(int jobId) {
+        SyncTask task = pendingTasks.get(jobId);
+        if (task != null && jobExecutor.remove(task)) {
+            pendingTasks.remove(jobId);
+            log.info("job {} was stopped while queued; removed from the queue", jobId);
+        }
+    }
+
+    // a job is only queued while its task is waiting for a free job slot
+    private boolean isQueued(EcsSync sync) {
+        for (SyncTask task : pendingTasks.values()) {
+            if (task.sync == sync) return jobExecutor.getQueue().contains(task);
+        }
+        return false;
+    }
+
+    public int getQueuedJobCount() {
+        return jobExecutor.getQueue().size();
+    }
+
+    public ResourceGovernor getResourceGovernor() {
+        return resourceGovernor;
+    }
+
+    /**
+     * Sets the total number of worker threads that all running jobs may use together (0 means unlimited). Each job's
+     * threadCount is honored as far as the budget allows
+     */
+    public void setMaxTotalThreads(int maxTotalThreads) {
+        resourceGovernor.setMaxTotalThreads(maxTotalThreads);
+    }
+
+    /**
+     * Sets the most worker threads any single job may use (0 means unlimited)
+     */
+    public void setMaxJobThreads(int maxJobThreads) {
+        resourceGovernor.setMaxJobThreads(maxJobThreads);
+    }
+
+    public long getProgressIntervalMs() {
+        return progressIntervalMs;
+    }
+
+    /**
+     * Sets how often progress is sampled for streaming subscribers (the fastest rate at which updates are pushed).
+     * Applies to jobs that get their first subscriber after this is set
+     */
+    public void setProgressIntervalMs(long progressIntervalMs) {
+        if (progressIntervalMs <= 0) throw new IllegalArgumentException("progress interval must be positive");
+        this.progressIntervalMs = progressIntervalMs;
+    }
+
     public String getDbConnectString() {
         return dbConnectString;
     }
@@ -284,6 +472,45 @@ public class SyncJobService {
         this.dbEncPassword = dbEncPassword;
     }
 
+    public double getSharedBandwidthLimit() {
+        return sharedBandwidthThrottle == null ? 0 : sharedBandwidthThrottle.getRate();
+    }
+
+    /**
+     * Sets a global bandwidth limit (bytes/s) that is divided fairly (by weight) between all running jobs. Only applies
+     * to jobs started after this is set. Changing an existing limit rebalances all jobs
+     */
+    public synchronized void setSharedBandwidthLimit(double sharedBandwidthLimit) {
+        if (sharedBandwidthThrottle != null) sharedBandwidthThrottle.setRate(sharedBandwidthLimit);
+        else sharedBandwidthThrottle = new FairShareThrottle("shared-bandwidth", sharedBandwidthLimit);
+    }
+
+    public double getSharedThroughputLimit() {
+        return sharedThroughputThrottle == null ? 0 : sharedThroughputThrottle.getRate();
+    }
+
+    /**
+     * Sets a global throughput limit (objects/s) that is divided fairly (by weight) between all running jobs. Only
+     * applies to jobs started after this is set. Changing an existing limit rebalances all jobs
+     */
+    public synchronized void setSharedThroughputLimit(double sharedThroughputLimit) {
+        if (sharedThroughputThrottle != null) sharedThroughputThrottle.setRate(sharedThroughputLimit);
+        else sharedThroughputThrottle = new FairShareThrottle("shared-throughput", sharedThroughputLimit);
+    }
+
+    public double getMinimumShare() {
+        return minimumShare;
+    }
+
+    /**
+     * Sets the fraction (0-1) of each shared limit that every job is guaranteed when it can use it. Applies to jobs
+     * started after this is set
+     */
+    public void setMinimumShare(double minimumShare) {
+        if (minimumShare < 0 || minimumShare > 1) throw new IllegalArgumentException("minimum share must be between 0 and 1");
+        this.minimumShare = minimumShare;
+    }
+
     protected class SyncTask implements Runnable {
         private int jobId;
         private EcsSync sync;
@@ -295,10 +522,19 @@ public class SyncJobService {
 
         @Override
         public void run() {
+            pendingTasks.remove(jobId);
+            // stopped while still in the queue
+            if (sync.isTerminated()) return;
             try {
+                assignShares(jobId, sync);
+                resourceGovernor.register(jobId, sync);
                 sync.run();
             } catch (Throwable t) {
                 log.error("sync job " + jobId + " threw an unexpected error", t);
+            } finally {
+                // finished jobs don't need their threads or their share of the shared limits
+                resourceGovernor.unregister(jobId);
+                releaseShares(jobId);
             }
         }
     }
@@ -0,0 +1,318 @@
+/*
+ * Copyright (c) 2026 Dell Inc. or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.emc.ecs.sync.service;
+
+import com.emc.ecs.sync.config.SyncOptions;
+import com.emc.ecs.sync.util.XxHash64;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.text.MessageFormat;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Selects a statistical sample of objects to verify, instead of verifying every object. Selection is deterministic:
+ * each object is mapped to a point on [0, 1) by the hash of its identifier, and a run samples the objects within a
+ * window of that size (the sample percentage). The window moves by its own size with every run, so after 100/percent
+ * runs every object has been verified once. A byte budget additionally caps how much data a run will verify. If only
+ * a budget is set, the sample percentage is derived from the total size seen by the previous run.
+ * <p>
+ * When the DB is shared (dbFile or dbConnectString), runs are numbered by a runs table (next to the objects table), and
+ * every sampled object and its result is recorded in a samples table. Without a DB, the window moves once per day.
+ * <p>
+ * The failure rate of the sample is reported with an upper bound (one-sided Wilson score interval at 95% confidence),
+ * which estimates how many objects in the entire set may fail verification.
+ */
+public class VerifySampleService implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(VerifySampleService.class);
+
+    public static final String RUNS_TABLE_SUFFIX = "_verify_runs";
+    public static final String SAMPLES_TABLE_SUFFIX = "_verify_samples";
+
+    public static final double CONFIDENCE = 0.95;
+    private static final double Z_95_ONE_SIDED = 1.6448536;
+
+    /**
+     * Maps an identifier to a point on [0, 1), using the top 53 bits of its xxHash64
+     */
+    static double hashPoint(String identifier) {
+        XxHash64 hash = new XxHash64();
+        byte[] bytes = identifier.getBytes(StandardCharsets.UTF_8);
+        hash.update(bytes, 0, bytes.length);
+        return (hash.getValue() >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * Returns the upper bound of the failure rate, given the number of failures in a sample, using the one-sided
+     * Wilson score interval at 95% confidence
+     */
+    public static double getFailureRateUpperBound(long sampled, long failed) {
+        if (sampled == 0) return 1;
+        double n = sampled, p = failed / n, z2 = Z_95_ONE_SIDED * Z_95_ONE_SIDED;
+        double center = p + z2 / (2 * n);
+        double margin = Z_95_ONE_SIDED * Math.sqrt(p * (1 - p) / n + z2 / (4 * n * n));
+        return Math.min(1, (center + margin) / (1 + z2 / n));
+    }
+
+    private final AbstractDbService dbService;
+    private final SyncOptions options;
+    private final String runsTable;
+    private final String samplesTable;
+    private final long budgetBytes;
+    private long runId;
+    private double fraction;
+    private double windowStart;
+    private volatile boolean started, closed;
+
+    private final AtomicLong seenObjects = new AtomicLong();
+    private final AtomicLong seenBytes = new AtomicLong();
+    private final AtomicLong reservedBytes = new AtomicLong();
+    private final AtomicLong sampledObjects = new AtomicLong();
+    private final AtomicLong sampledBytes = new AtomicLong();
+    private final AtomicLong failedObjects = new AtomicLong();
+
+    /**
+     * @param dbService the DB used to record runs and samples. May be null (or a {@link NoDbService}), in which case
+     *                  nothing is recorded
+     */
+    public VerifySampleService(DbService dbService, SyncOptions options) {
+        this.dbService = dbService instanceof AbstractDbService && !(dbService instanceof NoDbService)
+                ? (AbstractDbService) dbService : null;
+        this.options = options;
+        String objectsTable = dbService == null ? AbstractDbService.DEFAULT_OBJECTS_TABLE_NAME : dbService.getObjectsTableName();
+        this.runsTable = objectsTable + RUNS_TABLE_SUFFIX;
+        this.samplesTable = objectsTable + SAMPLES_TABLE_SUFFIX;
+        this.budgetBytes = options.getVerifySampleBudgetMb() * 1024 * 1024;
+    }
+
+    /**
+     * Determines the sample window for this run and (if there is a DB) records the start of the run
+     */
+    public synchronized void start() {
+        if (started) throw new IllegalStateException("already started");
+        long runIndex;
+        Long previousSeenBytes = null;
+        if (dbService != null) {
+            dbService.initCheck();
+            createTables();
+            List<Long> previous = getJdbcTemplate().queryForList("SELECT seen_bytes FROM " + runsTable
+                    + " WHERE end_time IS NOT NULL ORDER BY run_id DESC LIMIT 1", Long.class);
+            if (!previous.isEmpty()) previousSeenBytes = previous.get(0);
+            // the DB assigns the run ID, so concurrent jobs sharing the DB never get the same run (or window)
+            runId = insertRun();
+            runIndex = runId - 1;
+        } else {
+            runIndex = TimeUnit.MILLISECONDS.toDays(System.currentTimeMillis());
+        }
+
+        if (options.getVerifySamplePercent() > 0) {
+            fraction = options.getVerifySamplePercent() / 100;
+        } else if (budgetBytes > 0 && previousSeenBytes != null && previousSeenBytes > 0) {
+            fraction = Math.min(1, (double) budgetBytes / previousSeenBytes);
+        } else {
+            fraction = 1;
+        }
+        windowStart = (runIndex * fraction) % 1;
+
+        if (dbService != null) {
+            getJdbcTemplate().update("UPDATE " + runsTable + " SET sample_fraction = ?, window_start = ? WHERE run_id = ?",
+                    fraction, windowStart, runId);
+        }
+        started = true;
+        log.info("verification sample run {}: sampling {}% of objects starting at {}{}", runIndex + 1,
+                fraction * 100, windowStart, budgetBytes > 0 ? " (budget: " + budgetBytes + " bytes)" : "");
+    }
+
+    /**
+     * Records the start of a run and returns the run ID generated by the DB
+     */
+    protected long insertRun() {
+        String sql = "INSERT INTO " + runsTable + " (start_time, sample_fraction, window_start, budget_bytes,"
+                + " seen_objects, seen_bytes, sampled_objects, sampled_bytes, failed_objects)"
+                + " VALUES (?, 0, 0, ?, 0, 0, 0, 0, 0)";
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        getJdbcTemplate().update(con -> {
+            PreparedStatement st = con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+            st.setLong(1, System.currentTimeMillis());
+            st.setLong(2, budgetBytes);
+            return st;
+        }, keyHolder);
+        Number key = keyHolder.getKey();
+        if (key == null) throw new IllegalStateException("no run ID was generated for " + runsTable);
+        return key.longValue();
+    }
+
+    protected void createTables() {
+        try {
+            getJdbcTemplate().update("CREATE TABLE IF NOT EXISTS " + runsTable + " (" +
+                    (isMySql() ? "run_id BIGINT PRIMARY KEY NOT NULL AUTO_INCREMENT,"
+                            : "run_id INTEGER PRIMARY KEY AUTOINCREMENT,") +
+                    "start_time BIGINT NOT NULL," +
+                    "end_time BIGINT NULL," +
+                    "sample_fraction DOUBLE NOT NULL," +
+                    "window_start DOUBLE NOT NULL," +
+                    "budget_bytes BIGINT NOT NULL," +
+                    "seen_objects BIGINT NOT NULL," +
+                    "seen_bytes BIGINT NOT NULL," +
+                    "sampled_objects BIGINT NOT NULL," +
+                    "sampled_bytes BIGINT NOT NULL," +
+                    "failed_objects BIGINT NOT NULL," +
+                    "failure_rate_upper_bound DOUBLE NULL" +
+                    ")");
+            getJdbcTemplate().update("CREATE TABLE IF NOT EXISTS " + samplesTable + " (" +
+                    "run_id BIGINT NOT NULL," +
+                    "source_id VARCHAR(" + (isMySql() ? 750 : 1500) + ") NOT NULL," +
+                    "size BIGINT," +
+                    "verified INT NOT NULL," +
+                    "verify_time BIGINT NOT NULL," +
+                    "PRIMARY KEY (run_id, source_id)" +
+                    ")");
+        } catch (RuntimeException e) {
+            log.error("could not create verify sample tables {}/{}. note: name may only contain alphanumeric or underscore",
+                    runsTable, samplesTable);
+            throw e;
+        }
+    }
+
+    /**
+     * Returns true if the object is part of this run's sample (and its size fits in the remaining budget). Must be
+     * called once for every object, so the run knows the total set it is sampling from
+     */
+    public boolean isSampled(String identifier, long size) {
+        if (!started) throw new IllegalStateException("sample service is not started");
+        seenObjects.incrementAndGet();
+        seenBytes.addAndGet(size);
+
+        double offset = hashPoint(identifier) - windowStart;
+        if (offset < 0) offset += 1;
+        if (offset >= fraction) return false;
+
+        if (budgetBytes > 0) {
+            long reserved;
+            do {
+                reserved = reservedBytes.get();
+                if (reserved + size > budgetBytes) return false;
+            } while (!reservedBytes.compareAndSet(reserved, reserved + size));
+        }
+        return true;
+    }
+
+    /**
+     * Records the verification result of a sampled object
+     */
+    public void recordResult(String identifier, long size, boolean verified) {
+        sampledObjects.incrementAndGet();
+        sampledBytes.addAndGet(size);
+        if (!verified) failedObjects.incrementAndGet();
+        if (dbService != null) {
+            try {
+                getJdbcTemplate().update("REPLACE INTO " + samplesTable
+                                + " (run_id, source_id, size, verified, verify_time) VALUES (?, ?, ?, ?, ?)",
+                        runId, identifier, size, verified ? 1 : 0, System.currentTimeMillis());
+            } catch (RuntimeException e) {
+                log.warn("could not record verification sample for " + identifier, e);
+            }
+        }
+    }
+
+    /**
+     * Records the totals of this run
+     */
+    @Override
+    public synchronized void close() {
+        if (closed || !started) return;
+        closed = true;
+        if (dbService != null) {
+            try {
+                getJdbcTemplate().update("UPDATE " + runsTable + " SET end_time = ?, seen_objects = ?, seen_bytes = ?,"
+                                + " sampled_objects = ?, sampled_bytes = ?, failed_objects = ?, failure_rate_upper_bound = ?"
+                                + " WHERE run_id = ?",
+                        System.currentTimeMillis(), getSeenObjects(), getSeenBytes(), getSampledObjects(),
+                        getSampledBytes(), getFailedObjects(), getFailureRateUpperBound(), runId);
+            } catch (Throwable t) {
+                log.warn("could not record verification sample run " + runId, t);
+            }
+        }
+        log.info(getSummary());
+    }
+
+    public String getSummary() {
+        return MessageFormat.format("Verification sample: {0} of {1} objects ({2,number,#.##}%), {3} bytes, {4} failed;"
+                        + " failure rate < {5,number,#.####}% ({6,number,#}% confidence, about {7,number,#} objects in total)\n",
+                getSampledObjects(), getSeenObjects(),
+                getSeenObjects() == 0 ? 0 : 100.0 * getSampledObjects() / getSeenObjects(),
+                getSampledBytes(), getFailedObjects(), getFailureRateUpperBound() * 100, CONFIDENCE * 100,
+                Math.ceil(getFailureRateUpperBound() * getSeenObjects()));
+    }
+
+    protected boolean isMySql() {
+        return dbService instanceof MySQLDbService;
+    }
+
+    protected JdbcTemplate getJdbcTemplate() {
+        return dbService.getJdbcTemplate();
+    }
+
+    public long getRunId() {
+        return runId;
+    }
+
+    /**
+     * The fraction of objects (0-1] in the sample window of this run
+     */
+    public double getSampleFraction() {
+        return fraction;
+    }
+
+    public double getWindowStart() {
+        return windowStart;
+    }
+
+    public long getSeenObjects() {
+        return seenObjects.get();
+    }
+
+    public long getSeenBytes() {
+        return seenBytes.get();
+    }
+
+    public long getSampledObjects() {
+        return sampledObjects.get();
+    }
+
+    public long getSampledBytes() {
+        return sampledBytes.get();
+    }
+
+    public long getFailedObjects() {
+        return failedObjects.get();
+    }
+
+    /**
+     * The upper bound of the failure rate of the entire set (see {@link #getFailureRateUpperBound(long, long)})
+     */
+    public double getFailureRateUpperBound() {
+        return getFailureRateUpperBound(getSampledObjects(), getFailedObjects());
+    }
+}
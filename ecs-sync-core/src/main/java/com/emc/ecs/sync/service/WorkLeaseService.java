@@ -0,0 +1,425 @@
+/*
+ * Copyright (c) 2026 Dell Inc. or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.emc.ecs.sync.service;
+
+import com.emc.ecs.sync.config.ConfigurationException;
+import com.emc.ecs.sync.config.SyncOptions;
+import com.emc.ecs.sync.config.WorkLeaseRole;
+import com.emc.ecs.sync.model.ObjectSummary;
+import com.emc.ecs.sync.util.Function;
+import com.emc.ecs.sync.util.TimingUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Distributes work between multiple ecs-sync processes that share the same DB. The coordinator enumerates the source
+ * into a work table (next to the objects table) and any number of workers lease batches of rows from it, sync them
+ * and acknowledge them. Leases are renewed by a heartbeat while a process is alive, so rows held by a process that
+ * crashes become available again once its leases expire. Active processes are tracked in a workers table, which is
+ * used to shrink lease batches when little work remains, so it is shared evenly between all active processes.
+ * <p>
+ * Note: lease expiration uses the local clock of each process, so hosts should be time-synchronized.
+ */
+public class WorkLeaseService implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(WorkLeaseService.class);
+
+    public static final String OPERATION_LEASE = "WorkLease";
+    public static final String OPERATION_COMPLETE = "WorkComplete";
+
+    public static final String WORK_TABLE_SUFFIX = "_work";
+    public static final String WORKERS_TABLE_SUFFIX = "_workers";
+
+    static final String STATUS_PENDING = "Pending";
+    static final String STATUS_COMPLETE = "Complete";
+
+    // how many times to retry claiming rows that were taken by another worker between the select and the update
+    private static final int MAX_CLAIM_ATTEMPTS = 5;
+
+    private final AbstractDbService dbService;
+    private final SyncOptions options;
+    private final WorkLeaseRole role;
+    private final String workerId;
+    private final String workTable;
+    private final String workersTable;
+    private final List<ObjectSummary> enqueueBuffer = new ArrayList<>();
+    private ScheduledExecutorService heartbeatExecutor;
+    private volatile boolean started, closed;
+    private long startTime;
+
+    private final AtomicLong leaseCount = new AtomicLong();
+    private final AtomicLong leasedRowCount = new AtomicLong();
+    private final AtomicLong totalLeaseTime = new AtomicLong();
+    private final AtomicLong maxLeaseTime = new AtomicLong();
+    private volatile long lastLeaseTime;
+
+    public WorkLeaseService(AbstractDbService dbService, SyncOptions options) {
+        this.dbService = dbService;
+        this.options = options;
+        this.role = options.getWorkLeaseRole();
+        this.workerId = ManagementFactory.getRuntimeMXBean().getName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+        this.workTable = dbService.getObjectsTableName() + WORK_TABLE_SUFFIX;
+        this.workersTable = dbService.getObjectsTableName() + WORKERS_TABLE_SUFFIX;
+        if (role == null) throw new ConfigurationException("workLeaseRole is not set");
+        if (options.getWorkLeaseBatchSize() < 1)
+            throw new ConfigurationException("workLeaseBatchSize must be greater than zero");
+        if (options.getWorkLeaseDurationSeconds() < 3)
+            throw new ConfigurationException("workLeaseDurationSeconds must be at least 3");
+    }
+
+    /**
+     * Creates the work tables if necessary, registers this process as an active worker and starts the heartbeat that
+     * renews its leases
+     */
+    public synchronized void start() {
+        if (started) throw new IllegalStateException("already started");
+        dbService.initCheck();
+        createTables();
+
+        startTime = System.currentTimeMillis();
+        getJdbcTemplate().update("REPLACE INTO " + workersTable
+                        + " (worker_id, role, heartbeat, enumeration_complete) VALUES (?, ?, ?, 0)",
+                workerId, role.toString(), startTime);
+        if (role == WorkLeaseRole.Coordinator) {
+            // a new enumeration is starting (any previous one is stale)
+            getJdbcTemplate().update("UPDATE " + workersTable + " SET enumeration_complete = 0, drained_at = NULL WHERE role = ?",
+                    WorkLeaseRole.Coordinator.toString());
+        }
+
+        long heartbeatMs = getLeaseDurationMs() / 3;
+        heartbeatExecutor = Executors.newSingleThreadScheduledExecutor();
+        heartbeatExecutor.scheduleAtFixedRate(this::heartbeat, heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+        started = true;
+        log.info("work lease {} {} started (work table: {})", role, workerId, workTable);
+    }
+
+    protected void createTables() {
+        try {
+            if (isMySql()) {
+                getJdbcTemplate().update("CREATE TABLE IF NOT EXISTS " + workTable + " (" +
+                        "source_id VARCHAR(750) PRIMARY KEY NOT NULL," +
+                        "is_directory INT NOT NULL," +
+                        "size BIGINT," +
+                        "list_row_num BIGINT," +
+                        "list_file_row TEXT NULL," +
+                        "status VARCHAR(32) NOT NULL," +
+                        "lease_owner VARCHAR(255) NULL," +
+                        "lease_token VARCHAR(36) NULL," +
+                        "lease_expires BIGINT NULL," +
+                        "lease_count INT NOT NULL DEFAULT 0," +
+                        "INDEX status_idx (status)," +
+                        "INDEX lease_token_idx (lease_token)" +
+                        ") ENGINE=InnoDB");
+            } else {
+                getJdbcTemplate().update("CREATE TABLE IF NOT EXISTS " + workTable + " (" +
+                        "source_id VARCHAR(1500) PRIMARY KEY NOT NULL," +
+                        "is_directory INT NOT NULL," +
+                        "size INT," +
+                        "list_row_num INT," +
+                        "list_file_row TEXT NULL," +
+                        "status VARCHAR(32) NOT NULL," +
+                        "lease_owner VARCHAR(255) NULL," +
+                        "lease_token VARCHAR(36) NULL," +
+                        "lease_expires INT NULL," +
+                        "lease_count INT NOT NULL DEFAULT 0" +
+                        ")");
+                getJdbcTemplate().update("CREATE INDEX IF NOT EXISTS " + workTable + "_status_idx ON " + workTable + " (status)");
+                getJdbcTemplate().update("CREATE INDEX IF NOT EXISTS " + workTable + "_token_idx ON " + workTable + " (lease_token)");
+            }
+            getJdbcTemplate().update("CREATE TABLE IF NOT EXISTS " + workersTable + " (" +
+                    "worker_id VARCHAR(255) PRIMARY KEY NOT NULL," +
+                    "role VARCHAR(32) NOT NULL," +
+                    "heartbeat BIGINT NOT NULL," +
+                    "enumeration_complete INT NOT NULL DEFAULT 0," +
+                    "drained_at BIGINT NULL" +
+                    ")");
+        } catch (RuntimeException e) {
+            log.error("could not create work tables {}/{}. note: name may only contain alphanumeric or underscore", workTable, workersTable);
+            throw e;
+        }
+    }
+
+    /**
+     * Adds an enumerated object to the work table. Rows are inserted in batches; be sure to call {@link #flush()}
+     * when enumeration is complete. Objects that were completed by a previous run are reset to pending, so they are
+     * synced again. Objects that are still pending (i.e. from a previous, interrupted enumeration) keep their lease
+     */
+    public void enqueue(ObjectSummary summary) {
+        List<ObjectSummary> batch = null;
+        synchronized (enqueueBuffer) {
+            enqueueBuffer.add(summary);
+            if (enqueueBuffer.size() >= options.getWorkLeaseBatchSize()) {
+                batch = new ArrayList<>(enqueueBuffer);
+                enqueueBuffer.clear();
+            }
+        }
+        if (batch != null) insert(batch);
+    }
+
+    public void flush() {
+        List<ObjectSummary> batch;
+        synchronized (enqueueBuffer) {
+            batch = new ArrayList<>(enqueueBuffer);
+            enqueueBuffer.clear();
+        }
+        if (!batch.isEmpty()) insert(batch);
+    }
+
+    protected void insert(List<ObjectSummary> batch) {
+        List<Object[]> params = new ArrayList<>();
+        for (ObjectSummary summary : batch) {
+            params.add(new Object[]{summary.getIdentifier(), summary.isDirectory() ? 1 : 0, summary.getSize(),
+                    summary.getListRowNum(), summary.getListFileRow(), STATUS_PENDING});
+        }
+        getJdbcTemplate().batchUpdate((isMySql() ? "INSERT IGNORE INTO " : "INSERT OR IGNORE INTO ") + workTable
+                + " (source_id, is_directory, size, list_row_num, list_file_row, status) VALUES (?, ?, ?, ?, ?, ?)", params);
+
+        // rows completed by a previous run must be synced again (the object may have changed since)
+        params = new ArrayList<>();
+        for (ObjectSummary summary : batch) {
+            params.add(new Object[]{summary.isDirectory() ? 1 : 0, summary.getSize(), summary.getListRowNum(),
+                    summary.getListFileRow(), STATUS_PENDING, summary.getIdentifier(), STATUS_COMPLETE});
+        }
+        getJdbcTemplate().batchUpdate("UPDATE " + workTable + " SET is_directory = ?, size = ?, list_row_num = ?,"
+                + " list_file_row = ?, status = ?, lease_owner = NULL, lease_token = NULL, lease_expires = NULL"
+                + " WHERE source_id = ? AND status = ?", params);
+    }
+
+    /**
+     * Called by the coordinator once the entire source has been enumerated (and flushed). Workers will not finish
+     * until this is set and all work is complete
+     */
+    public void setEnumerationComplete() {
+        flush();
+        getJdbcTemplate().update("UPDATE " + workersTable + " SET enumeration_complete = 1 WHERE worker_id = ?", workerId);
+        log.info("work lease coordinator {} finished enumeration", workerId);
+    }
+
+    /**
+     * Returns true if the coordinator of the current run has finished enumeration. A coordinator row left over from a
+     * previous run that was already drained before this process started is ignored (this process is early for the
+     * next run and must wait for its coordinator)
+     */
+    public boolean isEnumerationComplete() {
+        Integer count = getJdbcTemplate().queryForObject("SELECT COUNT(*) FROM " + workersTable
+                        + " WHERE role = ? AND enumeration_complete = 1 AND (drained_at IS NULL OR drained_at >= ?)",
+                Integer.class, WorkLeaseRole.Coordinator.toString(), startTime);
+        return count != null && count > 0;
+    }
+
+    /**
+     * Leases the next batch of available work. Available rows are those that are pending and either have never been
+     * leased or whose lease has expired. The batch size is reduced when there is not enough work left to give every
+     * active worker a full batch. Returns an empty list if nothing is available right now.
+     */
+    public List<ObjectSummary> lease() {
+        if (!started || closed) throw new IllegalStateException("lease service is not running");
+        long start = System.nanoTime();
+        List<ObjectSummary> leased = TimingUtil.time(options, OPERATION_LEASE, (Function<List<ObjectSummary>>) this::leaseBatch);
+        long leaseTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        leaseCount.incrementAndGet();
+        leasedRowCount.addAndGet(leased.size());
+        totalLeaseTime.addAndGet(leaseTime);
+        lastLeaseTime = leaseTime;
+        long max;
+        while (leaseTime > (max = maxLeaseTime.get()) && !maxLeaseTime.compareAndSet(max, leaseTime)) ;
+
+        log.debug("leased {} rows in {}ms", leased.size(), leaseTime);
+        return leased;
+    }
+
+    protected List<ObjectSummary> leaseBatch() {
+        int batchSize = getFairBatchSize();
+        String token = UUID.randomUUID().toString();
+        int claimed = 0;
+        for (int attempt = 0; attempt < MAX_CLAIM_ATTEMPTS && claimed == 0; attempt++) {
+            long now = System.currentTimeMillis();
+            List<String> candidates = getJdbcTemplate().queryForList("SELECT source_id FROM " + workTable
+                            + " WHERE status = ? AND (lease_owner IS NULL OR lease_expires < ?) LIMIT ?",
+                    String.class, STATUS_PENDING, now, batchSize);
+            if (candidates.isEmpty()) break;
+
+            // claim candidates optimistically - any rows that were claimed by another worker in the meantime will
+            // not be updated
+            List<Object[]> params = new ArrayList<>();
+            for (String sourceId : candidates) {
+                params.add(new Object[]{workerId, token, now + getLeaseDurationMs(), sourceId, STATUS_PENDING, now});
+            }
+            getJdbcTemplate().batchUpdate("UPDATE " + workTable
+                    + " SET lease_owner = ?, lease_token = ?, lease_expires = ?, lease_count = lease_count + 1"
+                    + " WHERE source_id = ? AND status = ? AND (lease_owner IS NULL OR lease_expires < ?)", params);
+
+            Integer count = getJdbcTemplate().queryForObject("SELECT COUNT(*) FROM " + workTable
+                    + " WHERE lease_token = ?", Integer.class, token);
+            claimed = count == null ? 0 : count;
+        }
+        if (claimed == 0) return new ArrayList<>();
+
+        return getJdbcTemplate().query("SELECT source_id, is_directory, size, list_row_num, list_file_row FROM "
+                + workTable + " WHERE lease_token = ?", (rs, rowNum) -> {
+            ObjectSummary summary = new ObjectSummary(rs.getString("source_id"), rs.getInt("is_directory") != 0,
+                    rs.getLong("size"));
+            summary.setListRowNum(rs.getLong("list_row_num"));
+            summary.setListFileRow(rs.getString("list_file_row"));
+            return summary;
+        }, token);
+    }
+
+    /**
+     * When the remaining work is less than a full batch for every active worker, split it evenly so one worker does
+     * not end up holding the tail of the job
+     */
+    protected int getFairBatchSize() {
+        int batchSize = options.getWorkLeaseBatchSize();
+        int workers = Math.max(1, getActiveWorkerCount());
+        Integer available = getJdbcTemplate().queryForObject("SELECT COUNT(*) FROM (SELECT source_id FROM " + workTable
+                        + " WHERE status = ? AND (lease_owner IS NULL OR lease_expires < ?) LIMIT ?) t", Integer.class,
+                STATUS_PENDING, System.currentTimeMillis(), batchSize * workers);
+        if (available != null && available < batchSize * workers) {
+            batchSize = Math.max(1, (available + workers - 1) / workers);
+        }
+        return batchSize;
+    }
+
+    /**
+     * Acknowledges an object as complete (it will not be leased again)
+     */
+    public void complete(String sourceId) {
+        TimingUtil.time(options, OPERATION_COMPLETE, (Function<Void>) () -> {
+            getJdbcTemplate().update("UPDATE " + workTable + " SET status = ?, lease_owner = NULL, lease_token = NULL,"
+                    + " lease_expires = NULL WHERE source_id = ?", STATUS_COMPLETE, sourceId);
+            return null;
+        });
+    }
+
+    /**
+     * Returns true when enumeration is complete and there is no pending work left (leased or not). The first process
+     * to see this stamps the time on the coordinator row, which ends the run for any process that starts later
+     */
+    public boolean isDrained() {
+        if (!isEnumerationComplete()) return false;
+        Integer pending = getJdbcTemplate().queryForObject("SELECT COUNT(*) FROM (SELECT source_id FROM " + workTable
+                + " WHERE status = ? LIMIT 1) t", Integer.class, STATUS_PENDING);
+        if (pending != null && pending > 0) return false;
+        getJdbcTemplate().update("UPDATE " + workersTable + " SET drained_at = ?"
+                        + " WHERE role = ? AND enumeration_complete = 1 AND drained_at IS NULL",
+                System.currentTimeMillis(), WorkLeaseRole.Coordinator.toString());
+        return true;
+    }
+
+    /**
+     * Workers that have sent a heartbeat within the lease duration
+     */
+    public int getActiveWorkerCount() {
+        Integer count = getJdbcTemplate().queryForObject("SELECT COUNT(*) FROM " + workersTable + " WHERE heartbeat > ?",
+                Integer.class, System.currentTimeMillis() - getLeaseDurationMs());
+        return count == null ? 0 : count;
+    }
+
+    protected void heartbeat() {
+        try {
+            long now = System.currentTimeMillis();
+            getJdbcTemplate().update("UPDATE " + workersTable + " SET heartbeat = ? WHERE worker_id = ?", now, workerId);
+            int renewed = getJdbcTemplate().update("UPDATE " + workTable + " SET lease_expires = ? WHERE lease_owner = ? AND status = ?",
+                    now + getLeaseDurationMs(), workerId, STATUS_PENDING);
+            log.debug("heartbeat: renewed {} leases for {}", renewed, workerId);
+        } catch (Throwable t) {
+            log.warn("work lease heartbeat failed (leases may expire): {}", t.toString());
+        }
+    }
+
+    /**
+     * Stops the heartbeat, releases any leases still held by this process so other workers can pick them up
+     * immediately, and removes this process from the active workers
+     */
+    @Override
+    public synchronized void close() {
+        if (closed || !started) return;
+        closed = true;
+        try {
+            heartbeatExecutor.shutdownNow();
+            getJdbcTemplate().update("UPDATE " + workTable + " SET lease_owner = NULL, lease_token = NULL, lease_expires = NULL"
+                    + " WHERE lease_owner = ? AND status = ?", workerId, STATUS_PENDING);
+            getJdbcTemplate().update("DELETE FROM " + workersTable + " WHERE worker_id = ? AND enumeration_complete = 0", workerId);
+        } catch (Throwable t) {
+            log.warn("could not release work leases for " + workerId, t);
+        }
+        log.info("work lease {} {} closed: {} leases ({} objects), lease latency avg: {}ms, max: {}ms",
+                role, workerId, getLeaseCount(), getLeasedRowCount(), getAverageLeaseTime(), getMaxLeaseTime());
+    }
+
+    protected boolean isMySql() {
+        return dbService instanceof MySQLDbService;
+    }
+
+    protected JdbcTemplate getJdbcTemplate() {
+        return dbService.getJdbcTemplate();
+    }
+
+    protected long getLeaseDurationMs() {
+        return options.getWorkLeaseDurationSeconds() * 1000L;
+    }
+
+    public WorkLeaseRole getRole() {
+        return role;
+    }
+
+    public String getWorkerId() {
+        return workerId;
+    }
+
+    public String getWorkTable() {
+        return workTable;
+    }
+
+    public String getWorkersTable() {
+        return workersTable;
+    }
+
+    public long getLeaseCount() {
+        return leaseCount.get();
+    }
+
+    public long getLeasedRowCount() {
+        return leasedRowCount.get();
+    }
+
+    /**
+     * Average time (in ms) taken to lease a batch of work
+     */
+    public long getAverageLeaseTime() {
+        long count = leaseCount.get();
+        return count == 0 ? 0 : totalLeaseTime.get() / count;
+    }
+
+    public long getMaxLeaseTime() {
+        return maxLeaseTime.get();
+    }
+
+    public long getLastLeaseTime() {
+        return lastLeaseTime;
+    }
+}
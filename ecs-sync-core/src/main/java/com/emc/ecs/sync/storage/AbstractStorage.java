@@ -19,6 +19,7 @@ import com.emc.ecs.sync.AbstractPlugin;
 import com.emc.ecs.sync.SkipObjectException;
 import com.emc.ecs.sync.config.RoleType;
 import com.emc.ecs.sync.filter.SyncFilter;
+import com.emc.ecs.sync.model.ListFileRecord;
 import com.emc.ecs.sync.model.ObjectContext;
 import com.emc.ecs.sync.model.ObjectSummary;
 import com.emc.ecs.sync.model.SyncObject;
@@ -63,9 +64,9 @@ public abstract class AbstractStorage<C> extends AbstractPlugin<C> implements Sy
      */
     @Override
     public ObjectSummary parseListLine(String listLine) {
-        String identifier = options.isSourceListRawValues()
-                ? listLine // take the complete raw value from the list file
-                : getListFileCsvRecord(listLine).get(0);
+        // take the complete raw value from the list file or parse it as CSV (the record is kept on the summary)
+        ListFileRecord record = options.isSourceListRawValues() ? null : ListFileRecord.parse(listLine);
+        String identifier = record == null ? listLine : record.get(0);
 
         ObjectSummary summary = null;
         try {
@@ -75,7 +76,8 @@ public abstract class AbstractStorage<C> extends AbstractPlugin<C> implements Sy
         }
         if (summary == null) summary = new ObjectSummary(identifier, false, 0);
 
-        summary.setListFileRow(listLine);
+        if (record != null) summary.setListFileRecord(record);
+        else summary.setListFileRow(listLine);
         return summary;
     }
 
@@ -19,8 +19,13 @@ import com.emc.ecs.sync.SyncPlugin;
 import com.emc.ecs.sync.model.ObjectContext;
 import com.emc.ecs.sync.model.ObjectSummary;
 import com.emc.ecs.sync.model.SyncObject;
+import com.emc.ecs.sync.rest.EndpointHostStats;
 import com.emc.ecs.sync.util.PerformanceWindow;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 public interface SyncStorage<C> extends SyncPlugin<C> {
     /**
      * Given an object's absolute storage identifier, return the appropriate relative path based on the storage config
@@ -84,6 +89,24 @@ public interface SyncStorage<C> extends SyncPlugin<C> {
      */
     void delete(String identifier, SyncObject object);
 
+    /**
+     * Deletes the object like {@link #delete(String, SyncObject)}, but the delete may complete after this method
+     * returns (i.e. if the plugin batches deletes). The returned future completes when the object is deleted, or
+     * exceptionally if it could not be deleted. Any pending deletes must be complete after {@link #completeDeletes()}.
+     * The default implementation deletes the object synchronously
+     */
+    default CompletableFuture<Void> deleteAsync(String identifier, SyncObject object) {
+        delete(identifier, object);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Waits until all deletes started by {@link #deleteAsync(String, SyncObject)} are complete. This is called after
+     * all sync tasks are finished, before the plugin or the DB is closed. The default implementation does nothing
+     */
+    default void completeDeletes() {
+    }
+
     PerformanceWindow getReadWindow();
 
     PerformanceWindow getWriteWindow();
@@ -97,4 +120,11 @@ public interface SyncStorage<C> extends SyncPlugin<C> {
      * return the current write transfer rate of the plugin in bytes/s.
      */
     long getWriteRate();
+
+    /**
+     * return request statistics for each endpoint host, if the plugin routes requests to its hosts itself.
+     */
+    default List<EndpointHostStats> getHostStats() {
+        return Collections.emptyList();
+    }
 }
@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2026 Dell Inc. or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.emc.ecs.sync.util;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded pool of reusable I/O buffers (byte arrays, heap ByteBuffers and direct ByteBuffers). Copy paths lease a
+ * buffer, use it, and release it when done, so a busy job does not allocate (and collect) a new buffer for every
+ * object. Buffers are pooled by exact size, and only up to <code>maxPooledBytes</code> are held in the pool (heap and
+ * direct buffers are bounded separately); released buffers beyond that are left for the garbage collector.
+ * <p>
+ * A buffer must not be used after it is released, and must only be released once. Buffers that are never released
+ * are simply collected. Each sync job has its own pool (see {@link com.emc.ecs.sync.EcsSync#getBufferPool()});
+ * {@link #getShared()} is used where no job is available.
+ */
+public class BufferPool {
+    public static final long DEFAULT_MAX_POOLED_BYTES = 32 * 1024 * 1024; // 32MB
+
+    private static final BufferPool shared = new BufferPool(DEFAULT_MAX_POOLED_BYTES);
+
+    /**
+     * A process-wide pool for code that does not run within a sync job (i.e. static utility methods)
+     */
+    public static BufferPool getShared() {
+        return shared;
+    }
+
+    private volatile long maxPooledBytes;
+    private final Map<Integer, Queue<byte[]>> arrays = new ConcurrentHashMap<>();
+    private final Map<Integer, Queue<ByteBuffer>> directBuffers = new ConcurrentHashMap<>();
+    private final AtomicLong pooledHeapBytes = new AtomicLong();
+    private final AtomicLong pooledDirectBytes = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong discards = new AtomicLong();
+
+    /**
+     * @param maxPooledBytes the maximum bytes held in the pool (each for heap and direct buffers)
+     */
+    public BufferPool(long maxPooledBytes) {
+        this.maxPooledBytes = maxPooledBytes;
+    }
+
+    /**
+     * Leases a byte array of exactly <code>size</code> bytes. Contents are undefined
+     */
+    public byte[] leaseArray(int size) {
+        byte[] array = poll(arrays, size, pooledHeapBytes);
+        return array != null ? array : new byte[size];
+    }
+
+    public void release(byte[] array) {
+        if (array != null) offer(arrays, array.length, array, pooledHeapBytes);
+    }
+
+    /**
+     * Leases a cleared ByteBuffer with exactly <code>capacity</code> bytes. Heap buffers are backed by pooled byte
+     * arrays (see {@link #leaseArray(int)})
+     */
+    public ByteBuffer leaseBuffer(int capacity, boolean direct) {
+        if (!direct) return ByteBuffer.wrap(leaseArray(capacity));
+        ByteBuffer buffer = poll(directBuffers, capacity, pooledDirectBytes);
+        if (buffer == null) return ByteBuffer.allocateDirect(capacity);
+        buffer.clear();
+        return buffer;
+    }
+
+    public void release(ByteBuffer buffer) {
+        if (buffer == null) return;
+        if (buffer.isDirect()) offer(directBuffers, buffer.capacity(), buffer, pooledDirectBytes);
+        else if (buffer.hasArray() && buffer.arrayOffset() == 0 && buffer.array().length == buffer.capacity())
+            release(buffer.array());
+    }
+
+    private <T> T poll(Map<Integer, Queue<T>> pool, int size, AtomicLong pooledBytes) {
+        Queue<T> queue = pool.get(size);
+        T buffer = queue == null ? null : queue.poll();
+        if (buffer != null) {
+            pooledBytes.addAndGet(-size);
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        return buffer;
+    }
+
+    private <T> void offer(Map<Integer, Queue<T>> pool, int size, T buffer, AtomicLong pooledBytes) {
+        // reserve the space first, so concurrent releases cannot exceed the limit
+        if (pooledBytes.addAndGet(size) > maxPooledBytes) {
+            pooledBytes.addAndGet(-size);
+            discards.incrementAndGet();
+            return;
+        }
+        pool.computeIfAbsent(size, k -> new ConcurrentLinkedQueue<>()).offer(buffer);
+    }
+
+    /**
+     * Drops all pooled buffers
+     */
+    public void clear() {
+        for (Queue<byte[]> queue : arrays.values()) {
+            byte[] array;
+            while ((array = queue.poll()) != null) pooledHeapBytes.addAndGet(-array.length);
+        }
+        for (Queue<ByteBuffer> queue : directBuffers.values()) {
+            ByteBuffer buffer;
+            while ((buffer = queue.poll()) != null) pooledDirectBytes.addAndGet(-buffer.capacity());
+        }
+    }
+
+    public long getMaxPooledBytes() {
+        return maxPooledBytes;
+    }
+
+    /**
+     * Changes the limit of the pool (i.e. when the thread count of a job changes). If the pool currently holds more,
+     * it will shrink as buffers are leased
+     */
+    public void setMaxPooledBytes(long maxPooledBytes) {
+        this.maxPooledBytes = maxPooledBytes;
+    }
+
+    /**
+     * Number of leases that were served from the pool
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Number of leases that had to allocate a new buffer
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Number of released buffers that did not fit in the pool
+     */
+    public long getDiscards() {
+        return discards.get();
+    }
+
+    public long getPooledHeapBytes() {
+        return pooledHeapBytes.get();
+    }
+
+    public long getPooledDirectBytes() {
+        return pooledDirectBytes.get();
+    }
+
+    public double getHitRatio() {
+        long hits = getHits(), total = hits + getMisses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BufferPool{hits=%d, misses=%d (%.1f%% hit ratio), discards=%d, pooledHeapBytes=%d, pooledDirectBytes=%d, maxPooledBytes=%d}",
+                getHits(), getMisses(), getHitRatio() * 100, getDiscards(), getPooledHeapBytes(), getPooledDirectBytes(),
+                getMaxPooledBytes());
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2026 Dell Inc. or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.emc.ecs.sync.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.ByteBuffer;
+import java.util.zip.Checksum;
+
+/**
+ * CRC-32C (Castagnoli). On Java 9+, this uses java.util.zip.CRC32C, which the JVM accelerates with the SSE4.2/ARMv8
+ * CRC32 instructions. Otherwise, it falls back to a table-driven (slicing-by-8) implementation.
+ */
+public class Crc32c implements Hasher {
+    private static final Logger log = LoggerFactory.getLogger(Crc32c.class);
+
+    private static final int POLYNOMIAL = 0x82F63B78; // reflected
+    private static final int[][] TABLES = new int[8][256];
+    private static final MethodHandle JDK_CONSTRUCTOR;
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            int crc = i;
+            for (int j = 0; j < 8; j++) {
+                crc = (crc & 1) != 0 ? (crc >>> 1) ^ POLYNOMIAL : crc >>> 1;
+            }
+            TABLES[0][i] = crc;
+        }
+        for (int i = 0; i < 256; i++) {
+            for (int t = 1; t < 8; t++) {
+                TABLES[t][i] = (TABLES[t - 1][i] >>> 8) ^ TABLES[0][TABLES[t - 1][i] & 0xff];
+            }
+        }
+
+        MethodHandle constructor = null;
+        try {
+            constructor = MethodHandles.publicLookup().findConstructor(Class.forName("java.util.zip.CRC32C"),
+                    MethodType.methodType(void.class)).asType(MethodType.methodType(Checksum.class));
+        } catch (ReflectiveOperationException e) {
+            log.debug("java.util.zip.CRC32C is not available; using table-driven CRC32C");
+        }
+        JDK_CONSTRUCTOR = constructor;
+    }
+
+    private final Checksum jdkChecksum;
+    private int crc = 0xffffffff;
+    private byte[] scratch;
+
+    public Crc32c() {
+        this(JDK_CONSTRUCTOR != null);
+    }
+
+    Crc32c(boolean useJdk) {
+        Checksum checksum = null;
+        if (useJdk && JDK_CONSTRUCTOR != null) {
+            try {
+                checksum = (Checksum) JDK_CONSTRUCTOR.invokeExact();
+            } catch (Throwable t) {
+                log.debug("could not create java.util.zip.CRC32C", t);
+            }
+        }
+        this.jdkChecksum = checksum;
+    }
+
+    @Override
+    public void update(byte[] buffer, int offset, int length) {
+        if (jdkChecksum != null) jdkChecksum.update(buffer, offset, length);
+        else crc = update(crc, buffer, offset, length);
+    }
+
+    @Override
+    public void update(ByteBuffer buffer) {
+        if (buffer.hasArray()) {
+            update(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            buffer.position(buffer.limit());
+        } else {
+            if (scratch == null) scratch = new byte[64 * 1024];
+            while (buffer.hasRemaining()) {
+                int length = Math.min(scratch.length, buffer.remaining());
+                buffer.get(scratch, 0, length);
+                update(scratch, 0, length);
+            }
+        }
+    }
+
+    public int getValue() {
+        return jdkChecksum != null ? (int) jdkChecksum.getValue() : ~crc;
+    }
+
+    @Override
+    public byte[] digest() {
+        return toBytes(getValue());
+    }
+
+    private static int update(int crc, byte[] b, int off, int len) {
+        while (len >= 8) {
+            int lo = crc ^ ((b[off] & 0xff) | (b[off + 1] & 0xff) << 8 | (b[off + 2] & 0xff) << 16 | (b[off + 3] & 0xff) << 24);
+            crc = TABLES[7][lo & 0xff] ^ TABLES[6][(lo >>> 8) & 0xff] ^ TABLES[5][(lo >>> 16) & 0xff] ^ TABLES[4][lo >>> 24]
+                    ^ TABLES[3][b[off + 4] & 0xff] ^ TABLES[2][b[off + 5] & 0xff]
+                    ^ TABLES[1][b[off + 6] & 0xff] ^ TABLES[0][b[off + 7] & 0xff];
+            off += 8;
+            len -= 8;
+        }
+        while (len-- > 0) {
+            crc = (crc >>> 8) ^ TABLES[0][(crc ^ b[off++]) & 0xff];
+        }
+        return crc;
+    }
+
+    /**
+     * Combines the CRC of two consecutive blocks of data into the CRC of the whole, given the length of the second
+     * block (the zlib crc32_combine algorithm). This allows parts of an object to be checksummed in parallel.
+     */
+    public static int combine(int crc1, int crc2, long length2) {
+        if (length2 <= 0) return crc1;
+
+        int[] even = new int[32]; // even-power-of-two zeros operator
+        int[] odd = new int[32]; // odd-power-of-two zeros operator
+
+        // put operator for one zero bit in odd
+        odd[0] = POLYNOMIAL;
+        int row = 1;
+        for (int n = 1; n < 32; n++) {
+            odd[n] = row;
+            row <<= 1;
+        }
+
+        gf2MatrixSquare(even, odd); // put operator for two zero bits in even
+        gf2MatrixSquare(odd, even); // put operator for four zero bits in odd
+
+        // apply length2 zeros to crc1 (first square will put the operator for one zero byte, eight zero bits, in even)
+        do {
+            gf2MatrixSquare(even, odd);
+            if ((length2 & 1) != 0) crc1 = gf2MatrixTimes(even, crc1);
+            length2 >>>= 1;
+            if (length2 == 0) break;
+
+            gf2MatrixSquare(odd, even);
+            if ((length2 & 1) != 0) crc1 = gf2MatrixTimes(odd, crc1);
+            length2 >>>= 1;
+        } while (length2 != 0);
+
+        return crc1 ^ crc2;
+    }
+
+    public static int fromBytes(byte[] value) {
+        return (value[0] & 0xff) << 24 | (value[1] & 0xff) << 16 | (value[2] & 0xff) << 8 | (value[3] & 0xff);
+    }
+
+    public static byte[] toBytes(int value) {
+        return new byte[]{(byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8), (byte) value};
+    }
+
+    private static int gf2MatrixTimes(int[] mat, int vec) {
+        int sum = 0;
+        int i = 0;
+        while (vec != 0) {
+            if ((vec & 1) != 0) sum ^= mat[i];
+            vec >>>= 1;
+            i++;
+        }
+        return sum;
+    }
+
+    private static void gf2MatrixSquare(int[] square, int[] mat) {
+        for (int n = 0; n < 32; n++) {
+            square[n] = gf2MatrixTimes(mat, mat[n]);
+        }
+    }
+}
@@ -15,16 +15,18 @@
  */
 package com.emc.ecs.sync.util;
 
+import com.emc.ecs.sync.config.ChecksumAlgorithm;
+
 import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.security.DigestInputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.*;
 
 /**
- * InputStream wrapper that counts the number of bytes that have been read and (optionally) calculates a checksum on the
- * data
+ * InputStream wrapper that counts the number of bytes that have been read and (optionally) calculates checksums on the
+ * data (see {@link ChecksumEngine})
  */
 public class EnhancedInputStream extends FilterInputStream {
     public static final int UNSIZED = -1;
@@ -40,6 +42,8 @@ public class EnhancedInputStream extends FilterInputStream {
     private long size;
     private boolean closed = false;
     private long bytesRead = 0;
+    private final Map<ChecksumAlgorithm, Hasher> hashers = new EnumMap<>(ChecksumAlgorithm.class);
+    private Map<ChecksumAlgorithm, byte[]> digests;
 
     public EnhancedInputStream(InputStream in) {
         this(in, UNSIZED, false);
@@ -54,32 +58,46 @@ public class EnhancedInputStream extends FilterInputStream {
     }
 
     public EnhancedInputStream(InputStream in, long size, boolean calculateMd5) {
-        super(calculateMd5 ? new DigestInputStream(in, createMd5Digest()) : in);
+        this(in, size, calculateMd5 ? EnumSet.of(ChecksumAlgorithm.MD5) : EnumSet.noneOf(ChecksumAlgorithm.class));
+    }
+
+    public EnhancedInputStream(InputStream in, long size, Collection<ChecksumAlgorithm> checksumAlgorithms) {
+        super(in);
         this.size = size;
+        for (ChecksumAlgorithm algorithm : checksumAlgorithms) {
+            hashers.put(algorithm, ChecksumEngine.newHasher(algorithm));
+        }
     }
 
-	@Override
-	public int read(byte[] b) throws IOException {
-		return read(b, 0, b.length);
-	}
-	
-	@Override
-	public int read(byte[] b, int off, int len) throws IOException {
+    @Override
+    public int read(byte[] b) throws IOException {
+        return read(b, 0, b.length);
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
         checkClosed();
-		int c = super.read(b, off, len);
-		if(c != -1) {
-			bytesRead += c;
-		}
-		return c;
-	}
-	
-	@Override
-	public int read() throws IOException {
+        int c = super.read(b, off, len);
+        if(c != -1) {
+            bytesRead += c;
+            for (Hasher hasher : hashers.values()) hasher.update(b, off, c);
+        }
+        return c;
+    }
+
+    @Override
+    public int read() throws IOException {
         checkClosed();
-		int v = super.read();
-		if (v != -1) bytesRead++;
-		return v;
-	}
+        int v = super.read();
+        if (v != -1) {
+            bytesRead++;
+            if (!hashers.isEmpty()) {
+                byte[] b = new byte[]{(byte) v};
+                for (Hasher hasher : hashers.values()) hasher.update(b, 0, 1);
+            }
+        }
+        return v;
+    }
 
 	@Override
     public synchronized void close() throws IOException {
@@ -108,9 +126,40 @@ public class EnhancedInputStream extends FilterInputStream {
 		return bytesRead;
 	}
 
+    public boolean isChecksumEnabled(ChecksumAlgorithm algorithm) {
+        return hashers.containsKey(algorithm);
+    }
+
+    /**
+     * Enables calculation of another checksum. This is only possible before any data has been read.
+     *
+     * @return true if the checksum is (now) enabled
+     */
+    public synchronized boolean enableChecksum(ChecksumAlgorithm algorithm) {
+        if (hashers.containsKey(algorithm)) return true;
+        if (bytesRead > 0 || closed) return false;
+        hashers.put(algorithm, ChecksumEngine.newHasher(algorithm));
+        return true;
+    }
+
     public byte[] getMd5Digest() {
-        if (!(in instanceof DigestInputStream)) throw new UnsupportedOperationException("MD5 checksum is not enabled");
+        if (!isChecksumEnabled(ChecksumAlgorithm.MD5)) throw new UnsupportedOperationException("MD5 checksum is not enabled");
         if (!closed) throw new UnsupportedOperationException("cannot get MD5 until stream is closed");
-        return ((DigestInputStream) in).getMessageDigest().digest();
+        return getDigest(ChecksumAlgorithm.MD5);
+    }
+
+    /**
+     * @return the checksum of all data read, once the stream is closed
+     */
+    public synchronized byte[] getDigest(ChecksumAlgorithm algorithm) {
+        if (!isChecksumEnabled(algorithm)) throw new UnsupportedOperationException(algorithm + " checksum is not enabled");
+        if (!closed) throw new UnsupportedOperationException("cannot get " + algorithm + " checksum until stream is closed");
+        if (digests == null) {
+            digests = new EnumMap<>(ChecksumAlgorithm.class);
+            for (Map.Entry<ChecksumAlgorithm, Hasher> entry : hashers.entrySet()) {
+                digests.put(entry.getKey(), entry.getValue().digest());
+            }
+        }
+        return digests.get(algorithm);
     }
 }
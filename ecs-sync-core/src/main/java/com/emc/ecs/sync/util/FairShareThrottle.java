@@ -0,0 +1,340 @@
+/*
+ * Copyright (c) 2026 Dell Inc. or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.emc.ecs.sync.util;
+
+import engineering.clientside.throttle.Throttle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Divides a global rate (bytes/s or objects/s) between several jobs using weighted max-min fair sharing.
+ * Each job gets its own {@link Share}, which is a regular {@link Throttle} and can be handed to anything that
+ * acquires permits today (i.e. {@link ThrottledInputStream} or the TPS throttle in EcsSync).
+ * <p>
+ * Share rates are recalculated at most once per rebalance interval (lazily, by whichever thread acquires first after
+ * the interval expires), or immediately when a share is added, removed or re-weighted. Each share is first granted
+ * its minimum guaranteed rate (capped at what it is actually using), then the remaining capacity is water-filled by
+ * weight, so capacity a job does not use is redistributed to jobs that can use it. A share that consumed most of its
+ * allotment in the last interval is considered constrained and competes for the full remainder.
+ * Every share may burst up to <code>burstSeconds</code> worth of unused permits.
+ */
+public class FairShareThrottle {
+    private static final Logger log = LoggerFactory.getLogger(FairShareThrottle.class);
+
+    public static final long DEFAULT_REBALANCE_INTERVAL_MS = 1000;
+    public static final double DEFAULT_BURST_SECONDS = 1;
+
+    // a share using at least this fraction of its allotment is assumed to want more
+    static final double SATURATION_RATIO = 0.9;
+    // non-constrained shares get this much headroom over their measured usage
+    static final double DEMAND_HEADROOM = 1.25;
+    // no share drops below this fraction of the total (or its equal part of the total if there are more shares than
+    // that allows), so an idle job can ramp up before the next rebalance
+    static final double FLOOR_RATIO = 0.01;
+
+    private final String name;
+    private final List<Share> shares = new CopyOnWriteArrayList<>();
+    private final AtomicLong nextRebalanceNanos = new AtomicLong();
+    private volatile double rate;
+    private volatile double burstSeconds = DEFAULT_BURST_SECONDS;
+    private volatile long rebalanceIntervalNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_REBALANCE_INTERVAL_MS);
+    private long lastRebalanceNanos = System.nanoTime();
+
+    public FairShareThrottle(String name, double rate) {
+        if (rate <= 0) throw new IllegalArgumentException("rate must be positive");
+        this.name = name;
+        this.rate = rate;
+    }
+
+    /**
+     * Creates a new share of this throttle with the given weight and minimum guaranteed rate. The share takes part in
+     * the next rebalance, which happens immediately.
+     */
+    public Share newShare(String shareName, double weight, double minimumRate) {
+        Share share = new Share(shareName, weight, minimumRate);
+        shares.add(share);
+        rebalance();
+        return share;
+    }
+
+    public void removeShare(Share share) {
+        if (shares.remove(share)) rebalance();
+    }
+
+    /**
+     * Recalculates the rate of every share now
+     */
+    public void rebalance() {
+        rebalance(System.nanoTime());
+    }
+
+    synchronized void rebalance(long nowNanos) {
+        nextRebalanceNanos.set(nowNanos + rebalanceIntervalNanos);
+        List<Share> snapshot = new ArrayList<>(shares);
+        // forced rebalances (add/remove/re-weight) reuse the last measured demand instead of measuring a tiny window
+        long elapsedNanos = nowNanos - lastRebalanceNanos;
+        boolean measure = elapsedNanos >= rebalanceIntervalNanos / 2;
+        if (measure) lastRebalanceNanos = nowNanos;
+        if (snapshot.isEmpty()) return;
+
+        int n = snapshot.size();
+        double total = rate, floor = Math.min(total * FLOOR_RATIO, total / n);
+        double[] demand = new double[n], alloc = new double[n], minimum = new double[n];
+
+        // minimums can never add up to more than the total
+        double minimumSum = 0;
+        for (Share share : snapshot) minimumSum += share.minimumRate;
+        double minimumScale = minimumSum > total ? total / minimumSum : 1;
+
+        for (int i = 0; i < n; i++) {
+            Share share = snapshot.get(i);
+            minimum[i] = share.minimumRate * minimumScale;
+            if (share.fresh) {
+                share.demand = Double.POSITIVE_INFINITY;
+                if (measure) share.fresh = false;
+            } else if (measure) {
+                double usedRate = share.usedPermits.get() * 1e9 / elapsedNanos;
+                if (usedRate >= share.getRate() * SATURATION_RATIO) share.demand = Double.POSITIVE_INFINITY;
+                else share.demand = Math.max(usedRate * DEMAND_HEADROOM, floor);
+            }
+            if (measure) share.usedPermits.set(0);
+            demand[i] = share.demand;
+        }
+
+        // 1. minimum guarantees (only as much as is actually wanted) and the floor
+        double allocSum = 0;
+        for (int i = 0; i < n; i++) {
+            alloc[i] = Math.max(Math.min(minimum[i], demand[i]), floor);
+            allocSum += alloc[i];
+        }
+        // minimums and floors together can still exceed the total
+        if (allocSum > total) {
+            for (int i = 0; i < n; i++) alloc[i] *= total / allocSum;
+            allocSum = total;
+        }
+        double remaining = total - allocSum;
+
+        // 2. water-fill the remainder by weight among shares that still want more
+        boolean[] satisfied = new boolean[n];
+        while (remaining > total * 1e-9) {
+            double weightSum = 0;
+            for (int i = 0; i < n; i++) {
+                if (!satisfied[i]) weightSum += snapshot.get(i).weight;
+            }
+            if (weightSum == 0) break;
+            double given = 0;
+            for (int i = 0; i < n; i++) {
+                if (satisfied[i]) continue;
+                double offer = remaining * snapshot.get(i).weight / weightSum;
+                double take = Math.min(offer, demand[i] - alloc[i]);
+                if (take < offer) satisfied[i] = true;
+                alloc[i] += take;
+                given += take;
+            }
+            remaining -= given;
+            if (given == 0) break;
+        }
+
+        // 3. if everyone is satisfied, hand out the rest by weight so shares can grow until the next rebalance
+        if (remaining > total * 1e-9) {
+            double weightSum = 0;
+            for (Share share : snapshot) weightSum += share.weight;
+            for (int i = 0; i < n; i++) {
+                alloc[i] += remaining * snapshot.get(i).weight / weightSum;
+            }
+        }
+
+        for (int i = 0; i < n; i++) {
+            snapshot.get(i).throttle.setRate(alloc[i]);
+        }
+        if (log.isDebugEnabled()) log.debug("{} rebalanced: {}", name, snapshot);
+    }
+
+    private void maybeRebalance() {
+        long now = System.nanoTime(), next = nextRebalanceNanos.get();
+        if (now - next >= 0 && nextRebalanceNanos.compareAndSet(next, now + rebalanceIntervalNanos)) rebalance(now);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<Share> getShares() {
+        return new ArrayList<>(shares);
+    }
+
+    public double getRate() {
+        return rate;
+    }
+
+    /**
+     * Changes the global rate and rebalances all shares
+     */
+    public void setRate(double rate) {
+        if (rate <= 0) throw new IllegalArgumentException("rate must be positive");
+        this.rate = rate;
+        rebalance();
+    }
+
+    public double getBurstSeconds() {
+        return burstSeconds;
+    }
+
+    /**
+     * Sets the number of seconds of unused permits a share may save up and spend at once. Only affects shares
+     * created after this call
+     */
+    public void setBurstSeconds(double burstSeconds) {
+        this.burstSeconds = burstSeconds;
+    }
+
+    public long getRebalanceIntervalMs() {
+        return TimeUnit.NANOSECONDS.toMillis(rebalanceIntervalNanos);
+    }
+
+    public void setRebalanceIntervalMs(long rebalanceIntervalMs) {
+        this.rebalanceIntervalNanos = TimeUnit.MILLISECONDS.toNanos(rebalanceIntervalMs);
+    }
+
+    @Override
+    public String toString() {
+        return "FairShareThrottle{name=" + name + ", rate=" + rate + ", shares=" + shares.size() + '}';
+    }
+
+    /**
+     * One job's share of a {@link FairShareThrottle}. The rate is assigned by the parent; use
+     * {@link #setWeight(double)} or {@link #setMinimumRate(double)} to change it.
+     */
+    public class Share implements Throttle {
+        private final String shareName;
+        private final Throttle throttle;
+        private final AtomicLong usedPermits = new AtomicLong();
+        private volatile double weight;
+        private volatile double minimumRate;
+        private volatile boolean fresh = true;
+        private double demand = Double.POSITIVE_INFINITY; // guarded by the parent
+
+        Share(String shareName, double weight, double minimumRate) {
+            if (weight <= 0) throw new IllegalArgumentException("weight must be positive");
+            if (minimumRate < 0) throw new IllegalArgumentException("minimum rate cannot be negative");
+            this.shareName = shareName;
+            this.weight = weight;
+            this.minimumRate = minimumRate;
+            // real rate is assigned by the first rebalance
+            this.throttle = Throttle.create(rate, burstSeconds, true);
+        }
+
+        public String getShareName() {
+            return shareName;
+        }
+
+        public double getWeight() {
+            return weight;
+        }
+
+        /**
+         * Changes the weight of this share and rebalances immediately
+         */
+        public void setWeight(double weight) {
+            if (weight <= 0) throw new IllegalArgumentException("weight must be positive");
+            this.weight = weight;
+            this.fresh = true; // let it compete for its new share right away
+            rebalance();
+        }
+
+        public double getMinimumRate() {
+            return minimumRate;
+        }
+
+        /**
+         * Changes the minimum guaranteed rate of this share and rebalances immediately
+         */
+        public void setMinimumRate(double minimumRate) {
+            if (minimumRate < 0) throw new IllegalArgumentException("minimum rate cannot be negative");
+            this.minimumRate = minimumRate;
+            rebalance();
+        }
+
+        public FairShareThrottle getParent() {
+            return FairShareThrottle.this;
+        }
+
+        @Override
+        public double getRate() {
+            return throttle.getRate();
+        }
+
+        /**
+         * Unsupported; share rates are assigned by the parent {@link FairShareThrottle}
+         */
+        @Override
+        public void setRate(double permitsPerSecond) {
+            throw new UnsupportedOperationException("share rates are assigned by the parent; change the weight instead");
+        }
+
+        @Override
+        public double acquire(int permits) throws InterruptedException {
+            long waitDuration = acquireDelayDuration(permits);
+            NANOSECONDS.sleep(waitDuration);
+            return waitDuration / 1e9;
+        }
+
+        @Override
+        public long acquireDelayDuration(int permits) {
+            maybeRebalance();
+            long waitDuration = throttle.acquireDelayDuration(permits);
+            usedPermits.addAndGet(permits);
+            return waitDuration;
+        }
+
+        @Override
+        public boolean tryAcquire(int permits) {
+            maybeRebalance();
+            boolean acquired = throttle.tryAcquire(permits);
+            if (acquired) usedPermits.addAndGet(permits);
+            return acquired;
+        }
+
+        @Override
+        public boolean tryAcquire(int permits, long timeout, TimeUnit unit) throws InterruptedException {
+            long waitDuration = tryAcquireDelayDuration(permits, timeout, unit);
+            if (waitDuration < 0) return false;
+            NANOSECONDS.sleep(waitDuration);
+            return true;
+        }
+
+        @Override
+        public long tryAcquireDelayDuration(int permits, long timeout, TimeUnit unit) {
+            maybeRebalance();
+            long waitDuration = throttle.tryAcquireDelayDuration(permits, timeout, unit);
+            if (waitDuration >= 0) usedPermits.addAndGet(permits);
+            return waitDuration;
+        }
+
+        @Override
+        public String toString() {
+            return "Share{name=" + shareName + ", weight=" + weight + ", minimum=" + minimumRate + ", rate=" + getRate() + '}';
+        }
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2026 Dell Inc. or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.emc.ecs.sync.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Incremental checksum calculation (see {@link ChecksumEngine}). Instances are not thread-safe.
+ */
+public interface Hasher {
+    void update(byte[] buffer, int offset, int length);
+
+    /**
+     * Consumes the remaining bytes of the buffer
+     */
+    void update(ByteBuffer buffer);
+
+    /**
+     * Completes the calculation and returns the checksum (big-endian for numeric checksums). The hasher must not be
+     * used afterward.
+     */
+    byte[] digest();
+}
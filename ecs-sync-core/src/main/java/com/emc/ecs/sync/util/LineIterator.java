@@ -19,6 +19,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
+import java.util.regex.Pattern;
 
 /**
  * Basic line iterator for text files or streams. It trims white space, ignores blank lines and supports hash
@@ -27,6 +28,36 @@ import java.io.*;
 public class LineIterator extends ReadOnlyIterator<String> {
     private static final Logger log = LoggerFactory.getLogger(LineIterator.class);
 
+    // regex explanation:
+    // - match the whole line
+    // - end of line must contain a non-quoted, non-escaped hash (this is a comment)
+    //     - this part (the comment) is removed
+    // - matching group (part that will not be removed) contains any number of the following:
+    //     - a quoted value (may contain two-quotes to denote a quote inside the value)
+    //     - a string without quotes or hashes
+    //     - an unquoted, escaped hash (\#)
+    private static final Pattern COMMENT_PATTERN = Pattern.compile("^((?:\"[^\"]*\"|\\\\#|[^\"#])*)(?<!\\\\)#.*$");
+    private static final Pattern ESCAPED_HASH_PATTERN = Pattern.compile("^((?:\"[^\"]*\"|[^\"])*?)\\\\#");
+
+    /**
+     * Removes comments, trims white space and unescapes hashes in a line (unless rawValues is true). Returns an empty
+     * string if the line should be skipped
+     */
+    public static String processLine(String line, boolean rawValues) {
+        if (rawValues) return line; // don't do any parsing if we need raw values
+        // without a hash, there is no comment or escape to deal with
+        if (line.indexOf('#') < 0) return line.trim();
+        line = COMMENT_PATTERN.matcher(line).replaceFirst("$1"); // remove comment
+        line = line.trim();
+        // unescape hashes
+        int lastLength;
+        do {
+            lastLength = line.length();
+            line = ESCAPED_HASH_PATTERN.matcher(line).replaceFirst("$1#");
+        } while (lastLength != line.length());
+        return line;
+    }
+
     boolean rawValues;
     BufferedReader br;
     int currentLine = 0;
@@ -70,24 +101,7 @@ public class LineIterator extends ReadOnlyIterator<String> {
                 line = br.readLine();
                 if (line == null) break;
                 currentLine++;
-                if (!rawValues) { // don't do any parsing if we need raw values
-                    // regex explanation:
-                    // - match the whole line
-                    // - end of line must contain a non-quoted, non-escaped hash (this is a comment)
-                    //     - this part (the comment) is removed
-                    // - matching group (part that will not be removed) contains any number of the following:
-                    //     - a quoted value (may contain two-quotes to denote a quote inside the value)
-                    //     - a string without quotes or hashes
-                    //     - an unquoted, escaped hash (\#)
-                    line = line.replaceFirst("^((?:\"[^\"]*\"|\\\\#|[^\"#])*)(?<!\\\\)#.*$", "$1"); // remove comment
-                    line = line.trim();
-                    // unescape hashes
-                    int lastLength;
-                    do {
-                        lastLength = line.length();
-                        line = line.replaceFirst("^((?:\"[^\"]*\"|[^\"])*?)\\\\#", "$1#");
-                    } while (lastLength != line.length());
-                }
+                line = processLine(line, rawValues);
             } while (line.length() == 0);
 
             if (line == null) {
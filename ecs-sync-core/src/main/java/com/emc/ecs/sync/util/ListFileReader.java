@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2026 Dell Inc. or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.emc.ecs.sync.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Reads a list file in parallel. The file is memory-mapped and split into chunks on line boundaries; each chunk is
+ * decoded and parsed (see {@link LineIterator#processLine(String, boolean)}) by a task in the provided executor, which
+ * hands the resulting lines to the handler as a single {@link Batch}. This keeps the reading thread from being a
+ * bottleneck for very large files and avoids creating a task per line.
+ * <p>
+ * The only work done by the reading thread is to find chunk boundaries and count the lines in each chunk, so every
+ * line keeps its row number in the file (blank and comment lines are counted, but not returned). Lines are terminated
+ * by <code>\n</code> (a preceding <code>\r</code> is removed). The file is decoded with the default charset (as
+ * {@link LineIterator} does), which must be ASCII-compatible.
+ */
+public class ListFileReader {
+    private static final Logger log = LoggerFactory.getLogger(ListFileReader.class);
+
+    public static final int DEFAULT_CHUNK_SIZE = 1024 * 1024; // 1MB
+
+    private final File file;
+    private final boolean rawValues;
+    private final int chunkSize;
+    private final Charset charset = Charset.defaultCharset();
+
+    public ListFileReader(File file, boolean rawValues) {
+        this(file, rawValues, DEFAULT_CHUNK_SIZE);
+    }
+
+    public ListFileReader(File file, boolean rawValues, int chunkSize) {
+        this.file = file;
+        this.rawValues = rawValues;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Splits the file into chunks and submits a task for each one to the executor. Returns once all chunks are
+     * submitted (or running returns false); the caller must wait for the executor to finish the tasks. Errors in the
+     * handler are the responsibility of the handler.
+     *
+     * @return the number of chunks submitted
+     */
+    public int read(EnhancedThreadPoolExecutor executor, BooleanSupplier running, Consumer<Batch> handler) {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size(), position = 0, linesBefore = 0;
+            int chunks = 0;
+            while (position < size && running.getAsBoolean()) {
+                long end = findChunkEnd(channel, position, size);
+                MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, position, end - position);
+                long lineCount = countLines(chunk);
+
+                final long firstRowNum = linesBefore + 1;
+                executor.blockingSubmit(() -> handler.accept(parseChunk(chunk, firstRowNum)));
+
+                linesBefore += lineCount;
+                position = end;
+                chunks++;
+            }
+            log.info("read {} lines in {} chunks from {}", linesBefore, chunks, file);
+            return chunks;
+        } catch (IOException e) {
+            throw new UncheckedIOException("could not read list file " + file, e);
+        }
+    }
+
+    /**
+     * Returns the end (exclusive) of the chunk starting at position; this is just past the last line terminator in
+     * the next chunkSize bytes, or the end of the file. If a line is longer than chunkSize, the chunk is extended to
+     * include the whole line
+     */
+    long findChunkEnd(FileChannel channel, long position, long size) throws IOException {
+        long end = Math.min(position + chunkSize, size);
+        if (end == size) return end;
+        long searchStart = position;
+        while (true) {
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, searchStart, end - searchStart);
+            for (int i = window.limit() - 1; i >= 0; i--) {
+                if (window.get(i) == '\n') return searchStart + i + 1;
+            }
+            if (end == size) return end;
+            if (end - position + chunkSize > Integer.MAX_VALUE)
+                throw new IllegalStateException("line at byte " + position + " is too long in list file " + file);
+            searchStart = end;
+            end = Math.min(end + chunkSize, size);
+        }
+    }
+
+    /**
+     * Counts the lines in a chunk (an unterminated last line counts as a line)
+     */
+    static long countLines(MappedByteBuffer chunk) {
+        long count = 0;
+        int limit = chunk.limit();
+        for (int i = 0; i < limit; i++) {
+            if (chunk.get(i) == '\n') count++;
+        }
+        if (limit > 0 && chunk.get(limit - 1) != '\n') count++;
+        return count;
+    }
+
+    Batch parseChunk(MappedByteBuffer chunk, long firstRowNum) {
+        CharBuffer chars = charset.decode(chunk.duplicate());
+        Batch batch = new Batch();
+        long rowNum = firstRowNum;
+        int lineStart = 0, length = chars.length();
+        for (int i = 0; i <= length; i++) {
+            if (i == length && i == lineStart) break; // no unterminated last line
+            if (i == length || chars.charAt(i) == '\n') {
+                int lineEnd = i;
+                if (lineEnd > lineStart && chars.charAt(lineEnd - 1) == '\r') lineEnd--;
+                String line = LineIterator.processLine(chars.subSequence(lineStart, lineEnd).toString(), rawValues);
+                if (line.length() > 0) batch.add(line, rowNum);
+                rowNum++;
+                lineStart = i + 1;
+            }
+        }
+        return batch;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * The (non-empty) lines of one chunk along with their row numbers in the file
+     */
+    public static class Batch {
+        private final List<String> lines = new ArrayList<>();
+        private long[] rowNums = new long[64];
+
+        void add(String line, long rowNum) {
+            if (lines.size() == rowNums.length) {
+                long[] newRowNums = new long[rowNums.length * 2];
+                System.arraycopy(rowNums, 0, newRowNums, 0, rowNums.length);
+                rowNums = newRowNums;
+            }
+            rowNums[lines.size()] = rowNum;
+            lines.add(line);
+        }
+
+        public int size() {
+            return lines.size();
+        }
+
+        public String getLine(int index) {
+            return lines.get(index);
+        }
+
+        /**
+         * The row number of the line in the file (starting at 1)
+         */
+        public long getRowNum(int index) {
+            return rowNums[index];
+        }
+    }
+}
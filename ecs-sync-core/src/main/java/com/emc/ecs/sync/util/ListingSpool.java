@@ -0,0 +1,415 @@
+/*
+ * Copyright (c) 2026 Dell Inc. or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.emc.ecs.sync.util;
+
+import com.emc.ecs.sync.model.ObjectSummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+
+/**
+ * Append-only, on-disk spool of {@link ObjectSummary} records. Enumeration threads append to the spool at full speed
+ * while a single reader drains it (through memory-mapped windows of the file, or a read buffer while it is tailing the
+ * writer), so listing is never throttled by the sync queue and memory use does not depend on how far the listing is
+ * ahead of the sync.
+ * <p>
+ * Records are written in a compact binary format:
+ * <pre>
+ *     flags (byte: 1 = directory, 2 = has list-file row)
+ *     size (long)
+ *     listRowNum (long)
+ *     identifier (int length + UTF-8 bytes)
+ *     [listFileRow (int length + UTF-8 bytes)]
+ * </pre>
+ * The header holds the record count, the total byte count of all non-directory records, the end of the data (which
+ * is only set once the listing is {@link #complete() complete}) and a digest of the listing identity (the source and
+ * job that were listed). A complete spool with the same identity found when opening the file is re-used as-is (the
+ * source does not need to be listed again, i.e. when an interrupted run is restarted); anything else is discarded.
+ * Once a run has synced everything in the spool, it should {@link #delete()} it, so the next run lists the source
+ * again.
+ * <p>
+ * Appends are thread-safe. Only one reader ({@link #iterator()}) is supported.
+ */
+public class ListingSpool implements Iterable<ObjectSummary>, AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(ListingSpool.class);
+
+    static final int MAGIC = 0x45535350; // "ESSP"
+    static final int VERSION = 2;
+    static final int IDENTITY_DIGEST_SIZE = 32;
+    static final int HEADER_SIZE = 32 + IDENTITY_DIGEST_SIZE;
+    static final int FLAG_DIRECTORY = 1;
+    static final int FLAG_LIST_ROW = 2;
+    // flags + size + listRowNum + identifier length
+    static final int RECORD_HEADER_SIZE = 1 + 8 + 8 + 4;
+
+    static final int DEFAULT_WRITE_BUFFER_SIZE = 256 * 1024;
+    static final int DEFAULT_MAP_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    private final File file;
+    private final byte[] identityDigest;
+    private final RandomAccessFile raf;
+    private final FileChannel channel;
+    private final ByteBuffer writeBuffer;
+    private final int mapSegmentSize;
+    private final boolean reused;
+
+    // all below are guarded by this
+    private long recordCount;
+    private long byteCount;
+    private long committed; // end of the data that has been written to the file (always on a record boundary)
+    private boolean writeFinished;
+    private boolean closed;
+    private boolean iteratorCreated;
+    private volatile long mapCount;
+
+    /**
+     * @param identity identifies the listing (i.e. the source and job); a complete spool is only re-used by a run with
+     *                 the same identity
+     */
+    public ListingSpool(File file, String identity) {
+        this(file, identity, DEFAULT_WRITE_BUFFER_SIZE, DEFAULT_MAP_SEGMENT_SIZE);
+    }
+
+    ListingSpool(File file, String identity, int writeBufferSize, int mapSegmentSize) {
+        this.file = file;
+        this.identityDigest = digest(identity);
+        this.writeBuffer = ByteBuffer.allocate(writeBufferSize);
+        this.mapSegmentSize = mapSegmentSize;
+        try {
+            raf = new RandomAccessFile(file, "rw");
+            channel = raf.getChannel();
+
+            if (readHeader()) {
+                reused = true;
+                writeFinished = true;
+                log.info("re-using complete listing spool {} ({} objects)", file, recordCount);
+            } else {
+                reused = false;
+                channel.truncate(0);
+                committed = HEADER_SIZE;
+                writeHeader(0);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("could not open listing spool " + file, e);
+        }
+    }
+
+    /**
+     * Reads the header of an existing spool file. Returns true if it contains a complete listing
+     */
+    private boolean readHeader() throws IOException {
+        if (channel.size() < HEADER_SIZE) return false;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        channel.read(header, 0);
+        header.flip();
+        if (header.getInt() != MAGIC || header.getInt() != VERSION) return false;
+        long records = header.getLong(), bytes = header.getLong(), dataEnd = header.getLong();
+        if (dataEnd < HEADER_SIZE || dataEnd > channel.size()) return false;
+        byte[] digest = new byte[IDENTITY_DIGEST_SIZE];
+        header.get(digest);
+        if (!MessageDigest.isEqual(digest, identityDigest)) {
+            log.info("listing spool {} belongs to a different source or job; it will be discarded", file);
+            return false;
+        }
+        recordCount = records;
+        byteCount = bytes;
+        committed = dataEnd;
+        return true;
+    }
+
+    private static byte[] digest(String identity) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(String.valueOf(identity).getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void writeHeader(long dataEnd) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putLong(recordCount).putLong(byteCount).putLong(dataEnd);
+        header.put(identityDigest);
+        header.flip();
+        while (header.hasRemaining()) channel.write(header, header.position());
+    }
+
+    /**
+     * Appends a record to the spool. Records are buffered and written to the file in batches (or whenever the reader
+     * catches up with the writer)
+     */
+    public synchronized void append(ObjectSummary summary) {
+        if (writeFinished) throw new IllegalStateException("listing spool is already complete");
+        byte[] id = summary.getIdentifier().getBytes(StandardCharsets.UTF_8);
+        byte[] row = summary.getListFileRow() == null ? null : summary.getListFileRow().getBytes(StandardCharsets.UTF_8);
+        int length = RECORD_HEADER_SIZE + id.length + (row == null ? 0 : 4 + row.length);
+
+        ByteBuffer buffer = writeBuffer;
+        if (length > buffer.remaining()) {
+            flushBuffer();
+            // an oversized record gets its own buffer
+            if (length > buffer.capacity()) buffer = ByteBuffer.allocate(length);
+        }
+        int flags = (summary.isDirectory() ? FLAG_DIRECTORY : 0) | (row == null ? 0 : FLAG_LIST_ROW);
+        buffer.put((byte) flags).putLong(summary.getSize()).putLong(summary.getListRowNum());
+        buffer.putInt(id.length).put(id);
+        if (row != null) buffer.putInt(row.length).put(row);
+        if (buffer != writeBuffer) write(buffer);
+
+        recordCount++;
+        if (!summary.isDirectory()) byteCount += summary.getSize();
+    }
+
+    /**
+     * Writes any buffered records to the file, making them visible to the reader
+     */
+    public synchronized void flush() {
+        flushBuffer();
+    }
+
+    private void flushBuffer() {
+        if (writeBuffer.position() > 0) write(writeBuffer);
+    }
+
+    private void write(ByteBuffer buffer) {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                committed += channel.write(buffer, committed);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("could not write to listing spool " + file, e);
+        } finally {
+            buffer.clear();
+        }
+        notifyAll();
+    }
+
+    /**
+     * Marks the listing as complete. The header is updated, so the spool can be re-used if the job is restarted
+     */
+    public synchronized void complete() {
+        if (writeFinished) return;
+        flushBuffer();
+        try {
+            writeHeader(committed);
+            channel.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("could not complete listing spool " + file, e);
+        }
+        writeFinished = true;
+        notifyAll();
+        log.info("listing spool {} complete ({} objects, {} bytes)", file, recordCount, byteCount);
+    }
+
+    /**
+     * Stops the reader once it has drained what was written so far, without marking the listing as complete (i.e.
+     * when enumeration fails or is terminated). The spool will not be re-used
+     */
+    public synchronized void abort() {
+        if (writeFinished) return;
+        flushBuffer();
+        writeFinished = true;
+        notifyAll();
+    }
+
+    /**
+     * Returns true if this spool was complete when it was opened (the source does not need to be enumerated)
+     */
+    public boolean isReused() {
+        return reused;
+    }
+
+    public synchronized boolean isComplete() {
+        return writeFinished;
+    }
+
+    public synchronized long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Total size of all non-directory records
+     */
+    public synchronized long getByteCount() {
+        return byteCount;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * How many times the reader has mapped a segment of the file
+     */
+    long getMapCount() {
+        return mapCount;
+    }
+
+    /**
+     * Waits until there is data beyond the given position or writing is finished. Returns the end of the data
+     * available to read
+     */
+    private synchronized long awaitData(long position) {
+        while (position >= committed && !writeFinished && !closed) {
+            // we caught up with the writer; don't wait for a full buffer
+            flushBuffer();
+            if (position < committed) break;
+            try {
+                wait(500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("interrupted while waiting for listing spool", e);
+            }
+        }
+        return closed ? position : committed;
+    }
+
+    /**
+     * Returns an iterator over all records in the spool. If the listing is not yet complete, the iterator will block
+     * until more records are appended, and will end only after {@link #complete()} or {@link #abort()} is called
+     */
+    @Override
+    public synchronized Iterator<ObjectSummary> iterator() {
+        if (iteratorCreated) throw new IllegalStateException("only one reader is supported");
+        iteratorCreated = true;
+        return new SpoolIterator();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) return;
+        closed = true;
+        notifyAll();
+        try {
+            channel.close();
+            raf.close();
+        } catch (IOException e) {
+            log.warn("could not close listing spool " + file, e);
+        }
+    }
+
+    /**
+     * Closes the spool and deletes the file (i.e. after everything in it was synced)
+     */
+    public synchronized void delete() {
+        close();
+        if (file.exists() && !file.delete()) log.warn("could not delete listing spool {}", file);
+    }
+
+    private class SpoolIterator extends ReadOnlyIterator<ObjectSummary> {
+        private long position = HEADER_SIZE;
+        private MappedByteBuffer mapped;
+        private long mappedStart, mappedEnd;
+        private ByteBuffer readBuffer = ByteBuffer.allocate(writeBuffer.capacity());
+        private long readStart, readEnd;
+
+        @Override
+        protected ObjectSummary getNextObject() {
+            long end = awaitData(position);
+            if (position >= end) return null;
+
+            ByteBuffer buffer = map(position, RECORD_HEADER_SIZE, end);
+            int flags = buffer.get();
+            long size = buffer.getLong();
+            long listRowNum = buffer.getLong();
+            int idLength = buffer.getInt();
+            long recordEnd = position + RECORD_HEADER_SIZE + idLength;
+            if ((flags & FLAG_LIST_ROW) != 0) {
+                // need the row length too
+                buffer = map(position, RECORD_HEADER_SIZE + idLength + 4, end);
+                buffer.position(buffer.position() + RECORD_HEADER_SIZE + idLength);
+                recordEnd += 4 + buffer.getInt();
+            }
+            buffer = map(position, (int) (recordEnd - position), end);
+            buffer.position(buffer.position() + RECORD_HEADER_SIZE);
+
+            ObjectSummary summary = new ObjectSummary(readString(buffer, idLength),
+                    (flags & FLAG_DIRECTORY) != 0, size);
+            summary.setListRowNum(listRowNum);
+            if ((flags & FLAG_LIST_ROW) != 0) summary.setListFileRow(readString(buffer, buffer.getInt()));
+
+            position = recordEnd;
+            return summary;
+        }
+
+        /**
+         * Returns a view of the file positioned at the given file position, with at least length bytes remaining. The
+         * file is mapped in whole segments; while the reader is tailing the writer (less than a segment is available
+         * and the listing is not finished), data is read into a reusable buffer instead, so every record that trickles
+         * in does not cost a new mapping
+         */
+        private ByteBuffer map(long position, int length, long end) {
+            if (mapped != null && position >= mappedStart && position + length <= mappedEnd)
+                return view(mapped, position - mappedStart);
+            if (position >= readStart && position + length <= readEnd)
+                return view(readBuffer, position - readStart);
+            if (end - position < length) throw new IllegalStateException("truncated record in listing spool " + file);
+
+            if (end - position >= mapSegmentSize || isComplete()) {
+                long size = Math.min(Math.max(mapSegmentSize, length), end - position);
+                try {
+                    mapped = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("could not map listing spool " + file, e);
+                }
+                mappedStart = position;
+                mappedEnd = position + size;
+                mapCount++;
+                return view(mapped, 0);
+            }
+
+            int size = (int) Math.min(Math.max(readBuffer.capacity(), length), end - position);
+            if (size > readBuffer.capacity()) readBuffer = ByteBuffer.allocate(size);
+            readBuffer.clear();
+            readBuffer.limit(size);
+            try {
+                while (readBuffer.hasRemaining()) {
+                    if (channel.read(readBuffer, position + readBuffer.position()) < 0)
+                        throw new IllegalStateException("truncated record in listing spool " + file);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("could not read listing spool " + file, e);
+            }
+            readBuffer.flip();
+            readStart = position;
+            readEnd = position + size;
+            return view(readBuffer, 0);
+        }
+
+        private ByteBuffer view(ByteBuffer buffer, long offset) {
+            ByteBuffer view = buffer.duplicate();
+            view.position((int) offset);
+            return view;
+        }
+
+        private String readString(ByteBuffer buffer, int length) {
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2026 Dell Inc. or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.emc.ecs.sync.util;
+
+import javax.xml.bind.DatatypeConverter;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Calculates the MD5 of each fixed-size part of the data read through it, so the multipart ETag (the hex MD5 of the
+ * concatenated part MD5s, followed by "-" and the number of parts) of an upload with the same part size can be
+ * predicted. This lets verification compare against the ETag of the target object instead of reading it back.
+ * <p>
+ * Note that skipped bytes are read (and digested), so the parts stay aligned.
+ */
+public class MultipartMd5InputStream extends FilterInputStream {
+    /**
+     * @return the multipart ETag for the given part MD5s, or null if there are none
+     */
+    public static String compositeMd5Hex(List<byte[]> partMd5s) {
+        if (partMd5s.isEmpty()) return null;
+        MessageDigest digest = EnhancedInputStream.createMd5Digest();
+        for (byte[] partMd5 : partMd5s) {
+            digest.update(partMd5);
+        }
+        return DatatypeConverter.printHexBinary(digest.digest()) + "-" + partMd5s.size();
+    }
+
+    private final long partSize;
+    private final List<byte[]> partMd5s = new ArrayList<>();
+    private final MessageDigest partDigest = EnhancedInputStream.createMd5Digest();
+    private long partBytes = 0;
+    private long bytesRead = 0;
+    private boolean finished = false;
+
+    public MultipartMd5InputStream(InputStream in, long partSize) {
+        super(in);
+        if (partSize <= 0) throw new IllegalArgumentException("partSize must be positive");
+        this.partSize = partSize;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        int c = read(b, 0, 1);
+        return c == -1 ? -1 : b[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int c = super.read(b, off, len);
+        if (c == -1) {
+            finish();
+        } else {
+            update(b, off, c);
+        }
+        return c;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        if (n <= 0) return 0;
+        byte[] buffer = BufferPool.getShared().leaseArray(64 * 1024);
+        try {
+            long skipped = 0;
+            while (skipped < n) {
+                int c = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+                if (c == -1) break;
+                skipped += c;
+            }
+            return skipped;
+        } finally {
+            BufferPool.getShared().release(buffer);
+        }
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public synchronized void mark(int readlimit) {
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        throw new IOException("mark/reset not supported");
+    }
+
+    @Override
+    public void close() throws IOException {
+        super.close();
+        finish();
+    }
+
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    /**
+     * @return the multipart ETag of the data read, or null if the stream has not been fully read or closed yet
+     */
+    public synchronized String getCompositeMd5Hex() {
+        if (!finished) return null;
+        return compositeMd5Hex(partMd5s);
+    }
+
+    private synchronized void update(byte[] b, int off, int len) {
+        bytesRead += len;
+        while (len > 0) {
+            int count = (int) Math.min(len, partSize - partBytes);
+            partDigest.update(b, off, count);
+            partBytes += count;
+            off += count;
+            len -= count;
+            if (partBytes == partSize) completePart();
+        }
+    }
+
+    private synchronized void finish() {
+        if (finished) return;
+        if (partBytes > 0) completePart();
+        finished = true;
+    }
+
+    private void completePart() {
+        partMd5s.add(partDigest.digest());
+        partBytes = 0;
+    }
+}
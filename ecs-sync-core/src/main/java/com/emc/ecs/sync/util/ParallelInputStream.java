@@ -21,107 +21,126 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
-
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reads the source stream ahead of the caller in a background task, using a {@link ReadAheadBuffer} of
+ * <code>bufferSize</code> bytes. If the reader fails, the caller gets the error after the data handed over before the
+ * failure (the last read from the source is never handed over). Reader tasks run on a shared, bounded pool of daemon
+ * threads; if the pool is exhausted, a dedicated thread is started for the task (a reader can block indefinitely
+ * waiting for its consumer, so it must never wait in a queue).
+ */
 public class ParallelInputStream extends FilterInputStream {
     private static final Logger log = LoggerFactory.getLogger(ParallelInputStream.class);
 
+    private static final int MAX_SHARED_READERS = 64;
+    private static final int SOURCE_READ_SIZE = ReadAheadBuffer.DEFAULT_CHUNK_SIZE;
+    private static final AtomicInteger readerThreadCount = new AtomicInteger();
+    private static final ExecutorService sharedExecutor = new ThreadPoolExecutor(0, MAX_SHARED_READERS,
+            60, TimeUnit.SECONDS, new SynchronousQueue<>(),
+            r -> newReaderThread(r, "parallel-reader-" + readerThreadCount.incrementAndGet()),
+            (r, executor) -> newReaderThread(r, "parallel-reader-overflow").start());
+
+    private static Thread newReaderThread(Runnable r, String name) {
+        Thread thread = new Thread(r, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
     ParallelReader reader;
-    Thread readerThread;
+    ReadAheadBuffer buffer;
 
     public ParallelInputStream(InputStream source, int bufferSize) throws IOException {
         this(source, bufferSize, null);
     }
 
     public ParallelInputStream(InputStream source, int bufferSize, ProgressListener sourceListener) throws IOException {
-        super(null);
-
-        // create a piped stream (ring buffer) -- the readerThread will be the write side and calling code
-        // will be the read side
-        PipedInputStream pin = new PipedInputStream(bufferSize);
-        PipedOutputStream pout = new PipedOutputStream(pin);
-
-        in = pin;
-
-        if (sourceListener != null) source = new ProgressInputStream(source, sourceListener);
-
-        reader = new ParallelReader(source, pout);
-        readerThread = new Thread(reader);
-        readerThread.start();
+        this(source, bufferSize, sourceListener, sharedExecutor);
     }
 
-    @Override
-    public int read() throws IOException {
-        checkReader();
-        int result = super.read();
-        checkReader(); // also check after read in case we were blocked
-        return result;
-    }
+    /**
+     * @param readExecutor runs the reader task. Note that the task blocks until this stream is read or closed, so the
+     *                     executor must not queue it behind the caller
+     */
+    public ParallelInputStream(InputStream source, int bufferSize, ProgressListener sourceListener,
+                               Executor readExecutor) throws IOException {
+        super(null);
 
-    @Override
-    public int read(byte[] b) throws IOException {
-        return read(b, 0, b.length);
-    }
+        // the reader task is the write side of the buffer and calling code is the read side
+        buffer = new ReadAheadBuffer(bufferSize);
+        in = buffer.getInputStream();
 
-    @Override
-    public int read(byte[] b, int off, int len) throws IOException {
-        checkReader();
-        int result = super.read(b, off, len);
-        checkReader(); // also check after read in case we were blocked
-        return result;
-    }
+        if (sourceListener != null) source = new ProgressInputStream(source, sourceListener);
 
-    private void checkReader() throws IOException {
-        if (reader.isFailed()) throw new IOException("reader failed", reader.getError());
+        reader = new ParallelReader(source, buffer);
+        readExecutor.execute(reader);
     }
 
     @Override
     public void close() throws IOException {
         try {
+            // closing the read side wakes the reader if it is waiting for buffer space, and fails its next write
             super.close();
         } finally {
-
-            // if the reader is active, closing the pipe (above) will throw an exception in PipedOutputStream.write
-            // if it is waiting for buffer space however, it will need to be interrupted or it will be frozen indefinitely
-            if (!reader.isComplete() && !reader.isFailed())
-                readerThread.interrupt();
-
             // if the reader is complete, this does nothing; if close was called early, this will wait until the reader
-            // thread is notified of the close (an IOException will be thrown from PipedOutputStream.write)
+            // has seen the close (or its current source read returns)
             try {
-                readerThread.join();
+                reader.awaitDone();
             } catch (Throwable t) {
-                log.warn("could not join reader thread", t);
+                log.warn("could not wait for reader task", t);
             }
         }
     }
 
     class ParallelReader implements Runnable {
-        private InputStream in;
-        private OutputStream out;
+        private final InputStream in;
+        private final ReadAheadBuffer buffer;
+        private final CountDownLatch done = new CountDownLatch(1);
         private volatile boolean complete = false;
         private volatile boolean failed = false;
         private volatile Throwable error;
 
-        ParallelReader(InputStream in, OutputStream out) {
+        ParallelReader(InputStream in, ReadAheadBuffer buffer) {
             this.in = in;
-            this.out = out;
+            this.buffer = buffer;
         }
 
         @Override
-        public synchronized void run() {
-            try (OutputStream outputStream = out) { // make sure the write-side of the piped stream is always closed
-                byte[] chunk = new byte[32 * 1024];
-                int read;
-                while ((read = in.read(chunk)) != -1) {
-                    outputStream.write(chunk, 0, read);
+        public void run() {
+            try {
+                if (buffer.getChunkSize() >= SOURCE_READ_SIZE) {
+                    while (buffer.readFrom(in)) {
+                        // keep reading ahead until the source is exhausted
+                    }
+                } else {
+                    // small buffer; still read the source in large pieces
+                    OutputStream out = buffer.getOutputStream();
+                    byte[] chunk = new byte[SOURCE_READ_SIZE];
+                    int read;
+                    while ((read = in.read(chunk)) != -1) {
+                        out.write(chunk, 0, read);
+                    }
                 }
+                buffer.complete();
                 complete = true;
             } catch (Throwable t) {
-                failed = true;
                 error = t;
+                failed = true;
+                buffer.fail(t);
+            } finally {
+                done.countDown();
             }
         }
 
+        void awaitDone() throws InterruptedException {
+            done.await();
+        }
+
+        public boolean isRunning() {
+            return done.getCount() > 0;
+        }
+
         public boolean isComplete() {
             return complete;
         }
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2026 Dell Inc. or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.emc.ecs.sync.util;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Iterates several partitions (i.e. key ranges of one listing) concurrently on the given executor and merges their
+ * elements into one stream. Elements of a partition are returned in the order the partition produced them, but
+ * partitions are interleaved as their elements arrive. A shared, bounded queue keeps the producers from running ahead
+ * of the consumer.
+ * <p>
+ * If a partition fails, its exception is thrown from {@link #hasNext()}/{@link #next()} once the consumer reaches it,
+ * and the remaining partitions are cancelled. Call {@link #close()} to abandon the iteration early.
+ */
+public class PartitionedIterator<T> extends ReadOnlyIterator<T> implements AutoCloseable {
+    private static final Object END = new Object();
+    private static final long OFFER_INTERVAL_MS = 100;
+
+    private final BlockingQueue<Object> queue;
+    private final List<Future<?>> futures = new ArrayList<>();
+    private int activePartitions;
+    private volatile boolean closed;
+
+    public PartitionedIterator(List<? extends Iterable<T>> partitions, ExecutorService executor, int queueSize) {
+        this.queue = new LinkedBlockingQueue<>(queueSize);
+        this.activePartitions = partitions.size();
+        for (Iterable<T> partition : partitions) {
+            futures.add(executor.submit(() -> produce(partition)));
+        }
+    }
+
+    private void produce(Iterable<T> partition) {
+        try {
+            Iterator<T> iterator = partition.iterator();
+            while (!closed && iterator.hasNext()) {
+                if (!enqueue(iterator.next())) return;
+            }
+            enqueue(END);
+        } catch (Throwable t) {
+            if (!closed) enqueue(new Failure(t));
+        }
+    }
+
+    private boolean enqueue(Object element) {
+        try {
+            while (!closed) {
+                if (queue.offer(element, OFFER_INTERVAL_MS, TimeUnit.MILLISECONDS)) return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    protected T getNextObject() {
+        try {
+            while (activePartitions > 0 && !closed) {
+                Object element = queue.take();
+                if (element == END) {
+                    activePartitions--;
+                } else if (element instanceof Failure) {
+                    close();
+                    Throwable t = ((Failure) element).cause;
+                    if (t instanceof RuntimeException) throw (RuntimeException) t;
+                    if (t instanceof Error) throw (Error) t;
+                    throw new RuntimeException(t);
+                } else {
+                    return (T) element;
+                }
+            }
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            throw new RuntimeException("interrupted while waiting for the next partition element", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        for (Future<?> future : futures) {
+            future.cancel(true);
+        }
+        queue.clear();
+    }
+
+    private static class Failure {
+        final Throwable cause;
+
+        Failure(Throwable cause) {
+            this.cause = cause;
+        }
+    }
+}
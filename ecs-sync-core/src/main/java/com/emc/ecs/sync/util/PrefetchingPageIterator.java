@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2026 Dell Inc. or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.emc.ecs.sync.util;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Iterates the pages of a paged listing (i.e. ListObjects results) while the following pages are fetched in the
+ * background. As soon as a page arrives, the request for the next one is sent, so the consumer does not wait for a
+ * round trip every time it finishes a page. At most <code>prefetchPages</code> pages are buffered ahead of the
+ * consumer; once the buffer is full, fetching pauses (without holding a thread) until the consumer takes a page.
+ * <p>
+ * <code>firstPage</code> fetches the first page and <code>nextPage</code> fetches the page following the given one
+ * (or returns null if it was the last page). They are called on the executor, one at a time and in order.
+ * If fetching a page fails, the exception is thrown from {@link #hasNext()}/{@link #next()} once the consumer reaches
+ * that page. Call {@link #close()} to stop fetching early.
+ */
+public class PrefetchingPageIterator<P> extends ReadOnlyIterator<P> implements AutoCloseable {
+    public static final int DEFAULT_PREFETCH_PAGES = 2;
+    // fetches never wait for the consumer, so a few threads serve any number of iterators (extra fetches are queued)
+    public static final int DEFAULT_FETCH_THREADS = 16;
+
+    private static final Object END = new Object();
+    private static final ExecutorService DEFAULT_EXECUTOR = newDefaultExecutor();
+
+    private static ExecutorService newDefaultExecutor() {
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(DEFAULT_FETCH_THREADS, DEFAULT_FETCH_THREADS,
+                60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "page-prefetch-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        // idle threads go away between listings
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private final Supplier<P> firstPage;
+    private final UnaryOperator<P> nextPage;
+    private final int prefetchPages;
+    private final ExecutorService executor;
+
+    // all guarded by lock
+    private final Object lock = new Object();
+    private final Deque<Object> buffer = new ArrayDeque<>();
+    private P lastPage;
+    private boolean fetching, done, closed;
+
+    public PrefetchingPageIterator(Supplier<P> firstPage, UnaryOperator<P> nextPage) {
+        this(firstPage, nextPage, DEFAULT_PREFETCH_PAGES, DEFAULT_EXECUTOR);
+    }
+
+    public PrefetchingPageIterator(Supplier<P> firstPage, UnaryOperator<P> nextPage, int prefetchPages, ExecutorService executor) {
+        if (prefetchPages < 1) throw new IllegalArgumentException("prefetchPages must be at least 1");
+        this.firstPage = firstPage;
+        this.nextPage = nextPage;
+        this.prefetchPages = prefetchPages;
+        this.executor = executor;
+        synchronized (lock) {
+            fetchIfNeeded();
+        }
+    }
+
+    // must hold lock
+    private void fetchIfNeeded() {
+        if (fetching || done || closed || buffer.size() >= prefetchPages) return;
+        fetching = true;
+        try {
+            executor.submit(this::fetch);
+        } catch (RuntimeException e) {
+            fetching = false;
+            done = true;
+            buffer.add(new Failure(e));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void fetch() {
+        P previous;
+        synchronized (lock) {
+            previous = lastPage;
+        }
+        Object element;
+        try {
+            P page = previous == null ? firstPage.get() : nextPage.apply(previous);
+            element = page == null ? END : page;
+        } catch (Throwable t) {
+            element = new Failure(t);
+        }
+        synchronized (lock) {
+            fetching = false;
+            if (closed) return;
+            if (element == END || element instanceof Failure) done = true;
+            else lastPage = (P) element;
+            buffer.add(element);
+            lock.notifyAll();
+            fetchIfNeeded();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    protected P getNextObject() {
+        Object element;
+        synchronized (lock) {
+            try {
+                while (buffer.isEmpty()) {
+                    if (closed) return null;
+                    lock.wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                close();
+                throw new RuntimeException("interrupted while waiting for the next page", e);
+            }
+            element = buffer.peek();
+            // END and failures stay in the buffer, so they are returned again if called again
+            if (element != END && !(element instanceof Failure)) buffer.poll();
+            fetchIfNeeded();
+        }
+        if (element == END) return null;
+        if (element instanceof Failure) {
+            Throwable t = ((Failure) element).cause;
+            if (t instanceof RuntimeException) throw (RuntimeException) t;
+            if (t instanceof Error) throw (Error) t;
+            throw new RuntimeException(t);
+        }
+        return (P) element;
+    }
+
+    @Override
+    public void close() {
+        synchronized (lock) {
+            closed = true;
+            buffer.clear();
+            lock.notifyAll();
+        }
+    }
+
+    private static class Failure {
+        final Throwable cause;
+
+        Failure(Throwable cause) {
+            this.cause = cause;
+        }
+    }
+}
@@ -0,0 +1,323 @@
+/*
+ * Copyright (c) 2026 Dell Inc. or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.emc.ecs.sync.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A single-producer, single-consumer read-ahead buffer that replaces PipedInputStream/PipedOutputStream. Data is
+ * passed in chunks leased from a {@link BufferPool} through a lock-free ring; a full chunk is handed over without
+ * copying when the producer reads directly into it ({@link #readFrom(InputStream)}). Threads only block when the ring
+ * is full (producer) or empty (consumer), and are woken as soon as that changes (no polling).
+ * <p>
+ * A chunk is handed over when the producer continues (its next write or read) and the chunk is full or the consumer
+ * is waiting for data, on flush and on completion. So when the producer fails while reading its source, the data of
+ * its last write is never handed over. The producer either writes to {@link #getOutputStream()} or calls
+ * {@link #readFrom(InputStream)}, and must end with {@link #complete()} (closing the output stream does the same) or
+ * {@link #fail(Throwable)}. The consumer reads from {@link #getInputStream()}. A failure is reported to the consumer
+ * once it has read the data handed over before the failure, and if the consumer closes early, the producer's next
+ * write fails with "Pipe closed" (same as PipedOutputStream).
+ */
+public class ReadAheadBuffer {
+    public static final int DEFAULT_CHUNK_SIZE = 32 * 1024;
+
+    // a hand-off usually takes only a moment, so yield a few times before parking (which is much more expensive),
+    // unless there is only one CPU
+    private static final int MAX_SPINS = Runtime.getRuntime().availableProcessors() > 1 ? 32 : 0;
+
+    private final BufferPool bufferPool;
+    private final int chunkSize;
+    private final Chunk[] ring;
+
+    // head is only written by the consumer, tail only by the producer; the slots are published by these volatile writes
+    private volatile long head, tail;
+    private volatile boolean producerDone, consumerClosed;
+    private volatile Throwable error;
+    private volatile Thread producerWaiter, consumerWaiter;
+
+    private Chunk writeChunk; // owned by the producer
+    private Chunk readChunk; // owned by the consumer
+
+    private final OutputStream outputStream = new ProducerOutputStream();
+    private final InputStream inputStream = new ConsumerInputStream();
+
+    /**
+     * @param capacity the number of bytes that may be buffered ahead of the consumer (rounded up to whole chunks)
+     */
+    public ReadAheadBuffer(int capacity) {
+        this(capacity, DEFAULT_CHUNK_SIZE, BufferPool.getShared());
+    }
+
+    public ReadAheadBuffer(int capacity, int chunkSize, BufferPool bufferPool) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be positive");
+        this.bufferPool = bufferPool;
+        this.chunkSize = Math.min(capacity, chunkSize);
+        this.ring = new Chunk[(capacity + this.chunkSize - 1) / this.chunkSize];
+    }
+
+    public OutputStream getOutputStream() {
+        return outputStream;
+    }
+
+    public InputStream getInputStream() {
+        return inputStream;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Reads once from <code>in</code> directly into the current chunk (producer side)
+     *
+     * @return false if <code>in</code> is at EOF
+     */
+    public boolean readFrom(InputStream in) throws IOException {
+        Chunk chunk = currentWriteChunk();
+        int read = in.read(chunk.data, chunk.length, chunk.data.length - chunk.length);
+        if (read == -1) return false;
+        chunk.length += read;
+        return true;
+    }
+
+    /**
+     * Publishes any remaining data and signals EOF to the consumer (producer side)
+     */
+    public void complete() throws IOException {
+        if (producerDone) return;
+        try {
+            if (writeChunk != null && writeChunk.length > 0) publishWriteChunk();
+        } finally {
+            releaseWriteChunk();
+            producerDone = true;
+            wake(consumerWaiter);
+        }
+    }
+
+    /**
+     * Signals a failure to the consumer, once it has read the data already handed over (producer side)
+     */
+    public void fail(Throwable t) {
+        error = t;
+        releaseWriteChunk();
+        producerDone = true;
+        wake(consumerWaiter);
+    }
+
+    public boolean isProducerDone() {
+        return producerDone;
+    }
+
+    public boolean isConsumerClosed() {
+        return consumerClosed;
+    }
+
+    public Throwable getError() {
+        return error;
+    }
+
+    /**
+     * Partially filled chunks are only handed over while the consumer is waiting for data; otherwise chunks are filled
+     * completely, to keep the number of hand-offs low
+     */
+    private boolean isConsumerStarving() {
+        return consumerWaiter != null && head == tail;
+    }
+
+    private Chunk currentWriteChunk() throws IOException {
+        if (consumerClosed) throw new IOException("Pipe closed");
+        if (producerDone) throw new IOException("Write end closed");
+        if (writeChunk != null && (writeChunk.length == writeChunk.data.length
+                || (writeChunk.length > 0 && isConsumerStarving()))) publishWriteChunk();
+        if (writeChunk == null) writeChunk = new Chunk(bufferPool.leaseArray(chunkSize));
+        return writeChunk;
+    }
+
+    private void releaseWriteChunk() {
+        if (writeChunk != null) {
+            bufferPool.release(writeChunk.data);
+            writeChunk = null;
+        }
+    }
+
+    private void publishWriteChunk() throws IOException {
+        for (int spins = 0; tail - head >= ring.length && spins < MAX_SPINS; spins++) Thread.yield();
+        while (tail - head >= ring.length) {
+            if (consumerClosed) throw new IOException("Pipe closed");
+            producerWaiter = Thread.currentThread();
+            // re-check after registering, so a concurrent take() cannot be missed
+            if (tail - head >= ring.length && !consumerClosed) LockSupport.park(this);
+            producerWaiter = null;
+            if (Thread.interrupted()) throw new InterruptedIOException("interrupted while waiting for buffer space");
+        }
+        if (consumerClosed) throw new IOException("Pipe closed");
+        ring[(int) (tail % ring.length)] = writeChunk;
+        writeChunk = null;
+        tail = tail + 1;
+        wake(consumerWaiter);
+    }
+
+    /**
+     * Returns the chunk to read from, or null at EOF (consumer side)
+     */
+    private Chunk currentReadChunk() throws IOException {
+        if (consumerClosed) throw new IOException("Stream closed");
+        if (readChunk != null && readChunk.position < readChunk.length) return readChunk;
+        releaseReadChunk();
+
+        if (head == tail && !producerDone) {
+            // registering also tells the producer to hand over partially filled chunks (see isConsumerStarving())
+            consumerWaiter = Thread.currentThread();
+            try {
+                for (int spins = 0; head == tail && !producerDone && spins < MAX_SPINS; spins++) Thread.yield();
+                // re-check after registering, so a concurrent publish cannot be missed
+                while (head == tail && !producerDone) {
+                    LockSupport.park(this);
+                    if (Thread.interrupted()) throw new InterruptedIOException("interrupted while waiting for data");
+                }
+            } finally {
+                consumerWaiter = null;
+            }
+        }
+        if (head == tail) { // producer is done, and everything has been read
+            if (error != null) throw new IOException("read-ahead failed", error);
+            return null;
+        }
+
+        int slot = (int) (head % ring.length);
+        readChunk = ring[slot];
+        ring[slot] = null;
+        head = head + 1;
+        // let the producer refill in batches (waking it for every slot means a context switch for every chunk)
+        if (tail - head <= ring.length / 2) wake(producerWaiter);
+        return readChunk;
+    }
+
+    private void releaseReadChunk() {
+        if (readChunk != null) {
+            bufferPool.release(readChunk.data);
+            readChunk = null;
+        }
+    }
+
+    private void closeConsumer() {
+        if (consumerClosed) return;
+        consumerClosed = true;
+        releaseReadChunk();
+        // release published chunks (the producer will not publish any more after seeing consumerClosed)
+        for (long i = head; i < tail; i++) {
+            int slot = (int) (i % ring.length);
+            if (ring[slot] != null) bufferPool.release(ring[slot].data);
+            ring[slot] = null;
+        }
+        wake(producerWaiter);
+    }
+
+    private static void wake(Thread waiter) {
+        if (waiter != null) LockSupport.unpark(waiter);
+    }
+
+    private static class Chunk {
+        final byte[] data;
+        int length;
+        int position;
+
+        Chunk(byte[] data) {
+            this.data = data;
+        }
+    }
+
+    private class ProducerOutputStream extends OutputStream {
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                Chunk chunk = currentWriteChunk();
+                int count = Math.min(len, chunk.data.length - chunk.length);
+                System.arraycopy(b, off, chunk.data, chunk.length, count);
+                chunk.length += count;
+                off += count;
+                len -= count;
+            }
+        }
+
+        /**
+         * Hands over any buffered data to the consumer
+         */
+        @Override
+        public void flush() throws IOException {
+            if (writeChunk != null && writeChunk.length > 0) publishWriteChunk();
+        }
+
+        @Override
+        public void close() throws IOException {
+            complete();
+        }
+    }
+
+    private class ConsumerInputStream extends InputStream {
+        @Override
+        public int read() throws IOException {
+            Chunk chunk = currentReadChunk();
+            if (chunk == null) return -1;
+            return chunk.data[chunk.position++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) return 0;
+            Chunk chunk = currentReadChunk();
+            if (chunk == null) return -1;
+            int count = Math.min(len, chunk.length - chunk.position);
+            System.arraycopy(chunk.data, chunk.position, b, off, count);
+            chunk.position += count;
+            return count;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = 0;
+            while (skipped < n) {
+                Chunk chunk = currentReadChunk();
+                if (chunk == null) break;
+                int count = (int) Math.min(n - skipped, chunk.length - chunk.position);
+                chunk.position += count;
+                skipped += count;
+            }
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            if (consumerClosed) throw new IOException("Stream closed");
+            Chunk chunk = readChunk;
+            return chunk == null ? 0 : chunk.length - chunk.position;
+        }
+
+        @Override
+        public void close() {
+            closeConsumer();
+        }
+    }
+}
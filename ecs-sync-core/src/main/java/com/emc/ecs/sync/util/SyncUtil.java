@@ -16,6 +16,7 @@
 package com.emc.ecs.sync.util;
 
 import com.emc.ecs.sync.EcsSync;
+import engineering.clientside.throttle.Throttle;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -24,6 +25,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.List;
 
 public final class SyncUtil {
@@ -34,8 +36,8 @@ public final class SyncUtil {
      * Returns the number of bytes read from the stream
      */
     public static long consumeAndCloseStream(InputStream stream) {
+        byte[] devNull = BufferPool.getShared().leaseArray(32 * 1024);
         try (InputStream input = stream) {
-            byte[] devNull = new byte[32 * 1024];
             int c = 0;
             long totalRead = 0;
             while (c != -1) {
@@ -45,6 +47,8 @@ public final class SyncUtil {
             return totalRead;
         } catch (IOException e) {
             throw new RuntimeException("error consuming stream", e);
+        } finally {
+            BufferPool.getShared().release(devNull);
         }
     }
 
@@ -72,7 +76,16 @@ public final class SyncUtil {
     }
 
     public static long copy(InputStream is, OutputStream os, long maxBytes, boolean closeStreams) throws IOException {
-        byte[] buffer = new byte[65536];
+        return copy(is, os, maxBytes, closeStreams, BufferPool.getShared(), 65536);
+    }
+
+    /**
+     * Copies up to <code>maxBytes</code> from <code>is</code> to <code>os</code> using a buffer of
+     * <code>bufferSize</code> leased from <code>bufferPool</code>
+     */
+    public static long copy(InputStream is, OutputStream os, long maxBytes, boolean closeStreams,
+                            BufferPool bufferPool, int bufferSize) throws IOException {
+        byte[] buffer = bufferPool.leaseArray(bufferSize);
         long count = 0L;
 
         try {
@@ -99,6 +112,7 @@ public final class SyncUtil {
                 log.warn("could not close stream", var17);
             }
 
+            bufferPool.release(buffer);
         }
 
         return count;
@@ -171,12 +185,29 @@ public final class SyncUtil {
     }
 
     public static InputStream throttleStream(InputStream dataStream, EcsSync syncJob) {
-        if (syncJob != null && (syncJob.getJobBandwidthThrottle() != null || syncJob.getSharedBandwidthThrottle() != null)) {
+        if (isBandwidthThrottled(syncJob)) {
             dataStream = new ThrottledInputStream(dataStream, syncJob.getJobBandwidthThrottle(), syncJob.getSharedBandwidthThrottle());
         }
         return dataStream;
     }
 
+    public static boolean isBandwidthThrottled(EcsSync syncJob) {
+        return syncJob != null && (syncJob.getJobBandwidthThrottle() != null || syncJob.getSharedBandwidthThrottle() != null);
+    }
+
+    /**
+     * Applies the bandwidth throttles of the job to data that was transferred without going through a throttled
+     * stream (i.e. a direct channel transfer). Blocks until the bytes are permitted.
+     */
+    public static void throttleTransfer(EcsSync syncJob, int bytes) throws IOException {
+        if (isBandwidthThrottled(syncJob)) {
+            List<Throttle> throttles = new ArrayList<>();
+            if (syncJob.getJobBandwidthThrottle() != null) throttles.add(syncJob.getJobBandwidthThrottle());
+            if (syncJob.getSharedBandwidthThrottle() != null) throttles.add(syncJob.getSharedBandwidthThrottle());
+            ThrottledInputStream.applyThrottle(throttles, bytes);
+        }
+    }
+
     private SyncUtil() {
     }
 }
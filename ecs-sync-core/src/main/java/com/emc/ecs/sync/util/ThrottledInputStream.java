@@ -70,6 +70,10 @@ public class ThrottledInputStream extends FilterInputStream {
     }
 
     protected void applyThrottle(int bytes) throws IOException {
+        applyThrottle(throttles, bytes);
+    }
+
+    static void applyThrottle(List<Throttle> throttles, int bytes) throws IOException {
         if (bytes > 0 && throttles != null) {
             try {
                 // must apply all throttles
@@ -108,6 +108,21 @@ public interface Throttle {
         return create(permitsPerSecond, false);
     }
 
+    /**
+     * Creates a new throttle like {@link #create(double, boolean)}, but allows up to {@code maxBurstSeconds} worth of
+     * unused permits to be stored and spent without waiting.
+     *
+     * @param permitsPerSecond the rate of the returned {@code Throttle}, measured in how many permits
+     * become available per second
+     * @param maxBurstSeconds the number of seconds of unused permits that may be saved up for a burst
+     * @param fair {@code true} if acquisition should use a fair ordering policy
+     * @return a new throttle instance
+     * @throws IllegalArgumentException if {@code permitsPerSecond} is negative or zero
+     */
+    static Throttle create(final double permitsPerSecond, final double maxBurstSeconds, final boolean fair) {
+        return new NanoThrottle.GoldFish(permitsPerSecond, maxBurstSeconds, fair);
+    }
+
     /**
      * Returns the stable rate as permits per second with which this {@code Throttle}
      * is configured with. The initial value of this is the same as the {@code permitsPerSecond}
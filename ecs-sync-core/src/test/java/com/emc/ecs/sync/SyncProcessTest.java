@@ -40,6 +40,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.attribute.PosixFilePermissions;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -266,6 +267,98 @@ public class SyncProcessTest {
         }
     }
 
+    @Test
+    public void testSingleEnumeration() throws Exception {
+        TestConfig testConfig = new TestConfig().withObjectCount(200).withMaxSize(1024).withReadData(true).withDiscardData(false);
+
+        // count listing calls against the source
+        AtomicInteger allObjectsCalls = new AtomicInteger(), childrenCalls = new AtomicInteger();
+        TestStorage source = new TestStorage() {
+            @Override
+            public Iterable<ObjectSummary> allObjects() {
+                allObjectsCalls.incrementAndGet();
+                return super.allObjects();
+            }
+
+            @Override
+            public Iterable<ObjectSummary> children(ObjectSummary parent) {
+                childrenCalls.incrementAndGet();
+                return super.children(parent);
+            }
+        };
+        source.withConfig(testConfig);
+
+        SyncOptions options = new SyncOptions().withThreadCount(8);
+        SyncConfig syncConfig = new SyncConfig().withOptions(options).withTarget(testConfig);
+
+        EcsSync sync = new EcsSync();
+        sync.setSyncConfig(syncConfig);
+        sync.setSource(source);
+        TestUtil.run(sync);
+
+        Assertions.assertEquals(0, sync.getStats().getObjectsFailed());
+        Assertions.assertFalse(sync.isEstimating());
+        Assertions.assertEquals(sync.getStats().getObjectsComplete(), sync.getEstimatedTotalObjects());
+        Assertions.assertEquals(sync.getStats().getBytesComplete(), sync.getEstimatedTotalBytes());
+
+        // estimation must not enumerate the source a second time
+        Assertions.assertEquals(1, allObjectsCalls.get());
+        Assertions.assertEquals(countDirectories(source, source.getRootObjects()), childrenCalls.get());
+    }
+
+    @Test
+    public void testListingSpool() throws Exception {
+        TestConfig testConfig = new TestConfig().withObjectCount(200).withMaxSize(1024).withReadData(true).withDiscardData(false);
+        Path spoolFile = Files.createTempFile("listing-spool", ".spool");
+
+        AtomicInteger allObjectsCalls = new AtomicInteger();
+        TestStorage source = new TestStorage() {
+            @Override
+            public Iterable<ObjectSummary> allObjects() {
+                allObjectsCalls.incrementAndGet();
+                return super.allObjects();
+            }
+        };
+        source.withConfig(testConfig);
+
+        SyncOptions options = new SyncOptions().withThreadCount(8).withListingSpoolFile(spoolFile.toString());
+
+        EcsSync sync = new EcsSync();
+        sync.setSyncConfig(new SyncConfig().withOptions(options).withTarget(testConfig));
+        sync.setSource(source);
+        TestUtil.run(sync);
+
+        Assertions.assertEquals(0, sync.getStats().getObjectsFailed());
+        Assertions.assertEquals(sync.getStats().getObjectsComplete(), sync.getEstimatedTotalObjects());
+        Assertions.assertEquals(1, allObjectsCalls.get());
+        long objectsComplete = sync.getStats().getObjectsComplete();
+        // the spool was fully synced, so it is deleted
+        Assertions.assertFalse(Files.exists(spoolFile));
+
+        // a second run lists the source again
+        sync = new EcsSync();
+        sync.setSyncConfig(new SyncConfig().withOptions(options).withTarget(testConfig));
+        sync.setSource(source);
+        TestUtil.run(sync);
+
+        Assertions.assertEquals(0, sync.getStats().getObjectsFailed());
+        Assertions.assertEquals(objectsComplete, sync.getStats().getObjectsComplete());
+        Assertions.assertEquals(objectsComplete, sync.getEstimatedTotalObjects());
+        Assertions.assertEquals(2, allObjectsCalls.get());
+        Assertions.assertFalse(Files.exists(spoolFile));
+    }
+
+    private int countDirectories(TestStorage storage, Collection<? extends SyncObject> objects) {
+        int count = 0;
+        for (SyncObject object : objects) {
+            if (object.getMetadata().isDirectory()) {
+                count++;
+                count += countDirectories(storage, storage.getChildren(storage.getIdentifier(object.getRelativePath(), true)));
+            }
+        }
+        return count;
+    }
+
     @FilterConfig(cliName = "98s76df8s7d6fs87d6f")
     @InternalFilter
     public static class ErrorThrowingConfig {
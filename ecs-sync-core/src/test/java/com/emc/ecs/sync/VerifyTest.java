@@ -15,6 +15,7 @@
  */
 package com.emc.ecs.sync;
 
+import com.emc.ecs.sync.config.ChecksumAlgorithm;
 import com.emc.ecs.sync.config.SyncConfig;
 import com.emc.ecs.sync.config.SyncOptions;
 import com.emc.ecs.sync.config.storage.TestConfig;
@@ -22,12 +23,15 @@ import com.emc.ecs.sync.model.*;
 import com.emc.ecs.sync.storage.TestStorage;
 import com.emc.ecs.sync.test.ByteAlteringFilter;
 import com.emc.ecs.sync.test.TestUtil;
+import com.emc.ecs.sync.util.MultipartMd5InputStream;
+import com.emc.ecs.sync.util.SyncUtil;
 import com.emc.ecs.sync.util.VerifyUtil;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import javax.xml.bind.DatatypeConverter;
 import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
@@ -110,7 +114,7 @@ public class VerifyTest {
         TestStorage storage = new TestStorage();
 
         SyncOptions syncOptions = new SyncOptions();
-        Md5Verifier verifier = new Md5Verifier(syncOptions);
+        ChecksumVerifier verifier = new ChecksumVerifier(syncOptions);
 
         // 1. data is the same, metadata is different
         ByteArrayInputStream sourceStream = new ByteArrayInputStream(foo.getBytes(StandardCharsets.UTF_8));
@@ -163,6 +167,73 @@ public class VerifyTest {
         verifier.verify(sourceObject, targetObject);
     }
 
+    @Test
+    public void testAlternateChecksum() throws Exception {
+        String foo = "foo", bar = "bar";
+        TestStorage storage = new TestStorage();
+        storage.withOptions(new SyncOptions().withChecksumAlgorithm(ChecksumAlgorithm.CRC32C));
+
+        SyncOptions syncOptions = new SyncOptions().withChecksumAlgorithm(ChecksumAlgorithm.CRC32C);
+        ChecksumVerifier verifier = new ChecksumVerifier(syncOptions);
+
+        // data is different
+        SyncObject sourceObject = new SyncObject(storage, "object1", new ObjectMetadata().withContentLength(foo.length()),
+                new ByteArrayInputStream(foo.getBytes(StandardCharsets.UTF_8)), new ObjectAcl());
+        SyncObject targetObject = new SyncObject(storage, "object1", new ObjectMetadata().withContentLength(bar.length()),
+                new ByteArrayInputStream(bar.getBytes(StandardCharsets.UTF_8)), new ObjectAcl());
+        try {
+            verifier.verify(sourceObject, targetObject);
+            Assertions.fail("data checksum verification passed, but should have failed");
+        } catch (RuntimeException e) {
+            Assertions.assertTrue(e.getMessage().contains("CRC32C sum mismatch"));
+        }
+
+        // data is the same, and the source was already streamed, so MD5 is no longer available
+        sourceObject = new SyncObject(storage, "object1", new ObjectMetadata().withContentLength(foo.length()),
+                new ByteArrayInputStream(foo.getBytes(StandardCharsets.UTF_8)), new ObjectAcl());
+        SyncUtil.consumeAndCloseStream(sourceObject.getDataStream());
+        targetObject = new SyncObject(storage, "object1", new ObjectMetadata().withContentLength(foo.length()),
+                new ByteArrayInputStream(foo.getBytes(StandardCharsets.UTF_8)), new ObjectAcl());
+        Assertions.assertFalse(sourceObject.isChecksumAvailable(ChecksumAlgorithm.MD5));
+        verifier.verify(sourceObject, targetObject);
+        Assertions.assertEquals(sourceObject.getChecksumHex(ChecksumAlgorithm.CRC32C, false),
+                targetObject.getChecksumHex(ChecksumAlgorithm.CRC32C, false));
+    }
+
+    @Test
+    public void testMultipartEtag() throws Exception {
+        String foo = "foo";
+        String compositeMd5 = MultipartMd5InputStream.compositeMd5Hex(Collections.singletonList(
+                MessageDigest.getInstance("MD5").digest(foo.getBytes(StandardCharsets.UTF_8))));
+        TestStorage storage = new TestStorage();
+
+        SyncOptions syncOptions = new SyncOptions().withUseMetadataChecksumForVerification(true);
+        ChecksumVerifier verifier = new ChecksumVerifier(syncOptions);
+
+        // 1. composite matches the target ETag, so the target data is never read
+        SyncObject sourceObject = new SyncObject(storage, "object1", new ObjectMetadata().withContentLength(foo.length()),
+                new ByteArrayInputStream(foo.getBytes(StandardCharsets.UTF_8)), new ObjectAcl());
+        sourceObject.setCompositeMd5Hex(compositeMd5);
+        ObjectMetadata targetMeta = new ObjectMetadata().withContentLength(foo.length()).withHttpEtag("\"" + compositeMd5.toLowerCase() + "\"");
+        SyncObject targetObject = new SyncObject(storage, "object1", targetMeta, new InputStream() {
+            @Override
+            public int read() {
+                throw new UnsupportedOperationException("target data should not be read");
+            }
+        }, new ObjectAcl());
+        verifier.verify(sourceObject, targetObject);
+
+        // 2. composite does not match (i.e. different part size), so verification falls back to reading the data
+        sourceObject = new SyncObject(storage, "object1", new ObjectMetadata().withContentLength(foo.length()),
+                new ByteArrayInputStream(foo.getBytes(StandardCharsets.UTF_8)), new ObjectAcl());
+        sourceObject.setCompositeMd5Hex(compositeMd5);
+        targetMeta = new ObjectMetadata().withContentLength(foo.length()).withHttpEtag(compositeMd5.replace("-1", "-2"));
+        targetObject = new SyncObject(storage, "object1", targetMeta,
+                new ByteArrayInputStream(foo.getBytes(StandardCharsets.UTF_8)), new ObjectAcl());
+        verifier.verify(sourceObject, targetObject);
+        Assertions.assertEquals(foo.length(), targetObject.getBytesRead());
+    }
+
     private String getMd5Base64(String value) throws NoSuchAlgorithmException {
         MessageDigest md = MessageDigest.getInstance("MD5");
         md.update(value.getBytes(StandardCharsets.UTF_8));
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2026 Dell Inc. or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.emc.ecs.sync.model;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVRecord;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+
+public class ListFileRecordTest {
+    @Test
+    public void testParse() {
+        assertValues("foo", "foo");
+        assertValues("foo,bar,baz", "foo", "bar", "baz");
+        assertValues("foo,,baz,", "foo", "", "baz", "");
+        assertValues("", "");
+        assertValues(" foo , bar ", " foo ", " bar ");
+        assertValues("\"foo,bar\",baz", "foo,bar", "baz");
+        assertValues("\"foo \"\" bar\"", "foo \" bar");
+        assertValues("\"\"\"foo bar\"\"\"", "\"foo bar\"");
+        assertValues("\"\",\"\"", "", "");
+        assertValues("\"quoted\"  ,next", "quoted", "next");
+        assertValues("in\"side,x", "in\"side", "x");
+        assertValues(" \"not quoted\"", " \"not quoted\"");
+        assertValues("foo\\#bar,biz", "foo\\#bar", "biz");
+        assertValues("a,b,c,d,e,f,g,h,i,j,k", "a", "b", "c", "d", "e", "f", "g", "h", "i", "j", "k");
+        assertValues("/source/id,relative/path,NFS,1000,1000,0644,1500000000,1500000000,1500000000",
+                "/source/id", "relative/path", "NFS", "1000", "1000", "0644", "1500000000", "1500000000", "1500000000");
+    }
+
+    @Test
+    public void testInvalid() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ListFileRecord.parse("\"unterminated"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ListFileRecord.parse("\"foo\"bar,baz"));
+    }
+
+    @Test
+    public void testMatchesCommonsCsv() throws Exception {
+        String[] rows = {
+                "foo", "foo,bar,baz", "foo,,baz,", " foo , bar ", "\"foo,bar\",baz", "\"foo \"\" bar\"",
+                "\"\"\"foo bar\"\"\"", "\"\",\"\"", "\"quoted\"  ,next", "in\"side,x", " \"not quoted\"",
+                "foo\\#bar,biz", "a,b,c,d,e,f,g,h,i,j,k", "\"multi\nline\",value"
+        };
+        for (String row : rows) {
+            CSVRecord csvRecord = CSVFormat.EXCEL.parse(new StringReader(row)).iterator().next();
+            ListFileRecord record = ListFileRecord.parse(row);
+            Assertions.assertEquals(csvRecord.size(), record.size(), row);
+            for (int i = 0; i < record.size(); i++) {
+                Assertions.assertEquals(csvRecord.get(i), record.get(i), row);
+            }
+        }
+    }
+
+    @Test
+    public void testSummaryRecordIsShared() {
+        ObjectSummary summary = new ObjectSummary("foo", false, 0);
+        Assertions.assertNull(summary.getListFileRecord());
+
+        summary.setListFileRow("foo,bar");
+        ListFileRecord record = summary.getListFileRecord();
+        Assertions.assertEquals(Arrays.asList("foo", "bar"), record.getValues());
+        Assertions.assertSame(record, summary.getListFileRecord());
+
+        // changing the row resets the record
+        summary.setListFileRow("baz");
+        Assertions.assertEquals("baz", summary.getListFileRecord().get(0));
+
+        ListFileRecord parsed = ListFileRecord.parse("x,y");
+        summary.setListFileRecord(parsed);
+        Assertions.assertEquals("x,y", summary.getListFileRow());
+        Assertions.assertSame(parsed, summary.getListFileRecord());
+    }
+
+    private void assertValues(String row, String... expected) {
+        List<String> values = ListFileRecord.parse(row).getValues();
+        Assertions.assertEquals(Arrays.asList(expected), values, row);
+    }
+}
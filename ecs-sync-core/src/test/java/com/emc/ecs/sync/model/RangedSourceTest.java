@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2026 Dell Inc. or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.emc.ecs.sync.model;
+
+import com.emc.ecs.sync.storage.TestStorage;
+import com.emc.ecs.sync.util.SyncUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class RangedSourceTest {
+    private static final int SIZE = 1024 * 1024 + 17;
+
+    private final byte[] data = new byte[SIZE];
+
+    public RangedSourceTest() {
+        new Random().nextBytes(data);
+    }
+
+    @Test
+    public void testSingleRange() throws Exception {
+        SyncObject object = createObject();
+
+        RangedSource rangedSource = object.getRangedSource();
+        Assertions.assertNotNull(rangedSource);
+        Assertions.assertEquals(SIZE, rangedSource.getTotalSize());
+        SyncUtil.consumeAndCloseStream(rangedSource.getRangeStream(0, SIZE));
+
+        // a single complete range is the same as reading the data stream
+        Assertions.assertEquals(hex(md5(data, 0, SIZE)), object.getMd5Hex(false));
+        Assertions.assertEquals(SIZE, object.getBytesRead());
+        Assertions.assertFalse(object.isDataStreamInitialized());
+    }
+
+    @Test
+    public void testParallelRanges() throws Exception {
+        SyncObject object = createObject();
+        RangedSource rangedSource = object.getRangedSource();
+
+        int partSize = 100 * 1024;
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<Long>> futures = new ArrayList<>();
+        MessageDigest composite = MessageDigest.getInstance("MD5");
+        int parts = 0;
+        try {
+            for (int offset = 0; offset < SIZE; offset += partSize) {
+                final int fOffset = offset, length = Math.min(partSize, SIZE - offset);
+                futures.add(executor.submit(() -> SyncUtil.consumeAndCloseStream(rangedSource.getRangeStream(fOffset, length))));
+                composite.update(md5(data, offset, length));
+                parts++;
+            }
+            long total = 0;
+            for (Future<Long> future : futures) {
+                total += future.get();
+            }
+            Assertions.assertEquals(SIZE, total);
+        } finally {
+            executor.shutdown();
+        }
+
+        Assertions.assertEquals(SIZE, object.getBytesRead());
+        Assertions.assertEquals(hex(composite.digest()) + "-" + parts, object.getCompositeMd5Hex());
+        // the whole-object MD5 cannot be composed from the ranges
+        Assertions.assertNull(object.getMd5Hex(false));
+    }
+
+    @Test
+    public void testIncompleteRanges() throws Exception {
+        SyncObject object = createObject();
+        RangedSource rangedSource = object.getRangedSource();
+
+        SyncUtil.consumeAndCloseStream(rangedSource.getRangeStream(0, 1024));
+        SyncUtil.consumeAndCloseStream(rangedSource.getRangeStream(2048, SIZE - 2048));
+
+        // there is a gap in the ranges
+        Assertions.assertNull(object.getCompositeMd5Hex());
+    }
+
+    @Test
+    public void testStreamOpened() throws Exception {
+        SyncObject object = createObject();
+        object.getDataStream();
+
+        // once the stream is opened (or replaced by a filter), ranges cannot be used
+        Assertions.assertNull(object.getRangedSource());
+
+        object = createObject();
+        object.setLazyStream(() -> new ByteArrayInputStream(new byte[0]));
+
+        // a new stream also invalidates the ranged source
+        Assertions.assertNull(object.getRangedSource());
+    }
+
+    private SyncObject createObject() {
+        SyncObject object = new SyncObject(new TestStorage(), "ranged-object",
+                new ObjectMetadata().withContentLength(SIZE));
+        object.setLazyStream(() -> new ByteArrayInputStream(data));
+        object.setRangedSource(new RangedSource() {
+            @Override
+            public long getTotalSize() {
+                return SIZE;
+            }
+
+            @Override
+            public InputStream getRangeStream(long offset, long length) {
+                return new ByteArrayInputStream(data, (int) offset, (int) length);
+            }
+        });
+        return object;
+    }
+
+    private byte[] md5(byte[] buffer, int offset, int length) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("MD5");
+        digest.update(buffer, offset, length);
+        return digest.digest();
+    }
+
+    private String hex(byte[] bytes) {
+        return String.format("%0" + (bytes.length * 2) + "X", new BigInteger(1, bytes));
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2026 Dell Inc. or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.emc.ecs.sync.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+public class MultipartUploadStateServiceTest {
+    private AbstractDbService dbService;
+    private MultipartUploadStateService stateService;
+
+    @BeforeEach
+    public void setup() {
+        dbService = new InMemoryDbService(false);
+        stateService = new MultipartUploadStateService(dbService);
+        stateService.start();
+    }
+
+    @AfterEach
+    public void teardown() {
+        if (dbService != null) dbService.close();
+    }
+
+    private MultipartUploadStateService.MultipartUploadState upload(String sourceId, String uploadId) {
+        MultipartUploadStateService.MultipartUploadState upload = new MultipartUploadStateService.MultipartUploadState();
+        upload.setSourceId(sourceId);
+        upload.setTargetKey("prefix/" + sourceId);
+        upload.setUploadId(uploadId);
+        upload.setTotalSize(100L * 1024 * 1024);
+        upload.setPartSize(16L * 1024 * 1024);
+        upload.setSourceMtime(12345);
+        upload.setInitiated(System.currentTimeMillis());
+        return upload;
+    }
+
+    @Test
+    public void testUploadState() {
+        Assertions.assertNull(stateService.getUpload("foo"));
+
+        stateService.uploadInitiated(upload("foo", "upload-1"));
+        stateService.partUploaded("upload-1", 1, "etag-1");
+        stateService.partUploaded("upload-1", 3, "etag-3");
+        // a re-uploaded part replaces its ETag
+        stateService.partUploaded("upload-1", 3, "etag-3b");
+
+        MultipartUploadStateService.MultipartUploadState upload = stateService.getUpload("foo");
+        Assertions.assertNotNull(upload);
+        Assertions.assertEquals("prefix/foo", upload.getTargetKey());
+        Assertions.assertEquals("upload-1", upload.getUploadId());
+        Assertions.assertEquals(100L * 1024 * 1024, upload.getTotalSize());
+        Assertions.assertEquals(16L * 1024 * 1024, upload.getPartSize());
+        Assertions.assertEquals(12345, upload.getSourceMtime());
+        Assertions.assertEquals(2, upload.getPartETags().size());
+        Assertions.assertEquals("etag-1", upload.getPartETags().get(1));
+        Assertions.assertEquals("etag-3b", upload.getPartETags().get(3));
+        Assertions.assertEquals(Collections.singleton("upload-1"), stateService.getUploadIds());
+
+        stateService.uploadFinished("foo", "upload-1");
+        Assertions.assertNull(stateService.getUpload("foo"));
+        Assertions.assertTrue(stateService.getUploadIds().isEmpty());
+    }
+
+    @Test
+    public void testReplacedUpload() {
+        stateService.uploadInitiated(upload("foo", "upload-1"));
+        stateService.partUploaded("upload-1", 1, "etag-1");
+
+        // a new upload of the same object replaces the old one (and its parts)
+        stateService.uploadInitiated(upload("foo", "upload-2"));
+        MultipartUploadStateService.MultipartUploadState upload = stateService.getUpload("foo");
+        Assertions.assertEquals("upload-2", upload.getUploadId());
+        Assertions.assertTrue(upload.getPartETags().isEmpty());
+        Assertions.assertEquals(Collections.singleton("upload-2"), stateService.getUploadIds());
+
+        // finishing the old upload leaves the new one alone
+        stateService.uploadFinished("foo", "upload-1");
+        Assertions.assertEquals("upload-2", stateService.getUpload("foo").getUploadId());
+    }
+
+    @Test
+    public void testRestart() {
+        stateService.uploadInitiated(upload("foo", "upload-1"));
+        stateService.partUploaded("upload-1", 2, "etag-2");
+
+        // a new service instance (i.e. a restarted job) sees the same state
+        MultipartUploadStateService restarted = new MultipartUploadStateService(dbService);
+        restarted.start();
+        Assertions.assertEquals("etag-2", restarted.getUpload("foo").getPartETags().get(2));
+    }
+}
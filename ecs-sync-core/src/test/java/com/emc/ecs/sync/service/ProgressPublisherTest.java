@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2026 Dell Inc. or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.emc.ecs.sync.service;
+
+import com.emc.ecs.sync.rest.JobControlStatus;
+import com.emc.ecs.sync.rest.SyncProgress;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ProgressPublisherTest {
+    private ScheduledExecutorService scheduler;
+    private SyncProgress progress;
+    private AtomicInteger samples;
+    private ProgressPublisher publisher;
+
+    @BeforeEach
+    public void setup() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        progress = new SyncProgress();
+        progress.setJobName("test-job");
+        progress.setStatus(JobControlStatus.Running);
+        samples = new AtomicInteger();
+        publisher = new ProgressPublisher(this::sample, scheduler, 20);
+    }
+
+    @AfterEach
+    public void teardown() {
+        scheduler.shutdownNow();
+    }
+
+    private synchronized SyncProgress sample() {
+        samples.incrementAndGet();
+        SyncProgress copy = new SyncProgress();
+        copy.setJobName(progress.getJobName());
+        copy.setStatus(progress.getStatus());
+        copy.setBytesComplete(progress.getBytesComplete());
+        copy.setObjectsComplete(progress.getObjectsComplete());
+        return copy;
+    }
+
+    private synchronized void update(long bytes, long objects) {
+        progress.setBytesComplete(bytes);
+        progress.setObjectsComplete(objects);
+    }
+
+    @Test
+    public void testSnapshotThenDelta() throws Exception {
+        try (ProgressPublisher.Subscription subscription = publisher.subscribe(0)) {
+            ProgressPublisher.ProgressUpdate update = subscription.next(5000);
+            Assertions.assertNotNull(update);
+            Assertions.assertTrue(update.isFull());
+            Assertions.assertEquals("test-job", update.getValues().get("jobName"));
+            Assertions.assertEquals("Running", update.getValues().get("status"));
+            Assertions.assertEquals(0L, update.getValues().get("bytesComplete"));
+
+            update(1024, 1);
+            update = subscription.next(5000);
+            Assertions.assertNotNull(update);
+            Assertions.assertFalse(update.isFull());
+            Assertions.assertEquals(1024L, update.getValues().get("bytesComplete"));
+            Assertions.assertEquals(1L, update.getValues().get("objectsComplete"));
+            Assertions.assertEquals(2, update.getValues().size()); // nothing else changed
+
+            // no changes, no updates
+            Assertions.assertNull(subscription.next(100));
+        }
+        Assertions.assertEquals(0, publisher.getSubscriberCount());
+    }
+
+    @Test
+    public void testSharedSampling() throws Exception {
+        ProgressPublisher.Subscription[] subscriptions = new ProgressPublisher.Subscription[10];
+        for (int i = 0; i < subscriptions.length; i++) subscriptions[i] = publisher.subscribe(0);
+        for (ProgressPublisher.Subscription subscription : subscriptions) {
+            Assertions.assertTrue(subscription.next(5000).isFull());
+        }
+        Thread.sleep(200);
+        for (ProgressPublisher.Subscription subscription : subscriptions) subscription.close();
+
+        // one sample per interval no matter how many subscribers (200ms / 20ms plus slack for a slow machine)
+        int sampled = samples.get();
+        Assertions.assertTrue(sampled <= 15, "sampled " + sampled + " times");
+
+        // sampling stops when nobody is subscribed
+        Thread.sleep(100);
+        Assertions.assertTrue(samples.get() <= sampled + 1);
+    }
+
+    @Test
+    public void testSlowSubscriberMerges() throws Exception {
+        try (ProgressPublisher.Subscription subscription = publisher.subscribe(300)) {
+            Assertions.assertTrue(subscription.next(5000).isFull());
+
+            long start = System.currentTimeMillis();
+            for (int i = 1; i <= 10; i++) {
+                update(i * 100, i);
+                Thread.sleep(20);
+            }
+            ProgressPublisher.ProgressUpdate update = subscription.next(5000);
+            Assertions.assertNotNull(update);
+            Assertions.assertTrue(System.currentTimeMillis() - start >= 250, "update arrived before the subscriber was due");
+            // changes are merged, so the subscriber always sees the latest values
+            update(2000, 20);
+            Thread.sleep(100);
+            update = subscription.next(5000);
+            Assertions.assertEquals(2000L, update.getValues().get("bytesComplete"));
+            Assertions.assertEquals(20L, update.getValues().get("objectsComplete"));
+        }
+    }
+
+    @Test
+    public void testComplete() throws Exception {
+        ProgressPublisher.Subscription subscription = publisher.subscribe(0);
+        Assertions.assertTrue(subscription.next(5000).isFull());
+
+        synchronized (this) {
+            progress.setStatus(JobControlStatus.Complete);
+        }
+        ProgressPublisher.ProgressUpdate update = subscription.next(5000);
+        Assertions.assertNotNull(update);
+        Assertions.assertTrue(update.isComplete());
+        Assertions.assertEquals(Collections.singletonMap("status", "Complete"), update.getValues());
+        Assertions.assertTrue(subscription.isClosed());
+        Assertions.assertNull(subscription.next(100));
+        Assertions.assertEquals(0, publisher.getSubscriberCount());
+        Assertions.assertTrue(publisher.isComplete());
+
+        // late subscribers get the final snapshot and nothing else
+        try (ProgressPublisher.Subscription late = publisher.subscribe(0)) {
+            update = late.next(1000);
+            Assertions.assertTrue(update.isFull());
+            Assertions.assertTrue(update.isComplete());
+            Assertions.assertEquals("test-job", update.getValues().get("jobName"));
+        }
+    }
+
+    @Test
+    public void testClose() throws Exception {
+        ProgressPublisher.Subscription first = publisher.subscribe(0);
+        ProgressPublisher.Subscription second = publisher.subscribe(0);
+        Assertions.assertTrue(first.next(5000).isFull());
+
+        update(1024, 1);
+        publisher.close();
+
+        // every subscriber gets a final update, then its subscription is closed
+        ProgressPublisher.ProgressUpdate update = first.next(1000);
+        Assertions.assertNotNull(update);
+        Assertions.assertTrue(update.isComplete());
+        Assertions.assertEquals(1024L, update.getValues().get("bytesComplete"));
+        Assertions.assertTrue(first.isClosed());
+        update = second.next(1000);
+        Assertions.assertNotNull(update);
+        Assertions.assertTrue(update.isComplete());
+        Assertions.assertTrue(second.isClosed());
+        Assertions.assertEquals(0, publisher.getSubscriberCount());
+
+        // sampling stopped
+        int sampled = samples.get();
+        Thread.sleep(100);
+        Assertions.assertEquals(sampled, samples.get());
+    }
+}
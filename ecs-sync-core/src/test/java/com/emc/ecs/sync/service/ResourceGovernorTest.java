@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2026 Dell Inc. or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.emc.ecs.sync.service;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+public class ResourceGovernorTest {
+    @Test
+    public void testUnlimited() {
+        Map<Integer, Integer> quotas = ResourceGovernor.allocate(requests(64, 16), 0, 0);
+        Assertions.assertEquals(0, quotas.get(1).intValue());
+        Assertions.assertEquals(0, quotas.get(2).intValue());
+
+        // per-job cap still applies without a total budget
+        quotas = ResourceGovernor.allocate(requests(64, 16), 0, 32);
+        Assertions.assertEquals(32, quotas.get(1).intValue());
+        Assertions.assertEquals(32, quotas.get(2).intValue());
+    }
+
+    @Test
+    public void testMaxMinFair() {
+        // the small job gets all it asks for, the rest is split evenly
+        Map<Integer, Integer> quotas = ResourceGovernor.allocate(requests(64, 8, 64), 100, 0);
+        Assertions.assertEquals(46, quotas.get(1).intValue());
+        Assertions.assertEquals(8, quotas.get(2).intValue());
+        Assertions.assertEquals(46, quotas.get(3).intValue());
+
+        // whole budget is used even when it doesn't divide evenly
+        quotas = ResourceGovernor.allocate(requests(64, 64, 64), 10, 0);
+        Assertions.assertEquals(10, quotas.values().stream().mapToInt(Integer::intValue).sum());
+
+        // budget larger than all requests
+        quotas = ResourceGovernor.allocate(requests(16, 8), 100, 0);
+        Assertions.assertEquals(16, quotas.get(1).intValue());
+        Assertions.assertEquals(8, quotas.get(2).intValue());
+    }
+
+    @Test
+    public void testPerJobCapAndMinimum() {
+        Map<Integer, Integer> quotas = ResourceGovernor.allocate(requests(64, 64), 100, 20);
+        Assertions.assertEquals(20, quotas.get(1).intValue());
+        Assertions.assertEquals(20, quotas.get(2).intValue());
+
+        // every job gets at least one thread
+        quotas = ResourceGovernor.allocate(requests(8, 8, 8), 2, 0);
+        for (int quota : quotas.values()) Assertions.assertTrue(quota >= 1);
+    }
+
+    private Map<Integer, Integer> requests(int... threadCounts) {
+        Map<Integer, Integer> requested = new TreeMap<>();
+        for (int i = 0; i < threadCounts.length; i++) requested.put(i + 1, threadCounts[i]);
+        return requested;
+    }
+}
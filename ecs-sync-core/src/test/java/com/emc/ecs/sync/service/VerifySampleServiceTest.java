@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2026 Dell Inc. or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.emc.ecs.sync.service;
+
+import com.emc.ecs.sync.config.SyncOptions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+public class VerifySampleServiceTest {
+    private static final int OBJECT_COUNT = 2000;
+
+    private AbstractDbService dbService;
+
+    @BeforeEach
+    public void setup() {
+        dbService = new InMemoryDbService(false);
+    }
+
+    @AfterEach
+    public void teardown() {
+        if (dbService != null) dbService.close();
+    }
+
+    private Set<String> runSample(VerifySampleService sampler, long objectSize) {
+        Set<String> sampled = new HashSet<>();
+        sampler.start();
+        for (int i = 0; i < OBJECT_COUNT; i++) {
+            String identifier = "object-" + i;
+            if (sampler.isSampled(identifier, objectSize)) {
+                sampled.add(identifier);
+                sampler.recordResult(identifier, objectSize, true);
+            }
+        }
+        sampler.close();
+        return sampled;
+    }
+
+    @Test
+    public void testRotatingCoverage() {
+        SyncOptions options = new SyncOptions().withVerify(true).withVerifySamplePercent(25);
+        Set<String> covered = new HashSet<>();
+        for (int run = 1; run <= 4; run++) {
+            VerifySampleService sampler = new VerifySampleService(dbService, options);
+            Set<String> sampled = runSample(sampler, 10);
+            Assertions.assertEquals(run, sampler.getRunId());
+            // roughly a quarter of the objects, none of which were sampled in a previous run
+            Assertions.assertTrue(sampled.size() > OBJECT_COUNT * 0.2 && sampled.size() < OBJECT_COUNT * 0.3,
+                    "sampled " + sampled.size());
+            for (String identifier : sampled) {
+                Assertions.assertTrue(covered.add(identifier), identifier + " was sampled twice");
+            }
+            Assertions.assertEquals(OBJECT_COUNT, sampler.getSeenObjects());
+            Assertions.assertEquals(sampled.size(), sampler.getSampledObjects());
+        }
+        // after 100/25 runs, every object has been verified
+        Assertions.assertEquals(OBJECT_COUNT, covered.size());
+
+        // sampled objects are recorded in the DB
+        Long recorded = dbService.getJdbcTemplate().queryForObject("SELECT COUNT(*) FROM "
+                + dbService.getObjectsTableName() + VerifySampleService.SAMPLES_TABLE_SUFFIX, Long.class);
+        Assertions.assertEquals(OBJECT_COUNT, recorded.longValue());
+    }
+
+    @Test
+    public void testConcurrentRuns() {
+        SyncOptions options = new SyncOptions().withVerify(true).withVerifySamplePercent(25);
+        // two jobs sharing the DB start before either finishes
+        VerifySampleService sampler1 = new VerifySampleService(dbService, options);
+        VerifySampleService sampler2 = new VerifySampleService(dbService, options);
+        sampler1.start();
+        sampler2.start();
+        Assertions.assertNotEquals(sampler1.getRunId(), sampler2.getRunId());
+        Assertions.assertNotEquals(sampler1.getWindowStart(), sampler2.getWindowStart());
+        sampler2.close();
+        sampler1.close();
+    }
+
+    @Test
+    public void testDeterministicWithoutDb() {
+        SyncOptions options = new SyncOptions().withVerify(true).withVerifySamplePercent(10);
+        Set<String> sampled1 = runSample(new VerifySampleService(new NoDbService(false), options), 10);
+        Set<String> sampled2 = runSample(new VerifySampleService(new NoDbService(false), options), 10);
+        Assertions.assertFalse(sampled1.isEmpty());
+        Assertions.assertEquals(sampled1, sampled2);
+    }
+
+    @Test
+    public void testByteBudget() {
+        long objectSize = 100 * 1024;
+        SyncOptions options = new SyncOptions().withVerify(true).withVerifySamplePercent(100).withVerifySampleBudgetMb(1);
+        VerifySampleService sampler = new VerifySampleService(dbService, options);
+        Set<String> sampled = runSample(sampler, objectSize);
+        Assertions.assertEquals(1024 * 1024 / objectSize, sampled.size());
+        Assertions.assertTrue(sampler.getSampledBytes() <= 1024 * 1024);
+    }
+
+    @Test
+    public void testBudgetOnly() {
+        long objectSize = 1024 * 1024;
+        SyncOptions options = new SyncOptions().withVerify(true).withVerifySampleBudgetMb(OBJECT_COUNT / 10);
+
+        // no previous run, so the budget is all we have
+        VerifySampleService sampler = new VerifySampleService(dbService, options);
+        Set<String> sampled = runSample(sampler, objectSize);
+        Assertions.assertEquals(1, sampler.getSampleFraction());
+        Assertions.assertEquals(OBJECT_COUNT / 10, sampled.size());
+
+        // the next run derives its window from the size of the previous run
+        sampler = new VerifySampleService(dbService, options);
+        runSample(sampler, objectSize);
+        Assertions.assertEquals(0.1, sampler.getSampleFraction(), 0.0001);
+        Assertions.assertEquals(0.1, sampler.getWindowStart(), 0.0001);
+    }
+
+    @Test
+    public void testFailureRateUpperBound() {
+        // no failures in 300 samples: the failure rate is below 1% (close to the "rule of three")
+        double bound = VerifySampleService.getFailureRateUpperBound(300, 0);
+        Assertions.assertTrue(bound > 0.008 && bound < 0.01, "bound: " + bound);
+
+        // 10 failures in 100 samples
+        bound = VerifySampleService.getFailureRateUpperBound(100, 10);
+        Assertions.assertTrue(bound > 0.15 && bound < 0.17, "bound: " + bound);
+
+        // nothing sampled, nothing known
+        Assertions.assertEquals(1, VerifySampleService.getFailureRateUpperBound(0, 0));
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2026 Dell Inc. or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.emc.ecs.sync.service;
+
+import com.emc.ecs.sync.config.ConfigurationException;
+import com.emc.ecs.sync.config.SyncOptions;
+import com.emc.ecs.sync.config.WorkLeaseRole;
+import com.emc.ecs.sync.model.ObjectSummary;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+public class WorkLeaseServiceTest {
+    private AbstractDbService dbService;
+
+    @BeforeEach
+    public void setup() {
+        dbService = new InMemoryDbService(false);
+    }
+
+    @AfterEach
+    public void teardown() {
+        if (dbService != null) dbService.close();
+    }
+
+    private SyncOptions options(WorkLeaseRole role, int batchSize, int durationSeconds) {
+        return new SyncOptions().withWorkLeaseRole(role).withWorkLeaseBatchSize(batchSize)
+                .withWorkLeaseDurationSeconds(durationSeconds);
+    }
+
+    private void enumerate(WorkLeaseService coordinator, int objectCount) {
+        for (int i = 0; i < objectCount; i++) {
+            ObjectSummary summary = new ObjectSummary("object-" + i, false, i);
+            summary.setListRowNum(i + 1);
+            coordinator.enqueue(summary);
+        }
+        coordinator.setEnumerationComplete();
+    }
+
+    @Test
+    public void testLeaseAndComplete() throws Exception {
+        int objectCount = 250, workerCount = 3;
+        Map<String, Integer> completions = new ConcurrentHashMap<>();
+
+        try (WorkLeaseService coordinator = new WorkLeaseService(dbService, options(WorkLeaseRole.Coordinator, 20, 60))) {
+            coordinator.start();
+            enumerate(coordinator, objectCount);
+
+            ExecutorService executor = Executors.newFixedThreadPool(workerCount);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int w = 0; w < workerCount; w++) {
+                futures.add(executor.submit(() -> {
+                    try (WorkLeaseService worker = new WorkLeaseService(dbService, options(WorkLeaseRole.Worker, 20, 60))) {
+                        worker.start();
+                        while (!worker.isDrained()) {
+                            for (ObjectSummary summary : worker.lease()) {
+                                Assertions.assertEquals(summary.getIdentifier(), "object-" + (summary.getListRowNum() - 1));
+                                completions.merge(summary.getIdentifier(), 1, Integer::sum);
+                                worker.complete(summary.getIdentifier());
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+            executor.shutdown();
+
+            Assertions.assertTrue(coordinator.isDrained());
+        }
+
+        // every object was leased exactly once
+        Assertions.assertEquals(objectCount, completions.size());
+        for (Integer count : completions.values()) {
+            Assertions.assertEquals(1, count.intValue());
+        }
+    }
+
+    @Test
+    public void testExpiredLeaseIsReleased() throws Exception {
+        try (WorkLeaseService coordinator = new WorkLeaseService(dbService, options(WorkLeaseRole.Coordinator, 10, 3))) {
+            coordinator.start();
+            enumerate(coordinator, 10);
+
+            // simulate a crashed worker (no heartbeat, never closed)
+            WorkLeaseService crashed = new WorkLeaseService(dbService, options(WorkLeaseRole.Worker, 10, 3)) {
+                @Override
+                protected void heartbeat() {
+                }
+            };
+            crashed.start();
+            List<ObjectSummary> lost = crashed.lease();
+            Assertions.assertFalse(lost.isEmpty());
+
+            try (WorkLeaseService worker = new WorkLeaseService(dbService, options(WorkLeaseRole.Worker, 10, 3))) {
+                worker.start();
+                Set<String> leased = new HashSet<>();
+                long deadline = System.currentTimeMillis() + 15000;
+                while (!worker.isDrained() && System.currentTimeMillis() < deadline) {
+                    List<ObjectSummary> batch = worker.lease();
+                    if (batch.isEmpty()) Thread.sleep(500);
+                    for (ObjectSummary summary : batch) {
+                        leased.add(summary.getIdentifier());
+                        worker.complete(summary.getIdentifier());
+                    }
+                }
+                Assertions.assertTrue(worker.isDrained());
+                // everything held by the crashed worker was re-leased after it expired
+                for (ObjectSummary summary : lost) {
+                    Assertions.assertTrue(leased.contains(summary.getIdentifier()));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testFairBatchSize() {
+        try (WorkLeaseService coordinator = new WorkLeaseService(dbService, options(WorkLeaseRole.Coordinator, 100, 60));
+             WorkLeaseService worker = new WorkLeaseService(dbService, options(WorkLeaseRole.Worker, 100, 60))) {
+            coordinator.start();
+            worker.start();
+            enumerate(coordinator, 10);
+
+            // available objects are split between 2 active processes
+            Assertions.assertEquals(2, worker.getActiveWorkerCount());
+            Assertions.assertEquals(5, worker.lease().size());
+            Assertions.assertEquals(3, coordinator.lease().size());
+            Assertions.assertEquals(1, worker.lease().size());
+            Assertions.assertEquals(1, coordinator.lease().size());
+            Assertions.assertEquals(0, worker.lease().size());
+            Assertions.assertFalse(worker.isDrained());
+        }
+    }
+
+    @Test
+    public void testRerunResetsCompletedWork() {
+        try (WorkLeaseService coordinator = new WorkLeaseService(dbService, options(WorkLeaseRole.Coordinator, 100, 60))) {
+            coordinator.start();
+            enumerate(coordinator, 10);
+            for (ObjectSummary summary : coordinator.lease()) {
+                coordinator.complete(summary.getIdentifier());
+            }
+            Assertions.assertTrue(coordinator.isDrained());
+        }
+
+        // a second run of the same job enumerates the same objects, which must all be synced again
+        try (WorkLeaseService coordinator = new WorkLeaseService(dbService, options(WorkLeaseRole.Coordinator, 100, 60))) {
+            coordinator.start();
+            enumerate(coordinator, 10);
+            Assertions.assertFalse(coordinator.isDrained());
+            Set<String> leased = new HashSet<>();
+            List<ObjectSummary> batch;
+            while (!(batch = coordinator.lease()).isEmpty()) {
+                for (ObjectSummary summary : batch) {
+                    leased.add(summary.getIdentifier());
+                    coordinator.complete(summary.getIdentifier());
+                }
+            }
+            Assertions.assertEquals(10, leased.size());
+            Assertions.assertTrue(coordinator.isDrained());
+        }
+    }
+
+    @Test
+    public void testWorkerStartsBeforeCoordinator() throws Exception {
+        try (WorkLeaseService coordinator = new WorkLeaseService(dbService, options(WorkLeaseRole.Coordinator, 100, 60))) {
+            coordinator.start();
+            enumerate(coordinator, 10);
+            for (ObjectSummary summary : coordinator.lease()) {
+                coordinator.complete(summary.getIdentifier());
+            }
+            Assertions.assertTrue(coordinator.isDrained());
+        }
+        Thread.sleep(10);
+
+        // the completed coordinator row of the previous run must not end the next run for an early worker
+        try (WorkLeaseService worker = new WorkLeaseService(dbService, options(WorkLeaseRole.Worker, 100, 60))) {
+            worker.start();
+            Assertions.assertFalse(worker.isEnumerationComplete());
+            Assertions.assertFalse(worker.isDrained());
+
+            try (WorkLeaseService coordinator = new WorkLeaseService(dbService, options(WorkLeaseRole.Coordinator, 100, 60))) {
+                coordinator.start();
+                enumerate(coordinator, 10);
+                Assertions.assertTrue(worker.isEnumerationComplete());
+                Assertions.assertFalse(worker.isDrained());
+                Assertions.assertEquals(10, worker.lease().size());
+            }
+        }
+    }
+
+    @Test
+    public void testInvalidOptions() {
+        Assertions.assertThrows(ConfigurationException.class,
+                () -> new WorkLeaseService(dbService, options(WorkLeaseRole.Worker, 0, 60)));
+        Assertions.assertThrows(ConfigurationException.class,
+                () -> new WorkLeaseService(dbService, options(WorkLeaseRole.Worker, 10, 2)));
+    }
+}
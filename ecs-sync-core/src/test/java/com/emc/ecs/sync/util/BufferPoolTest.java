@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2026 Dell Inc. or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.emc.ecs.sync.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+public class BufferPoolTest {
+    @Test
+    public void testReuse() {
+        BufferPool pool = new BufferPool(1024 * 1024);
+
+        byte[] array = pool.leaseArray(64 * 1024);
+        Assertions.assertEquals(64 * 1024, array.length);
+        Assertions.assertEquals(0, pool.getHits());
+        Assertions.assertEquals(1, pool.getMisses());
+
+        pool.release(array);
+        Assertions.assertEquals(64 * 1024, pool.getPooledHeapBytes());
+
+        // same size is reused, different size is not
+        Assertions.assertSame(array, pool.leaseArray(64 * 1024));
+        Assertions.assertNotSame(array, pool.leaseArray(64 * 1024));
+        Assertions.assertEquals(32 * 1024, pool.leaseArray(32 * 1024).length);
+        Assertions.assertEquals(1, pool.getHits());
+        Assertions.assertEquals(3, pool.getMisses());
+        Assertions.assertEquals(0, pool.getPooledHeapBytes());
+
+        // heap buffers share the array pool
+        pool.release(array);
+        ByteBuffer heapBuffer = pool.leaseBuffer(64 * 1024, false);
+        Assertions.assertSame(array, heapBuffer.array());
+        pool.release(heapBuffer);
+        Assertions.assertEquals(64 * 1024, pool.getPooledHeapBytes());
+
+        // direct buffers are cleared and pooled separately
+        ByteBuffer directBuffer = pool.leaseBuffer(64 * 1024, true);
+        Assertions.assertTrue(directBuffer.isDirect());
+        directBuffer.putLong(1).flip();
+        pool.release(directBuffer);
+        Assertions.assertEquals(64 * 1024, pool.getPooledDirectBytes());
+        ByteBuffer directBuffer2 = pool.leaseBuffer(64 * 1024, true);
+        Assertions.assertSame(directBuffer, directBuffer2);
+        Assertions.assertEquals(0, directBuffer2.position());
+        Assertions.assertEquals(64 * 1024, directBuffer2.remaining());
+    }
+
+    @Test
+    public void testBounded() {
+        BufferPool pool = new BufferPool(100 * 1024);
+
+        byte[][] arrays = new byte[4][];
+        for (int i = 0; i < arrays.length; i++) arrays[i] = pool.leaseArray(32 * 1024);
+        for (byte[] array : arrays) pool.release(array);
+
+        // only 3 fit
+        Assertions.assertEquals(96 * 1024, pool.getPooledHeapBytes());
+        Assertions.assertEquals(1, pool.getDiscards());
+
+        // shrinking the pool takes effect as buffers are leased
+        pool.setMaxPooledBytes(32 * 1024);
+        pool.leaseArray(32 * 1024);
+        pool.leaseArray(32 * 1024);
+        pool.release(arrays[0]);
+        pool.release(arrays[1]);
+        Assertions.assertEquals(32 * 1024, pool.getPooledHeapBytes());
+        Assertions.assertEquals(3, pool.getDiscards());
+
+        pool.clear();
+        Assertions.assertEquals(0, pool.getPooledHeapBytes());
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2026 Dell Inc. or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.emc.ecs.sync.util;
+
+import com.emc.ecs.sync.config.ChecksumAlgorithm;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Random;
+
+public class ChecksumEngineTest {
+    private static final byte[] CHECK = "123456789".getBytes(StandardCharsets.US_ASCII);
+
+    @Test
+    public void testCrc32cVector() {
+        for (boolean useJdk : new boolean[]{false, true}) {
+            Crc32c crc = new Crc32c(useJdk);
+            crc.update(CHECK, 0, CHECK.length);
+            Assertions.assertEquals(0xE3069283, crc.getValue());
+        }
+    }
+
+    @Test
+    public void testCrc32cTableMatchesJdk() {
+        byte[] data = randomData(100_003);
+        Crc32c table = new Crc32c(false), jdk = new Crc32c(true);
+        table.update(data, 3, data.length - 3);
+        jdk.update(ByteBuffer.wrap(data, 3, data.length - 3));
+        Assertions.assertEquals(jdk.getValue(), table.getValue());
+    }
+
+    @Test
+    public void testXxHash64Vectors() {
+        Assertions.assertEquals(0xEF46DB3751D8E999L, new XxHash64().getValue());
+        XxHash64 hash = new XxHash64();
+        byte[] abc = "abc".getBytes(StandardCharsets.US_ASCII);
+        hash.update(abc, 0, abc.length);
+        Assertions.assertEquals(0x44BC2CF5AD770999L, hash.getValue());
+    }
+
+    @Test
+    public void testChunkedUpdates() {
+        byte[] data = randomData(10_000);
+        for (ChecksumAlgorithm algorithm : ChecksumAlgorithm.values()) {
+            Hasher whole = ChecksumEngine.newHasher(algorithm);
+            whole.update(data, 0, data.length);
+            Hasher chunked = ChecksumEngine.newHasher(algorithm);
+            for (int offset = 0; offset < data.length; offset += 7) {
+                int length = Math.min(7, data.length - offset);
+                if (offset % 2 == 0) chunked.update(data, offset, length);
+                else chunked.update(ByteBuffer.wrap(data, offset, length));
+            }
+            Assertions.assertArrayEquals(whole.digest(), chunked.digest(), algorithm.toString());
+        }
+    }
+
+    @Test
+    public void testCombine() {
+        byte[] data = randomData(50_000);
+        int[] boundaries = {0, 1, 12_345, 12_345, 40_000, data.length};
+        Crc32c whole = new Crc32c();
+        whole.update(data, 0, data.length);
+
+        byte[][] parts = new byte[boundaries.length - 1][];
+        Long[] lengths = new Long[boundaries.length - 1];
+        for (int i = 0; i < parts.length; i++) {
+            Hasher part = ChecksumEngine.newHasher(ChecksumAlgorithm.CRC32C);
+            part.update(data, boundaries[i], boundaries[i + 1] - boundaries[i]);
+            parts[i] = part.digest();
+            lengths[i] = (long) (boundaries[i + 1] - boundaries[i]);
+        }
+        Assertions.assertArrayEquals(whole.digest(),
+                ChecksumEngine.combine(ChecksumAlgorithm.CRC32C, Arrays.asList(parts), Arrays.asList(lengths)));
+
+        Assertions.assertThrows(UnsupportedOperationException.class, () ->
+                ChecksumEngine.combine(ChecksumAlgorithm.MD5, Arrays.asList(parts), Arrays.asList(lengths)));
+    }
+
+    @Test
+    public void testNames() {
+        for (ChecksumAlgorithm algorithm : ChecksumAlgorithm.values()) {
+            Assertions.assertEquals(algorithm, ChecksumEngine.fromName(ChecksumEngine.getName(algorithm)));
+        }
+        Assertions.assertEquals(ChecksumAlgorithm.SHA256, ChecksumEngine.fromName("sha256"));
+        Assertions.assertNull(ChecksumEngine.fromName("CRC64NVME"));
+    }
+
+    @Test
+    public void testEnhancedStreamChecksums() throws Exception {
+        byte[] data = randomData(12_345);
+        EnhancedInputStream stream = new EnhancedInputStream(new ByteArrayInputStream(data), data.length,
+                EnumSet.of(ChecksumAlgorithm.CRC32C));
+        Assertions.assertTrue(stream.enableChecksum(ChecksumAlgorithm.XXHASH64));
+        stream.read();
+        Assertions.assertFalse(stream.enableChecksum(ChecksumAlgorithm.MD5));
+        Assertions.assertFalse(stream.isChecksumEnabled(ChecksumAlgorithm.MD5));
+        SyncUtil.consumeAndCloseStream(stream);
+
+        Crc32c crc = new Crc32c();
+        crc.update(data, 0, data.length);
+        XxHash64 xxHash = new XxHash64();
+        xxHash.update(data, 0, data.length);
+        Assertions.assertArrayEquals(crc.digest(), stream.getDigest(ChecksumAlgorithm.CRC32C));
+        Assertions.assertArrayEquals(xxHash.digest(), stream.getDigest(ChecksumAlgorithm.XXHASH64));
+        Assertions.assertThrows(UnsupportedOperationException.class, stream::getMd5Digest);
+
+        // MD5 is still the default for the existing constructors
+        stream = new EnhancedInputStream(new ByteArrayInputStream(data), data.length, true);
+        SyncUtil.consumeAndCloseStream(stream);
+        Assertions.assertArrayEquals(MessageDigest.getInstance("MD5").digest(data), stream.getMd5Digest());
+    }
+
+    private byte[] randomData(int size) {
+        byte[] data = new byte[size];
+        new Random(size).nextBytes(data);
+        return data;
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2026 Dell Inc. or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.emc.ecs.sync.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class FairShareThrottleTest {
+    private static final long SECOND = 1_000_000_000L;
+    private static final double DELTA = 15; // allows for the 1% floor each share gets
+
+    @Test
+    public void testWeightedSplit() {
+        FairShareThrottle throttle = new FairShareThrottle("test", 1000);
+        FairShareThrottle.Share a = throttle.newShare("a", 1, 0);
+        FairShareThrottle.Share b = throttle.newShare("b", 1, 0);
+        FairShareThrottle.Share c = throttle.newShare("c", 2, 0);
+
+        Assertions.assertEquals(250, a.getRate(), DELTA);
+        Assertions.assertEquals(250, b.getRate(), DELTA);
+        Assertions.assertEquals(500, c.getRate(), DELTA);
+        Assertions.assertEquals(1000, a.getRate() + b.getRate() + c.getRate(), 0.001);
+
+        // removing a share gives its capacity back to the others
+        throttle.removeShare(c);
+        Assertions.assertEquals(500, a.getRate(), DELTA);
+        Assertions.assertEquals(500, b.getRate(), DELTA);
+    }
+
+    @Test
+    public void testRedistributeUnused() {
+        long start = System.nanoTime();
+        FairShareThrottle throttle = new FairShareThrottle("test", 1000);
+        FairShareThrottle.Share busy = throttle.newShare("busy", 1, 0);
+        FairShareThrottle.Share idle = throttle.newShare("idle", 1, 0);
+        Assertions.assertEquals(500, busy.getRate(), DELTA);
+
+        // new shares compete for a full interval before their usage counts
+        busy.acquireDelayDuration(500);
+        throttle.rebalance(start + SECOND);
+        Assertions.assertEquals(500, busy.getRate(), DELTA);
+
+        // idle share keeps only the floor; the rest goes to the busy share
+        busy.acquireDelayDuration(500);
+        throttle.rebalance(start + 2 * SECOND);
+        Assertions.assertEquals(990, busy.getRate(), 1);
+        Assertions.assertEquals(10, idle.getRate(), 1);
+
+        // once the idle share uses its allotment, it gets its fair share back
+        busy.acquireDelayDuration(990);
+        idle.acquireDelayDuration(10);
+        throttle.rebalance(start + 3 * SECOND);
+        Assertions.assertEquals(500, busy.getRate(), DELTA);
+        Assertions.assertEquals(500, idle.getRate(), DELTA);
+    }
+
+    @Test
+    public void testLiveWeightChange() {
+        FairShareThrottle throttle = new FairShareThrottle("test", 1000);
+        FairShareThrottle.Share a = throttle.newShare("a", 1, 0);
+        FairShareThrottle.Share b = throttle.newShare("b", 1, 0);
+
+        a.setWeight(3);
+        Assertions.assertEquals(750, a.getRate(), DELTA);
+        Assertions.assertEquals(250, b.getRate(), DELTA);
+
+        throttle.setRate(2000);
+        Assertions.assertEquals(1500, a.getRate(), 2 * DELTA);
+        Assertions.assertEquals(500, b.getRate(), 2 * DELTA);
+
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> a.setRate(5));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> a.setWeight(0));
+    }
+
+    @Test
+    public void testMinimumGuarantee() {
+        FairShareThrottle throttle = new FairShareThrottle("test", 1000);
+        FairShareThrottle.Share heavy = throttle.newShare("heavy", 9, 300);
+        FairShareThrottle.Share light = throttle.newShare("light", 1, 300);
+
+        // 300 each, then the remaining 400 is split 9:1
+        Assertions.assertEquals(660, heavy.getRate(), 1);
+        Assertions.assertEquals(340, light.getRate(), 1);
+
+        // minimums that exceed the total are scaled down
+        FairShareThrottle.Share third = throttle.newShare("third", 1, 600);
+        Assertions.assertTrue(light.getRate() >= 250, "light share lost its minimum: " + light.getRate());
+        Assertions.assertTrue(third.getRate() >= 500, "third share lost its minimum: " + third.getRate());
+        Assertions.assertEquals(1000, heavy.getRate() + light.getRate() + third.getRate(), 0.001);
+    }
+
+    @Test
+    public void testManySharesStayWithinTotal() {
+        long start = System.nanoTime();
+        FairShareThrottle throttle = new FairShareThrottle("test", 1000);
+        FairShareThrottle.Share[] shares = new FairShareThrottle.Share[250];
+        for (int i = 0; i < shares.length; i++) {
+            shares[i] = throttle.newShare("share-" + i, 1, i % 2 == 0 ? 5 : 0);
+        }
+
+        // let every share go idle, so each one only keeps its floor or minimum
+        throttle.rebalance(start + SECOND);
+        throttle.rebalance(start + 2 * SECOND);
+        double sum = 0;
+        for (FairShareThrottle.Share share : shares) {
+            Assertions.assertTrue(share.getRate() > 0);
+            sum += share.getRate();
+        }
+        Assertions.assertEquals(1000, sum, 0.001);
+    }
+}
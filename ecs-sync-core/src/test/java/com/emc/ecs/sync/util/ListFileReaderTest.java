@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2026 Dell Inc. or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.emc.ecs.sync.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.LinkedBlockingDeque;
+
+public class ListFileReaderTest {
+    private EnhancedThreadPoolExecutor executor;
+    private File file;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        executor = new EnhancedThreadPoolExecutor(4, new LinkedBlockingDeque<>(100), "list-test-pool");
+        file = File.createTempFile("list-file-reader-test", ".txt");
+        file.deleteOnExit();
+    }
+
+    @AfterEach
+    public void teardown() {
+        executor.shutdownNow();
+        file.delete();
+    }
+
+    private SortedMap<Long, String> read(int chunkSize, boolean rawValues) throws Exception {
+        SortedMap<Long, String> lines = Collections.synchronizedSortedMap(new TreeMap<>());
+        new ListFileReader(file, rawValues, chunkSize).read(executor, () -> true, batch -> {
+            for (int i = 0; i < batch.size(); i++) {
+                Assertions.assertNull(lines.put(batch.getRowNum(i), batch.getLine(i)));
+            }
+        });
+        while (executor.getUnfinishedTasks() > 0) Thread.sleep(10);
+        return lines;
+    }
+
+    // reference implementation
+    private SortedMap<Long, String> readSerially(boolean rawValues) {
+        SortedMap<Long, String> lines = new TreeMap<>();
+        LineIterator iterator = new LineIterator(file.getPath(), rawValues);
+        while (iterator.hasNext()) {
+            String line = iterator.next();
+            lines.put((long) iterator.getCurrentLine(), line);
+        }
+        return lines;
+    }
+
+    @Test
+    public void testMatchesLineIterator() throws Exception {
+        StringBuilder content = new StringBuilder();
+        Random random = new Random(42);
+        for (int i = 0; i < 5000; i++) {
+            switch (i % 7) {
+                case 0:
+                    content.append("\n"); // blank line
+                    break;
+                case 1:
+                    content.append("  # comment line ").append(i).append("\n");
+                    break;
+                case 2:
+                    content.append("\"quoted,value#").append(i).append("\",bar # comment\r\n");
+                    break;
+                case 3:
+                    content.append("escaped\\#hash-").append(i).append(", \u00e9t\u00e9 \n");
+                    break;
+                default:
+                    content.append("prefix/object-").append(i);
+                    for (int j = random.nextInt(20); j > 0; j--) content.append(",col").append(j);
+                    content.append("\n");
+            }
+        }
+        content.append("last-line-without-terminator");
+        Files.write(file.toPath(), content.toString().getBytes());
+
+        for (boolean rawValues : new boolean[]{false, true}) {
+            SortedMap<Long, String> expected = readSerially(rawValues);
+            for (int chunkSize : new int[]{7, 100, 4096, ListFileReader.DEFAULT_CHUNK_SIZE}) {
+                Assertions.assertEquals(expected, read(chunkSize, rawValues), "chunkSize: " + chunkSize);
+            }
+        }
+    }
+
+    @Test
+    public void testLongLines() throws Exception {
+        StringBuilder longLine = new StringBuilder();
+        for (int i = 0; i < 10000; i++) longLine.append('x');
+        String content = "short\n" + longLine + "\nshort2\n" + longLine + "\n";
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+
+        SortedMap<Long, String> lines = read(64, false);
+        Assertions.assertEquals(4, lines.size());
+        Assertions.assertEquals("short", lines.get(1L));
+        Assertions.assertEquals(longLine.toString(), lines.get(2L));
+        Assertions.assertEquals("short2", lines.get(3L));
+        Assertions.assertEquals(longLine.toString(), lines.get(4L));
+    }
+
+    @Test
+    public void testEmptyFile() throws Exception {
+        Assertions.assertTrue(read(64, false).isEmpty());
+        Assertions.assertEquals(0, new ListFileReader(file, false).read(executor, () -> true, batch -> Assertions.fail()));
+    }
+}
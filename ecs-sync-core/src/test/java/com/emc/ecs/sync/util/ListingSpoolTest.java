@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2026 Dell Inc. or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.emc.ecs.sync.util;
+
+import com.emc.ecs.sync.model.ObjectSummary;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class ListingSpoolTest {
+    private static final String IDENTITY = "test-job|file:///source";
+
+    private File spoolFile;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        spoolFile = File.createTempFile("listing-spool-test", ".spool");
+        spoolFile.deleteOnExit();
+    }
+
+    @AfterEach
+    public void teardown() {
+        if (spoolFile != null) spoolFile.delete();
+    }
+
+    private ObjectSummary summary(int i) {
+        ObjectSummary summary = new ObjectSummary("prefix/object-" + i + "-\u00e9\u00df", i % 10 == 0, i * 100L);
+        summary.setListRowNum(i + 1);
+        if (i % 3 == 0) summary.setListFileRow("prefix/object-" + i + ",extra,\"csv\" data");
+        return summary;
+    }
+
+    private void assertSummary(int i, ObjectSummary actual) {
+        ObjectSummary expected = summary(i);
+        Assertions.assertEquals(expected.getIdentifier(), actual.getIdentifier());
+        Assertions.assertEquals(expected.isDirectory(), actual.isDirectory());
+        Assertions.assertEquals(expected.getSize(), actual.getSize());
+        Assertions.assertEquals(expected.getListRowNum(), actual.getListRowNum());
+        Assertions.assertEquals(expected.getListFileRow(), actual.getListFileRow());
+    }
+
+    @Test
+    public void testConcurrentAppendAndRead() throws Exception {
+        int count = 20000;
+        // small buffer and segment sizes so records cross map segments
+        try (ListingSpool spool = new ListingSpool(spoolFile, IDENTITY, 1024, 4096)) {
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            Future<?> future = executor.submit(() -> {
+                for (int i = 0; i < count; i++) {
+                    spool.append(summary(i));
+                    if (i % 5000 == 0) Thread.sleep(50); // let the reader catch up
+                }
+                spool.complete();
+                return null;
+            });
+            executor.shutdown();
+
+            int i = 0;
+            for (ObjectSummary summary : spool) {
+                assertSummary(i++, summary);
+            }
+            future.get(30, TimeUnit.SECONDS);
+            Assertions.assertEquals(count, i);
+            Assertions.assertEquals(count, spool.getRecordCount());
+        }
+    }
+
+    @Test
+    public void testTailingReadsAreNotMapped() throws Exception {
+        int count = 2000;
+        try (ListingSpool spool = new ListingSpool(spoolFile, IDENTITY, 1024, 1024 * 1024)) {
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            Future<?> future = executor.submit(() -> {
+                for (int i = 0; i < count; i++) {
+                    spool.append(summary(i));
+                    // make every record visible as soon as it is written (the reader is always tailing)
+                    spool.flush();
+                    if (i % 100 == 0) Thread.sleep(5);
+                }
+                spool.complete();
+                return null;
+            });
+            executor.shutdown();
+
+            int i = 0;
+            for (ObjectSummary summary : spool) {
+                assertSummary(i++, summary);
+            }
+            future.get(30, TimeUnit.SECONDS);
+            Assertions.assertEquals(count, i);
+            // less than a segment was ever available, so at most the remainder after completion is mapped
+            Assertions.assertTrue(spool.getMapCount() <= 1, "mapped " + spool.getMapCount() + " times");
+        }
+    }
+
+    @Test
+    public void testOversizedRecord() throws Exception {
+        StringBuilder row = new StringBuilder();
+        for (int i = 0; i < 10000; i++) row.append("x");
+        ObjectSummary big = new ObjectSummary("big", false, 5);
+        big.setListFileRow(row.toString());
+
+        try (ListingSpool spool = new ListingSpool(spoolFile, IDENTITY, 256, 512)) {
+            spool.append(summary(1));
+            spool.append(big);
+            spool.append(summary(2));
+            spool.complete();
+
+            Iterator<ObjectSummary> iterator = spool.iterator();
+            assertSummary(1, iterator.next());
+            Assertions.assertEquals(row.toString(), iterator.next().getListFileRow());
+            assertSummary(2, iterator.next());
+            Assertions.assertFalse(iterator.hasNext());
+        }
+    }
+
+    @Test
+    public void testReuseCompleteSpool() throws Exception {
+        long byteCount;
+        try (ListingSpool spool = new ListingSpool(spoolFile, IDENTITY)) {
+            Assertions.assertFalse(spool.isReused());
+            for (int i = 0; i < 100; i++) spool.append(summary(i));
+            spool.complete();
+            byteCount = spool.getByteCount();
+        }
+
+        try (ListingSpool spool = new ListingSpool(spoolFile, IDENTITY)) {
+            Assertions.assertTrue(spool.isReused());
+            Assertions.assertTrue(spool.isComplete());
+            Assertions.assertEquals(100, spool.getRecordCount());
+            Assertions.assertEquals(byteCount, spool.getByteCount());
+            List<ObjectSummary> summaries = new ArrayList<>();
+            for (ObjectSummary summary : spool) summaries.add(summary);
+            Assertions.assertEquals(100, summaries.size());
+            for (int i = 0; i < 100; i++) assertSummary(i, summaries.get(i));
+        }
+    }
+
+    @Test
+    public void testDelete() throws Exception {
+        try (ListingSpool spool = new ListingSpool(spoolFile, IDENTITY)) {
+            for (int i = 0; i < 100; i++) spool.append(summary(i));
+            spool.complete();
+            int count = 0;
+            for (ObjectSummary ignored : spool) count++;
+            Assertions.assertEquals(100, count);
+            spool.delete();
+        }
+        Assertions.assertFalse(spoolFile.exists());
+    }
+
+    @Test
+    public void testIncompleteSpoolIsDiscarded() throws Exception {
+        try (ListingSpool spool = new ListingSpool(spoolFile, IDENTITY)) {
+            for (int i = 0; i < 100; i++) spool.append(summary(i));
+            spool.abort();
+            int count = 0;
+            for (ObjectSummary ignored : spool) count++;
+            Assertions.assertEquals(100, count);
+        }
+
+        try (ListingSpool spool = new ListingSpool(spoolFile, IDENTITY)) {
+            Assertions.assertFalse(spool.isReused());
+            Assertions.assertEquals(0, spool.getRecordCount());
+        }
+
+        // a complete spool of another job or source is not re-used
+        try (ListingSpool spool = new ListingSpool(spoolFile, IDENTITY)) {
+            for (int i = 0; i < 100; i++) spool.append(summary(i));
+            spool.complete();
+        }
+        try (ListingSpool spool = new ListingSpool(spoolFile, "other-job|file:///source")) {
+            Assertions.assertFalse(spool.isReused());
+            Assertions.assertEquals(0, spool.getRecordCount());
+        }
+
+        // garbage is not a spool
+        try (RandomAccessFile raf = new RandomAccessFile(spoolFile, "rw")) {
+            raf.setLength(0);
+            raf.write("not a spool file, just some text that is long enough".getBytes());
+        }
+        try (ListingSpool spool = new ListingSpool(spoolFile, IDENTITY)) {
+            Assertions.assertFalse(spool.isReused());
+        }
+    }
+}
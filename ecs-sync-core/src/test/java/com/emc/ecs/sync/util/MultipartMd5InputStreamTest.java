@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2026 Dell Inc. or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.emc.ecs.sync.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.xml.bind.DatatypeConverter;
+import java.io.ByteArrayInputStream;
+import java.security.MessageDigest;
+import java.util.Random;
+
+public class MultipartMd5InputStreamTest {
+    @Test
+    public void testCompositeMd5() throws Exception {
+        byte[] data = new byte[10_000];
+        new Random().nextBytes(data);
+        int partSize = 3_000;
+
+        MessageDigest composite = MessageDigest.getInstance("MD5");
+        for (int offset = 0; offset < data.length; offset += partSize) {
+            MessageDigest part = MessageDigest.getInstance("MD5");
+            part.update(data, offset, Math.min(partSize, data.length - offset));
+            composite.update(part.digest());
+        }
+        String expected = DatatypeConverter.printHexBinary(composite.digest()) + "-4";
+
+        MultipartMd5InputStream stream = new MultipartMd5InputStream(new ByteArrayInputStream(data), partSize);
+        Assertions.assertEquals(7, stream.read(new byte[7]));
+        Assertions.assertEquals(data[7] & 0xff, stream.read());
+        Assertions.assertEquals(4_000, stream.skip(4_000));
+        Assertions.assertNull(stream.getCompositeMd5Hex());
+        SyncUtil.consumeAndCloseStream(stream);
+
+        Assertions.assertEquals(data.length, stream.getBytesRead());
+        Assertions.assertEquals(expected, stream.getCompositeMd5Hex());
+    }
+
+    @Test
+    public void testExactParts() throws Exception {
+        byte[] data = new byte[6_000];
+        MultipartMd5InputStream stream = new MultipartMd5InputStream(new ByteArrayInputStream(data), 3_000);
+        SyncUtil.consumeAndCloseStream(stream);
+        Assertions.assertTrue(stream.getCompositeMd5Hex().endsWith("-2"));
+
+        stream = new MultipartMd5InputStream(new ByteArrayInputStream(new byte[0]), 3_000);
+        SyncUtil.consumeAndCloseStream(stream);
+        Assertions.assertNull(stream.getCompositeMd5Hex());
+    }
+}
@@ -35,7 +35,7 @@ public class ParallelInputStreamTest {
 
         Assertions.assertTrue(pStream.reader.isComplete());
         Assertions.assertFalse(pStream.reader.isFailed());
-        Assertions.assertFalse(pStream.readerThread.isAlive());
+        Assertions.assertFalse(pStream.reader.isRunning());
     }
 
     @Test
@@ -58,7 +58,7 @@ public class ParallelInputStreamTest {
         Assertions.assertEquals(24, baos.size()); // should fail {bufferSize} characters before the bang
         Assertions.assertFalse(pStream.reader.isComplete());
         Assertions.assertTrue(pStream.reader.isFailed());
-        Assertions.assertFalse(pStream.readerThread.isAlive());
+        Assertions.assertFalse(pStream.reader.isRunning());
     }
 
     @Test
@@ -97,7 +97,7 @@ public class ParallelInputStreamTest {
 
         Assertions.assertFalse(pStream.reader.isComplete());
         Assertions.assertTrue(pStream.reader.isFailed());
-        Assertions.assertFalse(pStream.readerThread.isAlive());
+        Assertions.assertFalse(pStream.reader.isRunning());
     }
 
     private void streamAndClose(InputStream in, OutputStream out) throws IOException {
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2026 Dell Inc. or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.emc.ecs.sync.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class PartitionedIteratorTest {
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void setup() {
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    public void teardown() throws Exception {
+        executor.shutdownNow();
+        Assertions.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    private List<Integer> range(int start, int end) {
+        return IntStream.range(start, end).boxed().collect(Collectors.toList());
+    }
+
+    @Test
+    public void testPerPartitionOrder() {
+        List<List<Integer>> partitions = Arrays.asList(range(0, 5000), range(5000, 5001), range(5001, 5001), range(5001, 20000));
+        // a small queue forces the producers to wait on the consumer
+        PartitionedIterator<Integer> iterator = new PartitionedIterator<>(partitions, executor, 10);
+
+        List<Integer> results = new ArrayList<>();
+        iterator.forEachRemaining(results::add);
+
+        Assertions.assertEquals(20000, results.size());
+        Assertions.assertEquals(20000, new HashSet<>(results).size());
+        // elements of each partition must be in order
+        for (List<Integer> partition : partitions) {
+            Set<Integer> members = new HashSet<>(partition);
+            List<Integer> ordered = results.stream().filter(members::contains).collect(Collectors.toList());
+            Assertions.assertEquals(partition, ordered);
+        }
+        Assertions.assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void testNoPartitions() {
+        PartitionedIterator<Integer> iterator = new PartitionedIterator<>(Collections.<List<Integer>>emptyList(), executor, 10);
+        Assertions.assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void testFailure() {
+        Iterable<Integer> failing = () -> new ReadOnlyIterator<Integer>() {
+            int count = 0;
+
+            @Override
+            protected Integer getNextObject() {
+                if (count == 100) throw new IllegalStateException("listing failed");
+                return count++;
+            }
+        };
+        // an endless partition that can only finish if it is cancelled
+        Iterable<Integer> endless = () -> new ReadOnlyIterator<Integer>() {
+            @Override
+            protected Integer getNextObject() {
+                return -1;
+            }
+        };
+        PartitionedIterator<Integer> iterator = new PartitionedIterator<>(Arrays.asList(failing, endless), executor, 10);
+
+        try {
+            while (iterator.hasNext()) iterator.next();
+            Assertions.fail("partition failure was not propagated");
+        } catch (IllegalStateException e) {
+            Assertions.assertEquals("listing failed", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testClose() throws Exception {
+        Iterable<Integer> endless = () -> new ReadOnlyIterator<Integer>() {
+            @Override
+            protected Integer getNextObject() {
+                return 1;
+            }
+        };
+        PartitionedIterator<Integer> iterator = new PartitionedIterator<>(Arrays.asList(endless, endless), executor, 10);
+        Assertions.assertEquals(1, (int) iterator.next());
+        iterator.close();
+        Assertions.assertFalse(iterator.hasNext());
+
+        // producers must stop
+        executor.shutdown();
+        Assertions.assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    }
+}
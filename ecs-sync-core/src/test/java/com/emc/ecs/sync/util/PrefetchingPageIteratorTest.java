@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2026 Dell Inc. or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.emc.ecs.sync.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class PrefetchingPageIteratorTest {
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void setup() {
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    public void teardown() throws Exception {
+        executor.shutdownNow();
+        Assertions.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testAllPagesInOrder() {
+        PrefetchingPageIterator<Integer> pages = new PrefetchingPageIterator<>(() -> 0,
+                page -> page < 99 ? page + 1 : null, 2, executor);
+
+        List<Integer> results = new ArrayList<>();
+        pages.forEachRemaining(results::add);
+
+        Assertions.assertEquals(100, results.size());
+        for (int i = 0; i < results.size(); i++) {
+            Assertions.assertEquals(i, (int) results.get(i));
+        }
+        Assertions.assertFalse(pages.hasNext());
+    }
+
+    @Test
+    public void testPrefetchIsBounded() throws Exception {
+        AtomicInteger fetched = new AtomicInteger();
+        PrefetchingPageIterator<Integer> pages = new PrefetchingPageIterator<>(() -> fetched.incrementAndGet(),
+                page -> fetched.incrementAndGet(), 2, executor);
+
+        // without a consumer, only the buffer is filled
+        Thread.sleep(500);
+        Assertions.assertEquals(2, fetched.get());
+
+        // taking a page frees a slot for the next one
+        Assertions.assertEquals(1, (int) pages.next());
+        Thread.sleep(500);
+        Assertions.assertEquals(3, fetched.get());
+
+        pages.close();
+        Assertions.assertFalse(pages.hasNext());
+    }
+
+    @Test
+    public void testFailureAtPointOfConsumption() throws Exception {
+        PrefetchingPageIterator<Integer> pages = new PrefetchingPageIterator<>(() -> 0, page -> {
+            if (page == 2) throw new IllegalStateException("page 3 failed");
+            return page + 1;
+        }, 5, executor);
+
+        // wait until the failure is buffered; earlier pages must still be delivered first
+        Thread.sleep(500);
+        Assertions.assertEquals(0, (int) pages.next());
+        Assertions.assertEquals(1, (int) pages.next());
+        Assertions.assertEquals(2, (int) pages.next());
+        try {
+            pages.hasNext();
+            Assertions.fail("page failure was not propagated");
+        } catch (IllegalStateException e) {
+            Assertions.assertEquals("page 3 failed", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testFirstPageFailure() {
+        PrefetchingPageIterator<Integer> pages = new PrefetchingPageIterator<>(() -> {
+            throw new IllegalStateException("listing failed");
+        }, page -> null, 2, executor);
+
+        Assertions.assertThrows(IllegalStateException.class, pages::hasNext);
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2026 Dell Inc. or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.emc.ecs.sync.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.util.Arrays;
+
+/**
+ * Compares the throughput of {@link ReadAheadBuffer} with PipedInputStream/PipedOutputStream (the previous
+ * implementation of {@link ParallelInputStream}). This is a benchmark rather than a test, so it is excluded from the
+ * default build; run it with <code>./gradlew :ecs-sync-core:performanceTest</code>
+ */
+@Tag("performance")
+public class ReadAheadBufferPerformanceTest {
+    private static final long SIZE = 128L * 1024 * 1024;
+    private static final int BUFFER_SIZE = 128 * 1024;
+    private static final int ROUNDS = 5;
+
+    @Test
+    public void testThroughputComparedToPipedStreams() throws Exception {
+        for (int writeSize : new int[]{4 * 1024, 32 * 1024, 256 * 1024}) {
+            // best of several rounds (the first rounds warm up the JIT)
+            long pipedNanos = Long.MAX_VALUE, readAheadNanos = Long.MAX_VALUE;
+            for (int i = 0; i < ROUNDS; i++) {
+                pipedNanos = Math.min(pipedNanos, pipedTransfer(writeSize));
+                readAheadNanos = Math.min(readAheadNanos, readAheadTransfer(writeSize));
+            }
+
+            System.out.printf("%d CPUs, %dK writes - piped streams: %d MB/s, read-ahead buffer: %d MB/s%n",
+                    Runtime.getRuntime().availableProcessors(), writeSize / 1024,
+                    SIZE * 1000 / pipedNanos, SIZE * 1000 / readAheadNanos);
+        }
+    }
+
+    private long pipedTransfer(int writeSize) throws Exception {
+        PipedInputStream in = new PipedInputStream(BUFFER_SIZE);
+        PipedOutputStream out = new PipedOutputStream(in);
+        return transfer(in, out, writeSize);
+    }
+
+    private long readAheadTransfer(int writeSize) throws Exception {
+        ReadAheadBuffer buffer = new ReadAheadBuffer(BUFFER_SIZE);
+        return transfer(buffer.getInputStream(), buffer.getOutputStream(), writeSize);
+    }
+
+    private long transfer(InputStream in, OutputStream out, int writeSize) throws Exception {
+        byte[] writeBuffer = new byte[writeSize];
+        Arrays.fill(writeBuffer, (byte) 1);
+        long start = System.nanoTime();
+        Thread producer = new Thread(() -> {
+            try (OutputStream output = out) {
+                for (long written = 0; written < SIZE; written += writeBuffer.length) {
+                    output.write(writeBuffer);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        producer.start();
+        long read = SyncUtil.consumeAndCloseStream(in);
+        producer.join();
+        Assertions.assertEquals(SIZE, read);
+        return System.nanoTime() - start;
+    }
+}
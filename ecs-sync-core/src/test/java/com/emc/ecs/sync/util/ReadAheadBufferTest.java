@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2026 Dell Inc. or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.emc.ecs.sync.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.util.Random;
+import java.util.concurrent.*;
+
+public class ReadAheadBufferTest {
+    @Test
+    public void testWriteAndRead() throws Exception {
+        byte[] data = new byte[1024 * 1024 + 7];
+        new Random().nextBytes(data);
+        ReadAheadBuffer buffer = new ReadAheadBuffer(64 * 1024, 8 * 1024, new BufferPool(1024 * 1024));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // write in odd-sized pieces, so chunks are filled across writes
+            Future<?> producer = executor.submit(() -> {
+                try (OutputStream out = buffer.getOutputStream()) {
+                    Random random = new Random();
+                    for (int offset = 0; offset < data.length; ) {
+                        int length = Math.min(random.nextInt(20_000) + 1, data.length - offset);
+                        out.write(data, offset, length);
+                        offset += length;
+                    }
+                }
+                return null;
+            });
+
+            ByteArrayOutputStream result = new ByteArrayOutputStream();
+            try (InputStream in = buffer.getInputStream()) {
+                int b = in.read(); // single byte read
+                result.write(b);
+                byte[] readBuffer = new byte[5000];
+                int read;
+                while ((read = in.read(readBuffer)) != -1) {
+                    result.write(readBuffer, 0, read);
+                }
+            }
+            producer.get();
+
+            Assertions.assertArrayEquals(data, result.toByteArray());
+            Assertions.assertTrue(buffer.isProducerDone());
+            Assertions.assertNull(buffer.getError());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testReadFrom() throws Exception {
+        byte[] data = new byte[300 * 1024];
+        new Random().nextBytes(data);
+        BufferPool pool = new BufferPool(1024 * 1024);
+        ReadAheadBuffer buffer = new ReadAheadBuffer(64 * 1024, 16 * 1024, pool);
+
+        Thread producer = new Thread(() -> {
+            try (InputStream source = new ByteArrayInputStream(data)) {
+                while (buffer.readFrom(source)) {
+                    // keep reading
+                }
+                buffer.complete();
+            } catch (Throwable t) {
+                buffer.fail(t);
+            }
+        });
+        producer.start();
+
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        SyncUtil.copy(buffer.getInputStream(), result, Long.MAX_VALUE);
+        producer.join();
+
+        Assertions.assertArrayEquals(data, result.toByteArray());
+        // chunks are handed back to the pool
+        Assertions.assertTrue(pool.getHits() > 0);
+    }
+
+    @Test
+    public void testProducerFailure() throws Exception {
+        ReadAheadBuffer buffer = new ReadAheadBuffer(1024);
+        buffer.getOutputStream().write(new byte[100]);
+        buffer.fail(new RuntimeException("bang"));
+
+        try {
+            buffer.getInputStream().read();
+            Assertions.fail("read should fail");
+        } catch (IOException e) {
+            Assertions.assertEquals("bang", e.getCause().getMessage());
+        }
+
+        // producer cannot write after failing
+        Assertions.assertThrows(IOException.class, () -> buffer.getOutputStream().write(1));
+    }
+
+    @Test
+    public void testFailureAfterHandedOverData() throws Exception {
+        ReadAheadBuffer buffer = new ReadAheadBuffer(1024);
+        OutputStream out = buffer.getOutputStream();
+        out.write(new byte[100]);
+        out.flush();
+        out.write(new byte[50]); // never handed over
+        buffer.fail(new RuntimeException("bang"));
+
+        // the consumer gets the data handed over before the failure, then the failure
+        InputStream in = buffer.getInputStream();
+        Assertions.assertEquals(100, in.read(new byte[1024]));
+        try {
+            in.read();
+            Assertions.fail("read should fail");
+        } catch (IOException e) {
+            Assertions.assertEquals("bang", e.getCause().getMessage());
+        }
+    }
+
+    @Test
+    public void testConsumerClosedEarly() throws Exception {
+        ReadAheadBuffer buffer = new ReadAheadBuffer(1024, 256, BufferPool.getShared());
+        CompletableFuture<Throwable> producerError = new CompletableFuture<>();
+
+        Thread producer = new Thread(() -> {
+            try {
+                // much more than the buffer can hold, so the producer will be waiting for space
+                OutputStream out = buffer.getOutputStream();
+                for (int i = 0; i < 100; i++) out.write(new byte[1024]);
+                producerError.complete(null);
+            } catch (Throwable t) {
+                producerError.complete(t);
+            }
+        });
+        producer.start();
+
+        InputStream in = buffer.getInputStream();
+        Assertions.assertEquals(0, in.read());
+        in.close();
+
+        Throwable t = producerError.get(10, TimeUnit.SECONDS);
+        Assertions.assertNotNull(t);
+        Assertions.assertEquals("Pipe closed", t.getMessage());
+        producer.join();
+
+        Assertions.assertThrows(IOException.class, in::read);
+    }
+
+    @Test
+    public void testEmpty() throws Exception {
+        ReadAheadBuffer buffer = new ReadAheadBuffer(1024);
+        buffer.complete();
+        Assertions.assertEquals(-1, buffer.getInputStream().read());
+        Assertions.assertEquals(-1, buffer.getInputStream().read(new byte[10]));
+    }
+
+    @Test
+    public void testWaitingConsumerGetsPartialChunk() throws Exception {
+        ReadAheadBuffer buffer = new ReadAheadBuffer(64 * 1024);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Integer> consumer = executor.submit(() -> buffer.getInputStream().read(new byte[1024]));
+            Thread.sleep(200); // let the consumer start waiting
+
+            // much less than a chunk, and no flush; handed over as soon as the producer continues
+            buffer.getOutputStream().write(new byte[10]);
+            buffer.getOutputStream().write(new byte[10]);
+            Assertions.assertEquals(10, (int) consumer.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -15,6 +15,7 @@
  */
 package com.emc.ecs.sync.util;
 
+import com.emc.ecs.sync.config.ChecksumAlgorithm;
 import com.emc.ecs.sync.model.ObjectAcl;
 import com.emc.ecs.sync.model.ObjectMetadata;
 import com.emc.ecs.sync.model.SyncObject;
@@ -116,6 +117,12 @@ public abstract class DelegatingSyncObject extends SyncObject {
         return delegate.getMd5Hex(forceRead);
     }
 
+    @Override
+    public boolean isChecksumSupported(ChecksumAlgorithm algorithm) {
+        // subclasses define their own MD5
+        return algorithm == ChecksumAlgorithm.MD5;
+    }
+
     @Override
     public void close() throws Exception {
         delegate.close();
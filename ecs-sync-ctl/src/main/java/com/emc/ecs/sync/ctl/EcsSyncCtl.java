@@ -394,7 +394,8 @@ public class EcsSyncCtl {
                 }
                 if (byteRatio > 0 && objectRatio > 0)
                     completionRatio = (2 * Math.min(byteRatio, objectRatio) + Math.max(byteRatio, objectRatio)) / 3;
-                if (completionRatio > 0)
+                // expected totals are partial while the source is still being enumerated, so there is no ETA yet
+                if (completionRatio > 0 && !progress.isEstimatingTotals())
                     etaMs = (long) (progress.getRuntimeMs() / completionRatio - progress.getRuntimeMs());
             }
             String generalError = progress.getRunError() == null ? "" : progress.getRunError();
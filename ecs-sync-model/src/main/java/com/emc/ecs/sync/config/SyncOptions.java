@@ -31,6 +31,8 @@ public class SyncOptions {
     public static final int DEFAULT_THREAD_COUNT = 16;
     public static final int DEFAULT_RETRY_ATTEMPTS = 2; // 3 total attempts
     public static final int DEFAULT_TIMING_WINDOW = 1000;
+    public static final int DEFAULT_WORK_LEASE_BATCH_SIZE = 100;
+    public static final int DEFAULT_WORK_LEASE_DURATION_SECONDS = 300;
 
     private boolean syncMetadata = true;
     private boolean syncRetentionExpiration = false;
@@ -75,6 +77,14 @@ public class SyncOptions {
     // Throttle TPS throughput in objects/s
     private int throughputLimit = 0;
 
+    private WorkLeaseRole workLeaseRole;
+    private int workLeaseBatchSize = DEFAULT_WORK_LEASE_BATCH_SIZE;
+    private int workLeaseDurationSeconds = DEFAULT_WORK_LEASE_DURATION_SECONDS;
+    private String listingSpoolFile;
+    private ChecksumAlgorithm checksumAlgorithm = ChecksumAlgorithm.MD5;
+    private double verifySamplePercent;
+    private long verifySampleBudgetMb;
+
     @Option(orderIndex = 10, cliInverted = true, advanced = true, description = "Metadata is synced by default")
     public boolean isSyncMetadata() {
         return syncMetadata;
@@ -111,7 +121,7 @@ public class SyncOptions {
         this.syncData = syncData;
     }
 
-    @Option(orderIndex = 45, cliInverted = true, cliName = "no-estimation", description = "By default, the source plugin will query the source storage to crawl and estimate the total amount of data to be transferred. Use this option to disable estimation (i.e. for performance improvement)")
+    @Option(orderIndex = 45, cliInverted = true, cliName = "no-estimation", description = "By default, the total amount of data to be transferred is estimated from the same enumeration that feeds the sync (the estimate converges as the source is listed). Use this option to disable estimation")
     public boolean isEstimationEnabled() {
         return estimationEnabled;
     }
@@ -338,6 +348,69 @@ public class SyncOptions {
         this.throughputLimit = throughputLimit;
     }
 
+    @Option(orderIndex = 270, advanced = true, description = "Enables dynamic work leasing between multiple ecs-sync processes that share the same database and dbTable. The Coordinator enumerates the source into a work table (and also syncs), while any number of Workers lease batches of objects from that table, sync them and acknowledge them. Leases held by a worker that dies will expire and be re-leased by the remaining processes")
+    public WorkLeaseRole getWorkLeaseRole() {
+        return workLeaseRole;
+    }
+
+    public void setWorkLeaseRole(WorkLeaseRole workLeaseRole) {
+        this.workLeaseRole = workLeaseRole;
+    }
+
+    @Option(orderIndex = 275, advanced = true, description = "When work leasing is enabled, the maximum number of objects leased by a process at once. When little work remains, smaller batches are leased so it is shared evenly between active processes. Default is " + DEFAULT_WORK_LEASE_BATCH_SIZE)
+    public int getWorkLeaseBatchSize() {
+        return workLeaseBatchSize;
+    }
+
+    public void setWorkLeaseBatchSize(int workLeaseBatchSize) {
+        this.workLeaseBatchSize = workLeaseBatchSize;
+    }
+
+    @Option(orderIndex = 280, advanced = true, description = "When work leasing is enabled, the number of seconds a lease is valid without being renewed. Active processes renew their leases automatically, so this is how long it takes for work held by a crashed process to become available again. Default is " + DEFAULT_WORK_LEASE_DURATION_SECONDS)
+    public int getWorkLeaseDurationSeconds() {
+        return workLeaseDurationSeconds;
+    }
+
+    public void setWorkLeaseDurationSeconds(int workLeaseDurationSeconds) {
+        this.workLeaseDurationSeconds = workLeaseDurationSeconds;
+    }
+
+    @Option(orderIndex = 290, advanced = true, description = "Path to a file used to spool the source listing on disk. When set, the source is enumerated into this file at full speed (independent of the sync queue) while objects are submitted for sync from the file. This provides exact totals early and keeps memory constant. If the file contains a complete listing from an interrupted run of the same job and source, it is re-used and the source is not listed again. The file is deleted once everything in it has been synced")
+    public String getListingSpoolFile() {
+        return listingSpoolFile;
+    }
+
+    public void setListingSpoolFile(String listingSpoolFile) {
+        this.listingSpoolFile = listingSpoolFile;
+    }
+
+    @Option(orderIndex = 300, advanced = true, description = "The checksum algorithm calculated while streaming object data and used to verify objects. MD5 matches the checksums most storage systems keep natively (i.e. S3 ETags), so it can often be compared without reading the target data. CRC32C and XXHASH64 are much cheaper to calculate and reduce CPU usage when verifying large amounts of data. Note that the database always records MD5s. Default is MD5")
+    public ChecksumAlgorithm getChecksumAlgorithm() {
+        return checksumAlgorithm;
+    }
+
+    public void setChecksumAlgorithm(ChecksumAlgorithm checksumAlgorithm) {
+        this.checksumAlgorithm = checksumAlgorithm;
+    }
+
+    @Option(orderIndex = 310, advanced = true, description = "Enables sampling verification. Only this percentage of objects is verified in each run (requires verify or verifyOnly). Objects are selected deterministically by the hash of their identifier, and the selection rotates with each run, so that all objects are eventually verified. If a DB is configured, the runs and sampled objects are recorded in it. The report includes an upper bound of the failure rate (95% confidence). Default is 0 (verify all objects)")
+    public double getVerifySamplePercent() {
+        return verifySamplePercent;
+    }
+
+    public void setVerifySamplePercent(double verifySamplePercent) {
+        this.verifySamplePercent = verifySamplePercent;
+    }
+
+    @Option(orderIndex = 320, advanced = true, description = "Enables sampling verification with a data budget. Limits the amount of data verified in each run to this many MB (requires verify or verifyOnly). Can be combined with verifySamplePercent. When used alone, the sample percentage is derived from the total size of the previous run recorded in the DB (or all objects are sampled until the budget is used up). Default is 0 (no limit)")
+    public long getVerifySampleBudgetMb() {
+        return verifySampleBudgetMb;
+    }
+
+    public void setVerifySampleBudgetMb(long verifySampleBudgetMb) {
+        this.verifySampleBudgetMb = verifySampleBudgetMb;
+    }
+
     public SyncOptions withSyncMetadata(boolean syncMetadata) {
         this.syncMetadata = syncMetadata;
         return this;
@@ -483,6 +556,41 @@ public class SyncOptions {
         return this;
     }
 
+    public SyncOptions withWorkLeaseRole(WorkLeaseRole workLeaseRole) {
+        this.workLeaseRole = workLeaseRole;
+        return this;
+    }
+
+    public SyncOptions withWorkLeaseBatchSize(int workLeaseBatchSize) {
+        this.workLeaseBatchSize = workLeaseBatchSize;
+        return this;
+    }
+
+    public SyncOptions withWorkLeaseDurationSeconds(int workLeaseDurationSeconds) {
+        this.workLeaseDurationSeconds = workLeaseDurationSeconds;
+        return this;
+    }
+
+    public SyncOptions withListingSpoolFile(String listingSpoolFile) {
+        this.listingSpoolFile = listingSpoolFile;
+        return this;
+    }
+
+    public SyncOptions withChecksumAlgorithm(ChecksumAlgorithm checksumAlgorithm) {
+        this.checksumAlgorithm = checksumAlgorithm;
+        return this;
+    }
+
+    public SyncOptions withVerifySamplePercent(double verifySamplePercent) {
+        this.verifySamplePercent = verifySamplePercent;
+        return this;
+    }
+
+    public SyncOptions withVerifySampleBudgetMb(long verifySampleBudgetMb) {
+        this.verifySampleBudgetMb = verifySampleBudgetMb;
+        return this;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -517,6 +625,13 @@ public class SyncOptions {
         if (useMetadataChecksumForVerification != options.useMetadataChecksumForVerification) return false;
         if (bandwidthLimit != options.bandwidthLimit) return false;
         if (throughputLimit != options.throughputLimit) return false;
+        if (workLeaseRole != options.workLeaseRole) return false;
+        if (workLeaseBatchSize != options.workLeaseBatchSize) return false;
+        if (workLeaseDurationSeconds != options.workLeaseDurationSeconds) return false;
+        if (!Objects.equals(listingSpoolFile, options.listingSpoolFile)) return false;
+        if (checksumAlgorithm != options.checksumAlgorithm) return false;
+        if (Double.compare(options.verifySamplePercent, verifySamplePercent) != 0) return false;
+        if (verifySampleBudgetMb != options.verifySampleBudgetMb) return false;
         return true;
     }
 
@@ -549,6 +664,13 @@ public class SyncOptions {
         result = 31 * result + (useMetadataChecksumForVerification ? 1 : 0);
         result = 31 * result + bandwidthLimit;
         result = 31 * result + throughputLimit;
+        result = 31 * result + (workLeaseRole != null ? workLeaseRole.hashCode() : 0);
+        result = 31 * result + workLeaseBatchSize;
+        result = 31 * result + workLeaseDurationSeconds;
+        result = 31 * result + (listingSpoolFile != null ? listingSpoolFile.hashCode() : 0);
+        result = 31 * result + (checksumAlgorithm != null ? checksumAlgorithm.hashCode() : 0);
+        result = 31 * result + Double.hashCode(verifySamplePercent);
+        result = 31 * result + (int) (verifySampleBudgetMb ^ (verifySampleBudgetMb >>> 32));
         return result;
     }
 }
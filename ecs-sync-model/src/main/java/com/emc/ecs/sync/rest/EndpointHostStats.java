@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2026 Dell Inc. or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.emc.ecs.sync.rest;
+
+import java.util.Objects;
+
+/**
+ * Request statistics of one endpoint host of a storage plugin that routes requests itself (i.e. ECS with
+ * latencyAwareRouting)
+ */
+public class EndpointHostStats {
+    private String role;
+    private String host;
+    private boolean healthy;
+    private double latencyMs;
+    private long requestCount;
+    private long errorCount;
+    private long ejectionCount;
+
+    /**
+     * The role of the plugin (source or target)
+     */
+    public String getRole() {
+        return role;
+    }
+
+    public void setRole(String role) {
+        this.role = role;
+    }
+
+    /**
+     * The host (and port, if not the default)
+     */
+    public String getHost() {
+        return host;
+    }
+
+    public void setHost(String host) {
+        this.host = host;
+    }
+
+    /**
+     * False while the host is ejected because of errors
+     */
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    public void setHealthy(boolean healthy) {
+        this.healthy = healthy;
+    }
+
+    /**
+     * Moving average of the time to response (headers)
+     */
+    public double getLatencyMs() {
+        return latencyMs;
+    }
+
+    public void setLatencyMs(double latencyMs) {
+        this.latencyMs = latencyMs;
+    }
+
+    public long getRequestCount() {
+        return requestCount;
+    }
+
+    public void setRequestCount(long requestCount) {
+        this.requestCount = requestCount;
+    }
+
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    public void setErrorCount(long errorCount) {
+        this.errorCount = errorCount;
+    }
+
+    public long getEjectionCount() {
+        return ejectionCount;
+    }
+
+    public void setEjectionCount(long ejectionCount) {
+        this.ejectionCount = ejectionCount;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        EndpointHostStats that = (EndpointHostStats) o;
+        return healthy == that.healthy
+                && Double.compare(that.latencyMs, latencyMs) == 0
+                && requestCount == that.requestCount
+                && errorCount == that.errorCount
+                && ejectionCount == that.ejectionCount
+                && Objects.equals(role, that.role)
+                && Objects.equals(host, that.host);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(role, host, healthy, latencyMs, requestCount, errorCount, ejectionCount);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s %s (%s, %.1fms, %d requests, %d errors, %d ejections)", role, host,
+                healthy ? "healthy" : "ejected", latencyMs, requestCount, errorCount, ejectionCount);
+    }
+}
@@ -21,6 +21,7 @@ import javax.xml.bind.annotation.XmlRootElement;
 public class JobControl {
     private JobControlStatus status;
     private int threadCount;
+    private double shareWeight;
 
     public JobControl() {
     }
@@ -45,4 +46,16 @@ public class JobControl {
     public void setThreadCount(int threadCount) {
         this.threadCount = threadCount;
     }
+
+    /**
+     * The weight of this job when dividing the shared bandwidth and throughput limits between running jobs
+     * (default is 1). Zero leaves the weight unchanged
+     */
+    public double getShareWeight() {
+        return shareWeight;
+    }
+
+    public void setShareWeight(double shareWeight) {
+        this.shareWeight = shareWeight;
+    }
 }
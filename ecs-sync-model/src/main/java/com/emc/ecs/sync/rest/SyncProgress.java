@@ -15,7 +15,11 @@
  */
 package com.emc.ecs.sync.rest;
 
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlElementWrapper;
 import javax.xml.bind.annotation.XmlRootElement;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 @XmlRootElement
@@ -46,6 +50,10 @@ public class SyncProgress {
     private long sourceWriteRate;
     private long targetReadRate;
     private long targetWriteRate;
+    private long verifySampledObjects;
+    private long verifySampleFailures;
+    private double verifyFailureRateUpperBound;
+    private List<EndpointHostStats> hostStats = new ArrayList<>();
     private String runError;
 
     public String getJobName() {
@@ -256,6 +264,50 @@ public class SyncProgress {
         this.objectErrorRate = objectErrorRate;
     }
 
+    /**
+     * Number of objects verified in sampling mode (0 if sampling verification is not enabled)
+     */
+    public long getVerifySampledObjects() {
+        return verifySampledObjects;
+    }
+
+    public void setVerifySampledObjects(long verifySampledObjects) {
+        this.verifySampledObjects = verifySampledObjects;
+    }
+
+    public long getVerifySampleFailures() {
+        return verifySampleFailures;
+    }
+
+    public void setVerifySampleFailures(long verifySampleFailures) {
+        this.verifySampleFailures = verifySampleFailures;
+    }
+
+    /**
+     * Upper bound (at 95% confidence) of the fraction of all objects that would fail verification, estimated from the
+     * sample
+     */
+    public double getVerifyFailureRateUpperBound() {
+        return verifyFailureRateUpperBound;
+    }
+
+    public void setVerifyFailureRateUpperBound(double verifyFailureRateUpperBound) {
+        this.verifyFailureRateUpperBound = verifyFailureRateUpperBound;
+    }
+
+    /**
+     * Per-host request statistics of the source and target, if they route requests themselves
+     */
+    @XmlElementWrapper(name = "hostStats")
+    @XmlElement(name = "host")
+    public List<EndpointHostStats> getHostStats() {
+        return hostStats;
+    }
+
+    public void setHostStats(List<EndpointHostStats> hostStats) {
+        this.hostStats = hostStats;
+    }
+
     public String getRunError() {
         return runError;
     }
@@ -293,6 +345,10 @@ public class SyncProgress {
                 && sourceWriteRate == that.sourceWriteRate
                 && targetReadRate == that.targetReadRate
                 && targetWriteRate == that.targetWriteRate
+                && verifySampledObjects == that.verifySampledObjects
+                && verifySampleFailures == that.verifySampleFailures
+                && Double.compare(that.verifyFailureRateUpperBound, verifyFailureRateUpperBound) == 0
+                && Objects.equals(hostStats, that.hostStats)
                 && Objects.equals(jobName, that.jobName)
                 && status == that.status
                 && Objects.equals(runError, that.runError);
@@ -313,6 +369,7 @@ public class SyncProgress {
                 objectSkipRate, objectErrorRate,
                 sourceReadRate, sourceWriteRate,
                 targetReadRate, targetWriteRate,
-                runError);
+                verifySampledObjects, verifySampleFailures,
+                verifyFailureRateUpperBound, hostStats, runError);
     }
 }
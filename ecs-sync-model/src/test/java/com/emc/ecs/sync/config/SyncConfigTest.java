@@ -36,6 +36,7 @@ public class SyncConfigTest {
                 "<options>" +
                 "<bandwidthLimit>1024000</bandwidthLimit>" +
                 "<bufferSize>524288</bufferSize>" +
+                "<checksumAlgorithm>MD5</checksumAlgorithm>" +
                 "<dbEnhancedDetailsEnabled>false</dbEnhancedDetailsEnabled>" +
                 "<deleteSource>false</deleteSource>" +
                 "<estimationEnabled>true</estimationEnabled>" +
@@ -61,6 +62,10 @@ public class SyncConfigTest {
                 "<useMetadataChecksumForVerification>false</useMetadataChecksumForVerification>" +
                 "<verify>false</verify>" +
                 "<verifyOnly>false</verifyOnly>" +
+                "<verifySampleBudgetMb>0</verifySampleBudgetMb>" +
+                "<verifySamplePercent>0.0</verifySamplePercent>" +
+                "<workLeaseBatchSize>100</workLeaseBatchSize>" +
+                "<workLeaseDurationSeconds>300</workLeaseDurationSeconds>" +
                 "</options>" +
                 "<source><testStorageConfig><location>foo</location></testStorageConfig></source>" +
                 "<filters>" +
@@ -139,6 +144,7 @@ public class SyncConfigTest {
                 "<syncOptions xmlns=\"http://www.emc.com/ecs/sync/model\">" +
                 "<bandwidthLimit>0</bandwidthLimit>" +
                 "<bufferSize>524288</bufferSize>" +
+                "<checksumAlgorithm>MD5</checksumAlgorithm>" +
                 "<dbEnhancedDetailsEnabled>false</dbEnhancedDetailsEnabled>" +
                 "<deleteSource>false</deleteSource>" +
                 "<estimationEnabled>true</estimationEnabled>" +
@@ -166,6 +172,10 @@ public class SyncConfigTest {
                 "<useMetadataChecksumForVerification>false</useMetadataChecksumForVerification>" +
                 "<verify>false</verify>" +
                 "<verifyOnly>false</verifyOnly>" +
+                "<verifySampleBudgetMb>0</verifySampleBudgetMb>" +
+                "<verifySamplePercent>0.0</verifySamplePercent>" +
+                "<workLeaseBatchSize>100</workLeaseBatchSize>" +
+                "<workLeaseDurationSeconds>300</workLeaseDurationSeconds>" +
                 "</syncOptions>";
 
 
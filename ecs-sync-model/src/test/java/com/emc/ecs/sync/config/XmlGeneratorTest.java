@@ -44,7 +44,7 @@ public class XmlGeneratorTest {
                 "        <!-- Object data is synced by default -->\n" +
                 "        <!-- boolean - Default: true -->\n" +
                 "        <syncData>true</syncData>\n" +
-                "        <!-- By default, the source plugin will query the source storage to crawl and estimate the total amount of data to be transferred. Use this option to disable estimation (i.e. for performance improvement) -->\n" +
+                "        <!-- By default, the total amount of data to be transferred is estimated from the same enumeration that feeds the sync (the estimate converges as the source is listed). Use this option to disable estimation -->\n" +
                 "        <!-- boolean - Default: true -->\n" +
                 "        <estimationEnabled>true</estimationEnabled>\n" +
                 "        <!-- The list of source objects to sync. Unless sourceListRawValues is enabled, this should be in CSV format, with one object per line, where the absolute identifier (full path or key) is the first value in each line. This entire line is available to each plugin as a raw string -->\n" +
@@ -119,6 +119,27 @@ public class XmlGeneratorTest {
                 "        <!-- Specify the max TPS throughput limit in objects/s. Default is 0 (no throttle) -->\n" +
                 "        <!-- int - Default: 0 -->\n" +
                 "        <throughputLimit>0</throughputLimit>\n" +
+                "        <!-- Enables dynamic work leasing between multiple ecs-sync processes that share the same database and dbTable. The Coordinator enumerates the source into a work table (and also syncs), while any number of Workers lease batches of objects from that table, sync them and acknowledge them. Leases held by a worker that dies will expire and be re-leased by the remaining processes -->\n" +
+                "        <!-- WorkLeaseRole - Values: [Coordinator, Worker] -->\n" +
+                "        <workLeaseRole>workLeaseRole</workLeaseRole>\n" +
+                "        <!-- When work leasing is enabled, the maximum number of objects leased by a process at once. When little work remains, smaller batches are leased so it is shared evenly between active processes. Default is 100 -->\n" +
+                "        <!-- int - Default: 100 -->\n" +
+                "        <workLeaseBatchSize>100</workLeaseBatchSize>\n" +
+                "        <!-- When work leasing is enabled, the number of seconds a lease is valid without being renewed. Active processes renew their leases automatically, so this is how long it takes for work held by a crashed process to become available again. Default is 300 -->\n" +
+                "        <!-- int - Default: 300 -->\n" +
+                "        <workLeaseDurationSeconds>300</workLeaseDurationSeconds>\n" +
+                "        <!-- Path to a file used to spool the source listing on disk. When set, the source is enumerated into this file at full speed (independent of the sync queue) while objects are submitted for sync from the file. This provides exact totals early and keeps memory constant. If the file already contains a complete listing from a previous run, it is re-used and the source is not listed again (delete the file to force a new listing) -->\n" +
+                "        <!-- String -->\n" +
+                "        <listingSpoolFile>listingSpoolFile</listingSpoolFile>\n" +
+                "        <!-- The checksum algorithm calculated while streaming object data and used to verify objects. MD5 matches the checksums most storage systems keep natively (i.e. S3 ETags), so it can often be compared without reading the target data. CRC32C and XXHASH64 are much cheaper to calculate and reduce CPU usage when verifying large amounts of data. Note that the database always records MD5s. Default is MD5 -->\n" +
+                "        <!-- ChecksumAlgorithm - Values: [MD5, SHA256, CRC32C, XXHASH64] - Default: MD5 -->\n" +
+                "        <checksumAlgorithm>MD5</checksumAlgorithm>\n" +
+                "        <!-- Enables sampling verification. Only this percentage of objects is verified in each run (requires verify or verifyOnly). Objects are selected deterministically by the hash of their identifier, and the selection rotates with each run, so that all objects are eventually verified. If a DB is configured, the runs and sampled objects are recorded in it. The report includes an upper bound of the failure rate (95% confidence). Default is 0 (verify all objects) -->\n" +
+                "        <!-- double - Default: 0.0 -->\n" +
+                "        <verifySamplePercent>0.0</verifySamplePercent>\n" +
+                "        <!-- Enables sampling verification with a data budget. Limits the amount of data verified in each run to this many MB (requires verify or verifyOnly). Can be combined with verifySamplePercent. When used alone, the sample percentage is derived from the total size of the previous run recorded in the DB (or all objects are sampled until the budget is used up). Default is 0 (no limit) -->\n" +
+                "        <!-- long - Default: 0 -->\n" +
+                "        <verifySampleBudgetMb>0</verifySampleBudgetMb>\n" +
                 "    </options>\n" +
                 "    <source>\n" +
                 "        <!-- Xml Generator Storage documentation -->\n" +
@@ -199,7 +220,7 @@ public class XmlGeneratorTest {
                 "        <!-- Object data is synced by default -->\n" +
                 "        <!-- boolean - Default: true -->\n" +
                 "        <syncData>true</syncData>\n" +
-                "        <!-- By default, the source plugin will query the source storage to crawl and estimate the total amount of data to be transferred. Use this option to disable estimation (i.e. for performance improvement) -->\n" +
+                "        <!-- By default, the total amount of data to be transferred is estimated from the same enumeration that feeds the sync (the estimate converges as the source is listed). Use this option to disable estimation -->\n" +
                 "        <!-- boolean - Default: true -->\n" +
                 "        <estimationEnabled>true</estimationEnabled>\n" +
                 "        <!-- The list of source objects to sync. Unless sourceListRawValues is enabled, this should be in CSV format, with one object per line, where the absolute identifier (full path or key) is the first value in each line. This entire line is available to each plugin as a raw string -->\n" +
@@ -274,6 +295,27 @@ public class XmlGeneratorTest {
                 "        <!-- Specify the max TPS throughput limit in objects/s. Default is 0 (no throttle) -->\n" +
                 "        <!-- int - Default: 0 -->\n" +
                 "        <throughputLimit>0</throughputLimit>\n" +
+                "        <!-- Enables dynamic work leasing between multiple ecs-sync processes that share the same database and dbTable. The Coordinator enumerates the source into a work table (and also syncs), while any number of Workers lease batches of objects from that table, sync them and acknowledge them. Leases held by a worker that dies will expire and be re-leased by the remaining processes -->\n" +
+                "        <!-- WorkLeaseRole - Values: [Coordinator, Worker] -->\n" +
+                "        <workLeaseRole>workLeaseRole</workLeaseRole>\n" +
+                "        <!-- When work leasing is enabled, the maximum number of objects leased by a process at once. When little work remains, smaller batches are leased so it is shared evenly between active processes. Default is 100 -->\n" +
+                "        <!-- int - Default: 100 -->\n" +
+                "        <workLeaseBatchSize>100</workLeaseBatchSize>\n" +
+                "        <!-- When work leasing is enabled, the number of seconds a lease is valid without being renewed. Active processes renew their leases automatically, so this is how long it takes for work held by a crashed process to become available again. Default is 300 -->\n" +
+                "        <!-- int - Default: 300 -->\n" +
+                "        <workLeaseDurationSeconds>300</workLeaseDurationSeconds>\n" +
+                "        <!-- Path to a file used to spool the source listing on disk. When set, the source is enumerated into this file at full speed (independent of the sync queue) while objects are submitted for sync from the file. This provides exact totals early and keeps memory constant. If the file already contains a complete listing from a previous run, it is re-used and the source is not listed again (delete the file to force a new listing) -->\n" +
+                "        <!-- String -->\n" +
+                "        <listingSpoolFile>listingSpoolFile</listingSpoolFile>\n" +
+                "        <!-- The checksum algorithm calculated while streaming object data and used to verify objects. MD5 matches the checksums most storage systems keep natively (i.e. S3 ETags), so it can often be compared without reading the target data. CRC32C and XXHASH64 are much cheaper to calculate and reduce CPU usage when verifying large amounts of data. Note that the database always records MD5s. Default is MD5 -->\n" +
+                "        <!-- ChecksumAlgorithm - Values: [MD5, SHA256, CRC32C, XXHASH64] - Default: MD5 -->\n" +
+                "        <checksumAlgorithm>MD5</checksumAlgorithm>\n" +
+                "        <!-- Enables sampling verification. Only this percentage of objects is verified in each run (requires verify or verifyOnly). Objects are selected deterministically by the hash of their identifier, and the selection rotates with each run, so that all objects are eventually verified. If a DB is configured, the runs and sampled objects are recorded in it. The report includes an upper bound of the failure rate (95% confidence). Default is 0 (verify all objects) -->\n" +
+                "        <!-- double - Default: 0.0 -->\n" +
+                "        <verifySamplePercent>0.0</verifySamplePercent>\n" +
+                "        <!-- Enables sampling verification with a data budget. Limits the amount of data verified in each run to this many MB (requires verify or verifyOnly). Can be combined with verifySamplePercent. When used alone, the sample percentage is derived from the total size of the previous run recorded in the DB (or all objects are sampled until the budget is used up). Default is 0 (no limit) -->\n" +
+                "        <!-- long - Default: 0 -->\n" +
+                "        <verifySampleBudgetMb>0</verifySampleBudgetMb>\n" +
                 "    </options>\n" +
                 "    <source>\n" +
                 "        <!-- Xml Generator Storage documentation -->\n" +
@@ -421,6 +463,13 @@ public class XmlGeneratorTest {
                 "        <useMetadataChecksumForVerification>false</useMetadataChecksumForVerification>\n" +
                 "        <bandwidthLimit>0</bandwidthLimit>\n" +
                 "        <throughputLimit>0</throughputLimit>\n" +
+                "        <workLeaseRole>workLeaseRole</workLeaseRole>\n" +
+                "        <workLeaseBatchSize>100</workLeaseBatchSize>\n" +
+                "        <workLeaseDurationSeconds>300</workLeaseDurationSeconds>\n" +
+                "        <listingSpoolFile>listingSpoolFile</listingSpoolFile>\n" +
+                "        <checksumAlgorithm>MD5</checksumAlgorithm>\n" +
+                "        <verifySamplePercent>0.0</verifySamplePercent>\n" +
+                "        <verifySampleBudgetMb>0</verifySampleBudgetMb>\n" +
                 "    </options>\n" +
                 "    <source>\n" +
                 "        <xGSConfig>\n" +
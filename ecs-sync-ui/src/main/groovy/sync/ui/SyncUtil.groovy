@@ -40,6 +40,9 @@ class SyncUtil {
     static Double calculateProgress(SyncProgress progress) {
         if (progress.status == JobControlStatus.Complete) {
             1.toDouble()
+        } else if (progress.estimatingTotals) {
+            // expected totals are partial while the source is still being enumerated
+            0.toDouble()
         } else {
             // when byte *and* object estimates are available, progress is based on a weighted average of the two
             // percentages with the lesser value counted twice i.e.:
@@ -88,9 +88,9 @@ class S3SyncTask extends AbstractS3ProxyTask {
                 // - status is Complete (not Failed or Stopped)
                 // - no general error message
                 // - no object errors
-                // - objects completed + skipped == objects expected
+                // - objects completed + skipped == objects expected (and the expected total is final)
                 if (progress.status == JobControlStatus.Complete && !progress.runError && !progress.objectsFailed
-                        && (progress.objectsComplete + progress.objectsSkipped == progress.totalObjectsExpected)) {
+                        && !progress.estimatingTotals && (progress.objectsComplete + progress.objectsSkipped == progress.totalObjectsExpected)) {
 
                     // archive the job to generate a report
                     migration.historyService.archiveJob(result.jobId)
@@ -17,10 +17,10 @@ package com.emc.ecs.sync.filter;
 
 import com.emc.ecs.sync.config.ConfigurationException;
 import com.emc.ecs.sync.config.filter.PathMappingConfig;
+import com.emc.ecs.sync.model.ListFileRecord;
 import com.emc.ecs.sync.model.ObjectContext;
 import com.emc.ecs.sync.model.SyncObject;
 import com.emc.ecs.sync.storage.SyncStorage;
-import org.apache.commons.csv.CSVRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -74,10 +74,9 @@ public class PathMappingFilter extends AbstractFilter<PathMappingConfig> {
 
         // pull from 2nd column of source-list-file CSV
         if (config.getMapSource() == CSV) {
-            String listFileRow = objectContext.getSourceSummary().getListFileRow();
-            if (listFileRow == null)
+            ListFileRecord fileRecord = objectContext.getSourceSummary().getListFileRecord();
+            if (fileRecord == null)
                 throw new RuntimeException("No list file data for " + sourceId + " (are you using the recursive option?)");
-            CSVRecord fileRecord = getListFileCsvRecord(listFileRow);
             if (fileRecord.size() < 2)
                 throw new RuntimeException("No target mapping for " + sourceId + " in CSV file");
             newPath = fileRecord.get(1);
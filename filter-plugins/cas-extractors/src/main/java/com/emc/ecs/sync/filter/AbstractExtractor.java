@@ -21,7 +21,6 @@ import com.emc.ecs.sync.model.*;
 import com.emc.ecs.sync.storage.SyncStorage;
 import com.emc.ecs.sync.storage.cas.CasStorage;
 import com.emc.ecs.sync.util.LazyValue;
-import org.apache.commons.csv.CSVRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -71,7 +70,7 @@ public abstract class AbstractExtractor<C extends AbstractExtractorConfig> exten
         // get filesystem metadata from list-file (in CSV format)
         // EXPECTED CSV FORMAT:
         // {source-id},{relative-path},"NFS",{uid},{gid},{mode},{mtime},{ctime},{atime}
-        CSVRecord fileRecord = getListFileCsvRecord(summary.getListFileRow());
+        ListFileRecord fileRecord = summary.getListFileRecord();
 
         // we at least need the relative path/name of the file (2nd field)
         if (fileRecord.size() < 2)
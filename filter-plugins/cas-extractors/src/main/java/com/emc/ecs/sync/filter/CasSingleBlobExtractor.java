@@ -18,6 +18,7 @@ package com.emc.ecs.sync.filter;
 import com.emc.ecs.sync.NonRetriableException;
 import com.emc.ecs.sync.config.ConfigurationException;
 import com.emc.ecs.sync.config.filter.CasSingleBlobExtractorConfig;
+import com.emc.ecs.sync.model.ListFileRecord;
 import com.emc.ecs.sync.model.ObjectContext;
 import com.emc.ecs.sync.model.ObjectMetadata;
 import com.emc.ecs.sync.model.ObjectSummary;
@@ -30,7 +31,6 @@ import com.emc.ecs.sync.storage.cas.EnhancedTag;
 import com.emc.ecs.sync.util.LazyValue;
 import com.emc.ecs.sync.util.SyncUtil;
 import com.filepool.fplibrary.FPLibraryException;
-import org.apache.commons.csv.CSVRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -84,7 +84,7 @@ public class CasSingleBlobExtractor extends AbstractFilter<CasSingleBlobExtracto
                 case CSV:
                     if (summary.getListFileRow() == null)
                         throw new RuntimeException("No list file data for " + summary.getIdentifier() + " (are you using the recursive option?)");
-                    CSVRecord fileRecord = getListFileCsvRecord(summary.getListFileRow());
+                    ListFileRecord fileRecord = summary.getListFileRecord();
                     if (fileRecord.size() < 2)
                         throw new RuntimeException("No path info for " + summary.getIdentifier() + "in CSV file");
                     targetPath = fileRecord.get(1);
@@ -17,13 +17,13 @@ package com.emc.ecs.sync.filter;
 
 import com.emc.ecs.sync.config.ConfigurationException;
 import com.emc.ecs.sync.config.filter.CifsEcsConfig;
+import com.emc.ecs.sync.model.ListFileRecord;
 import com.emc.ecs.sync.model.ObjectContext;
 import com.emc.ecs.sync.model.ObjectMetadata;
 import com.emc.ecs.sync.model.SyncObject;
 import com.emc.ecs.sync.storage.SyncStorage;
 import com.emc.ecs.sync.storage.s3.AbstractS3Storage;
 import com.emc.ecs.sync.util.SyncUtil;
-import org.apache.commons.csv.CSVRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -62,9 +62,7 @@ public class CifsEcsIngester extends AbstractFilter<CifsEcsConfig> {
 
         // EXPECTED CSV FORMAT:
         // {source-id},{relative-path},{cifs-ecs-encoding},{long-name},{attributes},{security-descriptor}
-        CSVRecord fileRecord = null;
-        if (objectContext.getSourceSummary().getListFileRow() != null)
-            fileRecord = getListFileCsvRecord(objectContext.getSourceSummary().getListFileRow());
+        ListFileRecord fileRecord = objectContext.getSourceSummary().getListFileRecord();
 
         if (fileRecord == null || fileRecord.size() < 6) {
             if (config.isFileMetadataRequired())
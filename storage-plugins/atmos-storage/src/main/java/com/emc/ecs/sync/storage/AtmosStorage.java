@@ -283,6 +283,20 @@ public class AtmosStorage extends AbstractStorage<AtmosConfig> {
             SyncObject object = new SyncObject(this, getRelativePath(identifier, metadata.isDirectory()), metadata).withAcl(acl)
                     .withLazyStream(lazyStream);
 
+            if (!metadata.isDirectory()) {
+                object.setRangedSource(new RangedSource() {
+                    @Override
+                    public long getTotalSize() {
+                        return metadata.getContentLength();
+                    }
+
+                    @Override
+                    public InputStream getRangeStream(long offset, long length) {
+                        return readDataStream(identifier, new Range(offset, offset + length - 1));
+                    }
+                });
+            }
+
             object.setProperty(PROP_ATMOS_METADATA, atmosMeta);
 
             return object;
@@ -389,10 +403,14 @@ public class AtmosStorage extends AbstractStorage<AtmosConfig> {
     }
 
     private InputStream readDataStream(final String identifier) {
+        return readDataStream(identifier, null);
+    }
+
+    private InputStream readDataStream(final String identifier, final Range range) {
         return time(new Function<InputStream>() {
             @Override
             public InputStream call() {
-                return atmos.readObjectStream(getObjectIdentifier(identifier), null).getObject();
+                return atmos.readObjectStream(getObjectIdentifier(identifier), range).getObject();
             }
         }, OPERATION_READ_OBJECT_STREAM);
     }
@@ -612,7 +630,6 @@ public class AtmosStorage extends AbstractStorage<AtmosConfig> {
         } else { // retention is not enabled, so follow standard wschecksum process (create -> append...)
             // create
             RunningChecksum ck = new RunningChecksum(ChecksumAlgorithm.valueOf(checksumType.toString().toUpperCase()));
-            byte[] buffer = new byte[options.getBufferSize()];
             long read = 0;
             int c;
             cRequest.wsChecksum(ck);
@@ -624,6 +641,7 @@ public class AtmosStorage extends AbstractStorage<AtmosConfig> {
             }, OPERATION_CREATE_OBJECT);
 
             if (options.isSyncData()) {
+                byte[] buffer = getBufferPool().leaseArray(options.getBufferSize());
                 try (InputStream in = obj.getDataStream()) {
                     while ((c = in.read(buffer)) != -1) {
                         // append
@@ -642,6 +660,8 @@ public class AtmosStorage extends AbstractStorage<AtmosConfig> {
                         getWriteWindow().increment(c);
                         read += c;
                     }
+                } finally {
+                    getBufferPool().release(buffer);
                 }
             }
         }
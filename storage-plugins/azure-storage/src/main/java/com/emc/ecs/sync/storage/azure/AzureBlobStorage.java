@@ -21,19 +21,26 @@ import com.emc.ecs.sync.filter.SyncFilter;
 import com.emc.ecs.sync.model.Checksum;
 import com.emc.ecs.sync.model.ObjectMetadata;
 import com.emc.ecs.sync.model.ObjectSummary;
+import com.emc.ecs.sync.model.RangedSource;
 import com.emc.ecs.sync.model.SyncObject;
 import com.emc.ecs.sync.storage.AbstractStorage;
 import com.emc.ecs.sync.storage.ObjectNotFoundException;
 import com.emc.ecs.sync.storage.SyncStorage;
 import com.emc.ecs.sync.util.Function;
 import com.emc.ecs.sync.util.LazyValue;
+import com.emc.ecs.sync.util.PrefetchingPageIterator;
 import com.emc.ecs.sync.util.ReadOnlyIterator;
+import com.microsoft.azure.storage.AccessCondition;
 import com.microsoft.azure.storage.CloudStorageAccount;
+import com.microsoft.azure.storage.ResultContinuation;
+import com.microsoft.azure.storage.ResultSegment;
 import com.microsoft.azure.storage.StorageException;
 import com.microsoft.azure.storage.blob.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.FilterInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.net.URISyntaxException;
 import java.security.InvalidKeyException;
@@ -45,6 +52,10 @@ public class AzureBlobStorage extends AbstractStorage<AzureBlobConfig> {
     private static final String OPERATION_LIST_BLOBS = "AzureBlobListBlobs";
     private static final String OPERATION_GET_BLOB_REFERENCE = "AzureBlobGetBlobReference";
     private static final String OPERATION_READ_BLOB_STREAM = "AzureBlobReadBlobStream";
+    private static final String OPERATION_READ_BLOB_RANGE = "AzureBlobReadBlobRange";
+
+    // maximum number of blobs per listing page
+    private static final int LIST_SEGMENT_SIZE = 5000;
 
     public static final String PROP_BLOB_SNAPSHOTS = "azure.blobSnapshots";
 
@@ -102,33 +113,41 @@ public class AzureBlobStorage extends AbstractStorage<AzureBlobConfig> {
 
     private class PrefixIterator extends ReadOnlyIterator<ObjectSummary> {
         private final String prefix;
-        private final List<ObjectSummary> objectSummaries = new ArrayList<>();
-        private Iterator<ObjectSummary> itemIterator;
+        private final PrefetchingPageIterator<ResultSegment<ListBlobItem>> pages;
+        private Iterator<ListBlobItem> itemIterator = Collections.emptyIterator();
 
         PrefixIterator(String prefix) {
             this.prefix = prefix;
-            getItemIterator();
+            this.pages = new PrefetchingPageIterator<>(() -> listSegment(null), this::listNextSegment);
         }
 
-        private void getItemIterator() {
-            Iterator<ListBlobItem> blobItemIterator = time(() -> container.listBlobs(prefix, true).iterator(), OPERATION_LIST_BLOBS);
-            while (blobItemIterator.hasNext()) {
-                ListBlobItem blobItem = blobItemIterator.next();
-                if (blobItem instanceof CloudBlob) {
-                    objectSummaries.add(new ObjectSummary(((CloudBlob) blobItem).getName(), false, ((CloudBlob) blobItem).getProperties().getLength()));
-                }
-            }
+        private ResultSegment<ListBlobItem> listNextSegment(ResultSegment<ListBlobItem> segment) {
+            if (!segment.getHasMoreResults()) return null;
+            return listSegment(segment.getContinuationToken());
+        }
 
-            log.info("total object Summaries:{}", objectSummaries.size());
-            itemIterator = objectSummaries.iterator();
+        private ResultSegment<ListBlobItem> listSegment(ResultContinuation continuationToken) {
+            return time(() -> {
+                try {
+                    return container.listBlobsSegmented(prefix, true, EnumSet.noneOf(BlobListingDetails.class),
+                            LIST_SEGMENT_SIZE, continuationToken, null, null);
+                } catch (StorageException e) {
+                    throw new RuntimeException("error listing blobs with prefix " + prefix, e);
+                }
+            }, OPERATION_LIST_BLOBS);
         }
 
         @Override
         protected ObjectSummary getNextObject() {
-            if (itemIterator.hasNext()) {
-                return itemIterator.next();
-            } else {
-                return null;
+            while (true) {
+                while (!itemIterator.hasNext()) {
+                    if (!pages.hasNext()) return null;
+                    itemIterator = pages.next().getResults().iterator();
+                }
+                ListBlobItem blobItem = itemIterator.next();
+                if (blobItem instanceof CloudBlob) {
+                    return new ObjectSummary(((CloudBlob) blobItem).getName(), false, ((CloudBlob) blobItem).getProperties().getLength());
+                }
             }
         }
     }
@@ -177,6 +196,7 @@ public class AzureBlobStorage extends AbstractStorage<AzureBlobConfig> {
             //TODO how to get ACL for BLOB
 
             object.setLazyStream(lazyStream);
+            object.setRangedSource(new BlobRangedSource(cloudBlob));
             return object;
         }
     }
@@ -196,6 +216,7 @@ public class AzureBlobStorage extends AbstractStorage<AzureBlobConfig> {
             object.setSnapshotId(snapshotId);
             LazyValue<InputStream> lazyStream = () -> getDataStream(blob);
             object.setLazyStream(lazyStream);
+            object.setRangedSource(new BlobRangedSource(blob));
             snapshots.add(object);
         }
         log.debug("total blob {} objects(including snapshots) of blob : {}", key ,snapshots.size());
@@ -251,4 +272,83 @@ public class AzureBlobStorage extends AbstractStorage<AzureBlobConfig> {
     public CloudBlobClient getBlobClient() {
         return blobClient;
     }
+
+    /**
+     * Reads ranges of a blob. BlobInputStream seeks without reading data and downloads ranges of the blob as they are
+     * read, so the stream is positioned and then bounded to the requested length (this avoids buffering whole parts
+     * in memory, which downloadRangeToByteArray would require)
+     */
+    private class BlobRangedSource implements RangedSource {
+        private final CloudBlob blob;
+
+        BlobRangedSource(CloudBlob blob) {
+            this.blob = blob;
+        }
+
+        @Override
+        public long getTotalSize() {
+            return blob.getProperties().getLength();
+        }
+
+        @Override
+        public InputStream getRangeStream(final long offset, final long length) {
+            return time(new Function<InputStream>() {
+                @Override
+                public InputStream call() {
+                    try {
+                        // make sure all ranges come from the same version of the blob
+                        AccessCondition condition = AccessCondition.generateIfMatchCondition(blob.getProperties().getEtag());
+                        BlobInputStream stream = blob.openInputStream(condition, null, null);
+                        if (stream.skip(offset) != offset) throw new IOException("could not seek to offset " + offset);
+                        return new RangeInputStream(stream, length);
+                    } catch (StorageException | IOException e) {
+                        throw new RuntimeException("can not get data range for blob: " + blob.getName(), e);
+                    }
+                }
+            }, OPERATION_READ_BLOB_RANGE);
+        }
+    }
+
+    private static class RangeInputStream extends FilterInputStream {
+        private long remaining;
+
+        RangeInputStream(InputStream in, long length) {
+            super(in);
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) return -1;
+            int b = super.read();
+            if (b != -1) remaining--;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) return 0;
+            if (remaining <= 0) return -1;
+            int n = super.read(b, off, (int) Math.min(len, remaining));
+            if (n != -1) remaining -= n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(Math.min(n, remaining));
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(super.available(), remaining);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
 }
\ No newline at end of file
@@ -15,6 +15,7 @@
  */
 package com.emc.ecs.sync.storage.azure;
 
+import com.emc.ecs.sync.config.ChecksumAlgorithm;
 import com.emc.ecs.sync.model.ObjectMetadata;
 import com.emc.ecs.sync.model.SyncObject;
 import com.emc.ecs.sync.storage.SyncStorage;
@@ -46,6 +47,14 @@ public class BlobSyncObject extends SyncObject {
         this.snapshotId = snapshotId;
     }
 
+    /**
+     * Only the aggregate MD5 of all snapshots is supported
+     */
+    @Override
+    public boolean isChecksumSupported(ChecksumAlgorithm algorithm) {
+        return algorithm == ChecksumAlgorithm.MD5;
+    }
+
     @Override
     public String getMd5Hex(boolean forceRead) {
         List snapshots = (List) getProperty(AzureBlobStorage.PROP_BLOB_SNAPSHOTS);
@@ -72,6 +81,7 @@ public class BlobSyncObject extends SyncObject {
     }
 
     private synchronized String getMd5(boolean forceRead, EnhancedInputStream enhancedStream) {
+        enhancedStream.enableChecksum(ChecksumAlgorithm.MD5); // only possible if the stream has not been read yet
         if (!enhancedStream.isClosed()) {
             if (!forceRead || enhancedStream.getBytesRead() > 0) {
                 throw new IllegalStateException("Cannot call getMd5 until stream is closed");
@@ -15,7 +15,9 @@
  */
 package com.emc.ecs.sync.storage.cas;
 
+import com.emc.ecs.sync.util.BufferPool;
 import com.emc.ecs.sync.util.EnhancedInputStream;
+import com.emc.ecs.sync.util.ReadAheadBuffer;
 import com.emc.object.util.ProgressListener;
 import com.emc.object.util.ProgressOutputStream;
 import com.filepool.fplibrary.FPLibraryException;
@@ -44,6 +46,7 @@ public class BlobInputStream extends EnhancedInputStream implements FPStreamInte
     private CasTag tag;
     private int bufferSize;
     private boolean drainOnError;
+    private ReadAheadBuffer readAheadBuffer;
     private BlobReader blobReader;
     private Thread readerThread;
     private Future readFuture;
@@ -66,17 +69,17 @@ public class BlobInputStream extends EnhancedInputStream implements FPStreamInte
         this.tag = tag;
         this.bufferSize = bufferSize;
 
-        // piped streams and a blobReader task are necessary because of the odd stream handling in the CAS JNI wrapper
-        PipedInputStream pin = new PipedInputStream(bufferSize);
-        PipedOutputStream pout = new PipedOutputStream(pin);
+        // a read-ahead buffer and a blobReader task are necessary because of the odd stream handling in the CAS JNI
+        // wrapper (it pushes the blob into an output stream)
+        readAheadBuffer = new ReadAheadBuffer(bufferSize);
 
         try {
-            in = new DigestInputStream(pin, MessageDigest.getInstance("md5"));
+            in = new DigestInputStream(readAheadBuffer.getInputStream(), MessageDigest.getInstance("md5"));
         } catch (NoSuchAlgorithmException e) {
             throw new RuntimeException("could not initialize MD5 digest", e);
         }
 
-        OutputStream out = pout;
+        OutputStream out = readAheadBuffer.getOutputStream();
         if (listener != null) out = new ProgressOutputStream(out, listener);
 
         blobReader = new BlobReader(out, getSize());
@@ -120,27 +123,27 @@ public class BlobInputStream extends EnhancedInputStream implements FPStreamInte
 
             // if requested, completely read the source blob before closing the stream
             if (drainOnError && !blobReader.isComplete() && !blobReader.isFailed()) {
+                byte[] buffer = BufferPool.getShared().leaseArray(32 * 1024);
                 try {
-                    byte[] buffer = new byte[32 * 1024];
                     int c = 0;
                     while (c != -1) {
                         c = read(buffer);
                     }
                 } catch (Throwable t) {
                     log.warn("[" + tag.getClipId() + "]: could not drain source blob before closing early", t);
+                } finally {
+                    BufferPool.getShared().release(buffer);
                 }
             }
 
-            // NOTE: closing the stream *before* the reader thread is finished will throw an exception in
-            // PipedOutputStream.write
-            // - if the reader thread is active, the exception will be immediate
-            // - if it is waiting for buffer space, it will get an exception on the next poll (it polls every second)
+            // NOTE: closing the stream *before* the reader thread is finished will throw an exception ("Pipe closed")
+            // in the next write of the blobReader (if it is waiting for buffer space, it is woken immediately)
             super.close();
 
         } finally {
 
             // if the blobReader is complete, this does nothing; if close was called early, this will wait until the blobReader
-            // thread is notified of the close (an IOException will be thrown from PipedOutputStream.write)
+            // thread is notified of the close (an IOException will be thrown from the next write)
             try {
                 if (readerThread != null) readerThread.join();
                 else readFuture.get();
@@ -151,7 +154,7 @@ public class BlobInputStream extends EnhancedInputStream implements FPStreamInte
                 else log.warn("[" + tag.getClipId() + "]: could not join blobReader thread", t);
             }
 
-            // save MD5 so we can GC the piped stream buffer
+            // save MD5 so we can GC the read-ahead buffer
             try {
                 getMd5Digest();
             } catch (Throwable t) {
@@ -213,12 +216,16 @@ public class BlobInputStream extends EnhancedInputStream implements FPStreamInte
 
         @Override
         public synchronized void run() {
-            try (OutputStream outputStream = new CasOutputStream(out, size)) {
+            try {
+                OutputStream outputStream = new CasOutputStream(out, size);
                 tag.BlobRead(outputStream);
+                outputStream.close(); // signals EOF to the reading side
                 complete = true;
             } catch (Throwable t) {
                 failed = true;
                 error = t;
+                // the reading side must see the failure instead of a (truncated) EOF
+                readAheadBuffer.fail(t);
             } finally {
                 out = null; // free reference for GC
             }
@@ -15,6 +15,7 @@
  */
 package com.emc.ecs.sync.storage.cas;
 
+import com.emc.ecs.sync.config.ChecksumAlgorithm;
 import com.emc.ecs.sync.config.storage.CasConfig;
 import com.emc.ecs.sync.model.ObjectMetadata;
 import com.emc.ecs.sync.model.SyncObject;
@@ -60,6 +61,14 @@ public class ClipSyncObject extends SyncObject {
         return total;
     }
 
+    /**
+     * Only the MD5 summary of the CDF and all blob-tags is supported
+     */
+    @Override
+    public boolean isChecksumSupported(ChecksumAlgorithm algorithm) {
+        return algorithm == ChecksumAlgorithm.MD5;
+    }
+
     /**
      * Note: if forceRead is true, this method will close all tags in the clip
      */
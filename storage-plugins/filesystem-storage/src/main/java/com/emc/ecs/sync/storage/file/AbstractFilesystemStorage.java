@@ -15,23 +15,31 @@
  */
 package com.emc.ecs.sync.storage.file;
 
+import com.emc.ecs.sync.config.ChecksumAlgorithm;
 import com.emc.ecs.sync.config.ConfigurationException;
 import com.emc.ecs.sync.config.storage.FilesystemConfig;
 import com.emc.ecs.sync.filter.SyncFilter;
 import com.emc.ecs.sync.model.ObjectAcl;
 import com.emc.ecs.sync.model.ObjectMetadata;
 import com.emc.ecs.sync.model.ObjectSummary;
+import com.emc.ecs.sync.model.RangedSource;
 import com.emc.ecs.sync.model.SyncObject;
 import com.emc.ecs.sync.storage.AbstractStorage;
 import com.emc.ecs.sync.storage.ObjectNotFoundException;
 import com.emc.ecs.sync.storage.SyncStorage;
+import com.emc.ecs.sync.util.ChecksumEngine;
+import com.emc.ecs.sync.util.Hasher;
 import com.emc.ecs.sync.util.Iso8601Util;
+import com.emc.ecs.sync.util.LazyChecksum;
 import com.emc.ecs.sync.util.LazyValue;
+import com.emc.ecs.sync.util.SyncUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.activation.MimetypesFileTypeMap;
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.channels.FileLock;
 import java.nio.file.*;
@@ -58,6 +66,9 @@ public abstract class AbstractFilesystemStorage<C extends FilesystemConfig> exte
     private static final String OPERATION_WRITE_DATA = "FilesystemWriteObjectData";
     private static final String OPERATION_WRITE_METADATA = "FilesystemWriteObjectMetadata";
 
+    // maximum bytes per transferTo() call or mapped region (keeps progress/throttle updates reasonably granular)
+    private static final int TRANSFER_CHUNK_SIZE = 64 * 1024 * 1024;
+
     private Date modifiedSince;
     private List<Pattern> excludedPathPatterns;
 
@@ -89,6 +100,15 @@ public abstract class AbstractFilesystemStorage<C extends FilesystemConfig> exte
      */
     public abstract File createFile(File parent, String path);
 
+    /**
+     * Override to return true if files created by this plugin are plain files that can be opened as NIO channels (not
+     * i.e. archive entries). If both source and target are channel-capable, object data is transferred directly
+     * between file channels, bypassing the data stream.
+     */
+    protected boolean isChannelCapable() {
+        return false;
+    }
+
     private File createFile(String parent, String path) {
         return createFile(createFile(parent), path);
     }
@@ -196,6 +216,16 @@ public abstract class AbstractFilesystemStorage<C extends FilesystemConfig> exte
 
         SyncObject object = new SyncObject(this, getRelativePath(identifier, metadata.isDirectory()), metadata)
                 .withLazyStream(lazyStream).withLazyAcl(lazyAcl);
+        if (isChannelCapable() && !metadata.isDirectory()) {
+            // if the data stream is never read (i.e. after a channel transfer), verification will use this instead
+            object.setLazyChecksum(new LazyChecksum() {
+                @Override
+                public byte[] get(ChecksumAlgorithm algorithm) {
+                    return digestFile(identifier, algorithm);
+                }
+            });
+            if (!TYPE_LINK.equals(metadata.getContentType())) object.setRangedSource(new FileRangedSource(createFile(identifier)));
+        }
         object.setProperty(PROP_FILE, createFile(identifier));
         return object;
     }
@@ -257,6 +287,30 @@ public abstract class AbstractFilesystemStorage<C extends FilesystemConfig> exte
         }
     }
 
+    /**
+     * Calculates the checksum of a file by memory-mapping it, which avoids copying the data through the data stream
+     * wrappers
+     */
+    private byte[] digestFile(String identifier, ChecksumAlgorithm algorithm) {
+        Hasher hasher = ChecksumEngine.newHasher(algorithm);
+        File file = createFile(identifier);
+        if (!config.isFollowLinks() && isSymLink(file)) return hasher.digest(); // matches readDataStream()
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size(), position = 0;
+            while (position < size) {
+                int length = (int) Math.min(TRANSFER_CHUNK_SIZE, size - position);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                hasher.update(buffer);
+                position += length;
+                if (options.isMonitorPerformance()) getReadWindow().increment(length);
+                SyncUtil.throttleTransfer(getSyncJob(), length);
+            }
+            return hasher.digest();
+        } catch (IOException e) {
+            throw new RuntimeException("could not calculate " + algorithm + " of " + file, e);
+        }
+    }
+
     // TODO: make this windows-compatible
     protected ObjectAcl readAcl(String identifier) {
         PosixFileAttributes attributes;
@@ -351,8 +405,10 @@ public abstract class AbstractFilesystemStorage<C extends FilesystemConfig> exte
                     }
                 } else {
                     if (streamData) {
+                        File sourceFile = getChannelSourceFile(object);
                         time((Callable<Void>) () -> {
-                            copyData(object.getDataStream(), file);
+                            if (sourceFile != null) transferData(object, sourceFile, file);
+                            else copyData(object.getDataStream(), file);
                             return null;
                         }, OPERATION_WRITE_DATA);
                     } else if (!Files.isRegularFile(path)) {
@@ -480,16 +536,63 @@ public abstract class AbstractFilesystemStorage<C extends FilesystemConfig> exte
     }
 
     private void copyData(InputStream inStream, File outFile) throws IOException {
-        byte[] buffer = new byte[options.getBufferSize()];
+        byte[] buffer = getBufferPool().leaseArray(options.getBufferSize());
         int c;
         try (InputStream input = inStream; OutputStream output = createOutputStream(outFile)) {
             while ((c = input.read(buffer)) != -1) {
                 output.write(buffer, 0, c);
                 if (options.isMonitorPerformance()) getWriteWindow().increment(c);
             }
+        } finally {
+            getBufferPool().release(buffer);
         }
     }
 
+    /**
+     * Returns the source file of the object if its data can be transferred directly from channel to channel, otherwise
+     * null. This requires that both source and target are channel-capable and that the data stream has not been opened
+     * or replaced (i.e. by a filter).
+     */
+    private File getChannelSourceFile(SyncObject object) {
+        if (!isChannelCapable() || !(object.getSource() instanceof AbstractFilesystemStorage)) return null;
+        AbstractFilesystemStorage<?> source = (AbstractFilesystemStorage<?>) object.getSource();
+        if (!source.isChannelCapable() || object.isDataStreamInitialized()) return null;
+        Object file = object.getProperty(PROP_FILE);
+        if (!(file instanceof File)) return null;
+        // sym links that are not followed have no data (see readDataStream())
+        if (!Files.isRegularFile(((File) file).toPath(), source.getLinkOptions())) return null;
+        return (File) file;
+    }
+
+    /**
+     * Copies data using FileChannel.transferTo(), which the OS can perform without copying through user space (i.e.
+     * copy_file_range or sendfile). Because this bypasses the source data stream, performance windows, throttles and
+     * the object's bytes-read are updated here. If the source MD5 is recorded in the DB (dbEnhancedDetailsEnabled), it
+     * is calculated from the transferred regions of the (memory-mapped) source file, which are still in the page cache
+     */
+    private void transferData(SyncObject object, File sourceFile, File outFile) throws IOException {
+        SyncStorage<?> source = object.getSource();
+        boolean throttled = SyncUtil.isBandwidthThrottled(getSyncJob());
+        // when throttled, keep the chunks small so the transfer rate stays smooth
+        int chunkSize = throttled ? options.getBufferSize() : TRANSFER_CHUNK_SIZE;
+        long position = 0, count;
+        Hasher md5 = source.getOptions().isDbEnhancedDetailsEnabled() ? ChecksumEngine.newHasher(ChecksumAlgorithm.MD5) : null;
+        try (FileChannel input = FileChannel.open(sourceFile.toPath(), StandardOpenOption.READ);
+             FileChannel output = FileChannel.open(outFile.toPath(),
+                     StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            // transferTo returns 0 at the end of the file
+            while ((count = input.transferTo(position, chunkSize, output)) > 0) {
+                if (md5 != null) md5.update(input.map(FileChannel.MapMode.READ_ONLY, position, count));
+                position += count;
+                if (source.getOptions().isMonitorPerformance()) source.getReadWindow().increment(count);
+                if (options.isMonitorPerformance()) getWriteWindow().increment(count);
+                SyncUtil.throttleTransfer(getSyncJob(), (int) count);
+            }
+        }
+        object.setBytesRead(position);
+        if (md5 != null) object.setChecksum(ChecksumAlgorithm.MD5, md5.digest());
+    }
+
     //TODO: make sure that the source object has not been modified since it was copied to the target, before deleting
     @Override
     public void delete(String identifier, SyncObject object) {
@@ -698,6 +801,65 @@ public abstract class AbstractFilesystemStorage<C extends FilesystemConfig> exte
         }
     }
 
+    /**
+     * Reads ranges of a file using positional channel reads, so parts can be read concurrently
+     */
+    private static class FileRangedSource implements RangedSource {
+        private final File file;
+
+        FileRangedSource(File file) {
+            this.file = file;
+        }
+
+        @Override
+        public long getTotalSize() {
+            return file.length();
+        }
+
+        @Override
+        public InputStream getRangeStream(long offset, long length) {
+            try {
+                return new FileRangeInputStream(FileChannel.open(file.toPath(), StandardOpenOption.READ), offset, length);
+            } catch (IOException e) {
+                throw new RuntimeException("could not open " + file, e);
+            }
+        }
+    }
+
+    private static class FileRangeInputStream extends InputStream {
+        private final FileChannel channel;
+        private long position;
+        private long remaining;
+
+        FileRangeInputStream(FileChannel channel, long offset, long length) {
+            this.channel = channel;
+            this.position = offset;
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) return 0;
+            if (remaining <= 0) return -1;
+            int n = channel.read(ByteBuffer.wrap(b, off, (int) Math.min(len, remaining)), position);
+            if (n == -1) return -1;
+            position += n;
+            remaining -= n;
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
     private enum PosixType {
         OWNER, GROUP, OTHER
     }
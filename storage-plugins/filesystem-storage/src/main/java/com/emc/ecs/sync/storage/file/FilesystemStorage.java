@@ -30,6 +30,11 @@ public class FilesystemStorage extends AbstractFilesystemStorage<FilesystemConfi
         return new FileOutputStream(f);
     }
 
+    @Override
+    protected boolean isChannelCapable() {
+        return true;
+    }
+
     @Override
     public File createFile(String path) {
         return new File(path);
@@ -181,6 +181,104 @@ public class FilesystemTest {
         Assertions.assertArrayEquals(Files.readAllBytes(sFile.toPath()), Files.readAllBytes(tFile.toPath()));
     }
 
+    @Test
+    public void testChannelTransfer() throws Exception {
+        int[] sizes = {0, 1, 100 * 1024, 5 * 1024 * 1024 + 7};
+        long totalSize = 0;
+        for (int i = 0; i < sizes.length; i++) {
+            SyncUtil.copy(new RandomInputStream(sizes[i]), new FileOutputStream(new File(sourceDir, "file-" + i)), sizes[i]);
+            totalSize += sizes[i];
+        }
+
+        FilesystemConfig sConfig = new FilesystemConfig();
+        sConfig.setPath(sourceDir.getAbsolutePath());
+
+        FilesystemConfig tConfig = new FilesystemConfig();
+        tConfig.setPath(targetDir.getAbsolutePath());
+
+        // verification must use the (memory-mapped) checksums, since the source stream is never read
+        SyncOptions options = new SyncOptions().withVerify(true);
+
+        EcsSync sync = new EcsSync();
+        sync.setSyncConfig(new SyncConfig().withOptions(options).withSource(sConfig).withTarget(tConfig));
+
+        TestUtil.run(sync);
+
+        Assertions.assertEquals(0, sync.getStats().getObjectsFailed());
+        Assertions.assertEquals(sizes.length, sync.getStats().getObjectsComplete());
+        Assertions.assertEquals(totalSize, sync.getStats().getBytesComplete());
+        for (int i = 0; i < sizes.length; i++) {
+            Assertions.assertArrayEquals(Files.readAllBytes(new File(sourceDir, "file-" + i).toPath()),
+                    Files.readAllBytes(new File(targetDir, "file-" + i).toPath()));
+        }
+    }
+
+    @Test
+    public void testLazyMd5() throws Exception {
+        File file = new File(sourceDir, "md5-test");
+        int size = 3 * 1024 * 1024 + 11;
+        SyncUtil.copy(new RandomInputStream(size), new FileOutputStream(file), size);
+
+        FilesystemConfig fsConfig = new FilesystemConfig();
+        fsConfig.setPath(sourceDir.getAbsolutePath());
+        FilesystemStorage storage = new FilesystemStorage();
+        storage.setConfig(fsConfig);
+        storage.setOptions(new SyncOptions());
+
+        // MD5 calculated from the file directly (stream never opened)
+        String mappedMd5;
+        try (SyncObject object = storage.loadObject(file.getPath())) {
+            mappedMd5 = object.getMd5Hex(true);
+            Assertions.assertFalse(object.isDataStreamInitialized());
+        }
+
+        // MD5 calculated by reading the data stream
+        String streamMd5;
+        try (SyncObject object = storage.loadObject(file.getPath())) {
+            SyncUtil.consumeAndCloseStream(object.getDataStream());
+            streamMd5 = object.getMd5Hex(false);
+        }
+
+        Assertions.assertEquals(streamMd5, mappedMd5);
+    }
+
+    @Test
+    public void testChannelTransferRecordsMd5() throws Exception {
+        File file = new File(sourceDir, "md5-transfer-test");
+        int size = 3 * 1024 * 1024 + 11;
+        SyncUtil.copy(new RandomInputStream(size), new FileOutputStream(file), size);
+
+        // the source MD5 is recorded in the DB with enhanced details, so it must be calculated during the transfer
+        SyncOptions options = new SyncOptions().withDbEnhancedDetailsEnabled(true);
+        FilesystemConfig sConfig = new FilesystemConfig();
+        sConfig.setPath(sourceDir.getAbsolutePath());
+        FilesystemStorage source = new FilesystemStorage();
+        source.setConfig(sConfig);
+        source.setOptions(options);
+        FilesystemConfig tConfig = new FilesystemConfig();
+        tConfig.setPath(targetDir.getAbsolutePath());
+        FilesystemStorage target = new FilesystemStorage();
+        target.setConfig(tConfig);
+        target.setOptions(options);
+        source.configure(source, null, target);
+        target.configure(source, null, target);
+
+        String streamMd5;
+        try (SyncObject object = source.loadObject(file.getPath())) {
+            SyncUtil.consumeAndCloseStream(object.getDataStream());
+            streamMd5 = object.getMd5Hex(false);
+        }
+
+        try (SyncObject object = source.loadObject(file.getPath())) {
+            target.createObject(object);
+            Assertions.assertFalse(object.isDataStreamInitialized());
+            // available without forcing a read
+            Assertions.assertEquals(streamMd5, object.getMd5Hex(false));
+        }
+        Assertions.assertArrayEquals(Files.readAllBytes(file.toPath()),
+                Files.readAllBytes(new File(targetDir, file.getName()).toPath()));
+    }
+
     @Test
     public void testRelativeLinkTargets() throws Exception {
         String linkName = "my/link";
@@ -651,7 +651,7 @@ public abstract class AbstractNfsStorage<C extends NfsConfig, N extends Nfs<F>,
      * @throws IOException
      */
     private void copyData(InputStream inStream, F nfsFile) throws IOException {
-        byte[] buffer = new byte[options.getBufferSize()];
+        byte[] buffer = getBufferPool().leaseArray(options.getBufferSize());
         int c;
         try (InputStream input = inStream; OutputStream output = createOutputStream(nfsFile)) {
             while ((c = input.read(buffer)) != -1) {
@@ -659,6 +659,8 @@ public abstract class AbstractNfsStorage<C extends NfsConfig, N extends Nfs<F>,
                 if (options.isMonitorPerformance())
                     getWriteWindow().increment(c);
             }
+        } finally {
+            getBufferPool().release(buffer);
         }
     }
 
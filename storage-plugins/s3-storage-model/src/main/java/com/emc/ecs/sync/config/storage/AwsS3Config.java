@@ -57,6 +57,10 @@ public class AwsS3Config extends AbstractConfig {
      */
     @Deprecated
     public static final int DEFAULT_MPU_THREAD_COUNT = 4;
+    public static final int DEFAULT_VERSION_CONCURRENCY = 4;
+    public static final int DEFAULT_PACK_CONTAINER_SIZE_MB = 64;
+    public static final int DEFAULT_MPU_TARGET_PART_COUNT = 10000;
+    public static final int DEFAULT_MPU_SPOOL_MEMORY_MB = 512;
     // disable read timeout to prevent lost update and partial data in target if AWS stalls
     public static final int DEFAULT_SOCKET_TIMEOUT = 0;
     public static final int MIN_PART_SIZE_MB = 5;
@@ -88,6 +92,18 @@ public class AwsS3Config extends AbstractConfig {
     private String base64TlsCertificate;
     private boolean writeTestObject = false;
     private boolean storeSourceObjectCopyMarkers;
+    private boolean directoryMode;
+    private int listingRanges = 1;
+    private String listingSplitFile;
+    private int versionConcurrency = DEFAULT_VERSION_CONCURRENCY;
+    private int deleteBatchSize = 1;
+    private int packThresholdKb;
+    private int packContainerSizeMb = DEFAULT_PACK_CONTAINER_SIZE_MB;
+    private boolean unpackContainers;
+    private int mpuTargetPartCount = DEFAULT_MPU_TARGET_PART_COUNT;
+    private int mpuSpoolMemoryMb = DEFAULT_MPU_SPOOL_MEMORY_MB;
+    private boolean serverSideCopy;
+    private boolean mpuCleanupEnabled;
 
     @UriGenerator
     public String getUri(boolean scrubbed) {
@@ -300,7 +316,7 @@ public class AwsS3Config extends AbstractConfig {
     }
 
     @Role(RoleType.Target)
-    @Option(orderIndex = 140, valueHint = "size-in-MB", advanced = true, description = "Sets the part size to use when multipart upload is required (objects over 5GB). Default is " + DEFAULT_MPU_PART_SIZE_MB + "MB, minimum is " + MIN_PART_SIZE_MB + "MB")
+    @Option(orderIndex = 140, valueHint = "size-in-MB", advanced = true, description = "Sets the part size to use when multipart upload is required (objects over 5GB). The part size is increased for objects that would need more than mpuTargetPartCount parts. Default is " + DEFAULT_MPU_PART_SIZE_MB + "MB, minimum is " + MIN_PART_SIZE_MB + "MB")
     public int getMpuPartSizeMb() {
         return mpuPartSizeMb;
     }
@@ -325,7 +341,7 @@ public class AwsS3Config extends AbstractConfig {
     }
 
     @Role(RoleType.Target)
-    @Option(orderIndex = 155, advanced = true, description = "Enables multi-part upload (MPU) to be resumed from existing uploaded parts. ")
+    @Option(orderIndex = 155, advanced = true, description = "Enables multi-part upload (MPU) to be resumed from existing uploaded parts. If the job has a shared DB (dbFile or dbConnectString), the upload ID and the uploaded parts of each MPU are recorded in the DB, so a retry or a restarted job resumes the recorded upload and only uploads the missing parts. Otherwise, the latest MPU of the key is resumed")
     public boolean isMpuResumeEnabled() {
         return mpuResumeEnabled;
     }
@@ -390,4 +406,123 @@ public class AwsS3Config extends AbstractConfig {
     public void setStoreSourceObjectCopyMarkers(boolean storeSourceObjectCopyMarkers) {
         this.storeSourceObjectCopyMarkers = storeSourceObjectCopyMarkers;
     }
+
+    @Role(RoleType.Source)
+    @Option(orderIndex = 220, advanced = true, description = "Lists the source bucket one level at a time, using the delimiter \"/\", and treats common prefixes as directories. Prefixes are then listed in parallel by the query threads (requires recursive, which is the default), which can list very large buckets with a deep or wide key layout much faster than one sequential listing. Prefixes without a placeholder object are synced as directories to other storage types, but are skipped by S3 targets (no placeholder is created for them)")
+    public boolean isDirectoryMode() {
+        return directoryMode;
+    }
+
+    public void setDirectoryMode(boolean directoryMode) {
+        this.directoryMode = directoryMode;
+    }
+
+    @Role(RoleType.Source)
+    @Option(orderIndex = 230, valueHint = "range-count", advanced = true, description = "Splits the (flat) listing of the source bucket into this many key ranges, which are listed concurrently. Range boundaries are calculated from a sample of the first listing page (hex or character ranges), unless listingSplitFile is set. Keys are still returned in order within each range, but ranges are interleaved. Does not apply to directoryMode. Default is 1 (a single sequential listing)")
+    public int getListingRanges() {
+        return listingRanges;
+    }
+
+    public void setListingRanges(int listingRanges) {
+        this.listingRanges = listingRanges;
+    }
+
+    @Role(RoleType.Source)
+    @Option(orderIndex = 240, valueHint = "split-file", advanced = true, description = "A file containing the range boundaries for a partitioned listing (one key per line, any order). Each boundary is the last key of a range, so N keys define N+1 ranges. Overrides the calculated boundaries of listingRanges")
+    public String getListingSplitFile() {
+        return listingSplitFile;
+    }
+
+    public void setListingSplitFile(String listingSplitFile) {
+        this.listingSplitFile = listingSplitFile;
+    }
+
+    @Option(orderIndex = 250, valueHint = "version-count", advanced = true, description = "When includeVersions is enabled, the versions of a key are loaded (HEAD requests) concurrently by up to this many threads, and the target reads ahead the data of the next small versions (one less than this value) while it writes the current one. Versions are always written to the target in order. Default is " + DEFAULT_VERSION_CONCURRENCY + " (1 loads and writes versions strictly one at a time)")
+    public int getVersionConcurrency() {
+        return versionConcurrency;
+    }
+
+    public void setVersionConcurrency(int versionConcurrency) {
+        this.versionConcurrency = versionConcurrency;
+    }
+
+    @Role(RoleType.Target)
+    @Option(orderIndex = 260, advanced = true, description = "When the source is a bucket on the same S3 endpoint with the same credentials, copies object data server-side (CopyObject, or parallel UploadPartCopy above mpuThresholdMb) instead of streaming it through the sync host. Objects whose data is modified by a filter are always streamed. If the endpoint denies the copy, the job falls back to streaming")
+    public boolean isServerSideCopy() {
+        return serverSideCopy;
+    }
+
+    public void setServerSideCopy(boolean serverSideCopy) {
+        this.serverSideCopy = serverSideCopy;
+    }
+
+    @Role(RoleType.Source)
+    @Option(orderIndex = 270, valueHint = "key-count", advanced = true, description = "When deleteSource is enabled, the deletes of up to this many objects (from all sync threads) are combined into one multi-object delete request (max 1000). A partial batch is sent after a short delay. Each object still reports its own delete result. Default is 1 (one DELETE request per object)")
+    public int getDeleteBatchSize() {
+        return deleteBatchSize;
+    }
+
+    public void setDeleteBatchSize(int deleteBatchSize) {
+        this.deleteBatchSize = deleteBatchSize;
+    }
+
+    @Role(RoleType.Target)
+    @Option(orderIndex = 280, valueHint = "size-in-KB", advanced = true, description = "Objects up to this size (in KB) are packed into tar containers under the \"ecs-sync-packs/\" prefix instead of being written individually. Each container has a sidecar index object with the offset of every object, and the target ID of each packed object (in the DB) records its container and offset. Only the data and mtime of packed objects are kept, and packing cannot be combined with verification or includeVersions. Objects are acknowledged when they are buffered, so a container that cannot be written is reported as failed objects at the end of the job, and packing cannot be combined with deleteSource. On a re-run, packed objects are found through their target IDs in the DB. Default is 0 (no packing)")
+    public int getPackThresholdKb() {
+        return packThresholdKb;
+    }
+
+    public void setPackThresholdKb(int packThresholdKb) {
+        this.packThresholdKb = packThresholdKb;
+    }
+
+    @Role(RoleType.Target)
+    @Option(orderIndex = 290, valueHint = "size-in-MB", advanced = true, description = "The approximate size (in MB) of each packed container (see packThresholdKb). Containers are built in memory (the open container, plus any that are being written). Default is " + DEFAULT_PACK_CONTAINER_SIZE_MB)
+    public int getPackContainerSizeMb() {
+        return packContainerSizeMb;
+    }
+
+    public void setPackContainerSizeMb(int packContainerSizeMb) {
+        this.packContainerSizeMb = packContainerSizeMb;
+    }
+
+    @Role(RoleType.Source)
+    @Option(orderIndex = 300, advanced = true, description = "Instead of the objects in the bucket, syncs the objects in the packed containers (see packThresholdKb) under the key prefix. Each object is read from its container with a ranged GET")
+    public boolean isUnpackContainers() {
+        return unpackContainers;
+    }
+
+    public void setUnpackContainers(boolean unpackContainers) {
+        this.unpackContainers = unpackContainers;
+    }
+
+    @Role(RoleType.Target)
+    @Option(orderIndex = 310, valueHint = "part-count", advanced = true, description = "The maximum number of parts of a multipart upload. If an object would need more parts of mpuPartSizeMb, the part size is increased (in whole MB) so the object fits in this many parts. Default is " + DEFAULT_MPU_TARGET_PART_COUNT + ", which is also the maximum")
+    public int getMpuTargetPartCount() {
+        return mpuTargetPartCount;
+    }
+
+    public void setMpuTargetPartCount(int mpuTargetPartCount) {
+        this.mpuTargetPartCount = mpuTargetPartCount;
+    }
+
+    @Role(RoleType.Target)
+    @Option(orderIndex = 320, valueHint = "size-in-MB", advanced = true, description = "When a multipart upload reads a source stream that does not support ranged reads (i.e. after a transforming filter), parts are read in order and spooled, so they can be uploaded in parallel. This is the memory (in MB) shared by all spooled parts; parts that do not fit are spooled to temp files. Default is " + DEFAULT_MPU_SPOOL_MEMORY_MB + " (0 spools all parts to disk)")
+    public int getMpuSpoolMemoryMb() {
+        return mpuSpoolMemoryMb;
+    }
+
+    public void setMpuSpoolMemoryMb(int mpuSpoolMemoryMb) {
+        this.mpuSpoolMemoryMb = mpuSpoolMemoryMb;
+    }
+
+    @Role(RoleType.Target)
+    @Option(orderIndex = 330, advanced = true, description = "When mpuResumeEnabled is set and the job has a shared DB (dbFile or dbConnectString), the state of each MPU is recorded in the DB, so an interrupted upload resumes with its missing parts. This option aborts the MPUs under the key prefix that were initiated before the job started and are not tracked in the DB (i.e. left behind by a killed or abandoned job) when the job finishes. Do not use this if another job writes under the same key prefix")
+    public boolean isMpuCleanupEnabled() {
+        return mpuCleanupEnabled;
+    }
+
+    public void setMpuCleanupEnabled(boolean mpuCleanupEnabled) {
+        this.mpuCleanupEnabled = mpuCleanupEnabled;
+    }
 }
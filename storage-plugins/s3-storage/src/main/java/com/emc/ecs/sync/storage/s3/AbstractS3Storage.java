@@ -18,13 +18,22 @@ package com.emc.ecs.sync.storage.s3;
 import com.amazonaws.SdkClientException;
 import com.emc.ecs.sync.NonRetriableException;
 import com.emc.ecs.sync.SkipObjectException;
-import com.emc.ecs.sync.filter.SyncFilter;
+import com.emc.ecs.sync.SyncTask;
+import com.emc.ecs.sync.config.ConfigurationException;
+import com.emc.ecs.sync.config.RoleType;
+import com.emc.ecs.sync.model.ObjectAcl;
 import com.emc.ecs.sync.model.ObjectContext;
+import com.emc.ecs.sync.model.ObjectMetadata;
+import com.emc.ecs.sync.model.ObjectSummary;
 import com.emc.ecs.sync.model.SyncObject;
+import com.emc.ecs.sync.service.AbstractDbService;
+import com.emc.ecs.sync.service.DbService;
+import com.emc.ecs.sync.service.MultipartUploadStateService;
+import com.emc.ecs.sync.service.NoDbService;
 import com.emc.ecs.sync.storage.AbstractStorage;
 import com.emc.ecs.sync.storage.ObjectNotFoundException;
-import com.emc.ecs.sync.storage.SyncStorage;
-import com.emc.ecs.sync.util.PerformanceWindow;
+import com.emc.ecs.sync.util.PartitionedIterator;
+import com.emc.ecs.sync.util.ReadOnlyIterator;
 import com.emc.ecs.sync.util.SyncUtil;
 import com.emc.object.s3.LargeFileUploader;
 import com.emc.object.s3.S3Exception;
@@ -32,18 +41,35 @@ import com.emc.object.util.ProgressListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 public abstract class AbstractS3Storage<C> extends AbstractStorage<C> {
     private static final Logger log = LoggerFactory.getLogger(AbstractS3Storage.class);
 
     public static final String PROP_OBJECT_VERSIONS = "s3.objectVersions";
     public static final String PROP_IS_NEW_OBJECT = "s3.isNewObject";
-    public static final String PROP_MULTIPART_SOURCE = "s3.multipartSource";
     public static final String PROP_OBJECT_SNAPSHOTS = "s3.isIncludedSnapshots";
     public static final String PROP_SOURCE_ETAG_MATCHES = "s3.sourceEtagMatches";
+    public static final String PROP_SYNTHETIC_DIRECTORY = "s3.syntheticDirectory";
 
     public static final String ERROR_CODE_MPU_TERMINATED_EARLY = "S3MpuTerminatedEarly";
 
@@ -52,6 +78,30 @@ public abstract class AbstractS3Storage<C> extends AbstractStorage<C> {
 
     static final String TYPE_DIRECTORY = "application/x-directory";
 
+    // used to list one "directory" level at a time in directoryMode
+    static final String DELIMITER = "/";
+
+    // alphabets used to calculate key range boundaries (must be in code point order)
+    static final String HEX_ALPHABET = "0123456789abcdef";
+    static final String PRINTABLE_ALPHABET = IntStream.rangeClosed('!', '~')
+            .mapToObj(c -> String.valueOf((char) c)).collect(Collectors.joining());
+    // how many listed summaries may be buffered ahead of the consumer in a partitioned listing
+    static final int PARTITIONED_LISTING_QUEUE_SIZE = 5000;
+    // historical versions up to this size are read ahead (into memory) while the previous version is written
+    static final long VERSION_READ_AHEAD_MAX_SIZE = 2 * 1024 * 1024;
+    // maximum number of keys in one multi-object delete request
+    static final int MAX_DELETION_SUPPORTED = 1000;
+    // a partial batch of deletes is sent once its oldest key has waited this long
+    static final long DELETE_BATCH_MAX_LATENCY_MS = 200;
+    // the number of delete batches that can be sent at the same time
+    static final int DELETE_BATCH_SENDERS = 4;
+    // packed containers and their indexes are written under this "directory" of the key prefix
+    static final String PACK_DIRECTORY = "ecs-sync-packs/";
+    static final String TYPE_TAR = "application/x-tar";
+
+    static final int MAX_PART_COUNT = 10000;
+    static final long MAX_PART_SIZE = 5L * 1024 * 1024 * 1024; // 5GB
+
     public static final String UMD_KEY_SOURCE_MTIME = "x-emc-source-mtime";
     public static final String UMD_KEY_SOURCE_ETAG = "x-emc-source-etag";
 
@@ -59,7 +109,14 @@ public abstract class AbstractS3Storage<C> extends AbstractStorage<C> {
     private static final char[] HTTP_SEPARATOR_CHARS = new char[]{
             '(', ')', '<', '>', '@', ',', ';', ':', '\\', '"', '/', '[', ']', '?', '=', ' ', '\t'};
 
-    protected PerformanceWindow sourceReadWindow;
+    private ExecutorService backgroundExecutor;
+    private DeleteBatcher deleteBatcher;
+    private ObjectPacker objectPacker;
+    // containers whose index is known to exist
+    private final Set<String> writtenContainers = ConcurrentHashMap.newKeySet();
+    private Semaphore spoolMemoryKb;
+    private MultipartUploadStateService mpuStateService;
+    private boolean mpuStateServiceChecked;
 
     abstract void putObject(SyncObject object, String key);
 
@@ -67,11 +124,80 @@ public abstract class AbstractS3Storage<C> extends AbstractStorage<C> {
 
     abstract SyncObject loadObject(String key, String versionId);
 
-    @Override
-    public void configure(SyncStorage<?> source, Iterator<? extends SyncFilter<?>> filters, SyncStorage<?> target) {
-        super.configure(source, filters, target);
-        if (target == this && source != null) sourceReadWindow = source.getReadWindow();
-    }
+    /**
+     * @return how many versions of one key may be loaded or read ahead concurrently
+     */
+    abstract int getVersionConcurrency();
+
+    /**
+     * @return how many single-key deletes (see deleteBatchSize) may be combined into one multi-object delete request
+     */
+    abstract int getDeleteBatchSize();
+
+    /**
+     * Deletes the (current versions of the) specified keys in one multi-object delete request
+     *
+     * @return the errors of keys that could not be deleted, keyed by key
+     */
+    abstract Map<String, RuntimeException> deleteObjects(List<String> keys);
+
+    /**
+     * @return the size (in KB) up to which objects are packed into containers, or 0 if packing is disabled
+     */
+    abstract int getPackThresholdKb();
+
+    abstract int getPackContainerSizeMb();
+
+    abstract int getMpuPartSizeMb();
+
+    /**
+     * @return the maximum number of parts of an MPU before the part size is increased
+     */
+    abstract int getMpuTargetPartCount();
+
+    /**
+     * @return the memory (in MB) shared by all spooled MPU parts, beyond which parts are spooled to disk
+     */
+    abstract int getMpuSpoolMemoryMb();
+
+    abstract boolean isMpuResumeEnabled();
+
+    /**
+     * @return whether stale MPUs (that are not tracked in the DB) are aborted when the job is closed
+     */
+    abstract boolean isMpuCleanupEnabled();
+
+    abstract void abortMultipartUpload(String key, String uploadId);
+
+    /**
+     * @return whether the MPU still exists (it may have been aborted, or have expired through a lifecycle rule)
+     */
+    abstract boolean isMultipartUploadPresent(String key, String uploadId);
+
+    /**
+     * Aborts the MPUs under the key prefix that were initiated before <code>initiatedBefore</code>, except for those in
+     * <code>keepUploadIds</code>
+     *
+     * @return the number of MPUs that were aborted
+     */
+    abstract int abortMultipartUploads(Date initiatedBefore, Set<String> keepUploadIds);
+
+    /**
+     * Writes a packed container or index as-is (no metadata, ACL or MPU)
+     */
+    abstract void putRawObject(String key, byte[] data, String contentType);
+
+    /**
+     * Reads part of an object (a packed object from its container), or the whole object if length is negative
+     */
+    abstract InputStream getRawStream(String key, long offset, long length);
+
+    /**
+     * @return whether a packed container or index exists (HEAD request)
+     */
+    abstract boolean rawObjectExists(String key);
+
+    abstract boolean isUnpackContainers();
 
     /**
      * Checks for <code>x-emc-source-mtime</code> and <code>x-emc-source-etag</code> in target user metadata,
@@ -123,17 +249,489 @@ public abstract class AbstractS3Storage<C> extends AbstractStorage<C> {
         }
     }
 
+    @Override
+    public void completeDeletes() {
+        DeleteBatcher deleteBatcher;
+        synchronized (this) {
+            deleteBatcher = this.deleteBatcher;
+            // any later delete starts a new batcher
+            this.deleteBatcher = null;
+        }
+        if (deleteBatcher != null) deleteBatcher.close();
+    }
+
+    @Override
+    public void close() {
+        // pending deletes must be sent before the job is closed (their results are recorded in the DB)
+        completeDeletes();
+        synchronized (this) {
+            if (backgroundExecutor != null) backgroundExecutor.shutdownNow();
+        }
+        super.close();
+    }
+
+    /**
+     * Determines the boundaries of a partitioned listing (see listingRanges). Each boundary is the last key of a range,
+     * so N boundaries define N+1 ranges. If a split file is given, its keys are used; otherwise, the first listing page
+     * is sampled (<code>firstPage</code> returns null if the listing does not have more than one page, in which case
+     * there is nothing to partition)
+     */
+    List<String> getListingBoundaries(String prefix, int ranges, String splitFile, Supplier<List<String>> firstPage) {
+        List<String> boundaries;
+        if (splitFile != null) {
+            try {
+                boundaries = Files.readAllLines(Paths.get(splitFile), StandardCharsets.UTF_8).stream()
+                        .map(String::trim).filter(line -> !line.isEmpty()).collect(Collectors.toList());
+            } catch (IOException e) {
+                throw new ConfigurationException("could not read listing split file " + splitFile, e);
+            }
+            boundaries.sort(AbstractS3Storage::compareKeys);
+            boundaries = boundaries.stream().distinct().collect(Collectors.toList());
+        } else if (ranges > 1) {
+            List<String> sample = firstPage.get();
+            boundaries = sample == null ? Collections.emptyList() : calculateBoundaries(prefix, sample, ranges);
+        } else {
+            boundaries = Collections.emptyList();
+        }
+        log.info("listing {} in {} key range(s)", prefix, boundaries.size() + 1);
+        log.debug("key range boundaries: {}", boundaries);
+        return boundaries;
+    }
+
+    /**
+     * Calculates evenly spaced boundaries over the first two characters following the prefix. If the sampled keys look
+     * like hex strings, the hex alphabet is used, otherwise printable ASCII. The first sampled key is the lowest key
+     * in the listing, so the ranges start there. Keys outside the alphabet are still covered, because the first and
+     * last ranges are open-ended
+     */
+    static List<String> calculateBoundaries(String prefix, List<String> sampleKeys, int ranges) {
+        if (sampleKeys.isEmpty()) return Collections.emptyList();
+        int offset = prefix == null ? 0 : prefix.length();
+
+        boolean hex = sampleKeys.stream().map(key -> key.substring(Math.min(offset, key.length())))
+                .allMatch(suffix -> suffix.chars().limit(2).allMatch(c -> HEX_ALPHABET.indexOf(c) >= 0));
+        String alphabet = hex ? HEX_ALPHABET : PRINTABLE_ALPHABET;
+        int base = alphabet.length(), space = base * base;
+
+        // start at the first character of the lowest key
+        String first = sampleKeys.get(0);
+        int start = first.length() > offset ? Math.max(alphabet.indexOf(first.charAt(offset)), 0) * base : 0;
+
+        List<String> boundaries = new ArrayList<>();
+        for (int i = 1; i < ranges; i++) {
+            int position = start + (int) ((long) (space - start) * i / ranges);
+            String boundary = (prefix == null ? "" : prefix) + alphabet.charAt(position / base) + alphabet.charAt(position % base);
+            if (boundaries.isEmpty() || compareKeys(boundary, boundaries.get(boundaries.size() - 1)) > 0)
+                boundaries.add(boundary);
+        }
+        return boundaries;
+    }
+
+    /**
+     * Lists the ranges defined by <code>boundaries</code> concurrently. <code>rangeIterator</code> is called with the
+     * exclusive lower bound (the marker) and the inclusive upper bound of each range (null if open-ended)
+     */
+    Iterator<ObjectSummary> partitionedIterator(List<String> boundaries, BiFunction<String, String, Iterator<ObjectSummary>> rangeIterator) {
+        if (boundaries.isEmpty()) return rangeIterator.apply(null, null);
+        List<Iterable<ObjectSummary>> ranges = new ArrayList<>();
+        for (int i = 0; i <= boundaries.size(); i++) {
+            String startAfter = i == 0 ? null : boundaries.get(i - 1);
+            String endWith = i == boundaries.size() ? null : boundaries.get(i);
+            ranges.add(() -> rangeIterator.apply(startAfter, endWith));
+        }
+        return new PartitionedIterator<>(ranges, getBackgroundExecutor(), PARTITIONED_LISTING_QUEUE_SIZE);
+    }
+
+    /**
+     * Queues the delete of a key in a multi-object delete request shared with other sync threads, if
+     * {@link #isDeleteBatched(SyncObject)}. The returned future completes with this key's result once its batch is
+     * sent
+     */
+    @Override
+    public CompletableFuture<Void> deleteAsync(String identifier, SyncObject object) {
+        if (!isDeleteBatched(object)) return super.deleteAsync(identifier, object);
+        return getDeleteBatcher().delete(identifier);
+    }
+
+    /**
+     * @return whether the delete of this object can be batched (the default is when deleteBatchSize is greater than 1)
+     */
+    boolean isDeleteBatched(SyncObject object) {
+        return getDeleteBatchSize() > 1;
+    }
+
+    private synchronized DeleteBatcher getDeleteBatcher() {
+        if (deleteBatcher == null)
+            deleteBatcher = new DeleteBatcher(Math.min(getDeleteBatchSize(), MAX_DELETION_SUPPORTED),
+                    DELETE_BATCH_MAX_LATENCY_MS, DELETE_BATCH_SENDERS, this::deleteObjects);
+        return deleteBatcher;
+    }
+
+    /**
+     * Makes sure the MPU sizing options are valid (only called on the target)
+     */
+    void validateMpuOptions() {
+        if (getMpuTargetPartCount() < 1 || getMpuTargetPartCount() > MAX_PART_COUNT)
+            throw new ConfigurationException("mpuTargetPartCount must be between 1 and " + MAX_PART_COUNT);
+        if (getMpuSpoolMemoryMb() < 0) throw new ConfigurationException("mpuSpoolMemoryMb cannot be negative");
+        // without the recorded state, every MPU under the target would look stale
+        if (isMpuCleanupEnabled() && !isMpuResumeEnabled())
+            throw new ConfigurationException("mpuCleanupEnabled requires mpuResumeEnabled");
+    }
+
+    /**
+     * @return the part size for an MPU of an object of <code>objectSize</code> bytes (see
+     * {@link #calculatePartSize(long, long, int)})
+     */
+    long getMpuPartSize(long objectSize) {
+        return calculatePartSize(objectSize, (long) getMpuPartSizeMb() * 1024 * 1024, getMpuTargetPartCount());
+    }
+
+    /**
+     * Returns <code>minPartSize</code>, unless the object would need more than <code>targetPartCount</code> parts of
+     * that size, in which case the part size is increased (in whole MB, up to 5GB) so the object fits in that many parts
+     */
+    static long calculatePartSize(long objectSize, long minPartSize, int targetPartCount) {
+        int partCount = Math.min(targetPartCount, MAX_PART_COUNT);
+        if (objectSize <= minPartSize * partCount) return minPartSize;
+        long mb = 1024 * 1024;
+        long partSize = ((objectSize + partCount - 1) / partCount + mb - 1) / mb * mb;
+        return Math.max(minPartSize, Math.min(partSize, MAX_PART_SIZE));
+    }
+
+    /**
+     * Wraps a data stream that can only be read in order, so its parts can be uploaded in parallel. The uploader must
+     * report each uploaded part (see {@link SpooledMultipartSource#partUploaded(int)}). Close the source when the upload
+     * is complete
+     */
+    SpooledMultipartSource spooledMultipartSource(InputStream dataStream, long size, long partSize) {
+        return new SpooledMultipartSource(dataStream, size, partSize, getSpoolMemoryKb(), getBufferPool());
+    }
+
+    /**
+     * Returns a tracker that records the MPU of the object in the DB, so it can be resumed by a later attempt or a
+     * restarted job, or null if MPU state cannot be recorded (there is no shared DB, or the object is a version)
+     */
+    MultipartUploadTracker createMpuTracker(SyncObject object, String targetKey, long partSize) {
+        if (object instanceof S3ObjectVersion) return null;
+        MultipartUploadStateService stateService = getMpuStateService();
+        if (stateService == null) return null;
+        String sourceId = object.getSource().getIdentifier(object.getRelativePath(), object.getMetadata().isDirectory());
+        Date mtime = object.getMetadata().getModificationTime();
+        return new MultipartUploadTracker(stateService, sourceId, targetKey, object.getMetadata().getContentLength(),
+                partSize, mtime == null ? 0 : mtime.getTime());
+    }
+
+    /**
+     * Returns the ID of the recorded upload to resume (see {@link MultipartUploadTracker#getResumableUploadId}). An
+     * obsolete recorded upload is aborted. If the recorded upload no longer exists, null is returned, so this attempt
+     * starts a new upload
+     */
+    String getResumableUploadId(MultipartUploadTracker tracker) {
+        return tracker.getResumableUploadId(upload -> isMultipartUploadPresent(upload.getTargetKey(), upload.getUploadId()),
+                upload -> abortMultipartUpload(upload.getTargetKey(), upload.getUploadId()));
+    }
+
+    private synchronized MultipartUploadStateService getMpuStateService() {
+        if (!mpuStateServiceChecked) {
+            mpuStateServiceChecked = true;
+            DbService dbService = syncJob == null ? null : syncJob.getDbService();
+            if (dbService instanceof AbstractDbService && !(dbService instanceof NoDbService)) {
+                try {
+                    MultipartUploadStateService stateService = new MultipartUploadStateService((AbstractDbService) dbService);
+                    stateService.start();
+                    mpuStateService = stateService;
+                } catch (RuntimeException e) {
+                    log.warn("could not create MPU state tables - MPUs will be resumed without their recorded state", e);
+                }
+            } else {
+                log.info("no shared DB is configured - MPUs will be resumed without their recorded state");
+            }
+        }
+        return mpuStateService;
+    }
+
+    /**
+     * Aborts the MPUs under the key prefix that were initiated before this job started and are not tracked in the DB
+     * (i.e. orphans of a killed or abandoned job). Only called on the target, when mpuCleanupEnabled is set
+     */
+    void abortStaleMpus() {
+        MultipartUploadStateService stateService = getMpuStateService();
+        if (syncJob == null || syncJob.getTarget() != this) return;
+        if (stateService == null || syncJob.getStats().getStartTime() <= 0) {
+            log.warn("cannot tell which MPUs are stale without a shared DB - skipping MPU cleanup");
+            return;
+        }
+        Set<String> trackedUploadIds = stateService.getUploadIds();
+        int aborted = abortMultipartUploads(new Date(syncJob.getStats().getStartTime()), trackedUploadIds);
+        log.info("MPU cleanup: aborted {} stale MPUs ({} MPUs are still tracked)", aborted, trackedUploadIds.size());
+    }
+
+    private synchronized Semaphore getSpoolMemoryKb() {
+        if (spoolMemoryKb == null) spoolMemoryKb = new Semaphore(getMpuSpoolMemoryMb() * 1024);
+        return spoolMemoryKb;
+    }
+
+    /**
+     * Makes sure the packing options are valid (only called on the target)
+     */
+    void validatePackingOptions(boolean includeVersions) {
+        if (getPackThresholdKb() < 0) throw new ConfigurationException("packThresholdKb cannot be negative");
+        if (getPackThresholdKb() == 0) return;
+        if (getPackContainerSizeMb() < 1) throw new ConfigurationException("packContainerSizeMb must be at least 1");
+        if ((long) getPackThresholdKb() * 1024 > (long) getPackContainerSizeMb() * 1024 * 1024)
+            throw new ConfigurationException("packThresholdKb cannot be larger than packContainerSizeMb");
+        if (includeVersions) throw new ConfigurationException("packing does not support includeVersions");
+        // packed objects are acknowledged before their container is written, so the source must keep them until then
+        if (options.isDeleteSource()) throw new ConfigurationException("packing does not support deleteSource");
+        // packed objects are only readable once their container is written
+        if (options.isVerify() || options.isVerifyOnly())
+            throw new ConfigurationException("packing does not support verification");
+    }
+
+    /**
+     * Small objects are packed into containers instead of being written as individual objects (see packThresholdKb).
+     * The returned identifier (which is recorded as the target ID of the object) locates the object in its container.
+     * The object is not recorded as transferred until its container is written (see {@link SyncTask#PROP_PENDING_WRITE})
+     */
+    @Override
+    public String createObject(SyncObject object) {
+        if (!isPackCandidate(object)) return super.createObject(object);
+        try {
+            byte[] data = SyncUtil.readAsBytes(object.getDataStream());
+            PackedEntry entry = getObjectPacker().pack(object.getRelativePath(), data,
+                    object.getMetadata().getModificationTime() == null ? 0 : object.getMetadata().getModificationTime().getTime());
+            log.debug("packed {} into {} at offset {}", object.getRelativePath(), entry.getContainerKey(), entry.getOffset());
+            // the object is only stored once its container is written
+            object.setProperty(SyncTask.PROP_PENDING_WRITE, entry.getWritten());
+            return entry.toIdentifier();
+        } catch (IOException e) {
+            throw new RuntimeException("could not read data of " + object.getRelativePath(), e);
+        }
+    }
+
+    private boolean isPackCandidate(SyncObject object) {
+        return getPackThresholdKb() > 0 && options.isSyncData() && !object.getMetadata().isDirectory()
+                && object.getMetadata().getContentLength() <= (long) getPackThresholdKb() * 1024;
+    }
+
+    private synchronized ObjectPacker getObjectPacker() {
+        if (objectPacker == null) {
+            // container keys are unique per job (and ordered within it)
+            String jobId = UUID.randomUUID().toString();
+            AtomicInteger containerCount = new AtomicInteger();
+            objectPacker = new ObjectPacker((long) getPackContainerSizeMb() * 1024 * 1024,
+                    () -> getIdentifier(String.format("%s%s-%08d%s", PACK_DIRECTORY, jobId,
+                            containerCount.incrementAndGet(), PackedEntry.CONTAINER_SUFFIX), false),
+                    this::writeContainer, this::containerFailed);
+        }
+        return objectPacker;
+    }
+
+    /*
+     * the container is written before its index, so an index always points to a complete container
+     */
+    private void writeContainer(PackedContainer container) {
+        putRawObject(container.getKey(), container.toTar(), TYPE_TAR);
+        putRawObject(container.getKey() + PackedContainer.INDEX_SUFFIX, container.toIndex(), "text/plain");
+        writtenContainers.add(container.getKey());
+        log.info("wrote container {} ({} objects, {} bytes)", container.getKey(), container.getEntries().size(), container.size());
+    }
+
+    private void containerFailed(PackedContainer container, RuntimeException e) {
+        log.error("could not write container " + container.getKey() + "; its " + container.getEntries().size()
+                + " objects were not stored", e);
+        for (PackedEntry entry : container.getEntries()) {
+            log.error("O--! object {} was lost with container {}", entry.getRelativePath(), container.getKey());
+            // (its DB record is marked as an error by its sync task, which waits for the container)
+            if (syncJob != null) {
+                // the object was already counted as complete when it was packed
+                syncJob.getStats().failCompletedObject(entry.getLength());
+                syncJob.getStats().addFailedObject(entry.getRelativePath());
+            }
+        }
+    }
+
+    /**
+     * Writes the last (partial) container. Must be called before the S3 client is shut down
+     */
+    void flushPackedObjects() {
+        ObjectPacker packer;
+        synchronized (this) {
+            packer = objectPacker;
+        }
+        if (packer != null) packer.flush();
+    }
+
+    /*
+     * a container is available if this job is still filling or writing it (its objects are only read after it is
+     * written), or if its index exists (the index is written after the container, so the container is complete)
+     */
+    private boolean isContainerAvailable(String containerKey) {
+        if (writtenContainers.contains(containerKey)) return true;
+        ObjectPacker packer;
+        synchronized (this) {
+            packer = objectPacker;
+        }
+        if (packer != null && packer.isUnwritten(containerKey)) return true;
+        if (!rawObjectExists(containerKey + PackedContainer.INDEX_SUFFIX)) return false;
+        writtenContainers.add(containerKey);
+        return true;
+    }
+
+    /**
+     * A packed object cannot be updated in its container, so if it is outdated, it is packed again as a new object
+     * (TargetFilter creates the object when it is not found)
+     */
+    @Override
+    public void beforeUpdate(ObjectContext objectContext, SyncObject targetObject) {
+        super.beforeUpdate(objectContext, targetObject);
+        if (isPackedObject(objectContext.getTargetId()))
+            throw new ObjectNotFoundException(objectContext.getTargetId());
+    }
+
+    /**
+     * Lists the objects in all packed containers under the key prefix (for unpackContainers), using the listing of the
+     * container directory
+     */
+    Iterator<ObjectSummary> packedObjects(Iterator<ObjectSummary> containerListing) {
+        return new ReadOnlyIterator<ObjectSummary>() {
+            private Iterator<PackedEntry> entries = Collections.emptyIterator();
+
+            @Override
+            protected ObjectSummary getNextObject() {
+                while (!entries.hasNext()) {
+                    if (!containerListing.hasNext()) return null;
+                    String key = containerListing.next().getIdentifier();
+                    if (!key.endsWith(PackedEntry.CONTAINER_SUFFIX + PackedContainer.INDEX_SUFFIX)) continue;
+                    String containerKey = key.substring(0, key.length() - PackedContainer.INDEX_SUFFIX.length());
+                    try (InputStream index = getRawStream(key, 0, -1)) {
+                        entries = PackedContainer.parseIndex(containerKey, index).iterator();
+                    } catch (IOException e) {
+                        throw new RuntimeException("could not read index " + key, e);
+                    }
+                }
+                PackedEntry entry = entries.next();
+                return new ObjectSummary(entry.toIdentifier(), false, entry.getLength());
+            }
+        };
+    }
+
+    /**
+     * @return whether the identifier locates a packed object. The source only reads packed objects with
+     * unpackContainers; the target resolves the packed target IDs that are recorded in the DB (i.e. on a re-run)
+     */
+    boolean isPackedObject(String identifier) {
+        return (getRole() == RoleType.Target || isUnpackContainers()) && PackedEntry.isPackedIdentifier(identifier);
+    }
+
+    /**
+     * Loads an object from its container (for unpackContainers, or a packed target ID). Only the data and mtime are
+     * stored in a container
+     *
+     * @throws ObjectNotFoundException if the container was never completely written (i.e. it failed or the job was
+     *                                 killed before it was written)
+     */
+    SyncObject loadPackedObject(String identifier) throws ObjectNotFoundException {
+        PackedEntry entry = PackedEntry.fromIdentifier(identifier);
+        if (!isContainerAvailable(entry.getContainerKey())) throw new ObjectNotFoundException(identifier);
+        ObjectMetadata metadata = new ObjectMetadata().withContentLength(entry.getLength())
+                .withModificationTime(new Date(entry.getMtime())).withContentType("application/octet-stream");
+        SyncObject object = new SyncObject(this, entry.getRelativePath(), metadata);
+        object.setAcl(new ObjectAcl());
+        object.setLazyStream(() -> getRawStream(entry.getContainerKey(), entry.getOffset(), entry.getLength()));
+        return object;
+    }
+
+    /**
+     * Splits keys (or key-versions) into batches that fit in one multi-object delete request
+     */
+    static <T> List<List<T>> toDeleteBatches(List<T> keys) {
+        List<List<T>> batches = new ArrayList<>();
+        for (int start = 0; start < keys.size(); start += MAX_DELETION_SUPPORTED) {
+            batches.add(keys.subList(start, Math.min(start + MAX_DELETION_SUPPORTED, keys.size())));
+        }
+        return batches;
+    }
+
+    private synchronized ExecutorService getBackgroundExecutor() {
+        if (backgroundExecutor == null) {
+            AtomicInteger threadCount = new AtomicInteger();
+            backgroundExecutor = Executors.newCachedThreadPool(r -> {
+                Thread thread = new Thread(r, "s3-background-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return backgroundExecutor;
+    }
+
+    /**
+     * Compares keys in the order S3 lists them (by UTF-8 bytes, which is the same as by code point)
+     */
+    static int compareKeys(String key1, String key2) {
+        int i = 0, j = 0;
+        while (i < key1.length() && j < key2.length()) {
+            int c1 = key1.codePointAt(i), c2 = key2.codePointAt(j);
+            if (c1 != c2) return Integer.compare(c1, c2);
+            i += Character.charCount(c1);
+            j += Character.charCount(c2);
+        }
+        return Integer.compare(key1.length() - i, key2.length() - j);
+    }
+
     boolean isDirectoryPlaceholder(String contentType, long size) {
         return TYPE_DIRECTORY.equals(contentType) && size == 0;
     }
 
+    /**
+     * In directoryMode, common prefixes are enumerated as directories, but most of them have no placeholder object.
+     * This creates an empty directory object for such a prefix, so it can be synced like any other directory. A
+     * <code>synthetic</code> directory (one without any placeholder in the source) is skipped by S3 targets, which
+     * would otherwise create a placeholder that never existed (see {@link #isSyntheticDirectory(SyncObject)})
+     */
+    SyncObject createPrefixObject(String prefix, boolean synthetic) {
+        com.emc.ecs.sync.model.ObjectMetadata metadata = new com.emc.ecs.sync.model.ObjectMetadata();
+        metadata.setDirectory(true);
+        metadata.setContentLength(0);
+        metadata.setContentType(TYPE_DIRECTORY);
+        SyncObject object = new SyncObject(this, getRelativePath(prefix, true), metadata);
+        object.setLazyStream(() -> new ByteArrayInputStream(new byte[0]));
+        if (synthetic) object.setProperty(PROP_SYNTHETIC_DIRECTORY, Boolean.TRUE);
+        return object;
+    }
+
+    static boolean isSyntheticDirectory(SyncObject object) {
+        return Boolean.TRUE.equals(object.getProperty(PROP_SYNTHETIC_DIRECTORY));
+    }
+
+    /**
+     * Writes all non-current versions remaining in <code>versions</code> to the target, in order. While a version is
+     * written, the data of the next few small versions is read ahead from the source (see versionConcurrency)
+     */
     void putIntermediateVersions(ListIterator<S3ObjectVersion> versions, final String key) {
+        // source has more versions; add any non-current versions that are missing from the target
+        // (current version will be added by the caller)
+        List<S3ObjectVersion> pending = new ArrayList<>();
         while (versions.hasNext()) {
             S3ObjectVersion version = versions.next();
-            try {
-                if (!version.isLatest()) {
-                    // source has more versions; add any non-current versions that are missing from the target
-                    // (current version will be added below)
+            if (!version.isLatest()) pending.add(version);
+        }
+
+        int readAheadCount = getVersionConcurrency() - 1;
+        Map<Integer, Future<?>> readAheads = new HashMap<>();
+        try {
+            for (int i = 0; i < pending.size(); i++) {
+                for (int j = i + 1; j <= i + readAheadCount && j < pending.size(); j++) {
+                    S3ObjectVersion next = pending.get(j);
+                    if (!readAheads.containsKey(j) && isReadAheadCandidate(next))
+                        readAheads.put(j, getBackgroundExecutor().submit(() -> readAhead(next)));
+                }
+
+                S3ObjectVersion version = pending.get(i);
+                Future<?> readAhead = readAheads.remove(i);
+                if (readAhead != null) getResult(readAhead);
+                try {
                     if (version.isDeleteMarker()) {
                         log.debug("[{}#{}]: deleting object in target to replicate delete marker in source.",
                                 key, version.getVersionId());
@@ -143,10 +741,76 @@ public abstract class AbstractS3Storage<C> extends AbstractStorage<C> {
                                 key, version.getVersionId());
                         putObject(version, key);
                     }
+                } catch (RuntimeException e) {
+                    throw new RuntimeException(String.format("sync of historical version %s failed", version.getVersionId()), e);
                 }
-            } catch (RuntimeException e) {
-                throw new RuntimeException(String.format("sync of historical version %s failed", version.getVersionId()), e);
             }
+        } finally {
+            for (Future<?> readAhead : readAheads.values()) {
+                readAhead.cancel(true);
+            }
+        }
+    }
+
+    boolean isReadAheadCandidate(S3ObjectVersion version) {
+        return options.isSyncData() && !version.isDeleteMarker() && !version.getMetadata().isDirectory()
+                && version.getMetadata().getContentLength() > 0
+                && version.getMetadata().getContentLength() <= VERSION_READ_AHEAD_MAX_SIZE;
+    }
+
+    /**
+     * Reads the data of a version into memory. If that fails, the version is reset so its data is read again (from
+     * the source) when it is written
+     */
+    private void readAhead(S3ObjectVersion version) {
+        try (InputStream stream = version.getDataStream()) {
+            byte[] data = SyncUtil.readAsBytes(stream);
+            // the data was already counted and throttled while it was read
+            version.setPrefetchedDataStream(new ByteArrayInputStream(data));
+        } catch (Exception e) {
+            log.info("[{}#{}]: could not read ahead version data; will read it again when writing: {}",
+                    version.getRelativePath(), version.getVersionId(), e.toString());
+            version.setDataStream(null);
+        }
+    }
+
+    /**
+     * Calls <code>loader</code> for each of the <code>items</code>, with up to versionConcurrency calls in flight, and
+     * returns the results in the same order
+     */
+    <T, R> List<R> loadConcurrently(List<T> items, Function<T, R> loader) {
+        int concurrency = Math.min(getVersionConcurrency(), items.size());
+        if (concurrency <= 1) return items.stream().map(loader).collect(Collectors.toList());
+
+        List<Future<R>> futures = new ArrayList<>();
+        List<R> results = new ArrayList<>();
+        try {
+            for (T item : items) {
+                if (futures.size() - results.size() >= concurrency) results.add(getResult(futures.get(results.size())));
+                futures.add(getBackgroundExecutor().submit(() -> loader.apply(item)));
+            }
+            while (results.size() < futures.size()) {
+                results.add(getResult(futures.get(results.size())));
+            }
+            return results;
+        } finally {
+            // only affects calls that are still running (if one of them failed)
+            for (Future<R> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    private static <R> R getResult(Future<R> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("interrupted while waiting for a background task", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            if (e.getCause() instanceof Error) throw (Error) e.getCause();
+            throw new RuntimeException(e.getCause());
         }
     }
 
@@ -222,28 +886,23 @@ public abstract class AbstractS3Storage<C> extends AbstractStorage<C> {
         return isMpuPresent && !isRetriable;
     }
 
-    protected class ByteTransferListener implements ProgressListener {
-        private final SyncObject object;
-
-        ByteTransferListener(SyncObject object) {
-            this.object = object;
-        }
+    /**
+     * Returns true if verification will compare the multipart ETag of target objects (instead of reading them back), so
+     * MPU data streams should be wrapped to calculate the part MD5s (see {@link SyncObject#setCompositeMd5Hex(String)})
+     */
+    protected boolean isMultipartEtagVerified() {
+        return options.isVerify() && options.isUseMetadataChecksumForVerification();
+    }
 
+    protected class ByteTransferListener implements ProgressListener {
         @Override
         public void progress(long completed, long total) {
         }
 
         @Override
         public void transferred(long size) {
-            if (sourceReadWindow != null) sourceReadWindow.increment(size);
+            // the source-read window and the object's bytes-read are updated by the object's ranged source
             if (options.isMonitorPerformance()) getWriteWindow().increment(size);
-            synchronized (object) {
-                // these events will include XML payload for MPU (no way to differentiate)
-                // do not set bytesRead to more then the object size
-                object.setBytesRead(object.getBytesRead() + size);
-                if (object.getBytesRead() > object.getMetadata().getContentLength())
-                    object.setBytesRead(object.getMetadata().getContentLength());
-            }
         }
     }
 }
@@ -55,6 +55,16 @@ public class AwsS3LargeFileUploader extends LargeFileUploader {
      */
     private AccessControlList acl;
 
+    /**
+     * An optional tracker to record the progress of the MPU, so it can be resumed from its recorded state
+     */
+    private MultipartUploadTracker tracker;
+
+    /**
+     * Set when the parts are read from a spooled source, which keeps each part until it is uploaded
+     */
+    private final SpooledMultipartSource spooledSource;
+
     /**
      * Creates a new AwsS3LargeFileUpload instance using the specified <code>s3Client</code> to upload
      * <code>file</code> to <code>bucket/key</code>.
@@ -71,6 +81,7 @@ public class AwsS3LargeFileUploader extends LargeFileUploader {
     public AwsS3LargeFileUploader(AmazonS3 s3Client, String bucket, String key, InputStream stream, long size) {
         super(null, bucket, key, stream, size);
         this.s3 =s3Client;
+        this.spooledSource = null;
     }
 
     /**
@@ -82,6 +93,7 @@ public class AwsS3LargeFileUploader extends LargeFileUploader {
     public AwsS3LargeFileUploader(AmazonS3 s3Client, String bucket, String key, LargeFileMultipartSource multipartSource) {
         super(null, bucket, key, multipartSource);
         this.s3 = s3Client;
+        this.spooledSource = multipartSource instanceof SpooledMultipartSource ? (SpooledMultipartSource) multipartSource : null;
     }
 
     @Override
@@ -160,6 +172,19 @@ public class AwsS3LargeFileUploader extends LargeFileUploader {
         return this;
     }
 
+    public MultipartUploadTracker getTracker() {
+        return tracker;
+    }
+
+    public void setTracker(MultipartUploadTracker tracker) {
+        this.tracker = tracker;
+    }
+
+    public AwsS3LargeFileUploader withTracker(MultipartUploadTracker tracker) {
+        setTracker(tracker);
+        return this;
+    }
+
     @Override
     public AwsS3LargeFileUploader withResumeContext(LargeFileUploaderResumeContext resumeContext) {
         setResumeContext(resumeContext);
@@ -205,6 +230,7 @@ public class AwsS3LargeFileUploader extends LargeFileUploader {
             }
         } while (partListing.isTruncated());
 
+        if (tracker != null) return tracker.filterParts(uploadId, partList);
         return partList;
     }
 
@@ -214,7 +240,9 @@ public class AwsS3LargeFileUploader extends LargeFileUploader {
         initRequest.setObjectMetadata(getAwsS3ObjectMetadata());
         initRequest.setAccessControlList(getAwsS3Acl());
         initRequest.setCannedACL(getAwsS3CannedAcl());
-        return s3.initiateMultipartUpload(initRequest).getUploadId();
+        String uploadId = s3.initiateMultipartUpload(initRequest).getUploadId();
+        if (tracker != null) tracker.uploadInitiated(uploadId);
+        return uploadId;
     }
 
     @Override
@@ -222,6 +250,8 @@ public class AwsS3LargeFileUploader extends LargeFileUploader {
         UploadPartRequest request = new UploadPartRequest().withBucketName(getBucket()).withKey(getKey()).withUploadId(uploadId).withPartSize(length)
                         .withPartNumber(partNumber).withInputStream(is);
         UploadPartResult result = s3.uploadPart(request);
+        if (tracker != null) tracker.partUploaded(uploadId, partNumber, result.getETag());
+        if (spooledSource != null) spooledSource.partUploaded(partNumber);
         return new MultipartPartETag(result.getPartNumber(), result.getETag());
     }
 
@@ -233,6 +263,7 @@ public class AwsS3LargeFileUploader extends LargeFileUploader {
         }
         CompleteMultipartUploadRequest request = new CompleteMultipartUploadRequest(getBucket(), getKey(), uploadId, partETags);
         CompleteMultipartUploadResult result = s3.completeMultipartUpload(request);
+        if (tracker != null) tracker.uploadFinished(uploadId);
 
         // translate to ECS result
         MultiValueMap<String, String> headers = new MultiValueMap<>();
@@ -249,6 +280,7 @@ public class AwsS3LargeFileUploader extends LargeFileUploader {
     @Override
     protected void abortMpu(String uploadId) {
         s3.abortMultipartUpload(new AbortMultipartUploadRequest(getBucket(), getKey(), uploadId));
+        if (tracker != null) tracker.uploadFinished(uploadId);
     }
 
     @Override
@@ -29,6 +29,7 @@ import com.amazonaws.services.s3.model.*;
 import com.amazonaws.services.s3.transfer.TransferManager;
 import com.amazonaws.services.s3.transfer.TransferManagerBuilder;
 import com.emc.ecs.sync.NonRetriableException;
+import com.emc.ecs.sync.SkipObjectException;
 import com.emc.ecs.sync.config.ConfigurationException;
 import com.emc.ecs.sync.config.SyncOptions;
 import com.emc.ecs.sync.config.storage.AwsS3Config;
@@ -39,11 +40,11 @@ import com.emc.ecs.sync.filter.SyncFilter;
 import com.emc.ecs.sync.model.Checksum;
 import com.emc.ecs.sync.model.ObjectAcl;
 import com.emc.ecs.sync.model.ObjectSummary;
+import com.emc.ecs.sync.model.RangedSource;
 import com.emc.ecs.sync.model.SyncObject;
 import com.emc.ecs.sync.storage.ObjectNotFoundException;
 import com.emc.ecs.sync.storage.SyncStorage;
 import com.emc.ecs.sync.util.*;
-import com.emc.object.s3.lfu.LargeFileMultipartSource;
 import com.emc.object.s3.lfu.LargeFileUpload;
 import com.emc.object.s3.lfu.LargeFileUploaderResumeContext;
 import com.emc.object.util.ProgressInputStream;
@@ -52,13 +53,13 @@ import org.slf4j.LoggerFactory;
 
 import javax.net.ssl.SSLContext;
 import java.io.ByteArrayInputStream;
-import java.io.File;
 import java.io.InputStream;
 import java.util.*;
 import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 public class AwsS3Storage extends AbstractS3Storage<AwsS3Config> implements OptionChangeListener {
     private static final Logger log = LoggerFactory.getLogger(AwsS3Storage.class);
@@ -76,13 +77,20 @@ public class AwsS3Storage extends AbstractS3Storage<AwsS3Config> implements Opti
     public static final String OPERATION_WRITE_OBJECT = "AwsS3WriteObject";
     public static final String OPERATION_DELETE_VERSIONS = "AwsS3DeleteVersions";
     public static final String OPERATION_DELETE_OBJECT = "AwsS3DeleteObject";
+    public static final String OPERATION_DELETE_OBJECTS = "AwsS3DeleteObjects";
+    public static final String OPERATION_PUT_CONTAINER = "AwsS3PutContainer";
+    public static final String OPERATION_READ_CONTAINER = "AwsS3ReadContainer";
     public static final String OPERATION_UPDATE_METADATA = "AwsS3UpdateMetadata";
+    public static final String OPERATION_SERVER_SIDE_COPY = "AwsS3ServerSideCopy";
 
     public static final String ERROR_CODE_OBJECT_TOO_LARGE = "AwsS3ObjectTooLarge";
 
     private AmazonS3 s3;
     private List<Pattern> excludedKeyPatterns;
     private EnhancedThreadPoolExecutor mpuThreadPool;
+    private TransferManager transferManager;
+    private AwsS3Storage serverSideCopySource;
+    private volatile boolean serverSideCopyDenied;
 
     @Override
     public void configure(SyncStorage<?> source, Iterator<? extends SyncFilter<?>> filters, SyncStorage<?> target) {
@@ -107,6 +115,11 @@ public class AwsS3Storage extends AbstractS3Storage<AwsS3Config> implements Opti
             throw new ConfigurationException(config.getBucketName() + " is not a valid bucket name");
         }
 
+        if (config.getListingRanges() < 1) throw new ConfigurationException("listingRanges must be at least 1");
+        if (config.getVersionConcurrency() < 1) throw new ConfigurationException("versionConcurrency must be at least 1");
+        if (config.getDeleteBatchSize() < 1 || config.getDeleteBatchSize() > MAX_DELETION_SUPPORTED)
+            throw new ConfigurationException("deleteBatchSize must be between 1 and " + MAX_DELETION_SUPPORTED);
+
         AwsS3CredentialsProviderChain.Builder providerChainBuilder = AwsS3CredentialsProviderChain.builder();
 
         // if session-token is present, use session credentials as auth
@@ -222,6 +235,17 @@ public class AwsS3Storage extends AbstractS3Storage<AwsS3Config> implements Opti
                         config.getMpuPartSizeMb(), MIN_PART_SIZE_MB);
                 config.setMpuPartSizeMb(MIN_PART_SIZE_MB);
             }
+
+            validatePackingOptions(config.isIncludeVersions());
+            validateMpuOptions();
+
+            if (config.isServerSideCopy()) {
+                if (source instanceof AwsS3Storage && isSameEndpoint(((AwsS3Storage) source).getConfig())) {
+                    serverSideCopySource = (AwsS3Storage) source;
+                } else {
+                    log.warn("serverSideCopy is enabled, but the source is not a bucket on the same S3 endpoint with the same credentials - object data will be streamed");
+                }
+            }
         }
 
         // make sure bucket exists
@@ -252,11 +276,27 @@ public class AwsS3Storage extends AbstractS3Storage<AwsS3Config> implements Opti
 
     @Override
     public void close() {
+        try {
+            flushPackedObjects();
+        } catch (Exception e) {
+            log.error("could not write the last packed container", e);
+        }
+        try {
+            if (config.isMpuCleanupEnabled() && s3 != null) abortStaleMpus();
+        } catch (Exception e) {
+            log.warn("could not abort stale MPUs", e);
+        }
         try {
             if (mpuThreadPool != null) mpuThreadPool.shutdown();
         } catch (Exception e) {
             log.warn("could not shutdown MPU thread pool", e);
         }
+        try {
+            // the S3 client is shut down below
+            if (transferManager != null) transferManager.shutdownNow(false);
+        } catch (Exception e) {
+            log.warn("could not shutdown transfer manager", e);
+        }
         try {
             if (s3 != null) s3.shutdown();
         } catch (Exception e) {
@@ -267,6 +307,8 @@ public class AwsS3Storage extends AbstractS3Storage<AwsS3Config> implements Opti
 
     @Override
     public String getRelativePath(String identifier, boolean directory) {
+        if (isPackedObject(identifier))
+            return PackedEntry.fromIdentifier(identifier).getRelativePath();
         String relativePath = identifier;
         if (relativePath.startsWith(config.getKeyPrefix()))
             relativePath = relativePath.substring(config.getKeyPrefix().length());
@@ -293,22 +335,62 @@ public class AwsS3Storage extends AbstractS3Storage<AwsS3Config> implements Opti
 
     @Override
     public Iterable<ObjectSummary> allObjects() {
-        if (config.isIncludeVersions()) {
-            return () -> new CombinedIterator<>(Arrays.asList(new PrefixIterator(config.getKeyPrefix()), new DeletedObjectIterator(config.getKeyPrefix())));
+        if (config.isUnpackContainers()) {
+            return () -> packedObjects(new PrefixIterator(config.getKeyPrefix() + PACK_DIRECTORY, false));
+        } else if (config.isIncludeVersions()) {
+            // delete markers are always found with a flat listing (directoryMode only applies to current objects)
+            return () -> new CombinedIterator<>(Arrays.asList(listCurrentObjects(), new DeletedObjectIterator(config.getKeyPrefix())));
         } else {
-            return () -> new PrefixIterator(config.getKeyPrefix());
+            return this::listCurrentObjects;
         }
     }
 
-    // TODO: implement directoryMode, using prefix+delimiter
+    private Iterator<ObjectSummary> listCurrentObjects() {
+        if (config.isDirectoryMode() || (config.getListingRanges() <= 1 && config.getListingSplitFile() == null))
+            return new PrefixIterator(config.getKeyPrefix(), config.isDirectoryMode());
+        List<String> boundaries = getListingBoundaries(config.getKeyPrefix(), config.getListingRanges(),
+                config.getListingSplitFile(), this::sampleFirstPage);
+        return partitionedIterator(boundaries, (startAfter, endWith) ->
+                new PrefixIterator(config.getKeyPrefix(), false, startAfter, endWith));
+    }
+
+    /**
+     * @return the keys of the first listing page, or null if there is only one page
+     */
+    private List<String> sampleFirstPage() {
+        ObjectListing listing = time(() -> s3.listObjects(new ListObjectsRequest().withBucketName(config.getBucketName())
+                .withPrefix("".equals(config.getKeyPrefix()) ? null : config.getKeyPrefix())), OPERATION_LIST_OBJECTS);
+        if (!listing.isTruncated()) return null;
+        return listing.getObjectSummaries().stream().map(S3ObjectSummary::getKey).collect(Collectors.toList());
+    }
+
+    /**
+     * In directoryMode, lists the next level under a common prefix (directory); otherwise the flat listing in
+     * {@link #allObjects()} already includes everything
+     */
     @Override
     public Iterable<ObjectSummary> children(ObjectSummary parent) {
+        if (config.isDirectoryMode() && parent.isDirectory())
+            return () -> new PrefixIterator(parent.getIdentifier(), true);
         return Collections.emptyList();
     }
 
     @Override
     public SyncObject loadObject(String identifier) throws ObjectNotFoundException {
-        return loadObject(identifier, config.isIncludeVersions());
+        if (isPackedObject(identifier))
+            return loadPackedObject(identifier);
+        if (!config.isDirectoryMode() || !identifier.endsWith(DELIMITER))
+            return loadObject(identifier, config.isIncludeVersions());
+        try {
+            SyncObject object = loadObject(identifier, config.isIncludeVersions());
+            // an empty marker object that is not a proper directory placeholder
+            if (!object.getMetadata().isDirectory() && object.getMetadata().getContentLength() == 0)
+                return createPrefixObject(identifier, false);
+            return object;
+        } catch (ObjectNotFoundException e) {
+            // a common prefix without a placeholder object
+            return createPrefixObject(identifier, true);
+        }
     }
 
     @Override
@@ -336,22 +418,29 @@ public class AwsS3Storage extends AbstractS3Storage<AwsS3Config> implements Opti
 
         object.setLazyStream(() -> getS3DataStream(key, versionId));
 
+        if (!metadata.isDirectory()) object.setRangedSource(getRangedSource(key, versionId, metadata));
+
         return object;
     }
 
     @Override
     List<S3ObjectVersion> loadVersions(final String key) {
-        List<S3ObjectVersion> versions = new ArrayList<>();
+        List<S3VersionSummary> summaries = getS3Versions(key);
+        // load the metadata of all versions concurrently
+        List<S3ObjectVersion> loadedVersions = loadConcurrently(summaries, summary ->
+                summary.isDeleteMarker() ? null : (S3ObjectVersion) loadObject(key, summary.getVersionId()));
 
+        List<S3ObjectVersion> versions = new ArrayList<>();
         boolean directory = false; // delete markers won't have any metadata, so keep track of directory status
-        for (S3VersionSummary summary : getS3Versions(key)) {
+        for (int i = 0; i < summaries.size(); i++) {
+            S3VersionSummary summary = summaries.get(i);
             S3ObjectVersion version;
             if (summary.isDeleteMarker()) {
                 version = new S3ObjectVersion(this, getRelativePath(key, directory),
                         new com.emc.ecs.sync.model.ObjectMetadata().withModificationTime(summary.getLastModified())
                                 .withContentLength(0).withDirectory(directory));
             } else {
-                version = (S3ObjectVersion) loadObject(key, summary.getVersionId());
+                version = loadedVersions.get(i);
                 // interestingly, S3 list results will include milliseconds in the mtime, but the actual object
                 // Last-Modified header will be truncated.. so we'll replace that here for an accurate sorting
                 version.getMetadata().setModificationTime(summary.getLastModified());
@@ -369,6 +458,106 @@ public class AwsS3Storage extends AbstractS3Storage<AwsS3Config> implements Opti
         return versions;
     }
 
+    @Override
+    int getVersionConcurrency() {
+        return config.getVersionConcurrency();
+    }
+
+    @Override
+    int getDeleteBatchSize() {
+        return config.getDeleteBatchSize();
+    }
+
+    @Override
+    Map<String, RuntimeException> deleteObjects(List<String> keys) {
+        Map<String, RuntimeException> errors = new HashMap<>();
+        try {
+            time(() -> s3.deleteObjects(new DeleteObjectsRequest(config.getBucketName())
+                    .withKeys(keys.toArray(new String[0])).withQuiet(true)), OPERATION_DELETE_OBJECTS);
+        } catch (MultiObjectDeleteException e) {
+            for (MultiObjectDeleteException.DeleteError error : e.getErrors()) {
+                errors.put(error.getKey(), new RuntimeException(String.format("could not delete %s: %s (%s)",
+                        error.getKey(), error.getMessage(), error.getCode())));
+            }
+        }
+        return errors;
+    }
+
+    @Override
+    int getPackThresholdKb() {
+        return config.getPackThresholdKb();
+    }
+
+    @Override
+    int getPackContainerSizeMb() {
+        return config.getPackContainerSizeMb();
+    }
+
+    @Override
+    int getMpuPartSizeMb() {
+        return config.getMpuPartSizeMb();
+    }
+
+    @Override
+    int getMpuTargetPartCount() {
+        return config.getMpuTargetPartCount();
+    }
+
+    @Override
+    int getMpuSpoolMemoryMb() {
+        return config.getMpuSpoolMemoryMb();
+    }
+
+    @Override
+    boolean isMpuResumeEnabled() {
+        return config.isMpuResumeEnabled();
+    }
+
+    @Override
+    boolean isMpuCleanupEnabled() {
+        return config.isMpuCleanupEnabled();
+    }
+
+    @Override
+    void putRawObject(String key, byte[] data, String contentType) {
+        ObjectMetadata om = new ObjectMetadata();
+        om.setContentLength(data.length);
+        om.setContentType(contentType);
+        if (config.isSseS3Enabled()) om.setSSEAlgorithm(ObjectMetadata.AES_256_SERVER_SIDE_ENCRYPTION);
+        time(() -> s3.putObject(new PutObjectRequest(config.getBucketName(), key, new ByteArrayInputStream(data), om)),
+                OPERATION_PUT_CONTAINER);
+    }
+
+    @Override
+    InputStream getRawStream(String key, long offset, long length) {
+        if (length == 0) return new ByteArrayInputStream(new byte[0]);
+        GetObjectRequest request = new GetObjectRequest(config.getBucketName(), key);
+        if (length > 0) request.setRange(offset, offset + length - 1);
+        return time(() -> s3.getObject(request).getObjectContent(), OPERATION_READ_CONTAINER);
+    }
+
+    @Override
+    boolean rawObjectExists(String key) {
+        try {
+            time(() -> s3.getObjectMetadata(config.getBucketName(), key), OPERATION_HEAD_OBJECT);
+            return true;
+        } catch (AmazonS3Exception e) {
+            if (e.getStatusCode() == 404) return false;
+            throw e;
+        }
+    }
+
+    @Override
+    boolean isUnpackContainers() {
+        return config.isUnpackContainers();
+    }
+
+    @Override
+    boolean isReadAheadCandidate(S3ObjectVersion version) {
+        // server-side copy does not read the source data
+        return !isServerSideCopyPossible(version) && super.isReadAheadCandidate(version);
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public void updateObject(final String identifier, SyncObject object) {
@@ -385,6 +574,12 @@ public class AwsS3Storage extends AbstractS3Storage<AwsS3Config> implements Opti
                 return;
             }
 
+            // a common prefix of an S3 source in directoryMode, which has no placeholder to copy
+            if (isSyntheticDirectory(object)) {
+                log.debug("{} is a prefix without a placeholder object; skipping", object.getRelativePath());
+                throw new SkipObjectException("source directory has no placeholder object");
+            }
+
             List<S3ObjectVersion> sourceVersionList = (List<S3ObjectVersion>) object.getProperty(PROP_OBJECT_VERSIONS);
             if (config.isIncludeVersions() && sourceVersionList != null) {
                 ListIterator<S3ObjectVersion> sourceVersions = sourceVersionList.listIterator();
@@ -447,9 +642,9 @@ public class AwsS3Storage extends AbstractS3Storage<AwsS3Config> implements Opti
 
                     // batch delete all versions in target
                     log.debug("[{}]: deleting all versions in target", object.getRelativePath());
-                    if (!deleteVersions.isEmpty()) {
+                    for (List<DeleteObjectsRequest.KeyVersion> batch : toDeleteBatches(deleteVersions)) {
                         operationWrapper((Function<Void>) () -> {
-                            s3.deleteObjects(new DeleteObjectsRequest(config.getBucketName()).withKeys(deleteVersions));
+                            s3.deleteObjects(new DeleteObjectsRequest(config.getBucketName()).withKeys(batch));
                             return null;
                         }, OPERATION_DELETE_VERSIONS, object, identifier);
                     }
@@ -509,8 +704,6 @@ public class AwsS3Storage extends AbstractS3Storage<AwsS3Config> implements Opti
 
         if (obj.getProperty(PROP_SOURCE_ETAG_MATCHES) != null && (Boolean) obj.getProperty(PROP_SOURCE_ETAG_MATCHES)) {
             // target data already matches source, so we only need to update metadata
-            // the ECS LFU doesn't support MPU copy, so we have to use the AWS TM
-            TransferManager transferManager = TransferManagerBuilder.standard().withS3Client(s3).build();
             CopyObjectRequest copyRequest = new CopyObjectRequest(config.getBucketName(), targetKey, config.getBucketName(), targetKey)
                     .withNewObjectMetadata(om);
 
@@ -518,19 +711,27 @@ public class AwsS3Storage extends AbstractS3Storage<AwsS3Config> implements Opti
                 copyRequest.setAccessControlList(s3AclFromSyncAcl(obj.getAcl(), options.isIgnoreInvalidAcls()));
 
             operationWrapper((Function<Void>) () -> {
-                try {
-                    // NOTE: default MPU copy threshold is 5GB (max object size), which is what we want
-                    transferManager.copy(copyRequest).waitForCompletion();
-                    return null;
-                } catch (InterruptedException e) {
-                    // this is most likely due to the job getting terminated early, or some unknown condition we can't handle
-                    throw new RuntimeException(e);
-                }
+                // a single PUT-copy is limited to 5GB, so larger objects are copied in parts by the TM
+                // (the ECS LFU doesn't support MPU copy either, so we have to use the AWS TM)
+                if (obj.getMetadata().getContentLength() < (long) MAX_PUT_SIZE_MB * 1024 * 1024)
+                    s3.copyObject(copyRequest);
+                else
+                    copy(copyRequest);
+                return null;
             }, OPERATION_UPDATE_METADATA, obj, targetKey);
 
+        } else if (isServerSideCopyPossible(obj) && serverSideCopy(obj, targetKey, om)) {
+            log.debug("Copied {} server-side", targetKey);
         } else {
 
             AwsS3LargeFileUploader uploader;
+            long partSize = getMpuPartSize(obj.getMetadata().getContentLength()), mpuThreshold = (long) config.getMpuThresholdMb() * 1024 * 1024;
+            MultipartMd5InputStream partMd5Stream = null;
+            SpooledMultipartSource spooledSource = null;
+            // records the state of the MPU in the DB, so it can be resumed (null if there is no shared DB)
+            MultipartUploadTracker tracker = null;
+            if (config.isMpuResumeEnabled() && !obj.getMetadata().isDirectory() && obj.getMetadata().getContentLength() > mpuThreshold)
+                tracker = createMpuTracker(obj, targetKey, partSize);
 
             // Note: obj.getAcl() and obj.getDataStream() might both make a call to the source storage system.
             //       However, obj.getDataStream() (if called) will hold a connection until after we write to the target.
@@ -538,43 +739,49 @@ public class AwsS3Storage extends AbstractS3Storage<AwsS3Config> implements Opti
             AccessControlList acl = null;
             if (options.isSyncAcl()) acl = s3AclFromSyncAcl(obj.getAcl(), options.isIgnoreInvalidAcls());
 
-            // TODO: we should not reference another plugin from this one - where should this constant live??
-            File file = (File) obj.getProperty("filesystem.file");
+            RangedSource rangedSource = obj.getRangedSource();
             if (obj.getMetadata().isDirectory()) {
                 uploader = new AwsS3LargeFileUploader(s3, config.getBucketName(), targetKey, new ByteArrayInputStream(new byte[0]), 0);
-            } else if (file != null) {
-                // we can read file parts in parallel
-                uploader = new AwsS3LargeFileUploader(s3, config.getBucketName(), targetKey, file);
-                // because we are bypassing the source data stream, we need to make
-                // sure to update the source-read and target-write windows, as well as the object's bytes-read
-                // TODO: apply bandwidth throttle here
-                uploader.setProgressListener(new ByteTransferListener(obj));
-            } else if (obj.getProperty(AbstractS3Storage.PROP_MULTIPART_SOURCE) != null) {
-                // our source object supports parallel streams
-                // TODO: need to generalize a parallel stream source as a 1st-class concept in ecs-sync
-                //       i.e. maybe embed logic in SyncObject so that streams are wrapped properly and checksum
-                //       calculation is automatic
-                uploader = new AwsS3LargeFileUploader(s3, config.getBucketName(), targetKey,
-                        (LargeFileMultipartSource) obj.getProperty(AbstractS3Storage.PROP_MULTIPART_SOURCE));
-                // because we are bypassing the source data stream, we need to make
-                // sure to update the source-read and target-write windows, as well as the object's bytes-read
-                uploader.setProgressListener(new ByteTransferListener(obj));
+            } else if (rangedSource != null) {
+                // our source object supports parallel ranged reads
+                uploader = new AwsS3LargeFileUploader(s3, config.getBucketName(), targetKey, new RangedMultipartSource(rangedSource));
+                // because we are bypassing the target-side data stream, we need to update the target-write window
+                uploader.setProgressListener(new ByteTransferListener());
             } else {
                 InputStream dataStream = obj.getDataStream();
+                if (isMultipartEtagVerified() && obj.getMetadata().getContentLength() > mpuThreshold)
+                    dataStream = partMd5Stream = new MultipartMd5InputStream(dataStream, partSize);
                 if (options.isMonitorPerformance())
                     dataStream = new ProgressInputStream(dataStream, new PerformanceListener(getWriteWindow()));
-                uploader = new AwsS3LargeFileUploader(s3, config.getBucketName(), targetKey, dataStream, obj.getMetadata().getContentLength());
-                uploader.setCloseStream(true);
+                // a resumed MPU skips the parts that were already uploaded, which we would have to spool
+                if (obj.getMetadata().getContentLength() > mpuThreshold && !config.isMpuResumeEnabled()) {
+                    // the stream can only be read in order, so spool its parts to upload them in parallel
+                    spooledSource = spooledMultipartSource(dataStream, obj.getMetadata().getContentLength(), partSize);
+                    uploader = new AwsS3LargeFileUploader(s3, config.getBucketName(), targetKey, spooledSource);
+                } else {
+                    uploader = new AwsS3LargeFileUploader(s3, config.getBucketName(), targetKey, dataStream, obj.getMetadata().getContentLength());
+                    uploader.setCloseStream(true);
+                }
             }
-            uploader.withPartSize((long) config.getMpuPartSizeMb() * 1024 * 1024).withMpuThreshold((long) config.getMpuThresholdMb() * 1024 * 1024);
+            uploader.withPartSize(partSize).withMpuThreshold(mpuThreshold);
             uploader.setAwsS3ObjectMetadata(om);
+            uploader.setTracker(tracker);
 
             if (options.isSyncAcl()) uploader.setAwsS3Acl(acl);
 
             // if resume-mpu is enabled, try to find an existing uploadId to resume
             if (config.isMpuResumeEnabled()) {
                 uploader.setAbortMpuOnFailure(false); // see additional MPU abort logic in the catch block below
-                if (obj.getMetadata().getContentLength() > (long) config.getMpuThresholdMb() * 1024 * 1024) {
+                if (tracker != null) {
+                    // resume the upload recorded in the DB; the uploader lists its parts and only uploads the missing ones
+                    String uploadId = getResumableUploadId(tracker);
+                    if (uploadId != null) {
+                        LargeFileUploaderResumeContext resumeContext = new LargeFileUploaderResumeContext().withUploadId(uploadId);
+                        // listed parts were already matched to their recorded ETags, so re-upload any part that differs from the source
+                        resumeContext.setOverwriteMismatchedParts(true);
+                        uploader.setResumeContext(resumeContext);
+                    }
+                } else if (obj.getMetadata().getContentLength() > mpuThreshold) {
                     String uploadId = getLatestMultipartUploadId(targetKey, obj.getMetadata().getModificationTime());
                     if (uploadId != null) {
                         uploader.setResumeContext(new LargeFileUploaderResumeContext().withUploadId(uploadId));
@@ -625,20 +832,106 @@ public class AwsS3Storage extends AbstractS3Storage<AwsS3Config> implements Opti
                     return null;
                 }, OPERATION_WRITE_OBJECT, obj, targetKey);
                 log.debug("Wrote {}; etag: {}", targetKey, uploader.getETag());
+                if (partMd5Stream != null) obj.setCompositeMd5Hex(partMd5Stream.getCompositeMd5Hex());
             } catch (RuntimeException uploadException) {
                 // additional MPU abort logic when resume is enabled
                 // (if the error here is not retriable, we should manually abort the MPU)
                 if (shouldAbortMpu(uploader, uploadException)) {
                     log.info("Aborting MPU for {} due to non-resumable exception: {}", uploader.getKey(), uploadException);
                     s3.abortMultipartUpload(new AbortMultipartUploadRequest(uploader.getBucket(), uploader.getKey(), uploader.getResumeContext().getUploadId()));
+                    if (tracker != null) tracker.uploadFinished(uploader.getResumeContext().getUploadId());
                 } else {
                     log.debug("Not aborting MPU for {} due to resumable exception: {}", uploader.getKey(), uploadException);
                 }
                 throw uploadException;
+            } finally {
+                if (spooledSource != null) {
+                    try {
+                        spooledSource.close();
+                    } catch (Exception e) {
+                        log.warn("could not close spooled source of {}", targetKey, e);
+                    }
+                }
             }
         }
     }
 
+    private synchronized TransferManager getTransferManager() {
+        if (transferManager == null) {
+            transferManager = TransferManagerBuilder.standard().withS3Client(s3)
+                    .withMultipartCopyThreshold((long) config.getMpuThresholdMb() * 1024 * 1024)
+                    .withMultipartCopyPartSize((long) config.getMpuPartSizeMb() * 1024 * 1024)
+                    .withShutDownThreadPools(true)
+                    .build();
+        }
+        return transferManager;
+    }
+
+    private boolean isSameEndpoint(AwsS3Config sourceConfig) {
+        return Objects.equals(sourceConfig.getProtocol(), config.getProtocol())
+                && Objects.equals(sourceConfig.getHost(), config.getHost())
+                && sourceConfig.getPort() == config.getPort()
+                && Objects.equals(sourceConfig.getRegion(), config.getRegion())
+                && sourceConfig.getUseDefaultCredentialsProvider() == config.getUseDefaultCredentialsProvider()
+                && Objects.equals(sourceConfig.getProfile(), config.getProfile())
+                && Objects.equals(sourceConfig.getAccessKey(), config.getAccessKey());
+    }
+
+    /*
+     * data can only be copied server-side if it comes straight from the source bucket (no filter has touched the stream)
+     */
+    private boolean isServerSideCopyPossible(SyncObject obj) {
+        return serverSideCopySource != null && !serverSideCopyDenied
+                && options.isSyncData() && obj.getSource() == serverSideCopySource
+                && !obj.getMetadata().isDirectory() && !obj.isDataStreamInitialized();
+    }
+
+    /*
+     * copies the source object to the target key server-side. objects above the MPU threshold are copied with parallel
+     * UploadPartCopy requests. returns false if the endpoint refuses the copy (i.e. the credentials cannot read the
+     * source bucket), in which case server-side copy is disabled for the rest of the job and the caller should stream
+     * the data instead
+     */
+    private boolean serverSideCopy(SyncObject obj, String targetKey, ObjectMetadata om) {
+        String sourceKey = serverSideCopySource.getIdentifier(obj.getRelativePath(), false);
+        CopyObjectRequest copyRequest = new CopyObjectRequest(serverSideCopySource.getConfig().getBucketName(), sourceKey,
+                config.getBucketName(), targetKey).withNewObjectMetadata(om);
+        if (obj instanceof S3ObjectVersion) copyRequest.setSourceVersionId(((S3ObjectVersion) obj).getVersionId());
+        if (options.isSyncAcl())
+            copyRequest.setAccessControlList(s3AclFromSyncAcl(obj.getAcl(), options.isIgnoreInvalidAcls()));
+
+        try {
+            operationWrapper((Function<Void>) () -> {
+                copy(copyRequest);
+                return null;
+            }, OPERATION_SERVER_SIDE_COPY, obj, targetKey);
+        } catch (AmazonS3Exception e) {
+            if (e.getStatusCode() != 403 && e.getStatusCode() != 501) throw e;
+            if (!serverSideCopyDenied) {
+                serverSideCopyDenied = true;
+                log.warn("server-side copy was refused by the endpoint ({}) - object data will be streamed for the rest of this job", e.getErrorCode());
+            }
+            return false;
+        }
+
+        // no data passed through this host, but the object was transferred
+        obj.setBytesRead(obj.getMetadata().getContentLength());
+        return true;
+    }
+
+    /*
+     * copies using the shared transfer manager, which performs a single PUT-copy up to the MPU threshold, and parallel
+     * UploadPartCopy requests above it
+     */
+    private void copy(CopyObjectRequest copyRequest) {
+        try {
+            getTransferManager().copy(copyRequest).waitForCompletion();
+        } catch (InterruptedException e) {
+            // this is most likely due to the job getting terminated early, or some unknown condition we can't handle
+            throw new RuntimeException(e);
+        }
+    }
+
     // any exceptions the operation listener must see should be thrown here
     @Override
     protected <T> T operationWrapper(Function<T> function, String operationName, SyncObject syncObject, String identifier) {
@@ -653,6 +946,47 @@ public class AwsS3Storage extends AbstractS3Storage<AwsS3Config> implements Opti
         }, operationName, syncObject, identifier);
     }
 
+    @Override
+    void abortMultipartUpload(String key, String uploadId) {
+        s3.abortMultipartUpload(new AbortMultipartUploadRequest(config.getBucketName(), key, uploadId));
+    }
+
+    @Override
+    boolean isMultipartUploadPresent(String key, String uploadId) {
+        try {
+            s3.listParts(new ListPartsRequest(config.getBucketName(), key, uploadId).withMaxParts(1));
+            return true;
+        } catch (AmazonS3Exception e) {
+            if (e.getStatusCode() == 404) return false;
+            throw e;
+        }
+    }
+
+    @Override
+    int abortMultipartUploads(Date initiatedBefore, Set<String> keepUploadIds) {
+        int aborted = 0;
+        ListMultipartUploadsRequest request = new ListMultipartUploadsRequest(config.getBucketName()).withPrefix(config.getKeyPrefix());
+        MultipartUploadListing multipartUploadListing = null;
+        do {
+            if (multipartUploadListing == null) {
+                multipartUploadListing = s3.listMultipartUploads(request);
+            } else {
+                multipartUploadListing = s3.listMultipartUploads(request.withKeyMarker(multipartUploadListing.getNextKeyMarker()).withUploadIdMarker(multipartUploadListing.getNextUploadIdMarker()));
+            }
+            for (MultipartUpload upload : multipartUploadListing.getMultipartUploads()) {
+                if (keepUploadIds.contains(upload.getUploadId()) || !upload.getInitiated().before(initiatedBefore)) continue;
+                try {
+                    abortMultipartUpload(upload.getKey(), upload.getUploadId());
+                    log.info("aborted stale MPU {} of {} (initiated {})", upload.getUploadId(), upload.getKey(), upload.getInitiated());
+                    aborted++;
+                } catch (RuntimeException e) {
+                    log.warn("could not abort stale MPU {} of {}", upload.getUploadId(), upload.getKey(), e);
+                }
+            }
+        } while (multipartUploadListing.isTruncated());
+        return aborted;
+    }
+
     /*
      * returns the latest (most recently initiated) MPU for the configured bucket/key that was initiated after
      * initiatedAfter, or null if none is found.
@@ -730,6 +1064,27 @@ public class AwsS3Storage extends AbstractS3Storage<AwsS3Config> implements Opti
         }, OPERATION_OPEN_DATA_STREAM, null, key);
     }
 
+    private RangedSource getRangedSource(final String key, final String versionId, final com.emc.ecs.sync.model.ObjectMetadata metadata) {
+        return new RangedSource() {
+            @Override
+            public long getTotalSize() {
+                return metadata.getContentLength();
+            }
+
+            @Override
+            public InputStream getRangeStream(long offset, long length) {
+                GetObjectRequest request = new GetObjectRequest(config.getBucketName(), key, versionId)
+                        .withRange(offset, offset + length - 1);
+                // make sure all ranges come from the same version of the object
+                if (metadata.getHttpEtag() != null) request.withMatchingETagConstraint(metadata.getHttpEtag());
+                S3Object object = s3.getObject(request);
+                // the SDK returns null if the constraint is not met
+                if (object == null) throw new RuntimeException("object " + key + " changed while reading ranges");
+                return object.getObjectContent();
+            }
+        };
+    }
+
     private List<S3VersionSummary> getS3Versions(final String key) {
         List<S3VersionSummary> versions = new ArrayList<>();
 
@@ -776,6 +1131,7 @@ public class AwsS3Storage extends AbstractS3Storage<AwsS3Config> implements Opti
             // ETag is hex
             meta.setChecksum(Checksum.fromHex("MD5", s3meta.getETag()));
         }
+        if (s3meta.getETag() != null) meta.setHttpEtag(s3meta.getETag());
         meta.setContentType(s3meta.getContentType());
         meta.setHttpExpires(s3meta.getHttpExpiresDate());
         meta.setExpirationDate(s3meta.getExpirationTime());
@@ -864,70 +1220,109 @@ public class AwsS3Storage extends AbstractS3Storage<AwsS3Config> implements Opti
 
     private class PrefixIterator extends ReadOnlyIterator<ObjectSummary> {
         private final String prefix;
-        private ObjectListing listing;
-        private Iterator<S3ObjectSummary> objectIterator;
+        private final boolean delimited;
+        private final String startAfter;
+        private final String endWith;
+        private final PrefetchingPageIterator<ObjectListing> pages;
+        private Iterator<S3ObjectSummary> objectIterator = Collections.emptyIterator();
+        private Iterator<String> commonPrefixIterator = Collections.emptyIterator();
+        private boolean endOfRange;
+
+        PrefixIterator(String prefix, boolean delimited) {
+            this(prefix, delimited, null, null);
+        }
 
-        PrefixIterator(String prefix) {
+        /**
+         * Lists only the key range after <code>startAfter</code> up to and including <code>endWith</code> (either may
+         * be null)
+         */
+        PrefixIterator(String prefix, boolean delimited, String startAfter, String endWith) {
             this.prefix = prefix;
+            this.delimited = delimited;
+            this.startAfter = startAfter;
+            this.endWith = endWith;
+            this.pages = new PrefetchingPageIterator<>(this::listFirstPage, this::listNextPage);
         }
 
         @Override
         protected ObjectSummary getNextObject() {
             nextObjectLoop:
-            while (true) {
-                if (listing == null || (!objectIterator.hasNext() && listing.isTruncated())) {
-                    getNextBatch();
+            while (!endOfRange) {
+                if (!objectIterator.hasNext() && !commonPrefixIterator.hasNext()) {
+                    // list is not truncated and iterators are finished; no more objects
+                    if (!pages.hasNext()) return null;
+                    ObjectListing listing = pages.next();
+                    objectIterator = listing.getObjectSummaries().iterator();
+                    commonPrefixIterator = listing.getCommonPrefixes().iterator();
+                    continue;
                 }
 
-                if (objectIterator.hasNext()) {
-                    S3ObjectSummary summary = objectIterator.next();
-                    String key = summary.getKey();
+                // sub-directories (only in delimited listings)
+                if (!objectIterator.hasNext()) {
+                    return new ObjectSummary(commonPrefixIterator.next(), true, 0);
+                }
 
-                    // apply exclusion filter
-                    if (excludedKeyPatterns != null) {
-                        for (Pattern p : excludedKeyPatterns) {
-                            if (p.matcher(key).matches()) {
-                                log.info("excluding file {}: matches pattern: {}", key, p);
-                                continue nextObjectLoop;
-                            }
+                S3ObjectSummary summary = objectIterator.next();
+                String key = summary.getKey();
+
+                // the placeholder of the directory being listed is not its own child
+                if (delimited && key.equals(prefix)) continue;
+
+                // past the end of this key range
+                if (endWith != null && compareKeys(key, endWith) > 0) {
+                    endOfRange = true;
+                    pages.close();
+                    break;
+                }
+
+                // apply exclusion filter
+                if (excludedKeyPatterns != null) {
+                    for (Pattern p : excludedKeyPatterns) {
+                        if (p.matcher(key).matches()) {
+                            log.info("excluding file {}: matches pattern: {}", key, p);
+                            continue nextObjectLoop;
                         }
                     }
-
-                    return new ObjectSummary(key, false, summary.getSize());
                 }
 
-                // list is not truncated and iterators are finished; no more objects
-                return null;
+                return new ObjectSummary(key, false, summary.getSize());
             }
+            return null;
         }
 
-        private void getNextBatch() {
-            if (listing == null) {
-                listing = time(() -> {
-                    ListObjectsRequest request = new ListObjectsRequest().withBucketName(config.getBucketName());
-                    request.setPrefix("".equals(prefix) ? null : prefix);
-                    // Note: AWS SDK will always set encoding-type=url, but will only decode automatically if we
-                    // leave the value null.. manually setting it here allows us to disable automatic decoding,
-                    // but if the storage actually encodes the keys, they will be corrupted.. only do this if the
-                    // storage does *not* respect the encoding-type parameter!
-                    if (!config.isUrlDecodeKeys()) request.setEncodingType(Constants.URL_ENCODING);
-                    return s3.listObjects(request);
-                }, OPERATION_LIST_OBJECTS);
-            } else {
-                listing = time(() -> s3.listNextBatchOfObjects(listing), OPERATION_LIST_OBJECTS);
-            }
+        private ObjectListing listFirstPage() {
+            ObjectListing listing = time(() -> {
+                ListObjectsRequest request = new ListObjectsRequest().withBucketName(config.getBucketName());
+                request.setPrefix("".equals(prefix) ? null : prefix);
+                if (delimited) request.setDelimiter(DELIMITER);
+                if (startAfter != null) request.setMarker(startAfter);
+                // Note: AWS SDK will always set encoding-type=url, but will only decode automatically if we
+                // leave the value null.. manually setting it here allows us to disable automatic decoding,
+                // but if the storage actually encodes the keys, they will be corrupted.. only do this if the
+                // storage does *not* respect the encoding-type parameter!
+                if (!config.isUrlDecodeKeys()) request.setEncodingType(Constants.URL_ENCODING);
+                return s3.listObjects(request);
+            }, OPERATION_LIST_OBJECTS);
             listing.setMaxKeys(1000); // Google Storage compatibility
-            objectIterator = listing.getObjectSummaries().iterator();
+            return listing;
+        }
+
+        private ObjectListing listNextPage(ObjectListing previous) {
+            if (!previous.isTruncated()) return null;
+            ObjectListing listing = time(() -> s3.listNextBatchOfObjects(previous), OPERATION_LIST_OBJECTS);
+            listing.setMaxKeys(1000); // Google Storage compatibility
+            return listing;
         }
     }
 
     private class DeletedObjectIterator extends ReadOnlyIterator<ObjectSummary> {
         private final String prefix;
-        private VersionListing versionListing;
-        private Iterator<S3VersionSummary> versionIterator;
+        private final PrefetchingPageIterator<VersionListing> pages;
+        private Iterator<S3VersionSummary> versionIterator = Collections.emptyIterator();
 
         DeletedObjectIterator(String prefix) {
             this.prefix = prefix;
+            this.pages = new PrefetchingPageIterator<>(this::listFirstPage, this::listNextPage);
         }
 
         @Override
@@ -946,35 +1341,31 @@ public class AwsS3Storage extends AbstractS3Storage<AwsS3Config> implements Opti
 
         private S3VersionSummary getNextSummary() {
             // look for deleted objects in versioned bucket
-            if (versionListing == null || (!versionIterator.hasNext() && versionListing.isTruncated())) {
-                getNextVersionBatch();
-            }
-
-            if (versionIterator.hasNext()) {
-                return versionIterator.next();
+            while (!versionIterator.hasNext()) {
+                // no more versions
+                if (!pages.hasNext()) return null;
+                versionIterator = pages.next().getVersionSummaries().iterator();
             }
+            return versionIterator.next();
+        }
 
-            // no more versions
-            return null;
+        private VersionListing listFirstPage() {
+            return time(() -> {
+                ListVersionsRequest request = new ListVersionsRequest().withBucketName(config.getBucketName());
+                request.setPrefix("".equals(prefix) ? null : prefix);
+                // Note: AWS SDK will always set encoding-type=url, but will only decode automatically if we
+                // leave the value null.. manually setting it here allows us to disable automatic decoding,
+                // but if the storage actually encodes the keys, they will be corrupted.. only do this if the
+                // storage does *not* respect the encoding-type parameter!
+                if (!config.isUrlDecodeKeys()) request.setEncodingType(Constants.URL_ENCODING);
+                return s3.listVersions(request);
+            }, OPERATION_LIST_VERSIONS);
         }
 
-        private void getNextVersionBatch() {
-            if (versionListing == null) {
-                versionListing = time(() -> {
-                    ListVersionsRequest request = new ListVersionsRequest().withBucketName(config.getBucketName());
-                    request.setPrefix("".equals(prefix) ? null : prefix);
-                    // Note: AWS SDK will always set encoding-type=url, but will only decode automatically if we
-                    // leave the value null.. manually setting it here allows us to disable automatic decoding,
-                    // but if the storage actually encodes the keys, they will be corrupted.. only do this if the
-                    // storage does *not* respect the encoding-type parameter!
-                    if (!config.isUrlDecodeKeys()) request.setEncodingType(Constants.URL_ENCODING);
-                    return s3.listVersions(request);
-                }, OPERATION_LIST_VERSIONS);
-            } else {
-                versionListing.setMaxKeys(1000); // Google Storage compatibility
-                versionListing = time(() -> s3.listNextBatchOfVersions(versionListing), OPERATION_LIST_VERSIONS);
-            }
-            versionIterator = versionListing.getVersionSummaries().iterator();
+        private VersionListing listNextPage(VersionListing previous) {
+            if (!previous.isTruncated()) return null;
+            previous.setMaxKeys(1000); // Google Storage compatibility
+            return time(() -> s3.listNextBatchOfVersions(previous), OPERATION_LIST_VERSIONS);
         }
     }
 
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2026 Dell Inc. or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.emc.ecs.sync.storage.s3;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Collects single-key deletes from concurrent sync threads into multi-object delete requests. {@link #delete(String)}
+ * only queues the key and returns a future for its result; a batch is sent by a sender thread as soon as it is full,
+ * or by a timer after <code>maxLatencyMs</code>. Each future completes with the error of its own key (if any). When
+ * all senders are busy, a thread that fills a batch waits for one to be free, so keys cannot pile up without bound.
+ * {@link #close()} sends the remaining keys and waits for all batches to complete
+ */
+class DeleteBatcher implements AutoCloseable {
+    private final int batchSize;
+    private final long maxLatencyMs;
+    private final Function<List<String>, Map<String, RuntimeException>> deleteObjects;
+    private final ScheduledThreadPoolExecutor executor;
+    private final Semaphore senders;
+    private List<PendingDelete> pending = new ArrayList<>();
+    private boolean closed;
+
+    /**
+     * @param senderCount   the number of batches that can be sent at the same time
+     * @param deleteObjects deletes a batch of keys in one request and returns the errors of keys that could not be
+     *                      deleted (keys not in the map were deleted). If it throws, the whole batch fails
+     */
+    DeleteBatcher(int batchSize, long maxLatencyMs, int senderCount,
+                  Function<List<String>, Map<String, RuntimeException>> deleteObjects) {
+        this.batchSize = batchSize;
+        this.maxLatencyMs = maxLatencyMs;
+        this.deleteObjects = deleteObjects;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ScheduledThreadPoolExecutor(senderCount, r -> {
+            Thread thread = new Thread(r, "delete-batcher-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        // pending latency timers are not needed after close (it sends the remaining keys itself)
+        this.executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        this.senders = new Semaphore(senderCount);
+    }
+
+    /**
+     * Queues the key for deletion. The returned future completes when the batch containing the key is complete, or
+     * exceptionally with the key's error
+     */
+    CompletableFuture<Void> delete(String key) {
+        PendingDelete delete = new PendingDelete(key);
+        List<PendingDelete> batch = null;
+        synchronized (this) {
+            if (closed) throw new IllegalStateException("cannot delete " + key + ": the delete batcher is closed");
+            pending.add(delete);
+            if (pending.size() >= batchSize) {
+                batch = takePending();
+            } else if (pending.size() == 1) {
+                // this key starts a new batch; send it after the latency if it is not full by then
+                List<PendingDelete> partialBatch = pending;
+                executor.schedule(() -> flush(partialBatch), maxLatencyMs, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        if (batch != null) submit(batch);
+        return delete.result;
+    }
+
+    /**
+     * Sends the remaining keys and waits until all batches are complete
+     */
+    @Override
+    public void close() {
+        List<PendingDelete> batch;
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+            batch = takePending();
+        }
+        if (!batch.isEmpty()) send(batch);
+
+        executor.shutdown();
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // called by the latency timer; sends the batch if it has not already been sent (because it filled up)
+    private void flush(List<PendingDelete> partialBatch) {
+        synchronized (this) {
+            if (pending != partialBatch) return;
+            takePending();
+        }
+        // the timer runs on a sender thread, so it sends the batch itself
+        send(partialBatch);
+    }
+
+    private void submit(List<PendingDelete> batch) {
+        try {
+            senders.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            // the keys are already taken from the queue, so they must still be sent
+            send(batch);
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    send(batch);
+                } finally {
+                    senders.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // closed while this batch was being filled
+            senders.release();
+            send(batch);
+        }
+    }
+
+    private synchronized List<PendingDelete> takePending() {
+        List<PendingDelete> batch = pending;
+        pending = new ArrayList<>();
+        return batch;
+    }
+
+    private void send(List<PendingDelete> batch) {
+        try {
+            Map<String, RuntimeException> errors = deleteObjects.apply(
+                    batch.stream().map(delete -> delete.key).collect(Collectors.toList()));
+            for (PendingDelete delete : batch) {
+                RuntimeException error = errors.get(delete.key);
+                if (error == null) delete.result.complete(null);
+                else delete.result.completeExceptionally(error);
+            }
+        } catch (Throwable t) {
+            // every future must be completed, even on an unexpected error
+            RuntimeException e = t instanceof RuntimeException ? (RuntimeException) t : new RuntimeException(t);
+            batch.forEach(delete -> delete.result.completeExceptionally(e));
+        }
+    }
+
+    private static class PendingDelete {
+        final String key;
+        final CompletableFuture<Void> result = new CompletableFuture<>();
+
+        PendingDelete(String key) {
+            this.key = key;
+        }
+    }
+}
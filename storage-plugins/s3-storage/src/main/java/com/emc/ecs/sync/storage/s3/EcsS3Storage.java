@@ -28,6 +28,7 @@ import com.emc.ecs.sync.config.storage.S3ConfigurationException;
 import com.emc.ecs.sync.config.storage.S3ConfigurationException.Error;
 import com.emc.ecs.sync.filter.SyncFilter;
 import com.emc.ecs.sync.model.*;
+import com.emc.ecs.sync.rest.EndpointHostStats;
 import com.emc.ecs.sync.storage.ObjectNotFoundException;
 import com.emc.ecs.sync.storage.SyncStorage;
 import com.emc.ecs.sync.storage.azure.AzureBlobStorage;
@@ -38,7 +39,6 @@ import com.emc.object.Range;
 import com.emc.object.s3.*;
 import com.emc.object.s3.bean.*;
 import com.emc.object.s3.jersey.S3JerseyClient;
-import com.emc.object.s3.lfu.LargeFileMultipartSource;
 import com.emc.object.s3.lfu.LargeFileUpload;
 import com.emc.object.s3.lfu.LargeFileUploaderResumeContext;
 import com.emc.object.s3.request.*;
@@ -50,7 +50,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.ws.rs.core.MediaType;
-import java.io.File;
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -59,6 +59,7 @@ import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.regex.Matcher;
+import java.util.stream.Collectors;
 
 import static com.emc.ecs.sync.config.storage.EcsS3Config.MIN_PART_SIZE_MB;
 
@@ -75,17 +76,20 @@ public class EcsS3Storage extends AbstractS3Storage<EcsS3Config> implements Opti
     public static final String OPERATION_MPU = "EcsS3MultipartUpload";
     public static final String OPERATION_DELETE_VERSIONS = "EcsS3DeleteVersions";
     public static final String OPERATION_DELETE_OBJECT = "EcsS3DeleteObject";
+    public static final String OPERATION_DELETE_OBJECTS = "EcsS3DeleteObjects";
+    public static final String OPERATION_PUT_CONTAINER = "EcsS3PutContainer";
+    public static final String OPERATION_READ_CONTAINER = "EcsS3ReadContainer";
     public static final String OPERATION_UPDATE_METADATA = "EcsS3UpdateMetadata";
     public static final String OPERATION_REMOTE_COPY = "EcsS3RemoteCopy";
     public static final String OPERATION_MPU_COPY = "EcsS3MPUCopy";
     // AWS will hit Internal Error when setting RetainUntilDate to the max date of ISO 8601 standard, so we have to
     // select a practical date in the future to denote ECS infinite retention.
     public static final Date INFINITE_RETENTION_DATE = Iso8601Util.parse("2999-12-31T23:59:59Z");
-    private static final int MAX_DELETION_SUPPORTED = 1000;
 
     private S3Client s3;
     private EcsS3Storage source;
     private EnhancedThreadPoolExecutor mpuThreadPool;
+    private LatencyAwareHostSelector hostSelector;
 
     @Override
     public void configure(SyncStorage<?> source, Iterator<? extends SyncFilter<?>> filters, SyncStorage<?> target) {
@@ -100,7 +104,23 @@ public class EcsS3Storage extends AbstractS3Storage<EcsS3Config> implements Opti
         if (!config.getBucketName().matches("[A-Za-z0-9._-]+"))
             throw new ConfigurationException(config.getBucketName() + " is not a valid bucket name");
 
+        if (config.getListingRanges() < 1) throw new ConfigurationException("listingRanges must be at least 1");
+        if (config.getVersionConcurrency() < 1) throw new ConfigurationException("versionConcurrency must be at least 1");
+        if (config.getDeleteBatchSize() < 1 || config.getDeleteBatchSize() > MAX_DELETION_SUPPORTED)
+            throw new ConfigurationException("deleteBatchSize must be between 1 and " + MAX_DELETION_SUPPORTED);
+        if (config.getDeleteBatchSize() > 1) {
+            if (config.isUnconditionalBatchDelete())
+                log.warn("source deletes are batched without If-Match/If-Unmodified-Since conditions; objects modified after they are copied may be deleted");
+            else
+                log.warn("deleteBatchSize is {}, but multi-object deletes cannot be conditional; objects with an ETag or mtime are deleted one at a time (see unconditionalBatchDelete)",
+                        config.getDeleteBatchSize());
+        }
+
         S3Config s3Config;
+        if (config.isLatencyAwareRouting() && (config.isEnableVHosts() || config.isGeoPinningEnabled()))
+            throw new ConfigurationException("latencyAwareRouting cannot be combined with enableVHosts or geoPinningEnabled");
+
+        List<String> hosts = new ArrayList<>();
         if (config.isEnableVHosts()) {
             if (config.getHost() == null)
                 throw new ConfigurationException("you must provide a single host to enable v-host buckets");
@@ -118,6 +138,7 @@ public class EcsS3Storage extends AbstractS3Storage<EcsS3Config> implements Opti
                     Matcher matcher = EcsS3Config.VDC_PATTERN.matcher(vdcString);
                     if (matcher.matches()) {
                         Vdc vdc = new Vdc(matcher.group(2).split(","));
+                        hosts.addAll(Arrays.asList(matcher.group(2).split(",")));
                         if (matcher.group(1) != null) vdc.setName(matcher.group(1));
                         vdcs.add(vdc);
                     } else {
@@ -126,10 +147,12 @@ public class EcsS3Storage extends AbstractS3Storage<EcsS3Config> implements Opti
                 }
             } else {
                 vdcs.add(new Vdc(config.getHost()));
+                hosts.add(config.getHost());
             }
             s3Config = new S3Config(Protocol.valueOf(config.getProtocol().toString().toUpperCase()), vdcs.toArray(new Vdc[0]));
             if (config.getPort() > 0) s3Config.setPort(config.getPort());
-            s3Config.setSmartClient(config.isSmartClientEnabled());
+            // latency-aware routing replaces the smart client's host selection
+            s3Config.setSmartClient(config.isSmartClientEnabled() && !config.isLatencyAwareRouting());
         }
         s3Config.withIdentity(config.getAccessKey()).withSecretKey(config.getSecretKey()).withSessionToken(config.getSessionToken());
         s3Config.setProperty(ClientConfig.PROPERTY_CONNECT_TIMEOUT, config.getSocketConnectTimeoutMs());
@@ -141,7 +164,18 @@ public class EcsS3Storage extends AbstractS3Storage<EcsS3Config> implements Opti
             s3Config.setGeoPinningEnabled(true);
         }
 
-        if (config.isApacheClientEnabled()) {
+        if (config.isLatencyAwareRouting()) {
+            // the host is chosen after the request is signed, so the signature must not include the host (V4 does)
+            if (!s3Config.isUseV2Signer())
+                throw new ConfigurationException("latencyAwareRouting requires V2 signatures");
+            System.setProperty("http.maxConnections", "1000");
+            // the selector identifies hosts by authority (host[:port]), as they appear in request URIs
+            int port = s3Config.getPort();
+            hostSelector = new LatencyAwareHostSelector(EcsS3Config.LATENCY_ROUTING_ERROR_THRESHOLD,
+                    TimeUnit.SECONDS.toMillis(EcsS3Config.LATENCY_ROUTING_EJECT_SECONDS),
+                    hosts.stream().map(host -> port > 0 ? host + ":" + port : host).collect(Collectors.toList()));
+            s3 = new S3JerseyClient(s3Config, new LatencyAwareClientHandler(new URLConnectionClientHandler(), hostSelector));
+        } else if (config.isApacheClientEnabled()) {
             s3 = new S3JerseyClient(s3Config);
         } else {
             System.setProperty("http.maxConnections", "1000");
@@ -220,6 +254,9 @@ public class EcsS3Storage extends AbstractS3Storage<EcsS3Config> implements Opti
             if (config.isMpuEnabled() && config.isRemoteCopy() && config.isMpuResumeEnabled()) {
                 throw new ConfigurationException("MPU Resume is not supported when Remote Copy is enabled");
             }
+
+            validatePackingOptions(config.isIncludeVersions());
+            validateMpuOptions();
         }
 
         // make sure bucket exists
@@ -257,8 +294,24 @@ public class EcsS3Storage extends AbstractS3Storage<EcsS3Config> implements Opti
         mpuThreadPool.resizeThreadPool(options.getThreadCount());
     }
 
+    @Override
+    public List<EndpointHostStats> getHostStats() {
+        if (hostSelector == null) return super.getHostStats();
+        return hostSelector.getStats(getRole().toString());
+    }
+
     @Override
     public void close() {
+        try {
+            flushPackedObjects();
+        } catch (Exception e) {
+            log.error("could not write the last packed container", e);
+        }
+        try {
+            if (config.isMpuCleanupEnabled() && s3 != null) abortStaleMpus();
+        } catch (Exception e) {
+            log.warn("could not abort stale MPUs", e);
+        }
         try {
             if (mpuThreadPool != null) mpuThreadPool.shutdown();
         } catch (Exception e) {
@@ -274,6 +327,8 @@ public class EcsS3Storage extends AbstractS3Storage<EcsS3Config> implements Opti
 
     @Override
     public String getRelativePath(String identifier, boolean directory) {
+        if (isPackedObject(identifier))
+            return PackedEntry.fromIdentifier(identifier).getRelativePath();
         String relativePath = identifier;
         if (relativePath.startsWith(config.getKeyPrefix()))
             relativePath = relativePath.substring(config.getKeyPrefix().length());
@@ -304,22 +359,64 @@ public class EcsS3Storage extends AbstractS3Storage<EcsS3Config> implements Opti
 
     @Override
     public Iterable<ObjectSummary> allObjects() {
-        if (config.isIncludeVersions()) {
-            return () -> new CombinedIterator<>(Arrays.asList(new PrefixIterator(config.getKeyPrefix()), new DeletedObjectIterator(config.getKeyPrefix())));
+        if (config.isUnpackContainers()) {
+            return () -> packedObjects(new PrefixIterator(config.getKeyPrefix() + PACK_DIRECTORY, false));
+        } else if (config.isIncludeVersions()) {
+            // delete markers are always found with a flat listing (directoryMode only applies to current objects)
+            return () -> new CombinedIterator<>(Arrays.asList(listCurrentObjects(), new DeletedObjectIterator(config.getKeyPrefix())));
         } else {
-            return () -> new PrefixIterator(config.getKeyPrefix());
+            return this::listCurrentObjects;
         }
     }
 
-    // TODO: implement directoryMode, using prefix+delimiter
+    private Iterator<ObjectSummary> listCurrentObjects() {
+        if (config.isDirectoryMode() || (config.getListingRanges() <= 1 && config.getListingSplitFile() == null))
+            return new PrefixIterator(config.getKeyPrefix(), config.isDirectoryMode());
+        List<String> boundaries = getListingBoundaries(config.getKeyPrefix(), config.getListingRanges(),
+                config.getListingSplitFile(), this::sampleFirstPage);
+        return partitionedIterator(boundaries, (startAfter, endWith) ->
+                new PrefixIterator(config.getKeyPrefix(), false, startAfter, endWith));
+    }
+
+    /**
+     * @return the keys of the first listing page, or null if there is only one page
+     */
+    private List<String> sampleFirstPage() {
+        ListObjectsRequest request = new ListObjectsRequest(config.getBucketName());
+        request.setPrefix("".equals(config.getKeyPrefix()) ? null : config.getKeyPrefix());
+        if (config.isUrlEncodeKeys()) request.setEncodingType(EncodingType.url);
+        ListObjectsResult listing = time(() -> s3.listObjects(request), OPERATION_LIST_OBJECTS);
+        if (!listing.isTruncated()) return null;
+        return listing.getObjects().stream().map(S3Object::getKey).collect(Collectors.toList());
+    }
+
+    /**
+     * In directoryMode, lists the next level under a common prefix (directory); otherwise the flat listing in
+     * {@link #allObjects()} already includes everything
+     */
     @Override
     public Iterable<ObjectSummary> children(ObjectSummary parent) {
+        if (config.isDirectoryMode() && parent.isDirectory())
+            return () -> new PrefixIterator(parent.getIdentifier(), true);
         return Collections.emptyList();
     }
 
     @Override
     public SyncObject loadObject(String identifier) throws ObjectNotFoundException {
-        return loadObject(identifier, config.isIncludeVersions());
+        if (isPackedObject(identifier))
+            return loadPackedObject(identifier);
+        if (!config.isDirectoryMode() || !identifier.endsWith(DELIMITER))
+            return loadObject(identifier, config.isIncludeVersions());
+        try {
+            SyncObject object = loadObject(identifier, config.isIncludeVersions());
+            // an empty marker object that is not a proper directory placeholder
+            if (!object.getMetadata().isDirectory() && object.getMetadata().getContentLength() == 0)
+                return createPrefixObject(identifier, false);
+            return object;
+        } catch (ObjectNotFoundException e) {
+            // a common prefix without a placeholder object
+            return createPrefixObject(identifier, true);
+        }
     }
 
     @Override
@@ -351,17 +448,22 @@ public class EcsS3Storage extends AbstractS3Storage<EcsS3Config> implements Opti
 
         object.setLazyStream(() -> getS3DataStream(key, versionId));
 
-        object.setProperty(AbstractS3Storage.PROP_MULTIPART_SOURCE, getMultipartSource(key, versionId, metadata));
+        if (!metadata.isDirectory()) object.setRangedSource(getRangedSource(key, versionId, metadata));
 
         return object;
     }
 
     @Override
     List<S3ObjectVersion> loadVersions(final String key) {
-        List<S3ObjectVersion> versions = new ArrayList<>();
+        List<AbstractVersion> aVersions = getS3Versions(key);
+        // load the metadata of all versions concurrently
+        List<S3ObjectVersion> loadedVersions = loadConcurrently(aVersions, aVersion ->
+                aVersion instanceof DeleteMarker ? null : (S3ObjectVersion) loadObject(key, aVersion.getVersionId()));
 
+        List<S3ObjectVersion> versions = new ArrayList<>();
         boolean directory = false; // delete markers won't have any metadata, so keep track of directory status
-        for (AbstractVersion aVersion : getS3Versions(key)) {
+        for (int i = 0; i < aVersions.size(); i++) {
+            AbstractVersion aVersion = aVersions.get(i);
             S3ObjectVersion version;
             if (aVersion instanceof DeleteMarker) {
                 version = new S3ObjectVersion(this, getRelativePath(key, directory),
@@ -369,7 +471,7 @@ public class EcsS3Storage extends AbstractS3Storage<EcsS3Config> implements Opti
                                 .withContentLength(0).withDirectory(directory));
                 version.setDeleteMarker(true);
             } else {
-                version = (S3ObjectVersion) loadObject(key, aVersion.getVersionId());
+                version = loadedVersions.get(i);
                 directory = version.getMetadata().isDirectory();
                 version.setETag(((Version) aVersion).getETag());
 
@@ -384,38 +486,23 @@ public class EcsS3Storage extends AbstractS3Storage<EcsS3Config> implements Opti
         return versions;
     }
 
-    public LargeFileMultipartSource getMultipartSource(String key, String versionId, ObjectMetadata metadata) {
-        return new LargeFileMultipartSource() {
+    public RangedSource getRangedSource(String key, String versionId, ObjectMetadata metadata) {
+        return new RangedSource() {
             @Override
             public long getTotalSize() {
                 return metadata.getContentLength();
             }
 
             @Override
-            public InputStream getCompleteDataStream() {
-                InputStream dataStream = s3.getObject(
-                        new GetObjectRequest<>(config.getBucketName(), key)
-                                .withVersionId(versionId)
-                                .withIfMatch(metadata.getHttpEtag()),
-                        InputStream.class
-                ).getObject();
-                // apply throttles
-                dataStream = SyncUtil.throttleStream(dataStream, getSyncJob());
-                return dataStream;
-            }
-
-            @Override
-            public InputStream getPartDataStream(long offset, long length) {
-                InputStream dataStream = s3.getObject(
+            public InputStream getRangeStream(long offset, long length) {
+                // the ETag condition makes sure all ranges come from the same version of the object
+                return s3.getObject(
                         new GetObjectRequest<>(config.getBucketName(), key)
                                 .withVersionId(versionId)
                                 .withRange(Range.fromOffsetLength(offset, length))
                                 .withIfMatch(metadata.getHttpEtag()),
                         InputStream.class
                 ).getObject();
-                // apply throttles
-                dataStream = SyncUtil.throttleStream(dataStream, getSyncJob());
-                return dataStream;
             }
         };
     }
@@ -426,6 +513,111 @@ public class EcsS3Storage extends AbstractS3Storage<EcsS3Config> implements Opti
         return super.createObject(object);
     }
 
+    @Override
+    int getVersionConcurrency() {
+        return config.getVersionConcurrency();
+    }
+
+    @Override
+    int getDeleteBatchSize() {
+        return config.getDeleteBatchSize();
+    }
+
+    @Override
+    boolean isDeleteBatched(SyncObject object) {
+        if (!super.isDeleteBatched(object)) return false;
+        // a single delete carries the If-Match/If-Unmodified-Since conditions, which a multi-object delete cannot
+        return config.isUnconditionalBatchDelete() || object == null
+                || object.getMetadata().getHttpEtag() == null && object.getMetadata().getModificationTime() == null;
+    }
+
+    @Override
+    int getPackThresholdKb() {
+        return config.getPackThresholdKb();
+    }
+
+    @Override
+    int getPackContainerSizeMb() {
+        return config.getPackContainerSizeMb();
+    }
+
+    @Override
+    int getMpuPartSizeMb() {
+        return config.getMpuPartSizeMb();
+    }
+
+    @Override
+    int getMpuTargetPartCount() {
+        return config.getMpuTargetPartCount();
+    }
+
+    @Override
+    int getMpuSpoolMemoryMb() {
+        return config.getMpuSpoolMemoryMb();
+    }
+
+    @Override
+    boolean isMpuResumeEnabled() {
+        return config.isMpuResumeEnabled();
+    }
+
+    @Override
+    boolean isMpuCleanupEnabled() {
+        return config.isMpuCleanupEnabled();
+    }
+
+    @Override
+    void putRawObject(String key, byte[] data, String contentType) {
+        S3ObjectMetadata om = new S3ObjectMetadata().withContentType(contentType).withContentLength(data.length);
+        time(() -> s3.putObject(new PutObjectRequest(config.getBucketName(), key, data).withObjectMetadata(om)),
+                OPERATION_PUT_CONTAINER);
+    }
+
+    @Override
+    InputStream getRawStream(String key, long offset, long length) {
+        if (length == 0) return new ByteArrayInputStream(new byte[0]);
+        GetObjectRequest<?> request = new GetObjectRequest<>(config.getBucketName(), key);
+        if (length > 0) request.setRange(Range.fromOffsetLength(offset, length));
+        return time(() -> s3.getObject(request, InputStream.class).getObject(), OPERATION_READ_CONTAINER);
+    }
+
+    @Override
+    boolean rawObjectExists(String key) {
+        try {
+            time(() -> s3.getObjectMetadata(config.getBucketName(), key), OPERATION_HEAD_OBJECT);
+            return true;
+        } catch (S3Exception e) {
+            if (e.getHttpCode() == 404) return false;
+            throw e;
+        }
+    }
+
+    @Override
+    boolean isUnpackContainers() {
+        return config.isUnpackContainers();
+    }
+
+    @Override
+    Map<String, RuntimeException> deleteObjects(List<String> keys) {
+        DeleteObjectsResult result = time(() -> s3.deleteObjects(new DeleteObjectsRequest(config.getBucketName())
+                .withKeys(keys.toArray(new String[0]))), OPERATION_DELETE_OBJECTS);
+        Map<String, RuntimeException> errors = new HashMap<>();
+        for (AbstractDeleteResult deleteResult : result.getResults()) {
+            if (deleteResult instanceof DeleteError) {
+                DeleteError error = (DeleteError) deleteResult;
+                errors.put(error.getKey(), new RuntimeException(String.format("could not delete %s: %s (%s)",
+                        error.getKey(), error.getMessage(), error.getCode())));
+            }
+        }
+        return errors;
+    }
+
+    @Override
+    boolean isReadAheadCandidate(S3ObjectVersion version) {
+        // remote-copy does not read the source data
+        return !config.isRemoteCopy() && super.isReadAheadCandidate(version);
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public void updateObject(final String identifier, SyncObject object) {
@@ -442,6 +634,12 @@ public class EcsS3Storage extends AbstractS3Storage<EcsS3Config> implements Opti
                 throw new SkipObjectException("source object is a directory and preserveDirectories is false");
             }
 
+            // a common prefix of an S3 source in directoryMode, which has no placeholder to copy
+            if (isSyntheticDirectory(object)) {
+                log.debug("{} is a prefix without a placeholder object; skipping", object.getRelativePath());
+                throw new SkipObjectException("source directory has no placeholder object");
+            }
+
             if (config.isIncludeVersions() && object instanceof BlobSyncObject) {
                 List<BlobSyncObject> sourceBlobSnapshots = (List<BlobSyncObject>) object.getProperty(AzureBlobStorage.PROP_BLOB_SNAPSHOTS);
                 ListIterator<S3ObjectVersion> targetVersionItor = loadVersions(identifier).listIterator();
@@ -495,15 +693,11 @@ public class EcsS3Storage extends AbstractS3Storage<EcsS3Config> implements Opti
                     }
 
                     log.debug("[{}]: deleting all versions in target", object.getRelativePath());
-                    int batchStartIndex = 0;
-                    while (batchStartIndex < deleteVersions.size()) {
-                        int batchEndIndex = Math.min(batchStartIndex + MAX_DELETION_SUPPORTED, deleteVersions.size());
-                        final List<ObjectKey> batchDeleteVersions = deleteVersions.subList(batchStartIndex, batchEndIndex);
+                    for (List<ObjectKey> batch : toDeleteBatches(deleteVersions)) {
                         operationWrapper((Function<Void>) () -> {
-                            s3.deleteObjects(new DeleteObjectsRequest(config.getBucketName()).withKeys(batchDeleteVersions));
+                            s3.deleteObjects(new DeleteObjectsRequest(config.getBucketName()).withKeys(batch));
                             return null;
                         }, OPERATION_DELETE_VERSIONS, object, identifier);
-                        batchStartIndex += MAX_DELETION_SUPPORTED;
                     }
                 } else if (targetVersions.size() != 0) {
                     log.debug("Source and target versions are the same.  Skipping {}", object.getRelativePath());
@@ -579,17 +773,11 @@ public class EcsS3Storage extends AbstractS3Storage<EcsS3Config> implements Opti
 
                     // batch delete all versions in target
                     log.debug("[{}]: deleting all versions in target", object.getRelativePath());
-                    if (!deleteVersions.isEmpty()) {
-                        int batchStartIndex = 0;
-                        while (batchStartIndex < deleteVersions.size()) {
-                            int batchEndIndex = Math.min(batchStartIndex + MAX_DELETION_SUPPORTED, deleteVersions.size());
-                            final List<ObjectKey> batchDeleteVersions = deleteVersions.subList(batchStartIndex, batchEndIndex);
-                            operationWrapper((Function<Void>) () -> {
-                                s3.deleteObjects(new DeleteObjectsRequest(config.getBucketName()).withKeys(batchDeleteVersions));
-                                return null;
-                            }, OPERATION_DELETE_VERSIONS, object, identifier);
-                            batchStartIndex += MAX_DELETION_SUPPORTED;
-                        }
+                    for (List<ObjectKey> batch : toDeleteBatches(deleteVersions)) {
+                        operationWrapper((Function<Void>) () -> {
+                            s3.deleteObjects(new DeleteObjectsRequest(config.getBucketName()).withKeys(batch));
+                            return null;
+                        }, OPERATION_DELETE_VERSIONS, object, identifier);
                     }
 
                     // replay version history in target
@@ -729,37 +917,42 @@ public class EcsS3Storage extends AbstractS3Storage<EcsS3Config> implements Opti
         } else {
             // MPU is enabled and content-length is above threshold
             LargeFileUploader uploader;
-
-            // TODO: we should not reference another plugin from this one - where should this constant live??
-            File file = (File) obj.getProperty("filesystem.file");
-            if (file != null) {
-                // we can read file parts in parallel
-                uploader = new LargeFileUploader(s3, config.getBucketName(), targetKey, file);
-                // because we are bypassing the source data stream, we need to make
-                // sure to update the source-read and target-write windows, as well as the object's bytes-read
-                // TODO: apply bandwidth throttle here
-                uploader.setProgressListener(new ByteTransferListener(obj));
-            } else if (config.isRemoteCopy()) {
+            long partSize = getMpuPartSize(obj.getMetadata().getContentLength());
+            MultipartMd5InputStream partMd5Stream = null;
+            SpooledMultipartSource spooledSource = null;
+            // records the state of the MPU in the DB, so it can be resumed (null if there is no shared DB)
+            MultipartUploadTracker tracker = config.isMpuResumeEnabled() ? createMpuTracker(obj, targetKey, partSize) : null;
+
+            RangedSource rangedSource = obj.getRangedSource();
+            if (config.isRemoteCopy()) {
                 String sourceKey = source.getIdentifier(obj.getRelativePath(), obj.getMetadata().isDirectory());
                 uploader = new LargeFileUploader(s3, source.config.getBucketName(), sourceKey, config.getBucketName(), targetKey);
-            } else if (obj.getProperty(AbstractS3Storage.PROP_MULTIPART_SOURCE) != null) {
-                // our source object supports parallel streams
-                // TODO: need to generalize a parallel stream source as a 1st-class concept in ecs-sync
-                //       i.e. maybe embed logic in SyncObject so that streams are wrapped properly and checksum
-                //       calculation is automatic
-                uploader = new LargeFileUploader(s3, config.getBucketName(), targetKey,
-                        (LargeFileMultipartSource) obj.getProperty(AbstractS3Storage.PROP_MULTIPART_SOURCE));
-                // because we are bypassing the source data stream, we need to make
-                // sure to update the source-read and target-write windows, as well as the object's bytes-read
-                uploader.setProgressListener(new ByteTransferListener(obj));
+            } else if (rangedSource != null) {
+                // our source object supports parallel ranged reads
+                RangedMultipartSource multipartSource = new RangedMultipartSource(rangedSource);
+                uploader = tracker != null
+                        ? new TrackedLargeFileUploader(s3, config.getBucketName(), targetKey, multipartSource, tracker)
+                        : new LargeFileUploader(s3, config.getBucketName(), targetKey, multipartSource);
+                // because we are bypassing the target-side data stream, we need to update the target-write window
+                uploader.setProgressListener(new ByteTransferListener());
             } else {
                 InputStream dataStream = obj.getDataStream();
+                if (isMultipartEtagVerified()) dataStream = partMd5Stream = new MultipartMd5InputStream(dataStream, partSize);
                 if (options.isMonitorPerformance())
                     dataStream = new ProgressInputStream(dataStream, new PerformanceListener(getWriteWindow()));
-                uploader = new LargeFileUploader(s3, config.getBucketName(), targetKey, dataStream, obj.getMetadata().getContentLength());
-                uploader.setCloseStream(true);
+                if (config.isMpuResumeEnabled()) {
+                    // a resumed MPU skips the parts that were already uploaded, which we would have to spool
+                    uploader = tracker != null
+                            ? new TrackedLargeFileUploader(s3, config.getBucketName(), targetKey, dataStream, obj.getMetadata().getContentLength(), tracker)
+                            : new LargeFileUploader(s3, config.getBucketName(), targetKey, dataStream, obj.getMetadata().getContentLength());
+                    uploader.setCloseStream(true);
+                } else {
+                    // the stream can only be read in order, so spool its parts to upload them in parallel
+                    spooledSource = spooledMultipartSource(dataStream, obj.getMetadata().getContentLength(), partSize);
+                    uploader = new SpooledLargeFileUploader(s3, config.getBucketName(), targetKey, spooledSource);
+                }
             }
-            uploader.withPartSize((long) config.getMpuPartSizeMb() * 1024 * 1024).withMpuThreshold((long) config.getMpuThresholdMb() * 1024 * 1024);
+            uploader.withPartSize(partSize).withMpuThreshold((long) config.getMpuThresholdMb() * 1024 * 1024);
             uploader.setObjectMetadata(om);
 
             if (options.isSyncAcl()) uploader.setAcl(acl);
@@ -768,9 +961,20 @@ public class EcsS3Storage extends AbstractS3Storage<EcsS3Config> implements Opti
             // if resume-mpu is enabled, try to find an existing uploadId to resume
             if (config.isMpuResumeEnabled()) {
                 uploader.setAbortMpuOnFailure(false); // see additional MPU abort logic in the catch block below
-                String uploadId = getLatestMultipartUploadId(targetKey, obj.getMetadata().getModificationTime());
-                if (uploadId != null) {
-                    uploader.setResumeContext(new LargeFileUploaderResumeContext().withUploadId(uploadId));
+                if (tracker != null) {
+                    // resume the upload recorded in the DB; the uploader lists its parts and only uploads the missing ones
+                    String uploadId = getResumableUploadId(tracker);
+                    if (uploadId != null) {
+                        LargeFileUploaderResumeContext resumeContext = new LargeFileUploaderResumeContext().withUploadId(uploadId);
+                        // listed parts were already matched to their recorded ETags, so re-upload any part that differs from the source
+                        resumeContext.setOverwriteMismatchedParts(true);
+                        uploader.setResumeContext(resumeContext);
+                    }
+                } else {
+                    String uploadId = getLatestMultipartUploadId(targetKey, obj.getMetadata().getModificationTime());
+                    if (uploadId != null) {
+                        uploader.setResumeContext(new LargeFileUploaderResumeContext().withUploadId(uploadId));
+                    }
                 }
                 // TODO: list all possible states and expected behavior
                 //       i.e. when should we: overwrite?  abort?  retry?
@@ -808,20 +1012,71 @@ public class EcsS3Storage extends AbstractS3Storage<EcsS3Config> implements Opti
                     return null;
             }, config.isRemoteCopy() ? OPERATION_MPU_COPY : OPERATION_MPU, obj, targetKey);
                 log.debug("Wrote {} as MPU; etag: {}", targetKey, uploader.getETag());
+                if (partMd5Stream != null) obj.setCompositeMd5Hex(partMd5Stream.getCompositeMd5Hex());
             } catch (RuntimeException uploadException) {
                 // additional MPU abort logic when resume is enabled
                 // (if the error here is not retriable, we should manually abort the MPU)
                 if (shouldAbortMpu(uploader, uploadException)) {
                     log.info("Aborting MPU for {} due to non-resumable exception: {}", uploader.getKey(), uploadException);
                     s3.abortMultipartUpload(new AbortMultipartUploadRequest(uploader.getBucket(), uploader.getKey(), uploader.getResumeContext().getUploadId()));
+                    if (tracker != null) tracker.uploadFinished(uploader.getResumeContext().getUploadId());
                 } else {
                     log.debug("Not aborting MPU for {} due to resumable exception: {}", uploader.getKey(), uploadException);
                 }
                 throw uploadException;
+            } finally {
+                if (spooledSource != null) {
+                    try {
+                        spooledSource.close();
+                    } catch (Exception e) {
+                        log.warn("could not close spooled source of {}", targetKey, e);
+                    }
+                }
             }
         }
     }
 
+    @Override
+    void abortMultipartUpload(String key, String uploadId) {
+        s3.abortMultipartUpload(new AbortMultipartUploadRequest(config.getBucketName(), key, uploadId));
+    }
+
+    @Override
+    boolean isMultipartUploadPresent(String key, String uploadId) {
+        try {
+            s3.listParts(new ListPartsRequest(config.getBucketName(), key, uploadId).withMaxParts(1));
+            return true;
+        } catch (S3Exception e) {
+            if (e.getHttpCode() == 404) return false;
+            throw e;
+        }
+    }
+
+    @Override
+    int abortMultipartUploads(Date initiatedBefore, Set<String> keepUploadIds) {
+        int aborted = 0;
+        ListMultipartUploadsRequest request = new ListMultipartUploadsRequest(config.getBucketName()).withPrefix(config.getKeyPrefix());
+        ListMultipartUploadsResult result = null;
+        do {
+            if (result == null) {
+                result = s3.listMultipartUploads(request);
+            } else {
+                result = s3.listMultipartUploads(request.withKeyMarker(result.getNextKeyMarker()).withUploadIdMarker(result.getNextUploadIdMarker()));
+            }
+            for (Upload upload : result.getUploads()) {
+                if (keepUploadIds.contains(upload.getUploadId()) || !upload.getInitiated().before(initiatedBefore)) continue;
+                try {
+                    abortMultipartUpload(upload.getKey(), upload.getUploadId());
+                    log.info("aborted stale MPU {} of {} (initiated {})", upload.getUploadId(), upload.getKey(), upload.getInitiated());
+                    aborted++;
+                } catch (RuntimeException e) {
+                    log.warn("could not abort stale MPU {} of {}", upload.getUploadId(), upload.getKey(), e);
+                }
+            }
+        } while (result.isTruncated());
+        return aborted;
+    }
+
     /*
      * returns the latest (most recently initiated) MPU for the configured bucket/key that was initiated after
      * initiatedAfter, or null if none is found.
@@ -1131,52 +1386,88 @@ public class EcsS3Storage extends AbstractS3Storage<EcsS3Config> implements Opti
 
     private class PrefixIterator extends ReadOnlyIterator<ObjectSummary> {
         private final String prefix;
-        private ListObjectsResult listing;
-        private Iterator<S3Object> objectIterator;
+        private final boolean delimited;
+        private final String startAfter;
+        private final String endWith;
+        private final PrefetchingPageIterator<ListObjectsResult> pages;
+        private Iterator<S3Object> objectIterator = Collections.emptyIterator();
+        private Iterator<String> commonPrefixIterator = Collections.emptyIterator();
+        private boolean endOfRange;
+
+        PrefixIterator(String prefix, boolean delimited) {
+            this(prefix, delimited, null, null);
+        }
 
-        PrefixIterator(String prefix) {
+        /**
+         * Lists only the key range after <code>startAfter</code> up to and including <code>endWith</code> (either may
+         * be null)
+         */
+        PrefixIterator(String prefix, boolean delimited, String startAfter, String endWith) {
             this.prefix = prefix;
+            this.delimited = delimited;
+            this.startAfter = startAfter;
+            this.endWith = endWith;
+            this.pages = new PrefetchingPageIterator<>(this::listFirstPage, this::listNextPage);
         }
 
         @Override
         protected ObjectSummary getNextObject() {
-            if (listing == null || (!objectIterator.hasNext() && listing.isTruncated())) {
-                getNextBatch();
-            }
+            while (!endOfRange) {
+                if (!objectIterator.hasNext() && !commonPrefixIterator.hasNext()) {
+                    // list is not truncated and iterators are finished; no more objects
+                    if (!pages.hasNext()) return null;
+                    ListObjectsResult listing = pages.next();
+                    objectIterator = listing.getObjects().iterator();
+                    commonPrefixIterator = listing.getCommonPrefixes().iterator();
+                    continue;
+                }
+
+                // sub-directories (only in delimited listings)
+                if (!objectIterator.hasNext()) {
+                    return new ObjectSummary(commonPrefixIterator.next(), true, 0);
+                }
 
-            if (objectIterator.hasNext()) {
                 S3Object object = objectIterator.next();
+                // the placeholder of the directory being listed is not its own child
+                if (delimited && object.getKey().equals(prefix)) continue;
+                // past the end of this key range
+                if (endWith != null && compareKeys(object.getKey(), endWith) > 0) {
+                    endOfRange = true;
+                    pages.close();
+                    break;
+                }
                 return new ObjectSummary(object.getKey(), false, object.getSize());
             }
-
-            // list is not truncated and iterators are finished; no more objects
             return null;
         }
 
-        private void getNextBatch() {
-            if (listing == null) {
-                listing = time(() -> {
-                    ListObjectsRequest request = new ListObjectsRequest(config.getBucketName());
-                    request.setPrefix("".equals(prefix) ? null : prefix);
-                    if (config.isUrlEncodeKeys()) request.setEncodingType(EncodingType.url);
-                    return s3.listObjects(request);
-                }, OPERATION_LIST_OBJECTS);
-            } else {
-                log.info("getting next page of objects [prefix: {}, marker: {}, nextMarker: {}, encodingType: {}, maxKeys: {}]",
-                        listing.getPrefix(), listing.getMarker(), listing.getNextMarker(), listing.getEncodingType(), listing.getMaxKeys());
-                listing = time(() -> s3.listMoreObjects(listing), OPERATION_LIST_OBJECTS);
-            }
-            objectIterator = listing.getObjects().iterator();
+        private ListObjectsResult listFirstPage() {
+            return time(() -> {
+                ListObjectsRequest request = new ListObjectsRequest(config.getBucketName());
+                request.setPrefix("".equals(prefix) ? null : prefix);
+                if (delimited) request.setDelimiter(DELIMITER);
+                if (startAfter != null) request.setMarker(startAfter);
+                if (config.isUrlEncodeKeys()) request.setEncodingType(EncodingType.url);
+                return s3.listObjects(request);
+            }, OPERATION_LIST_OBJECTS);
+        }
+
+        private ListObjectsResult listNextPage(ListObjectsResult listing) {
+            if (!listing.isTruncated()) return null;
+            log.info("getting next page of objects [prefix: {}, marker: {}, nextMarker: {}, encodingType: {}, maxKeys: {}]",
+                    listing.getPrefix(), listing.getMarker(), listing.getNextMarker(), listing.getEncodingType(), listing.getMaxKeys());
+            return time(() -> s3.listMoreObjects(listing), OPERATION_LIST_OBJECTS);
         }
     }
 
     private class DeletedObjectIterator extends ReadOnlyIterator<ObjectSummary> {
         private final String prefix;
-        private ListVersionsResult versionListing;
-        private Iterator<AbstractVersion> versionIterator;
+        private final PrefetchingPageIterator<ListVersionsResult> pages;
+        private Iterator<AbstractVersion> versionIterator = Collections.emptyIterator();
 
         DeletedObjectIterator(String prefix) {
             this.prefix = prefix;
+            this.pages = new PrefetchingPageIterator<>(this::listFirstPage, this::listNextPage);
         }
 
         @Override
@@ -1193,30 +1484,26 @@ public class EcsS3Storage extends AbstractS3Storage<EcsS3Config> implements Opti
 
         private AbstractVersion getNextVersion() {
             // look for deleted objects in versioned bucket
-            if (versionListing == null || (!versionIterator.hasNext() && versionListing.isTruncated())) {
-                getNextVersionBatch();
-            }
-
-            if (versionIterator.hasNext()) {
-                return versionIterator.next();
+            while (!versionIterator.hasNext()) {
+                // no more versions
+                if (!pages.hasNext()) return null;
+                versionIterator = pages.next().getVersions().iterator();
             }
+            return versionIterator.next();
+        }
 
-            // no more versions
-            return null;
+        private ListVersionsResult listFirstPage() {
+            return time(() -> {
+                ListVersionsRequest request = new ListVersionsRequest(config.getBucketName());
+                request.setPrefix("".equals(prefix) ? null : prefix);
+                if (config.isUrlEncodeKeys()) request.setEncodingType(EncodingType.url);
+                return s3.listVersions(request);
+            }, OPERATION_LIST_VERSIONS);
         }
 
-        private void getNextVersionBatch() {
-            if (versionListing == null) {
-                versionListing = time(() -> {
-                    ListVersionsRequest request = new ListVersionsRequest(config.getBucketName());
-                    request.setPrefix("".equals(prefix) ? null : prefix);
-                    if (config.isUrlEncodeKeys()) request.setEncodingType(EncodingType.url);
-                    return s3.listVersions(request);
-                }, OPERATION_LIST_VERSIONS);
-            } else {
-                versionListing = time(() -> s3.listMoreVersions(versionListing), OPERATION_LIST_VERSIONS);
-            }
-            versionIterator = versionListing.getVersions().iterator();
+        private ListVersionsResult listNextPage(ListVersionsResult versionListing) {
+            if (!versionListing.isTruncated()) return null;
+            return time(() -> s3.listMoreVersions(versionListing), OPERATION_LIST_VERSIONS);
         }
     }
 }
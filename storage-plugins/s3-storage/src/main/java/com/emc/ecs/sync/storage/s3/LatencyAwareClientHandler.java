@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2026 Dell Inc. or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.emc.ecs.sync.storage.s3;
+
+import com.sun.jersey.api.client.ClientHandler;
+import com.sun.jersey.api.client.ClientHandlerException;
+import com.sun.jersey.api.client.ClientRequest;
+import com.sun.jersey.api.client.ClientResponse;
+
+import java.net.URI;
+
+/**
+ * Sends each request to the host chosen by a {@link LatencyAwareHostSelector} and reports the response time and
+ * outcome back to the selector. This handler runs after the request is signed, so it can only be used with V2
+ * signatures (which do not include the host) and without the smart client (which would choose the host first). The
+ * delegate returns once the response headers are received, so the response time of a request without a body is its
+ * time to first byte. The time of a request with a body (PUT, UploadPart, POST) includes the upload, so it only counts
+ * toward the outcome.
+ */
+class LatencyAwareClientHandler implements ClientHandler {
+    private final ClientHandler delegate;
+    private final LatencyAwareHostSelector selector;
+
+    LatencyAwareClientHandler(ClientHandler delegate, LatencyAwareHostSelector selector) {
+        this.delegate = delegate;
+        this.selector = selector;
+    }
+
+    @Override
+    public ClientResponse handle(ClientRequest request) throws ClientHandlerException {
+        URI uri = request.getURI();
+        String host = selector.select(uri.getRawAuthority());
+        if (!host.equals(uri.getRawAuthority())) request.setURI(withAuthority(uri, host));
+
+        boolean sampled = request.getEntity() == null;
+        long start = System.nanoTime();
+        boolean error = true;
+        try {
+            ClientResponse response = delegate.handle(request);
+            error = response.getStatus() >= 500;
+            return response;
+        } finally {
+            selector.complete(host, sampled ? System.nanoTime() - start : -1, error);
+        }
+    }
+
+    // keeps the raw (already encoded) path and query, which UriBuilder would re-encode
+    static URI withAuthority(URI uri, String authority) {
+        StringBuilder routed = new StringBuilder(uri.getScheme()).append("://").append(authority);
+        if (uri.getRawPath() != null) routed.append(uri.getRawPath());
+        if (uri.getRawQuery() != null) routed.append('?').append(uri.getRawQuery());
+        return URI.create(routed.toString());
+    }
+}
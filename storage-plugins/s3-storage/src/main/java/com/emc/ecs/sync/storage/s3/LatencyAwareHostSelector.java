@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2026 Dell Inc. or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.emc.ecs.sync.storage.s3;
+
+import com.emc.ecs.sync.rest.EndpointHostStats;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Picks the host for each request from the endpoint hosts, weighted by the inverse of each host's moving average
+ * latency, so faster nodes get proportionally more of the load (a small share is spread evenly to keep the averages
+ * current). A host that fails <code>errorThreshold</code> requests in a row (exceptions or 5xx responses) is ejected
+ * for <code>ejectMs</code> (doubling with each consecutive ejection, up to 16x). When the ejection expires, the next
+ * request is sent to the host as a probe: if it succeeds, the host is healthy again, otherwise it is ejected for the
+ * next period. Only one probe is in flight per host.
+ * <p>
+ * Hosts are identified by authority (host[:port]), and are the configured hosts plus any host seen in a request. If
+ * all hosts are ejected, requests go to the host they were addressed to.
+ */
+class LatencyAwareHostSelector {
+    static final double LATENCY_WEIGHT = 0.2;
+    // share of requests spread evenly over the healthy hosts, so a host whose average was skewed by a few slow
+    // requests gets new samples
+    static final double EXPLORE_RATIO = 0.05;
+    static final int MAX_BACKOFF_SHIFT = 4;
+
+    private final int errorThreshold;
+    private final long ejectNanos;
+    private final Map<String, HostState> hosts = new TreeMap<>();
+
+    LatencyAwareHostSelector(int errorThreshold, long ejectMs, Collection<String> hosts) {
+        this.errorThreshold = errorThreshold;
+        this.ejectNanos = TimeUnit.MILLISECONDS.toNanos(ejectMs);
+        for (String host : hosts) this.hosts.put(host, new HostState());
+    }
+
+    synchronized String select(String requestedHost) {
+        hosts.computeIfAbsent(requestedHost, h -> new HostState());
+        long now = System.nanoTime();
+
+        // an ejected host whose time is up gets the next request as its probe
+        for (Map.Entry<String, HostState> entry : hosts.entrySet()) {
+            HostState state = entry.getValue();
+            if (state.ejected && !state.probing && now - state.ejectedUntil >= 0) {
+                state.probing = true;
+                return entry.getKey();
+            }
+        }
+
+        // hosts without samples are assumed as fast as the fastest host, so they are tried early
+        double fastest = Double.NaN;
+        for (HostState state : hosts.values()) {
+            if (!state.ejected && !Double.isNaN(state.latencyNanos))
+                fastest = Double.isNaN(fastest) ? state.latencyNanos : Math.min(fastest, state.latencyNanos);
+        }
+        if (Double.isNaN(fastest)) fastest = 1;
+
+        List<String> candidates = new ArrayList<>();
+        double[] weights = new double[hosts.size()];
+        double totalWeight = 0;
+        for (Map.Entry<String, HostState> entry : hosts.entrySet()) {
+            HostState state = entry.getValue();
+            if (state.ejected) continue;
+            double latency = Double.isNaN(state.latencyNanos) ? fastest : state.latencyNanos;
+            weights[candidates.size()] = 1 / Math.max(latency, 1);
+            totalWeight += weights[candidates.size()];
+            candidates.add(entry.getKey());
+        }
+        if (candidates.isEmpty()) return requestedHost;
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextDouble() < EXPLORE_RATIO) return candidates.get(random.nextInt(candidates.size()));
+
+        double point = random.nextDouble() * totalWeight;
+        for (int i = 0; i < candidates.size(); i++) {
+            point -= weights[i];
+            if (point < 0) return candidates.get(i);
+        }
+        return candidates.get(candidates.size() - 1);
+    }
+
+    /**
+     * Records the result of a request sent to <code>host</code>. Only successful requests count toward latency, since
+     * a fast failure says nothing about how the host performs. A negative latency means the request is not a latency
+     * sample (i.e. its time includes uploading a body, which depends on the size of the body more than on the host).
+     */
+    synchronized void complete(String host, long latencyNanos, boolean error) {
+        HostState state = hosts.computeIfAbsent(host, h -> new HostState());
+        state.requestCount++;
+        if (error) {
+            state.errorCount++;
+            state.consecutiveErrors++;
+            if (state.probing || (!state.ejected && state.consecutiveErrors >= errorThreshold)) eject(state);
+        } else {
+            state.consecutiveErrors = 0;
+            if (state.probing) {
+                state.probing = false;
+                state.ejected = false;
+                state.ejectionStreak = 0;
+            }
+            if (latencyNanos >= 0)
+                state.latencyNanos = Double.isNaN(state.latencyNanos) ? latencyNanos
+                        : LATENCY_WEIGHT * latencyNanos + (1 - LATENCY_WEIGHT) * state.latencyNanos;
+        }
+    }
+
+    private void eject(HostState state) {
+        state.probing = false;
+        state.ejected = true;
+        state.ejectionCount++;
+        state.ejectedUntil = System.nanoTime() + (ejectNanos << Math.min(state.ejectionStreak, MAX_BACKOFF_SHIFT));
+        state.ejectionStreak++;
+    }
+
+    synchronized List<EndpointHostStats> getStats(String role) {
+        List<EndpointHostStats> stats = new ArrayList<>();
+        for (Map.Entry<String, HostState> entry : hosts.entrySet()) {
+            HostState state = entry.getValue();
+            EndpointHostStats hostStats = new EndpointHostStats();
+            hostStats.setRole(role);
+            hostStats.setHost(entry.getKey());
+            hostStats.setHealthy(!state.ejected);
+            hostStats.setLatencyMs(Double.isNaN(state.latencyNanos) ? 0 : state.latencyNanos / 1_000_000);
+            hostStats.setRequestCount(state.requestCount);
+            hostStats.setErrorCount(state.errorCount);
+            hostStats.setEjectionCount(state.ejectionCount);
+            stats.add(hostStats);
+        }
+        return stats;
+    }
+
+    private static class HostState {
+        double latencyNanos = Double.NaN;
+        long requestCount;
+        long errorCount;
+        int consecutiveErrors;
+        boolean ejected;
+        boolean probing;
+        long ejectedUntil;
+        int ejectionStreak;
+        long ejectionCount;
+    }
+}
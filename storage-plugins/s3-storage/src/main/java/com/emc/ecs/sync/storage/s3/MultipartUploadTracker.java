@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2026 Dell Inc. or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.emc.ecs.sync.storage.s3;
+
+import com.emc.ecs.sync.service.MultipartUploadStateService;
+import com.emc.ecs.sync.service.MultipartUploadStateService.MultipartUploadState;
+import com.emc.object.s3.bean.MultipartPart;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Records the progress of one object's MPU in the {@link MultipartUploadStateService}, as it is reported by the
+ * uploader (see {@link TrackedLargeFileUploader} and {@link AwsS3LargeFileUploader}), so a later attempt can resume the
+ * upload. When resuming, only the listed parts that match a recorded part are kept; any other part is uploaded again.
+ * <p>
+ * State is recorded on a best-effort basis: if the DB cannot be written, the upload continues, but may have to start
+ * over if it is interrupted.
+ */
+public class MultipartUploadTracker {
+    private static final Logger log = LoggerFactory.getLogger(MultipartUploadTracker.class);
+
+    private final MultipartUploadStateService stateService;
+    private final String sourceId;
+    private final String targetKey;
+    private final long totalSize;
+    private final long partSize;
+    private final long sourceMtime;
+    private volatile MultipartUploadState resumedUpload;
+
+    public MultipartUploadTracker(MultipartUploadStateService stateService, String sourceId, String targetKey,
+                                  long totalSize, long partSize, long sourceMtime) {
+        this.stateService = stateService;
+        this.sourceId = sourceId;
+        this.targetKey = targetKey;
+        this.totalSize = totalSize;
+        this.partSize = partSize;
+        this.sourceMtime = sourceMtime;
+    }
+
+    /**
+     * Returns the ID of the upload recorded for this object, if it can be resumed (same target key, size, part size and
+     * source mtime, and the upload still exists according to <code>uploadExists</code>). Otherwise returns null, so the
+     * caller starts a new upload: a recorded upload that no longer exists is forgotten, and an obsolete upload is passed
+     * to <code>obsoleteUploadHandler</code> (to abort it) and forgotten
+     */
+    public String getResumableUploadId(Predicate<MultipartUploadState> uploadExists,
+                                       Consumer<MultipartUploadState> obsoleteUploadHandler) {
+        MultipartUploadState upload = stateService.getUpload(sourceId);
+        if (upload == null) return null;
+        if (Objects.equals(upload.getTargetKey(), targetKey) && upload.getTotalSize() == totalSize
+                && upload.getPartSize() == partSize && upload.getSourceMtime() == sourceMtime) {
+            if (!uploadExists.test(upload)) {
+                log.info("recorded MPU {} of {} no longer exists (it was aborted or has expired) - starting a new upload",
+                        upload.getUploadId(), targetKey);
+                stateService.uploadFinished(sourceId, upload.getUploadId());
+                return null;
+            }
+            log.info("resuming MPU {} of {} ({} parts recorded)", upload.getUploadId(), targetKey, upload.getPartETags().size());
+            resumedUpload = upload;
+            return upload.getUploadId();
+        }
+        log.info("recorded MPU {} of {} is obsolete (the object or part size has changed)", upload.getUploadId(), sourceId);
+        try {
+            obsoleteUploadHandler.accept(upload);
+        } catch (RuntimeException e) {
+            log.warn("could not abort obsolete MPU {} of {}", upload.getUploadId(), upload.getTargetKey(), e);
+        }
+        stateService.uploadFinished(sourceId, upload.getUploadId());
+        return null;
+    }
+
+    public void uploadInitiated(String uploadId) {
+        MultipartUploadState upload = new MultipartUploadState();
+        upload.setSourceId(sourceId);
+        upload.setTargetKey(targetKey);
+        upload.setUploadId(uploadId);
+        upload.setTotalSize(totalSize);
+        upload.setPartSize(partSize);
+        upload.setSourceMtime(sourceMtime);
+        upload.setInitiated(System.currentTimeMillis());
+        try {
+            stateService.uploadInitiated(upload);
+        } catch (RuntimeException e) {
+            log.warn("could not record MPU {} of {}", uploadId, targetKey, e);
+        }
+    }
+
+    public void partUploaded(String uploadId, int partNumber, String eTag) {
+        try {
+            stateService.partUploaded(uploadId, partNumber, normalizeETag(eTag));
+        } catch (RuntimeException e) {
+            log.warn("could not record part {} of MPU {}", partNumber, uploadId, e);
+        }
+    }
+
+    /**
+     * Returns the listed parts of a resumed upload that match a recorded part (by number and ETag). If the upload was
+     * not resumed from recorded state, all listed parts are returned
+     */
+    public List<MultipartPart> filterParts(String uploadId, List<MultipartPart> listedParts) {
+        MultipartUploadState upload = resumedUpload;
+        if (upload == null || !upload.getUploadId().equals(uploadId)) return listedParts;
+        List<MultipartPart> parts = new ArrayList<>();
+        for (MultipartPart part : listedParts) {
+            String recordedETag = upload.getPartETags().get(part.getPartNumber());
+            if (recordedETag != null && recordedETag.equals(normalizeETag(part.getETag()))) parts.add(part);
+            else log.debug("part {} of MPU {} does not match its recorded state and will be uploaded again", part.getPartNumber(), uploadId);
+        }
+        log.debug("MPU {} of {}: {} of {} listed parts match their recorded state", uploadId, targetKey, parts.size(), listedParts.size());
+        return parts;
+    }
+
+    /**
+     * Forgets an upload that was completed or aborted, or that no longer exists
+     */
+    public void uploadFinished(String uploadId) {
+        try {
+            stateService.uploadFinished(sourceId, uploadId);
+        } catch (RuntimeException e) {
+            log.warn("could not remove state of MPU {} of {}", uploadId, targetKey, e);
+        }
+    }
+
+    static String normalizeETag(String eTag) {
+        if (eTag == null) return null;
+        return eTag.replace("\"", "");
+    }
+}
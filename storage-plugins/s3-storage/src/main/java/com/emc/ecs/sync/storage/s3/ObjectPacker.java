@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2026 Dell Inc. or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.emc.ecs.sync.storage.s3;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Packs small objects from concurrent sync threads into containers of roughly <code>containerSize</code> bytes. When
+ * the open container is full, the thread that fills it swaps in a new container and writes the full one (outside of
+ * the lock, so other threads keep packing). An object is therefore acknowledged as soon as it is buffered, but it is
+ * only stored when its entry's future completes; if a container cannot be written, the failure handler is told which
+ * objects were lost (so packing cannot be combined with deleteSource).
+ */
+class ObjectPacker {
+    private final long containerSize;
+    private final Supplier<String> containerKeys;
+    private final Consumer<PackedContainer> writer;
+    private final BiConsumer<PackedContainer, RuntimeException> failureHandler;
+    private PackedContainer current;
+    // the keys of the open container and of the containers that are being written
+    private final Set<String> unwrittenKeys = new HashSet<>();
+
+    /**
+     * @param containerKeys  generates a unique key for each new container
+     * @param writer         writes a full container (and its index) to the target
+     * @param failureHandler is called when the writer fails, with the container whose objects were not stored
+     */
+    ObjectPacker(long containerSize, Supplier<String> containerKeys, Consumer<PackedContainer> writer,
+                 BiConsumer<PackedContainer, RuntimeException> failureHandler) {
+        this.containerSize = containerSize;
+        this.containerKeys = containerKeys;
+        this.writer = writer;
+        this.failureHandler = failureHandler;
+    }
+
+    /**
+     * @return the location of the object in its container
+     */
+    PackedEntry pack(String relativePath, byte[] data, long mtime) {
+        PackedContainer full = null;
+        PackedEntry entry;
+        synchronized (this) {
+            if (current != null && !current.isEmpty() && current.size() + data.length > containerSize) {
+                full = current;
+                current = null;
+            }
+            if (current == null) {
+                current = new PackedContainer(containerKeys.get());
+                unwrittenKeys.add(current.getKey());
+            }
+            entry = current.add(relativePath, data, mtime);
+        }
+        // this object is in the new container, so it is not affected if the full one fails
+        if (full != null) write(full);
+        return entry;
+    }
+
+    /**
+     * Writes the open container, if it has any objects (i.e. at the end of a sync)
+     */
+    void flush() {
+        PackedContainer container;
+        synchronized (this) {
+            container = current;
+            current = null;
+        }
+        if (container != null && !container.isEmpty()) write(container);
+    }
+
+    /**
+     * @return whether the container is still being filled or written (its objects cannot be read yet)
+     */
+    synchronized boolean isUnwritten(String containerKey) {
+        return unwrittenKeys.contains(containerKey);
+    }
+
+    private void write(PackedContainer container) {
+        try {
+            writer.accept(container);
+            container.getWritten().complete(null);
+        } catch (RuntimeException e) {
+            container.getWritten().completeExceptionally(e);
+            failureHandler.accept(container, e);
+        } finally {
+            synchronized (this) {
+                unwrittenKeys.remove(container.getKey());
+            }
+        }
+    }
+}
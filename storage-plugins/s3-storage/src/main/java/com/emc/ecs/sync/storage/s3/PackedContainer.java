@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2026 Dell Inc. or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.emc.ecs.sync.storage.s3;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * An in-memory tar archive of small objects (see packThresholdKb), along with its sidecar index. Each entry is a
+ * regular file whose data starts at a 512-byte boundary, so any object can be read back with a single ranged GET of
+ * the container. Names longer than 100 bytes use GNU long-name entries, so the container can also be extracted with
+ * standard tar tools.
+ * <p>
+ * The index is a text object with one line per entry: <code>offset TAB length TAB mtime TAB relative-path</code>
+ * <p>
+ * This class is not thread-safe.
+ */
+class PackedContainer {
+    static final String INDEX_SUFFIX = ".index";
+
+    private static final int BLOCK_SIZE = 512;
+    private static final int NAME_LENGTH = 100;
+    private static final String LONG_NAME = "././@LongLink";
+
+    /**
+     * Parses an index written by {@link #toIndex()}
+     */
+    static List<PackedEntry> parseIndex(String containerKey, InputStream index) throws IOException {
+        List<PackedEntry> entries = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(index, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) continue;
+                String[] fields = line.split("\t", 4);
+                if (fields.length < 4) throw new IOException("invalid index line in " + containerKey + ": " + line);
+                entries.add(new PackedEntry(containerKey, Long.parseLong(fields[0]), Long.parseLong(fields[1]),
+                        Long.parseLong(fields[2]), fields[3]));
+            }
+        }
+        return entries;
+    }
+
+    private final String key;
+    private final ByteArrayOutputStream tar = new ByteArrayOutputStream();
+    private final List<PackedEntry> entries = new ArrayList<>();
+    private final CompletableFuture<Void> written = new CompletableFuture<>();
+
+    PackedContainer(String key) {
+        this.key = key;
+    }
+
+    /**
+     * Appends an object to the container
+     *
+     * @return the location of the object's data in the container
+     */
+    PackedEntry add(String relativePath, byte[] data, long mtime) {
+        byte[] name = relativePath.getBytes(StandardCharsets.UTF_8);
+        if (name.length > NAME_LENGTH) {
+            // GNU long name: the name is the data of a preceding entry (NUL-terminated)
+            byte[] longName = new byte[name.length + 1];
+            System.arraycopy(name, 0, longName, 0, name.length);
+            writeHeader(LONG_NAME.getBytes(StandardCharsets.US_ASCII), longName.length, 0, 'L');
+            writePadded(longName);
+        }
+        writeHeader(name, data.length, mtime, '0');
+        PackedEntry entry = new PackedEntry(key, tar.size(), data.length, mtime, relativePath, written);
+        writePadded(data);
+        entries.add(entry);
+        return entry;
+    }
+
+    /**
+     * @return the size of the tar data written so far
+     */
+    long size() {
+        return tar.size();
+    }
+
+    boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    String getKey() {
+        return key;
+    }
+
+    List<PackedEntry> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * @return completes when the container is written (see {@link PackedEntry#getWritten()})
+     */
+    CompletableFuture<Void> getWritten() {
+        return written;
+    }
+
+    /**
+     * @return the complete tar archive (with its end-of-archive marker)
+     */
+    byte[] toTar() {
+        ByteArrayOutputStream archive = new ByteArrayOutputStream(tar.size() + 2 * BLOCK_SIZE);
+        archive.write(tar.toByteArray(), 0, tar.size());
+        archive.write(new byte[2 * BLOCK_SIZE], 0, 2 * BLOCK_SIZE);
+        return archive.toByteArray();
+    }
+
+    byte[] toIndex() {
+        StringBuilder index = new StringBuilder();
+        for (PackedEntry entry : entries) {
+            index.append(entry.getOffset()).append('\t').append(entry.getLength()).append('\t')
+                    .append(entry.getMtime()).append('\t').append(entry.getRelativePath()).append('\n');
+        }
+        return index.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void writeHeader(byte[] name, long size, long mtime, char type) {
+        byte[] header = new byte[BLOCK_SIZE];
+        System.arraycopy(name, 0, header, 0, Math.min(name.length, NAME_LENGTH));
+        putOctal(header, 100, 8, 0644); // mode
+        putOctal(header, 108, 8, 0); // uid
+        putOctal(header, 116, 8, 0); // gid
+        putOctal(header, 124, 12, size);
+        putOctal(header, 136, 12, mtime / 1000);
+        header[156] = (byte) type;
+        // old GNU magic and version ("ustar  \0"), which is required for long-name entries
+        byte[] magic = "ustar  ".getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(magic, 0, header, 257, magic.length);
+
+        // the checksum is calculated with the checksum field set to spaces
+        for (int i = 148; i < 156; i++) header[i] = ' ';
+        long checksum = 0;
+        for (byte b : header) checksum += b & 0xff;
+        putOctal(header, 148, 7, checksum);
+        header[155] = ' ';
+
+        tar.write(header, 0, header.length);
+    }
+
+    private void writePadded(byte[] data) {
+        tar.write(data, 0, data.length);
+        int remainder = data.length % BLOCK_SIZE;
+        if (remainder > 0) tar.write(new byte[BLOCK_SIZE - remainder], 0, BLOCK_SIZE - remainder);
+    }
+
+    /*
+     * writes a zero-padded, NUL-terminated octal number that fills the field
+     */
+    private static void putOctal(byte[] header, int offset, int length, long value) {
+        String octal = Long.toOctalString(value);
+        if (octal.length() > length - 1)
+            throw new IllegalArgumentException("value " + value + " does not fit in a tar header field");
+        StringBuilder field = new StringBuilder();
+        for (int i = octal.length(); i < length - 1; i++) field.append('0');
+        field.append(octal);
+        byte[] bytes = field.toString().getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(bytes, 0, header, offset, bytes.length);
+        header[offset + length - 1] = 0;
+    }
+}
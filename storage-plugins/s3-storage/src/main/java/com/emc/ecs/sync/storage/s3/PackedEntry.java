@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2026 Dell Inc. or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.emc.ecs.sync.storage.s3;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The location of an object that was packed into a container (see packThresholdKb). Its identifier records the
+ * container, the offset and length of the object's data in the container, the object's mtime and its relative path:
+ * <code>&lt;container-key&gt;#&lt;offset&gt;:&lt;length&gt;:&lt;mtime&gt;:&lt;relative-path&gt;</code>
+ */
+class PackedEntry {
+    static final String CONTAINER_SUFFIX = ".tar";
+    private static final String SEPARATOR = CONTAINER_SUFFIX + "#";
+
+    static boolean isPackedIdentifier(String identifier) {
+        return identifier.contains(SEPARATOR);
+    }
+
+    static PackedEntry fromIdentifier(String identifier) {
+        int index = identifier.indexOf(SEPARATOR);
+        if (index < 0) throw new IllegalArgumentException("not a packed object identifier: " + identifier);
+        String containerKey = identifier.substring(0, index + CONTAINER_SUFFIX.length());
+        String[] parts = identifier.substring(index + SEPARATOR.length()).split(":", 4);
+        if (parts.length < 4) throw new IllegalArgumentException("not a packed object identifier: " + identifier);
+        return new PackedEntry(containerKey, Long.parseLong(parts[0]), Long.parseLong(parts[1]),
+                Long.parseLong(parts[2]), parts[3]);
+    }
+
+    private final String containerKey;
+    private final long offset;
+    private final long length;
+    private final long mtime;
+    private final String relativePath;
+    private final CompletableFuture<Void> written;
+
+    /**
+     * Creates an entry of a container that is already written (i.e. parsed from an identifier or an index)
+     */
+    PackedEntry(String containerKey, long offset, long length, long mtime, String relativePath) {
+        this(containerKey, offset, length, mtime, relativePath, CompletableFuture.completedFuture(null));
+    }
+
+    PackedEntry(String containerKey, long offset, long length, long mtime, String relativePath,
+                CompletableFuture<Void> written) {
+        this.containerKey = containerKey;
+        this.offset = offset;
+        this.length = length;
+        this.mtime = mtime;
+        this.relativePath = relativePath;
+        this.written = written;
+    }
+
+    String toIdentifier() {
+        return containerKey + "#" + offset + ":" + length + ":" + mtime + ":" + relativePath;
+    }
+
+    String getContainerKey() {
+        return containerKey;
+    }
+
+    long getOffset() {
+        return offset;
+    }
+
+    long getLength() {
+        return length;
+    }
+
+    long getMtime() {
+        return mtime;
+    }
+
+    String getRelativePath() {
+        return relativePath;
+    }
+
+    /**
+     * @return completes when the container (and its index) is written, or exceptionally if it could not be written
+     */
+    CompletableFuture<Void> getWritten() {
+        return written;
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2026 Dell Inc. or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.emc.ecs.sync.storage.s3;
+
+import com.emc.ecs.sync.model.RangedSource;
+import com.emc.object.s3.lfu.LargeFileMultipartSource;
+
+import java.io.InputStream;
+
+/**
+ * Adapts the {@link RangedSource} of an object to the multipart source used by the large file uploaders, so parts
+ * are read from the source in parallel
+ */
+public class RangedMultipartSource implements LargeFileMultipartSource {
+    private final RangedSource rangedSource;
+
+    public RangedMultipartSource(RangedSource rangedSource) {
+        this.rangedSource = rangedSource;
+    }
+
+    @Override
+    public long getTotalSize() {
+        return rangedSource.getTotalSize();
+    }
+
+    @Override
+    public InputStream getCompleteDataStream() {
+        return rangedSource.getRangeStream(0, getTotalSize());
+    }
+
+    @Override
+    public InputStream getPartDataStream(long offset, long length) {
+        return rangedSource.getRangeStream(offset, length);
+    }
+}
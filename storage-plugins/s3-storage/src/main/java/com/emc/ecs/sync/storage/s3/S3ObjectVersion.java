@@ -15,6 +15,7 @@
  */
 package com.emc.ecs.sync.storage.s3;
 
+import com.emc.ecs.sync.config.ChecksumAlgorithm;
 import com.emc.ecs.sync.model.ObjectMetadata;
 import com.emc.ecs.sync.model.SyncObject;
 import com.emc.ecs.sync.storage.SyncStorage;
@@ -102,6 +103,14 @@ public class S3ObjectVersion extends SyncObject {
         }
     }
 
+    /**
+     * An instance that holds the entire version list only supports the aggregate MD5 (see {@link #getMd5Hex(boolean)})
+     */
+    @Override
+    public boolean isChecksumSupported(ChecksumAlgorithm algorithm) {
+        return algorithm == ChecksumAlgorithm.MD5 || getProperty(AbstractS3Storage.PROP_OBJECT_VERSIONS) == null;
+    }
+
     /**
      * Generates a standard MD5 (from the object data) for individual versions, but for an instance that holds the entire
      * version list, generates an aggregate MD5 (of the individual MD5s) of all versions
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2026 Dell Inc. or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.emc.ecs.sync.storage.s3;
+
+import com.emc.object.s3.LargeFileUploader;
+import com.emc.object.s3.S3Client;
+import com.emc.object.s3.bean.MultipartPartETag;
+
+import java.io.InputStream;
+
+/**
+ * A {@link LargeFileUploader} that reports each uploaded part to its {@link SpooledMultipartSource}, so the part's
+ * spool is kept until the part is uploaded (a failed part can be read again when it is retried)
+ */
+public class SpooledLargeFileUploader extends LargeFileUploader {
+    private final SpooledMultipartSource spooledSource;
+
+    public SpooledLargeFileUploader(S3Client s3Client, String bucket, String key, SpooledMultipartSource spooledSource) {
+        super(s3Client, bucket, key, spooledSource);
+        this.spooledSource = spooledSource;
+    }
+
+    @Override
+    protected MultipartPartETag uploadPart(String uploadId, int partNumber, InputStream is, long length) {
+        MultipartPartETag partETag = super.uploadPart(uploadId, partNumber, is, length);
+        spooledSource.partUploaded(partNumber);
+        return partETag;
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2026 Dell Inc. or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.emc.ecs.sync.storage.s3;
+
+import com.emc.ecs.sync.util.BufferPool;
+import com.emc.object.s3.lfu.LargeFileMultipartSource;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Adapts a stream that can only be read once, in order (i.e. the output of a transforming filter), to the multipart
+ * source used by the large file uploaders, so its parts can be uploaded in parallel. Each part is read from the stream
+ * into a spool when it is requested (along with any earlier parts that were not requested yet). Spools are kept in
+ * memory (in buffers leased from the job's buffer pool) while the shared <code>memoryBudgetKb</code> has room, and in
+ * temp files otherwise. Since the stream cannot be read again, a part can be read from its spool as many times as
+ * necessary (i.e. when its upload is retried) until the uploader reports it with {@link #partUploaded(int)}; then (or
+ * when the source is closed) the spool is released once its last stream is closed.
+ */
+public class SpooledMultipartSource implements LargeFileMultipartSource, Closeable {
+    // the largest array the JVM reliably allocates (larger parts are always spooled to disk)
+    static final int MAX_MEMORY_SPOOL_SIZE = Integer.MAX_VALUE - 8;
+
+    private final InputStream stream;
+    private final long totalSize;
+    private final long partSize;
+    private final Semaphore memoryBudgetKb;
+    private final BufferPool bufferPool;
+    private final Map<Long, Spool> spools = new HashMap<>();
+    private long position;
+    private boolean closed;
+    private RuntimeException readError;
+
+    public SpooledMultipartSource(InputStream stream, long totalSize, long partSize, Semaphore memoryBudgetKb) {
+        this(stream, totalSize, partSize, memoryBudgetKb, BufferPool.getShared());
+    }
+
+    public SpooledMultipartSource(InputStream stream, long totalSize, long partSize, Semaphore memoryBudgetKb,
+                                  BufferPool bufferPool) {
+        this.stream = stream;
+        this.totalSize = totalSize;
+        this.partSize = partSize;
+        this.memoryBudgetKb = memoryBudgetKb;
+        this.bufferPool = bufferPool;
+    }
+
+    @Override
+    public long getTotalSize() {
+        return totalSize;
+    }
+
+    @Override
+    public synchronized InputStream getCompleteDataStream() {
+        if (position > 0) throw new IllegalStateException("stream has already been read up to " + position);
+        position = totalSize;
+        return stream;
+    }
+
+    @Override
+    public InputStream getPartDataStream(long offset, long length) {
+        Spool spool;
+        synchronized (this) {
+            if (closed) throw new IllegalStateException("multipart source is closed");
+            // the stream position is unknown after an error, so no other part can be read
+            if (readError != null) throw new IllegalStateException("could not read an earlier part", readError);
+            if (offset < position) {
+                spool = spools.get(offset);
+                if (spool == null || spool.length != length)
+                    throw new IllegalStateException("part at offset " + offset + " has already been uploaded (stream is not seekable)");
+            } else {
+                // parts requested out of order - spool the skipped ones until they are requested
+                while (position < offset) {
+                    long skippedOffset = position;
+                    spools.put(skippedOffset, spool(Math.min(partSize, offset - skippedOffset)));
+                }
+                spool = spool(length);
+                spools.put(offset, spool);
+            }
+        }
+        return spool.open();
+    }
+
+    /**
+     * Releases the spool of a part whose upload succeeded (it cannot be read again)
+     */
+    public void partUploaded(int partNumber) {
+        Spool spool;
+        synchronized (this) {
+            spool = spools.remove((partNumber - 1) * partSize);
+        }
+        if (spool != null) spool.release();
+    }
+
+    synchronized int getSpooledPartCount() {
+        return spools.size();
+    }
+
+    // must hold the monitor; reads the next length bytes of the stream
+    private Spool spool(long length) {
+        try {
+            Spool spool;
+            int lengthKb = (int) ((length + 1023) / 1024);
+            if (length <= MAX_MEMORY_SPOOL_SIZE && memoryBudgetKb.tryAcquire(lengthKb)) {
+                byte[] buffer = bufferPool.leaseArray((int) length);
+                try {
+                    readFully(stream, buffer, (int) length);
+                } catch (IOException | RuntimeException e) {
+                    bufferPool.release(buffer);
+                    memoryBudgetKb.release(lengthKb);
+                    throw e;
+                }
+                spool = new Spool(length, buffer, null, lengthKb);
+            } else {
+                File file = File.createTempFile("ecs-sync-part-", ".spool");
+                byte[] buffer = bufferPool.leaseArray(64 * 1024);
+                try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+                    long remaining = length;
+                    while (remaining > 0) {
+                        int read = stream.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                        if (read < 0) throw new EOFException("stream ended " + remaining + " bytes before the end of the part");
+                        out.write(buffer, 0, read);
+                        remaining -= read;
+                    }
+                } catch (IOException | RuntimeException e) {
+                    Files.deleteIfExists(file.toPath());
+                    throw e;
+                } finally {
+                    bufferPool.release(buffer);
+                }
+                spool = new Spool(length, null, file, 0);
+            }
+            position += length;
+            return spool;
+        } catch (IOException e) {
+            throw readError = new RuntimeException("could not spool part at offset " + position, e);
+        } catch (RuntimeException e) {
+            throw readError = e;
+        }
+    }
+
+    private static void readFully(InputStream in, byte[] buffer, int length) throws IOException {
+        int offset = 0;
+        while (offset < length) {
+            int read = in.read(buffer, offset, length - offset);
+            if (read < 0) throw new EOFException("stream ended " + (length - offset) + " bytes before the end of the part");
+            offset += read;
+        }
+    }
+
+    /**
+     * Releases any spooled parts that were not uploaded and closes the stream
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            closed = true;
+            for (Spool spool : spools.values()) spool.release();
+            spools.clear();
+        }
+        stream.close();
+    }
+
+    private class Spool {
+        final long length;
+        final byte[] buffer;
+        final File file;
+        final int reservedKb;
+        int openStreams;
+        boolean released;
+        boolean freed;
+
+        Spool(long length, byte[] buffer, File file, int reservedKb) {
+            this.length = length;
+            this.buffer = buffer;
+            this.file = file;
+            this.reservedKb = reservedKb;
+        }
+
+        synchronized InputStream open() {
+            if (released) throw new IllegalStateException("part has already been uploaded");
+            try {
+                InputStream in = buffer != null ? new ByteArrayInputStream(buffer, 0, (int) length) : new BufferedInputStream(new FileInputStream(file));
+                openStreams++;
+                return new FilterInputStream(in) {
+                    private boolean closed;
+
+                    @Override
+                    public void close() throws IOException {
+                        if (closed) return;
+                        closed = true;
+                        try {
+                            super.close();
+                        } finally {
+                            streamClosed();
+                        }
+                    }
+                };
+            } catch (IOException e) {
+                throw new RuntimeException("could not open spooled part", e);
+            }
+        }
+
+        synchronized void release() {
+            released = true;
+            free();
+        }
+
+        private synchronized void streamClosed() {
+            openStreams--;
+            free();
+        }
+
+        // the buffer (which goes back to the pool) and the file are only freed when no stream is reading them
+        private void free() {
+            if (!released || openStreams > 0 || freed) return;
+            freed = true;
+            if (buffer != null) {
+                bufferPool.release(buffer);
+                memoryBudgetKb.release(reservedKb);
+            }
+            if (file != null && !file.delete()) file.deleteOnExit();
+        }
+    }
+}
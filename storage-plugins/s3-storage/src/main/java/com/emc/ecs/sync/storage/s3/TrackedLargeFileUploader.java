@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2026 Dell Inc. or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.emc.ecs.sync.storage.s3;
+
+import com.emc.object.s3.LargeFileUploader;
+import com.emc.object.s3.S3Client;
+import com.emc.object.s3.bean.CompleteMultipartUploadResult;
+import com.emc.object.s3.bean.MultipartPart;
+import com.emc.object.s3.bean.MultipartPartETag;
+import com.emc.object.s3.lfu.LargeFileMultipartSource;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.SortedSet;
+
+/**
+ * A {@link LargeFileUploader} that reports the progress of its MPU to a {@link MultipartUploadTracker}, so the upload
+ * can be resumed from its recorded state
+ */
+public class TrackedLargeFileUploader extends LargeFileUploader {
+    private final MultipartUploadTracker tracker;
+
+    public TrackedLargeFileUploader(S3Client s3Client, String bucket, String key, InputStream stream, long size,
+                                    MultipartUploadTracker tracker) {
+        super(s3Client, bucket, key, stream, size);
+        this.tracker = tracker;
+    }
+
+    public TrackedLargeFileUploader(S3Client s3Client, String bucket, String key, LargeFileMultipartSource multipartSource,
+                                    MultipartUploadTracker tracker) {
+        super(s3Client, bucket, key, multipartSource);
+        this.tracker = tracker;
+    }
+
+    @Override
+    protected List<MultipartPart> listParts(String uploadId) {
+        return tracker.filterParts(uploadId, super.listParts(uploadId));
+    }
+
+    @Override
+    protected String initMpu() {
+        String uploadId = super.initMpu();
+        tracker.uploadInitiated(uploadId);
+        return uploadId;
+    }
+
+    @Override
+    protected MultipartPartETag uploadPart(String uploadId, int partNumber, InputStream is, long length) {
+        MultipartPartETag partETag = super.uploadPart(uploadId, partNumber, is, length);
+        tracker.partUploaded(uploadId, partNumber, partETag.getETag());
+        return partETag;
+    }
+
+    @Override
+    protected CompleteMultipartUploadResult completeMpu(String uploadId, SortedSet<MultipartPartETag> parts) {
+        CompleteMultipartUploadResult result = super.completeMpu(uploadId, parts);
+        tracker.uploadFinished(uploadId);
+        return result;
+    }
+
+    @Override
+    protected void abortMpu(String uploadId) {
+        super.abortMpu(uploadId);
+        tracker.uploadFinished(uploadId);
+    }
+}
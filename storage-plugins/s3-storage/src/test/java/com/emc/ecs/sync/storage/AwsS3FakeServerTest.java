@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2026 Dell Inc. or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.emc.ecs.sync.storage;
+
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.client.builder.AwsClientBuilder;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.AmazonS3ClientBuilder;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.emc.ecs.sync.EcsSync;
+import com.emc.ecs.sync.config.Protocol;
+import com.emc.ecs.sync.config.SyncConfig;
+import com.emc.ecs.sync.config.SyncOptions;
+import com.emc.ecs.sync.config.storage.AwsS3Config;
+import com.emc.ecs.sync.model.ObjectContext;
+import com.emc.ecs.sync.model.ObjectStatus;
+import com.emc.ecs.sync.model.ObjectSummary;
+import com.emc.ecs.sync.service.InMemoryDbService;
+import com.emc.ecs.sync.service.SyncRecord;
+import com.emc.ecs.sync.storage.s3.AbstractS3Test;
+import com.emc.ecs.sync.storage.s3.FakeS3Server;
+import com.emc.ecs.sync.test.TestUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Runs the listing and copy tests of {@link AwsS3Test} against an in-process {@link FakeS3Server}, so they do not need
+ * a real S3 endpoint
+ */
+public class AwsS3FakeServerTest {
+    private static final String REGION = "us-east-1";
+    private static final String ACCESS_KEY = "fake-access-key";
+    private static final String SECRET_KEY = "fake-secret-key";
+
+    private FakeS3Server server;
+    private AmazonS3 amazonS3;
+
+    @BeforeEach
+    public void startServer() throws Exception {
+        server = new FakeS3Server();
+        amazonS3 = AmazonS3ClientBuilder.standard()
+                .withCredentials(new AWSStaticCredentialsProvider(new BasicAWSCredentials(ACCESS_KEY, SECRET_KEY)))
+                .withEndpointConfiguration(new AwsClientBuilder.EndpointConfiguration(server.getEndpoint().toString(), REGION))
+                .withPathStyleAccessEnabled(true)
+                .build();
+    }
+
+    @AfterEach
+    public void stopServer() {
+        if (amazonS3 != null) amazonS3.shutdown();
+        if (server != null) server.close();
+    }
+
+    private AwsS3Config generateConfig(String bucket) {
+        AwsS3Config s3Config = new AwsS3Config();
+        s3Config.setProtocol(Protocol.http);
+        s3Config.setHost(server.getEndpoint().getHost());
+        s3Config.setPort(server.getEndpoint().getPort());
+        s3Config.setAccessKey(ACCESS_KEY);
+        s3Config.setSecretKey(SECRET_KEY);
+        s3Config.setRegion(REGION);
+        s3Config.setDisableVHosts(true);
+        s3Config.setBucketName(bucket);
+        return s3Config;
+    }
+
+    @Test
+    public void testDirectoryModeListing() {
+        String bucket = "ecs-sync-fake-directory-mode";
+        amazonS3.createBucket(bucket);
+        AbstractS3Test.testDirectoryModeListing(amazonS3, bucket, generateConfig(bucket));
+    }
+
+    @Test
+    public void testDirectoryModeCopyWritesNoExtraKeys() throws Exception {
+        String sourceBucket = "ecs-sync-fake-directory-mode-source", targetBucket = "ecs-sync-fake-directory-mode-target";
+        amazonS3.createBucket(sourceBucket);
+        amazonS3.createBucket(targetBucket);
+        amazonS3.putObject(sourceBucket, "a/b/obj-1", "data 1");
+        amazonS3.putObject(sourceBucket, "a/b/obj-2", "data 2");
+        amazonS3.putObject(sourceBucket, "a/obj-3", "data 3");
+        amazonS3.putObject(sourceBucket, "root-obj", "data 4");
+        // a real placeholder object, which must be copied
+        com.amazonaws.services.s3.model.ObjectMetadata placeholderMetadata = new com.amazonaws.services.s3.model.ObjectMetadata();
+        placeholderMetadata.setContentType("application/x-directory");
+        placeholderMetadata.setContentLength(0);
+        amazonS3.putObject(sourceBucket, "p/", new ByteArrayInputStream(new byte[0]), placeholderMetadata);
+        amazonS3.putObject(sourceBucket, "p/obj-5", "data 5");
+
+        AwsS3Config sourceConfig = generateConfig(sourceBucket);
+        sourceConfig.setDirectoryMode(true);
+        SyncConfig syncConfig = new SyncConfig().withSource(sourceConfig).withTarget(generateConfig(targetBucket))
+                .withOptions(new SyncOptions().withRetryAttempts(0));
+
+        try (EcsSync sync = new EcsSync()) {
+            sync.setSyncConfig(syncConfig);
+            TestUtil.run(sync);
+
+            // 5 objects and the real placeholder are copied; the prefixes a/ and a/b/ only exist in the listing
+            Assertions.assertEquals(0, sync.getStats().getObjectsFailed());
+            Assertions.assertEquals(6, sync.getStats().getObjectsComplete());
+            Assertions.assertEquals(2, sync.getStats().getObjectsSkipped());
+        }
+        Assertions.assertEquals(listKeys(sourceBucket), listKeys(targetBucket));
+    }
+
+    @Test
+    public void testServerSideCopy() throws Exception {
+        String bucket1 = "ecs-sync-fake-server-side-copy", bucket2 = "ecs-sync-fake-server-side-copy-2";
+        amazonS3.createBucket(bucket1);
+        amazonS3.createBucket(bucket2);
+        AwsS3Test.testServerSideCopy(amazonS3, generateConfig(bucket1), generateConfig(bucket2));
+    }
+
+    @Test
+    public void testPackedObjectsRerun() throws Exception {
+        String sourceBucket = "ecs-sync-fake-pack-source", targetBucket = "ecs-sync-fake-pack-target";
+        amazonS3.createBucket(sourceBucket);
+        amazonS3.createBucket(targetBucket);
+        int objectCount = 20;
+        for (int i = 0; i < objectCount; i++) {
+            amazonS3.putObject(sourceBucket, "object-" + i, "data of object " + i);
+        }
+
+        AwsS3Config targetConfig = generateConfig(targetBucket);
+        targetConfig.setPackThresholdKb(16);
+        // the target loads each packed object after it is created, to record its mtime
+        SyncOptions options = new SyncOptions().withRetryAttempts(0).withDbEnhancedDetailsEnabled(true);
+        SyncConfig syncConfig = new SyncConfig().withSource(generateConfig(sourceBucket)).withTarget(targetConfig)
+                .withOptions(options);
+        InMemoryDbService dbService = new InMemoryDbService(true);
+
+        try (EcsSync sync = new EcsSync()) {
+            sync.setSyncConfig(syncConfig);
+            sync.setDbService(dbService);
+            TestUtil.run(sync);
+
+            Assertions.assertEquals(0, sync.getStats().getObjectsFailed());
+            Assertions.assertEquals(objectCount, sync.getStats().getObjectsComplete());
+        }
+        List<String> targetKeys = listKeys(targetBucket);
+        // one container and its index
+        Assertions.assertEquals(2, targetKeys.size());
+
+        // a killed job leaves its objects in transfer, so the re-run looks for them in the target (by their packed IDs)
+        for (SyncRecord record : dbService.<SyncRecord>getAllRecords()) {
+            Assertions.assertTrue(record.getTargetId().contains(".tar#"));
+            dbService.setStatus(new ObjectContext().withOptions(options).withTargetId(record.getTargetId())
+                    .withSourceSummary(new ObjectSummary(record.getSourceId(), false, record.getSize()))
+                    .withStatus(ObjectStatus.InTransfer), null, false);
+        }
+
+        try (EcsSync sync = new EcsSync()) {
+            sync.setSyncConfig(syncConfig);
+            sync.setDbService(dbService);
+            TestUtil.run(sync);
+
+            // every packed object is found in its container and is up-to-date
+            Assertions.assertEquals(0, sync.getStats().getObjectsFailed());
+            Assertions.assertEquals(0, sync.getStats().getObjectsComplete());
+            Assertions.assertEquals(objectCount, sync.getStats().getObjectsSkipped());
+        }
+        // nothing was packed again
+        Assertions.assertEquals(targetKeys, listKeys(targetBucket));
+    }
+
+    private List<String> listKeys(String bucket) {
+        return amazonS3.listObjects(bucket).getObjectSummaries().stream()
+                .map(S3ObjectSummary::getKey).collect(Collectors.toList());
+    }
+}
@@ -29,6 +29,7 @@ import com.amazonaws.services.securitytoken.model.Credentials;
 import com.amazonaws.services.securitytoken.model.GetSessionTokenRequest;
 import com.emc.ecs.sync.EcsSync;
 import com.emc.ecs.sync.config.Protocol;
+import com.emc.ecs.sync.config.RoleType;
 import com.emc.ecs.sync.config.SyncConfig;
 import com.emc.ecs.sync.config.SyncOptions;
 import com.emc.ecs.sync.config.storage.AwsS3Config;
@@ -44,6 +45,7 @@ import com.emc.ecs.sync.test.DelayFilter;
 import com.emc.ecs.sync.test.StartNotifyFilter;
 import com.emc.ecs.sync.test.TestConfig;
 import com.emc.ecs.sync.test.TestUtil;
+import com.emc.ecs.sync.util.OperationListener;
 import com.emc.ecs.sync.util.RandomInputStream;
 import com.emc.ecs.sync.util.SSLUtil;
 import com.emc.object.util.ChecksumAlgorithm;
@@ -67,6 +69,7 @@ import java.nio.file.Files;
 import java.security.cert.X509Certificate;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -208,6 +211,110 @@ public class AwsS3Test extends AbstractS3Test {
         }
     }
 
+    @Test
+    public void testManyVersionsConcurrently() {
+        String bucket1 = "ecs-sync-s3-test-many-versions";
+        String bucket2 = "ecs-sync-s3-test-many-versions-2";
+        String key = "many-versions";
+
+        createBucket(bucket1, true);
+        createBucket(bucket2, true);
+
+        try {
+            // 40 versions of one key with a delete marker after every 7th, so loads and read-aheads overlap
+            for (int i = 0; i < 40; i++) {
+                amazonS3.putObject(bucket1, key, "version " + i);
+                if (i % 7 == 6) amazonS3.deleteObject(bucket1, key);
+            }
+
+            AwsS3Config s3Config1 = generateConfig(bucket1);
+            s3Config1.setIncludeVersions(true);
+            s3Config1.setVersionConcurrency(8);
+            AwsS3Config s3Config2 = generateConfig(bucket2);
+            s3Config2.setIncludeVersions(true);
+            s3Config2.setVersionConcurrency(8);
+
+            SyncConfig syncConfig = new SyncConfig().withSource(s3Config1).withTarget(s3Config2)
+                    .withOptions(new SyncOptions().withRetryAttempts(0).withVerify(true));
+            runSync(syncConfig, null);
+
+            // version order and delete markers must match the source
+            verifyBuckets(bucket1, bucket2);
+        } finally {
+            deleteBucket(bucket1);
+            deleteBucket(bucket2);
+        }
+    }
+
+    @Test
+    public void testServerSideCopy() throws Exception {
+        String bucket1 = "ecs-sync-s3-test-server-side-copy";
+        String bucket2 = "ecs-sync-s3-test-server-side-copy-2";
+        createBucket(bucket1, false);
+        createBucket(bucket2, false);
+
+        try {
+            // both buckets are on the same endpoint with the same credentials
+            testServerSideCopy(amazonS3, generateConfig(bucket1), generateConfig(bucket2));
+        } finally {
+            deleteBucket(bucket1);
+            deleteBucket(bucket2);
+        }
+    }
+
+    /**
+     * Copies a small and a large (multipart) object between two buckets on the same endpoint (also run against a
+     * {@link com.emc.ecs.sync.storage.s3.FakeS3Server})
+     */
+    static void testServerSideCopy(com.amazonaws.services.s3.AmazonS3 amazonS3, AwsS3Config s3Config1, AwsS3Config s3Config2)
+            throws Exception {
+        String bucket1 = s3Config1.getBucketName(), bucket2 = s3Config2.getBucketName();
+        String smallKey = "small-object", largeKey = "large-object";
+        byte[] smallData = "hello server-side copy".getBytes(StandardCharsets.UTF_8);
+        byte[] largeData = new byte[12 * 1024 * 1024]; // above the MPU threshold, so it is copied in parts
+        new Random().nextBytes(largeData);
+
+        amazonS3.putObject(bucket1, smallKey, new ByteArrayInputStream(smallData), null);
+        com.amazonaws.services.s3.model.ObjectMetadata largeMeta = new com.amazonaws.services.s3.model.ObjectMetadata();
+        largeMeta.setContentLength(largeData.length);
+        amazonS3.putObject(bucket1, largeKey, new ByteArrayInputStream(largeData), largeMeta);
+
+        s3Config2.setServerSideCopy(true);
+        s3Config2.setMpuThresholdMb(5);
+        s3Config2.setMpuPartSizeMb(5);
+
+        SyncConfig syncConfig = new SyncConfig().withSource(s3Config1).withTarget(s3Config2)
+                .withOptions(new SyncOptions().withRetryAttempts(0).withVerify(true));
+
+        AtomicInteger copyCount = new AtomicInteger();
+        OperationListener listener = operationDetails -> {
+            if (RoleType.Target == operationDetails.getRole()
+                    && AwsS3Storage.OPERATION_SERVER_SIDE_COPY.equals(operationDetails.getOperation())
+                    && operationDetails.getException() == null) {
+                copyCount.incrementAndGet();
+            }
+        };
+
+        try (EcsSync sync = new EcsSync()) {
+            sync.setSyncConfig(syncConfig);
+            sync.addOperationListener(listener);
+            TestUtil.run(sync);
+
+            Assertions.assertEquals(0, sync.getStats().getObjectsFailed());
+            Assertions.assertEquals(2, sync.getStats().getObjectsComplete());
+            Assertions.assertEquals(smallData.length + largeData.length, sync.getStats().getBytesComplete());
+        }
+
+        // no data was streamed through the sync host
+        Assertions.assertEquals(2, copyCount.get());
+        Assertions.assertArrayEquals(smallData, com.amazonaws.util.IOUtils.toByteArray(amazonS3.getObject(bucket2, smallKey).getObjectContent()));
+        Assertions.assertArrayEquals(largeData, com.amazonaws.util.IOUtils.toByteArray(amazonS3.getObject(bucket2, largeKey).getObjectContent()));
+        Assertions.assertEquals(amazonS3.getObjectMetadata(bucket1, smallKey).getETag(),
+                amazonS3.getObjectMetadata(bucket2, smallKey).getETag());
+        // the large copy was a multipart copy
+        Assertions.assertTrue(amazonS3.getObjectMetadata(bucket2, largeKey).getETag().contains("-"));
+    }
+
     @Test
     public void testSetAcl() {
         String key = "test-object";
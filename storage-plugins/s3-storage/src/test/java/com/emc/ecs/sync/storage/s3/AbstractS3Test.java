@@ -485,4 +485,49 @@ public abstract class AbstractS3Test {
             Assertions.assertTrue(mtimes.get(i) < targetMtime);
         });
     }
+
+    @Test
+    public void testDirectoryModeListing() throws Exception {
+        testDirectoryModeListing(amazonS3, getTestBucket(), generateConfig());
+    }
+
+    /**
+     * Lists a deep and a wide tree in directoryMode (also run against a {@link FakeS3Server})
+     */
+    public static void testDirectoryModeListing(AmazonS3 amazonS3, String bucket, Object sourceConfig) {
+        // a deep, narrow tree
+        List<String> keys = IntStream.range(0, 3).mapToObj(i -> "deep/l1/l2/l3/l4/obj-" + i).collect(Collectors.toList());
+        // a shallow, wide tree
+        keys.addAll(IntStream.range(0, 20).mapToObj(i -> "wide/d" + i + "/obj").collect(Collectors.toList()));
+        keys.add("root-obj");
+        keys.parallelStream().forEach(key -> amazonS3.putObject(bucket, key, "Hello " + key));
+
+        // a placeholder object for one of the directories
+        com.amazonaws.services.s3.model.ObjectMetadata placeholderMetadata = new com.amazonaws.services.s3.model.ObjectMetadata();
+        placeholderMetadata.setContentType(TYPE_DIRECTORY);
+        placeholderMetadata.setContentLength(0);
+        amazonS3.putObject(bucket, "wide/d0/", new java.io.ByteArrayInputStream(new byte[0]), placeholderMetadata);
+
+        if (sourceConfig instanceof EcsS3Config) {
+            ((EcsS3Config) sourceConfig).setDirectoryMode(true);
+        } else {
+            ((AwsS3Config) sourceConfig).setDirectoryMode(true);
+        }
+
+        TestStorage testStorage = new TestStorage();
+        testStorage.withConfig(new com.emc.ecs.sync.config.storage.TestConfig().withDiscardData(false)).withOptions(new SyncOptions());
+
+        EcsSync syncJob = new EcsSync();
+        syncJob.setSyncConfig(new SyncConfig().withSource(sourceConfig));
+        syncJob.setTarget(testStorage);
+        TestUtil.run(syncJob);
+
+        // 24 objects + 26 directories (deep/, 4 levels below it, wide/ and its 20 children)
+        int directoryCount = 5 + 21;
+        Assertions.assertEquals(0, syncJob.getStats().getObjectsFailed());
+        Assertions.assertEquals(keys.size() + directoryCount, syncJob.getStats().getObjectsComplete());
+        Assertions.assertEquals(keys.size() + directoryCount, testStorage.getTotalObjectCount());
+        Assertions.assertTrue(testStorage.loadObject(testStorage.getIdentifier("wide/d0", true)).getMetadata().isDirectory());
+        Assertions.assertFalse(testStorage.loadObject(testStorage.getIdentifier("wide/d0/obj", false)).getMetadata().isDirectory());
+    }
 }
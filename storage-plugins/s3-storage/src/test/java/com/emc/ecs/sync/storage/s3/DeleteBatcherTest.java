@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2026 Dell Inc. or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.emc.ecs.sync.storage.s3;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+public class DeleteBatcherTest {
+    @Test
+    public void testFullBatches() throws Exception {
+        List<List<String>> requests = Collections.synchronizedList(new ArrayList<>());
+        // latency is long enough that only full batches are sent
+        try (DeleteBatcher batcher = new DeleteBatcher(10, 60000, 2, keys -> {
+            requests.add(keys);
+            return Collections.emptyMap();
+        })) {
+            List<CompletableFuture<Void>> results = new ArrayList<>();
+            for (int i = 0; i < 30; i++) {
+                results.add(batcher.delete("key-" + i));
+            }
+            for (CompletableFuture<Void> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        }
+
+        Assertions.assertEquals(3, requests.size());
+        Set<String> deleted = new HashSet<>();
+        for (List<String> request : requests) {
+            Assertions.assertEquals(10, request.size());
+            deleted.addAll(request);
+        }
+        Assertions.assertEquals(30, deleted.size());
+    }
+
+    @Test
+    public void testDeleteDoesNotWaitForBatch() throws Exception {
+        CountDownLatch requestLatch = new CountDownLatch(1);
+        try (DeleteBatcher batcher = new DeleteBatcher(2, 60000, 2, keys -> {
+            try {
+                requestLatch.await();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            return Collections.emptyMap();
+        })) {
+            // two full batches are being sent (and are stuck), and the last key waits for the next batch
+            List<CompletableFuture<Void>> results = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                results.add(batcher.delete("key-" + i));
+            }
+            for (CompletableFuture<Void> result : results) {
+                Assertions.assertFalse(result.isDone());
+            }
+
+            requestLatch.countDown();
+            for (int i = 0; i < 4; i++) {
+                results.get(i).get(30, TimeUnit.SECONDS);
+            }
+            Assertions.assertFalse(results.get(4).isDone());
+        }
+    }
+
+    @Test
+    public void testLatencyFlush() throws Exception {
+        List<List<String>> requests = Collections.synchronizedList(new ArrayList<>());
+        try (DeleteBatcher batcher = new DeleteBatcher(1000, 50, 2, keys -> {
+            requests.add(keys);
+            return Collections.emptyMap();
+        })) {
+            long start = System.currentTimeMillis();
+            batcher.delete("lonely-key").get(5, TimeUnit.SECONDS);
+            long duration = System.currentTimeMillis() - start;
+
+            Assertions.assertEquals(Collections.singletonList(Collections.singletonList("lonely-key")), requests);
+            Assertions.assertTrue(duration >= 50, "partial batch was sent before the latency expired");
+        }
+    }
+
+    @Test
+    public void testCloseSendsPendingKeys() throws Exception {
+        List<List<String>> requests = Collections.synchronizedList(new ArrayList<>());
+        DeleteBatcher batcher = new DeleteBatcher(1000, 60000, 2, keys -> {
+            requests.add(keys);
+            return Collections.emptyMap();
+        });
+        CompletableFuture<Void> result1 = batcher.delete("key-1");
+        CompletableFuture<Void> result2 = batcher.delete("key-2");
+        Assertions.assertTrue(requests.isEmpty());
+
+        batcher.close();
+
+        Assertions.assertEquals(Collections.singletonList(Arrays.asList("key-1", "key-2")), requests);
+        Assertions.assertTrue(result1.isDone() && !result1.isCompletedExceptionally());
+        Assertions.assertTrue(result2.isDone() && !result2.isCompletedExceptionally());
+        Assertions.assertThrows(IllegalStateException.class, () -> batcher.delete("key-3"));
+    }
+
+    @Test
+    public void testPerKeyErrors() throws Exception {
+        Map<String, Throwable> results = new HashMap<>();
+        String[] keys = {"good-1", "bad-1", "good-2", "bad-2"};
+        try (DeleteBatcher batcher = new DeleteBatcher(4, 60000, 2, batchKeys -> {
+            Map<String, RuntimeException> errors = new HashMap<>();
+            for (String key : batchKeys) {
+                if (key.startsWith("bad")) errors.put(key, new RuntimeException("access denied: " + key));
+            }
+            return errors;
+        })) {
+            Map<String, CompletableFuture<Void>> futures = new LinkedHashMap<>();
+            for (String key : keys) {
+                futures.put(key, batcher.delete(key));
+            }
+            for (Map.Entry<String, CompletableFuture<Void>> entry : futures.entrySet()) {
+                try {
+                    entry.getValue().get(30, TimeUnit.SECONDS);
+                } catch (ExecutionException e) {
+                    results.put(entry.getKey(), e.getCause());
+                }
+            }
+        }
+
+        // each future only completes with the error of its own key
+        Assertions.assertEquals(new HashSet<>(Arrays.asList("bad-1", "bad-2")), results.keySet());
+        Assertions.assertEquals("access denied: bad-1", results.get("bad-1").getMessage());
+        Assertions.assertEquals("access denied: bad-2", results.get("bad-2").getMessage());
+    }
+
+    @Test
+    public void testRequestFailure() throws Exception {
+        List<Throwable> errors = new ArrayList<>();
+        try (DeleteBatcher batcher = new DeleteBatcher(3, 60000, 2, keys -> {
+            throw new IllegalStateException("service unavailable");
+        })) {
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                futures.add(batcher.delete("key-" + i));
+            }
+            for (CompletableFuture<Void> future : futures) {
+                try {
+                    future.get(30, TimeUnit.SECONDS);
+                } catch (ExecutionException e) {
+                    errors.add(e.getCause());
+                }
+            }
+        }
+
+        // the whole batch fails
+        Assertions.assertEquals(3, errors.size());
+        for (Throwable error : errors) {
+            Assertions.assertEquals("service unavailable", error.getMessage());
+        }
+    }
+}
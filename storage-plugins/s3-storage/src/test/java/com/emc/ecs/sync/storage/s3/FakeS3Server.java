@@ -0,0 +1,541 @@
+/*
+ * Copyright (c) 2026 Dell Inc. or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.emc.ecs.sync.storage.s3;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * An in-process S3 endpoint (path-style, no authentication) that implements just enough of the API for the AWS SDK to
+ * create buckets, list (with delimiters), read, write, copy and multipart-copy objects. Used to test listing and copy
+ * logic without a real endpoint.
+ */
+public class FakeS3Server implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(FakeS3Server.class);
+
+    private static final String XMLNS = "http://s3.amazonaws.com/doc/2006-03-01/";
+    private static final String OWNER = "<Owner><ID>fake-owner</ID><DisplayName>fake-owner</DisplayName></Owner>";
+    private static final Pattern PART_PATTERN = Pattern.compile(
+            "<PartNumber>(\\d+)</PartNumber>\\s*<ETag>([^<]*)</ETag>|<ETag>([^<]*)</ETag>\\s*<PartNumber>(\\d+)</PartNumber>");
+    private static final Pattern DELETE_KEY_PATTERN = Pattern.compile("<Key>([^<]*)</Key>");
+    private static final Pattern RANGE_PATTERN = Pattern.compile("bytes=(\\d+)-(\\d*)");
+
+    private final HttpServer server;
+    private final Map<String, ConcurrentSkipListMap<String, StoredObject>> buckets = new ConcurrentHashMap<>();
+    private final Map<String, Upload> uploads = new ConcurrentHashMap<>();
+    private final AtomicInteger uploadCount = new AtomicInteger();
+
+    public FakeS3Server() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    public URI getEndpoint() {
+        return URI.create("http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort());
+    }
+
+    public int getObjectCount(String bucket) {
+        Map<String, StoredObject> objects = buckets.get(bucket);
+        return objects == null ? 0 : objects.size();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String path = exchange.getRequestURI().getRawPath().substring(1);
+            int slash = path.indexOf('/');
+            String bucket = decode(slash < 0 ? path : path.substring(0, slash));
+            String key = slash < 0 || slash == path.length() - 1 ? null : decode(path.substring(slash + 1));
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            byte[] body = readBody(exchange);
+            if (key == null) handleBucket(exchange, bucket, query, body);
+            else handleObject(exchange, bucket, key, query, body);
+        } catch (S3Error e) {
+            sendError(exchange, e.status, e.code, e.getMessage());
+        } catch (RuntimeException e) {
+            log.warn("fake S3 request failed: " + exchange.getRequestMethod() + " " + exchange.getRequestURI(), e);
+            sendError(exchange, 500, "InternalError", e.toString());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleBucket(HttpExchange exchange, String bucket, Map<String, String> query, byte[] body) throws IOException {
+        String method = exchange.getRequestMethod();
+        if ("PUT".equals(method) && query.isEmpty()) {
+            buckets.putIfAbsent(bucket, new ConcurrentSkipListMap<>());
+            sendEmpty(exchange, 200);
+            return;
+        }
+        ConcurrentSkipListMap<String, StoredObject> objects = getBucket(bucket);
+        if ("HEAD".equals(method)) {
+            sendEmpty(exchange, 200);
+        } else if ("DELETE".equals(method)) {
+            if (!objects.isEmpty()) throw new S3Error(409, "BucketNotEmpty", bucket);
+            buckets.remove(bucket);
+            sendEmpty(exchange, 204);
+        } else if ("GET".equals(method) && query.containsKey("acl")) {
+            sendXml(exchange, 200, acl());
+        } else if ("GET".equals(method) && query.containsKey("versioning")) {
+            sendXml(exchange, 200, "<VersioningConfiguration xmlns=\"" + XMLNS + "\"/>");
+        } else if ("GET".equals(method) && query.containsKey("location")) {
+            sendXml(exchange, 200, "<LocationConstraint xmlns=\"" + XMLNS + "\"/>");
+        } else if ("GET".equals(method) && query.containsKey("uploads")) {
+            sendXml(exchange, 200, "<ListMultipartUploadsResult xmlns=\"" + XMLNS + "\"><Bucket>" + xml(bucket)
+                    + "</Bucket><IsTruncated>false</IsTruncated></ListMultipartUploadsResult>");
+        } else if ("GET".equals(method)) {
+            listObjects(exchange, bucket, objects, query);
+        } else if ("POST".equals(method) && query.containsKey("delete")) {
+            StringBuilder result = new StringBuilder("<DeleteResult xmlns=\"" + XMLNS + "\">");
+            Matcher matcher = DELETE_KEY_PATTERN.matcher(new String(body, StandardCharsets.UTF_8));
+            while (matcher.find()) {
+                String key = unescapeXml(matcher.group(1));
+                objects.remove(key);
+                result.append("<Deleted><Key>").append(xml(key)).append("</Key></Deleted>");
+            }
+            sendXml(exchange, 200, result.append("</DeleteResult>").toString());
+        } else {
+            throw new S3Error(501, "NotImplemented", method + " bucket " + query.keySet());
+        }
+    }
+
+    private void listObjects(HttpExchange exchange, String bucket, ConcurrentSkipListMap<String, StoredObject> objects,
+                             Map<String, String> query) throws IOException {
+        if (query.containsKey("list-type") || query.containsKey("versions"))
+            throw new S3Error(501, "NotImplemented", "only ListObjects (v1) is implemented");
+        String prefix = query.getOrDefault("prefix", "");
+        String delimiter = query.get("delimiter");
+        String marker = query.get("marker");
+        int maxKeys = query.containsKey("max-keys") ? Integer.parseInt(query.get("max-keys")) : 1000;
+        boolean urlEncoded = "url".equals(query.get("encoding-type"));
+
+        StringBuilder contents = new StringBuilder();
+        Set<String> commonPrefixes = new LinkedHashSet<>();
+        int count = 0;
+        String lastEntry = null;
+        boolean truncated = false;
+        Map<String, StoredObject> tail = marker == null ? objects : objects.tailMap(marker, false);
+        for (Map.Entry<String, StoredObject> entry : tail.entrySet()) {
+            String key = entry.getKey();
+            if (!key.startsWith(prefix)) continue;
+            if (delimiter != null) {
+                int index = key.indexOf(delimiter, prefix.length());
+                if (index >= 0) {
+                    String commonPrefix = key.substring(0, index + delimiter.length());
+                    // the marker may be a common prefix returned by the previous page
+                    if (commonPrefixes.contains(commonPrefix) || commonPrefix.equals(marker)) continue;
+                    if (count == maxKeys) {
+                        truncated = true;
+                        break;
+                    }
+                    commonPrefixes.add(commonPrefix);
+                    lastEntry = commonPrefix;
+                    count++;
+                    continue;
+                }
+            }
+            if (count == maxKeys) {
+                truncated = true;
+                break;
+            }
+            StoredObject object = entry.getValue();
+            contents.append("<Contents><Key>").append(encodeKey(key, urlEncoded)).append("</Key>")
+                    .append("<LastModified>").append(isoDate(object.lastModified)).append("</LastModified>")
+                    .append("<ETag>").append(xml(object.getETagHeader())).append("</ETag>")
+                    .append("<Size>").append(object.data.length).append("</Size>")
+                    .append("<StorageClass>STANDARD</StorageClass>").append(OWNER).append("</Contents>");
+            lastEntry = key;
+            count++;
+        }
+
+        StringBuilder result = new StringBuilder("<ListBucketResult xmlns=\"" + XMLNS + "\">");
+        result.append("<Name>").append(xml(bucket)).append("</Name>");
+        result.append("<Prefix>").append(encodeKey(prefix, urlEncoded)).append("</Prefix>");
+        result.append("<Marker>").append(marker == null ? "" : encodeKey(marker, urlEncoded)).append("</Marker>");
+        if (truncated && lastEntry != null)
+            result.append("<NextMarker>").append(encodeKey(lastEntry, urlEncoded)).append("</NextMarker>");
+        result.append("<MaxKeys>").append(maxKeys).append("</MaxKeys>");
+        if (delimiter != null) result.append("<Delimiter>").append(encodeKey(delimiter, urlEncoded)).append("</Delimiter>");
+        if (urlEncoded) result.append("<EncodingType>url</EncodingType>");
+        result.append("<IsTruncated>").append(truncated).append("</IsTruncated>");
+        result.append(contents);
+        for (String commonPrefix : commonPrefixes) {
+            result.append("<CommonPrefixes><Prefix>").append(encodeKey(commonPrefix, urlEncoded)).append("</Prefix></CommonPrefixes>");
+        }
+        sendXml(exchange, 200, result.append("</ListBucketResult>").toString());
+    }
+
+    private void handleObject(HttpExchange exchange, String bucket, String key, Map<String, String> query, byte[] body)
+            throws IOException {
+        String method = exchange.getRequestMethod();
+        Headers headers = exchange.getRequestHeaders();
+        ConcurrentSkipListMap<String, StoredObject> objects = getBucket(bucket);
+        if ("PUT".equals(method) && query.containsKey("uploadId")) {
+            Upload upload = getUpload(query.get("uploadId"));
+            int partNumber = Integer.parseInt(query.get("partNumber"));
+            String copySource = headers.getFirst("x-amz-copy-source");
+            byte[] data = copySource == null ? body : copyRange(getCopySource(copySource), headers.getFirst("x-amz-copy-source-range"));
+            upload.parts.put(partNumber, data);
+            String eTag = "\"" + hex(md5(data)) + "\"";
+            if (copySource == null) {
+                exchange.getResponseHeaders().set("ETag", eTag);
+                sendEmpty(exchange, 200);
+            } else {
+                sendXml(exchange, 200, "<CopyPartResult xmlns=\"" + XMLNS + "\"><LastModified>" + isoDate(new Date())
+                        + "</LastModified><ETag>" + xml(eTag) + "</ETag></CopyPartResult>");
+            }
+        } else if ("PUT".equals(method) && query.containsKey("acl")) {
+            getObject(objects, key);
+            sendEmpty(exchange, 200);
+        } else if ("PUT".equals(method) && headers.containsKey("x-amz-copy-source")) {
+            StoredObject source = getCopySource(headers.getFirst("x-amz-copy-source"));
+            Map<String, String> metadata = "REPLACE".equals(headers.getFirst("x-amz-metadata-directive"))
+                    ? userHeaders(headers) : source.headers;
+            StoredObject copy = new StoredObject(source.data, metadata, source.eTag);
+            objects.put(key, copy);
+            sendXml(exchange, 200, "<CopyObjectResult xmlns=\"" + XMLNS + "\"><LastModified>" + isoDate(copy.lastModified)
+                    + "</LastModified><ETag>" + xml(copy.getETagHeader()) + "</ETag></CopyObjectResult>");
+        } else if ("PUT".equals(method)) {
+            StoredObject object = new StoredObject(body, userHeaders(headers), hex(md5(body)));
+            objects.put(key, object);
+            exchange.getResponseHeaders().set("ETag", object.getETagHeader());
+            sendEmpty(exchange, 200);
+        } else if ("POST".equals(method) && query.containsKey("uploads")) {
+            String uploadId = "upload-" + uploadCount.incrementAndGet();
+            uploads.put(uploadId, new Upload(bucket, key, userHeaders(headers)));
+            sendXml(exchange, 200, "<InitiateMultipartUploadResult xmlns=\"" + XMLNS + "\"><Bucket>" + xml(bucket)
+                    + "</Bucket><Key>" + xml(key) + "</Key><UploadId>" + uploadId + "</UploadId></InitiateMultipartUploadResult>");
+        } else if ("POST".equals(method) && query.containsKey("uploadId")) {
+            completeUpload(exchange, objects, key, query.get("uploadId"), body);
+        } else if ("DELETE".equals(method) && query.containsKey("uploadId")) {
+            if (uploads.remove(query.get("uploadId")) == null) throw new S3Error(404, "NoSuchUpload", query.get("uploadId"));
+            sendEmpty(exchange, 204);
+        } else if ("DELETE".equals(method)) {
+            objects.remove(key);
+            sendEmpty(exchange, 204);
+        } else if ("GET".equals(method) && query.containsKey("acl")) {
+            getObject(objects, key);
+            sendXml(exchange, 200, acl());
+        } else if ("GET".equals(method) || "HEAD".equals(method)) {
+            getObject(exchange, getObject(objects, key), "HEAD".equals(method));
+        } else {
+            throw new S3Error(501, "NotImplemented", method + " object " + query.keySet());
+        }
+    }
+
+    private void completeUpload(HttpExchange exchange, ConcurrentSkipListMap<String, StoredObject> objects, String key,
+                                String uploadId, byte[] body) throws IOException {
+        Upload upload = getUpload(uploadId);
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        ByteArrayOutputStream partMd5s = new ByteArrayOutputStream();
+        int partCount = 0;
+        Matcher matcher = PART_PATTERN.matcher(new String(body, StandardCharsets.UTF_8));
+        while (matcher.find()) {
+            int partNumber = Integer.parseInt(matcher.group(1) != null ? matcher.group(1) : matcher.group(4));
+            byte[] part = upload.parts.get(partNumber);
+            if (part == null) throw new S3Error(400, "InvalidPart", "part " + partNumber);
+            data.write(part, 0, part.length);
+            byte[] md5 = md5(part);
+            partMd5s.write(md5, 0, md5.length);
+            partCount++;
+        }
+        uploads.remove(uploadId);
+        StoredObject object = new StoredObject(data.toByteArray(), upload.headers, hex(md5(partMd5s.toByteArray())) + "-" + partCount);
+        objects.put(key, object);
+        sendXml(exchange, 200, "<CompleteMultipartUploadResult xmlns=\"" + XMLNS + "\"><Location>" + xml(getEndpoint()
+                + "/" + upload.bucket + "/" + key) + "</Location><Bucket>" + xml(upload.bucket) + "</Bucket><Key>"
+                + xml(key) + "</Key><ETag>" + xml(object.getETagHeader()) + "</ETag></CompleteMultipartUploadResult>");
+    }
+
+    private void getObject(HttpExchange exchange, StoredObject object, boolean headOnly) throws IOException {
+        Headers requestHeaders = exchange.getRequestHeaders();
+        String ifMatch = requestHeaders.getFirst("If-Match");
+        if (ifMatch != null && !ifMatch.equals(object.getETagHeader()) && !ifMatch.equals(object.eTag))
+            throw new S3Error(412, "PreconditionFailed", "If-Match");
+
+        Headers responseHeaders = exchange.getResponseHeaders();
+        for (Map.Entry<String, String> header : object.headers.entrySet()) {
+            responseHeaders.set(header.getKey(), header.getValue());
+        }
+        if (!object.headers.containsKey("Content-Type")) responseHeaders.set("Content-Type", "binary/octet-stream");
+        responseHeaders.set("ETag", object.getETagHeader());
+        responseHeaders.set("Last-Modified", httpDate(object.lastModified));
+        responseHeaders.set("Accept-Ranges", "bytes");
+
+        int status = 200, offset = 0, length = object.data.length;
+        String range = requestHeaders.getFirst("Range");
+        if (range != null) {
+            Matcher matcher = RANGE_PATTERN.matcher(range);
+            if (!matcher.matches()) throw new S3Error(416, "InvalidRange", range);
+            offset = Integer.parseInt(matcher.group(1));
+            int last = matcher.group(2).isEmpty() ? object.data.length - 1
+                    : Math.min(Integer.parseInt(matcher.group(2)), object.data.length - 1);
+            length = last - offset + 1;
+            status = 206;
+            responseHeaders.set("Content-Range", "bytes " + offset + "-" + last + "/" + object.data.length);
+        }
+        if (headOnly) {
+            responseHeaders.set("Content-Length", String.valueOf(length));
+            exchange.sendResponseHeaders(status, -1);
+        } else {
+            exchange.sendResponseHeaders(status, length == 0 ? -1 : length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(object.data, offset, length);
+            }
+        }
+    }
+
+    private ConcurrentSkipListMap<String, StoredObject> getBucket(String bucket) {
+        ConcurrentSkipListMap<String, StoredObject> objects = buckets.get(bucket);
+        if (objects == null) throw new S3Error(404, "NoSuchBucket", bucket);
+        return objects;
+    }
+
+    private StoredObject getObject(Map<String, StoredObject> objects, String key) {
+        StoredObject object = objects.get(key);
+        if (object == null) throw new S3Error(404, "NoSuchKey", key);
+        return object;
+    }
+
+    private Upload getUpload(String uploadId) {
+        Upload upload = uploads.get(uploadId);
+        if (upload == null) throw new S3Error(404, "NoSuchUpload", uploadId);
+        return upload;
+    }
+
+    private StoredObject getCopySource(String copySource) {
+        String source = copySource.startsWith("/") ? copySource.substring(1) : copySource;
+        int versionIndex = source.indexOf("?versionId=");
+        if (versionIndex >= 0) source = source.substring(0, versionIndex);
+        int slash = source.indexOf('/');
+        return getObject(getBucket(decode(source.substring(0, slash))), decode(source.substring(slash + 1)));
+    }
+
+    private byte[] copyRange(StoredObject source, String range) {
+        if (range == null) return source.data;
+        Matcher matcher = RANGE_PATTERN.matcher(range);
+        if (!matcher.matches()) throw new S3Error(400, "InvalidArgument", range);
+        int first = Integer.parseInt(matcher.group(1)), last = Integer.parseInt(matcher.group(2));
+        return Arrays.copyOfRange(source.data, first, last + 1);
+    }
+
+    /**
+     * Content-Type and user metadata of a write request
+     */
+    private static Map<String, String> userHeaders(Headers headers) {
+        Map<String, String> result = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            String name = header.getKey();
+            if (name.equalsIgnoreCase("Content-Type") || name.toLowerCase().startsWith("x-amz-meta-"))
+                result.put(name.equalsIgnoreCase("Content-Type") ? "Content-Type" : name.toLowerCase(), header.getValue().get(0));
+        }
+        return result;
+    }
+
+    private static byte[] readBody(HttpExchange exchange) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) body.write(buffer, 0, read);
+        }
+        String contentSha = exchange.getRequestHeaders().getFirst("x-amz-content-sha256");
+        if (contentSha != null && contentSha.startsWith("STREAMING-")) return decodeAwsChunked(body.toByteArray());
+        return body.toByteArray();
+    }
+
+    /**
+     * Strips the chunk headers (<code>size;chunk-signature=...\r\n</code>) of a streaming (aws-chunked) payload
+     */
+    private static byte[] decodeAwsChunked(byte[] encoded) {
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        int position = 0;
+        while (position < encoded.length) {
+            int lineEnd = position;
+            while (encoded[lineEnd] != '\r') lineEnd++;
+            String header = new String(encoded, position, lineEnd - position, StandardCharsets.US_ASCII);
+            int size = Integer.parseInt(header.split(";")[0], 16);
+            if (size == 0) break;
+            data.write(encoded, lineEnd + 2, size);
+            position = lineEnd + 2 + size + 2;
+        }
+        return data.toByteArray();
+    }
+
+    private static void sendXml(HttpExchange exchange, int status, String xml) throws IOException {
+        byte[] bytes = ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>" + xml).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/xml");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void sendEmpty(HttpExchange exchange, int status) throws IOException {
+        exchange.sendResponseHeaders(status, -1);
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String code, String message) throws IOException {
+        if ("HEAD".equals(exchange.getRequestMethod())) {
+            sendEmpty(exchange, status);
+        } else {
+            sendXml(exchange, status, "<Error><Code>" + code + "</Code><Message>" + xml(message)
+                    + "</Message><RequestId>fake</RequestId></Error>");
+        }
+    }
+
+    private static String acl() {
+        return "<AccessControlPolicy xmlns=\"" + XMLNS + "\">" + OWNER + "<AccessControlList><Grant>"
+                + "<Grantee xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" xsi:type=\"CanonicalUser\">"
+                + "<ID>fake-owner</ID><DisplayName>fake-owner</DisplayName></Grantee>"
+                + "<Permission>FULL_CONTROL</Permission></Grant></AccessControlList></AccessControlPolicy>";
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) return query;
+        for (String param : rawQuery.split("&")) {
+            int equals = param.indexOf('=');
+            if (equals < 0) query.put(decode(param), "");
+            else query.put(decode(param.substring(0, equals)), decode(param.substring(equals + 1)));
+        }
+        return query;
+    }
+
+    private static String encodeKey(String key, boolean urlEncoded) {
+        if (!urlEncoded) return xml(key);
+        try {
+            return URLEncoder.encode(key, "UTF-8").replace("+", "%20");
+        } catch (UnsupportedEncodingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static String decode(String value) {
+        try {
+            return URLDecoder.decode(value.replace("+", "%2B"), "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static String xml(String value) {
+        return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+
+    private static String unescapeXml(String value) {
+        return value.replace("&lt;", "<").replace("&gt;", ">").replace("&quot;", "\"").replace("&amp;", "&");
+    }
+
+    private static String isoDate(Date date) {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return format.format(date);
+    }
+
+    private static String httpDate(Date date) {
+        SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("GMT"));
+        return format.format(date);
+    }
+
+    private static byte[] md5(byte[] data) {
+        try {
+            return MessageDigest.getInstance("MD5").digest(data);
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder();
+        for (byte b : bytes) hex.append(String.format("%02x", b));
+        return hex.toString();
+    }
+
+    private static class StoredObject {
+        final byte[] data;
+        final Map<String, String> headers;
+        final String eTag;
+        // S3 only keeps seconds
+        final Date lastModified = new Date(System.currentTimeMillis() / 1000 * 1000);
+
+        StoredObject(byte[] data, Map<String, String> headers, String eTag) {
+            this.data = data;
+            this.headers = headers;
+            this.eTag = eTag;
+        }
+
+        String getETagHeader() {
+            return "\"" + eTag + "\"";
+        }
+    }
+
+    private static class Upload {
+        final String bucket;
+        final String key;
+        final Map<String, String> headers;
+        final Map<Integer, byte[]> parts = new ConcurrentHashMap<>();
+
+        Upload(String bucket, String key, Map<String, String> headers) {
+            this.bucket = bucket;
+            this.key = key;
+            this.headers = headers;
+        }
+    }
+
+    private static class S3Error extends RuntimeException {
+        final int status;
+        final String code;
+
+        S3Error(int status, String code, String message) {
+            super(message);
+            this.status = status;
+            this.code = code;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2026 Dell Inc. or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.emc.ecs.sync.storage.s3;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class KeyRangeTest {
+    @Test
+    public void testCompareKeys() {
+        Assertions.assertTrue(AbstractS3Storage.compareKeys("ab", "abc") < 0);
+        Assertions.assertTrue(AbstractS3Storage.compareKeys("b", "abc") > 0);
+        Assertions.assertEquals(0, AbstractS3Storage.compareKeys("abc", "abc"));
+        // S3 orders by UTF-8 bytes, so a supplementary character sorts after U+FFFF (String.compareTo disagrees)
+        Assertions.assertTrue(AbstractS3Storage.compareKeys("a\uffff", "a\ud83d\ude00") < 0);
+        Assertions.assertTrue("a\uffff".compareTo("a\ud83d\ude00") > 0);
+    }
+
+    @Test
+    public void testHexBoundaries() {
+        List<String> boundaries = AbstractS3Storage.calculateBoundaries("prefix/", Arrays.asList("prefix/00ab", "prefix/0f12"), 4);
+        Assertions.assertEquals(Arrays.asList("prefix/40", "prefix/80", "prefix/c0"), boundaries);
+    }
+
+    @Test
+    public void testCharacterBoundaries() {
+        List<String> boundaries = AbstractS3Storage.calculateBoundaries("", Arrays.asList("alpha", "beta"), 4);
+        Assertions.assertEquals(3, boundaries.size());
+        // ranges start at the lowest sampled key
+        Assertions.assertTrue(AbstractS3Storage.compareKeys(boundaries.get(0), "alpha") > 0);
+        for (int i = 1; i < boundaries.size(); i++) {
+            Assertions.assertTrue(AbstractS3Storage.compareKeys(boundaries.get(i - 1), boundaries.get(i)) < 0);
+        }
+    }
+
+    @Test
+    public void testBoundariesAreDistinct() {
+        // more ranges than there are positions left in the key space
+        List<String> boundaries = AbstractS3Storage.calculateBoundaries("", Collections.singletonList("~"), 500);
+        Assertions.assertEquals(boundaries.size(), boundaries.stream().distinct().count());
+        Assertions.assertTrue(boundaries.size() < 500);
+    }
+}
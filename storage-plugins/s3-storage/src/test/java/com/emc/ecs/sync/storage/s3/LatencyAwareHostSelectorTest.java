@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2026 Dell Inc. or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.emc.ecs.sync.storage.s3;
+
+import com.emc.ecs.sync.rest.EndpointHostStats;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+public class LatencyAwareHostSelectorTest {
+    private static final int ERROR_THRESHOLD = 3;
+    private static final long EJECT_MS = 100;
+
+    private final List<HttpServer> servers = new ArrayList<>();
+    private final AtomicBoolean failing = new AtomicBoolean(true);
+    private String fast1, fast2, slow, broken;
+
+    @BeforeEach
+    public void startServers() throws IOException {
+        fast1 = startServer(0, null);
+        fast2 = startServer(0, null);
+        slow = startServer(100, null);
+        broken = startServer(0, failing);
+
+        // the first request in the JVM is much slower than the rest, which would skew the latency of one host
+        LatencyAwareHostSelector warmUp = new LatencyAwareHostSelector(ERROR_THRESHOLD, EJECT_MS, Collections.emptyList());
+        sendRequest(warmUp, fast1);
+    }
+
+    @AfterEach
+    public void stopServers() {
+        for (HttpServer server : servers) server.stop(0);
+    }
+
+    @Test
+    public void testLatencyWeighting() throws Exception {
+        LatencyAwareHostSelector selector = new LatencyAwareHostSelector(ERROR_THRESHOLD, 60000, Arrays.asList(fast1, fast2, slow));
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 400; i++) {
+            counts.merge(sendRequest(selector, fast1), 1, Integer::sum);
+        }
+
+        Assertions.assertEquals(3, counts.size());
+        int slowCount = counts.get(slow);
+        Assertions.assertTrue(slowCount * 10 < counts.get(fast1) + counts.get(fast2), "slow host got " + slowCount + " requests: " + counts);
+
+        Map<String, EndpointHostStats> stats = statsByHost(selector);
+        Assertions.assertTrue(stats.get(slow).getLatencyMs() >= 100);
+        Assertions.assertTrue(stats.get(slow).getLatencyMs() > stats.get(fast1).getLatencyMs());
+        Assertions.assertEquals("Target", stats.get(slow).getRole());
+        Assertions.assertEquals(400, stats.values().stream().mapToLong(EndpointHostStats::getRequestCount).sum());
+    }
+
+    @Test
+    public void testEjectionAndRecovery() throws Exception {
+        LatencyAwareHostSelector selector = new LatencyAwareHostSelector(ERROR_THRESHOLD, EJECT_MS, Arrays.asList(fast1, fast2, broken));
+
+        // the broken host is ejected after a few errors, so it only gets the occasional probe
+        for (int i = 0; i < 300; i++) {
+            sendRequest(selector, fast1);
+        }
+        EndpointHostStats brokenStats = statsByHost(selector).get(broken);
+        Assertions.assertTrue(brokenStats.getEjectionCount() >= 1);
+        Assertions.assertEquals(brokenStats.getRequestCount(), brokenStats.getErrorCount());
+        Assertions.assertTrue(brokenStats.getRequestCount() < 30, "broken host got " + brokenStats.getRequestCount() + " requests");
+
+        // after the ejection expires, the next request probes the host
+        failing.set(false);
+        Thread.sleep(EJECT_MS << LatencyAwareHostSelector.MAX_BACKOFF_SHIFT);
+        Assertions.assertFalse(statsByHost(selector).get(broken).isHealthy());
+        Assertions.assertEquals(broken, sendRequest(selector, fast1));
+        Assertions.assertTrue(statsByHost(selector).get(broken).isHealthy());
+
+        // and it gets its share of the load again
+        int before = (int) statsByHost(selector).get(broken).getRequestCount();
+        for (int i = 0; i < 300; i++) {
+            sendRequest(selector, fast1);
+        }
+        Assertions.assertTrue(statsByHost(selector).get(broken).getRequestCount() - before > 30);
+    }
+
+    @Test
+    public void testFailedProbe() throws Exception {
+        LatencyAwareHostSelector selector = new LatencyAwareHostSelector(1, EJECT_MS, Arrays.asList(fast1, broken));
+
+        // make sure the broken host gets its first request
+        while (!sendRequest(selector, fast1).equals(broken)) ;
+        Assertions.assertFalse(statsByHost(selector).get(broken).isHealthy());
+
+        // only one probe per ejection, and a failed probe ejects the host for twice as long
+        Thread.sleep(EJECT_MS);
+        Assertions.assertEquals(broken, sendRequest(selector, fast1));
+        Assertions.assertEquals(2, statsByHost(selector).get(broken).getEjectionCount());
+        Thread.sleep(EJECT_MS);
+        Assertions.assertEquals(fast1, sendRequest(selector, fast1));
+        Thread.sleep(EJECT_MS);
+        Assertions.assertEquals(broken, sendRequest(selector, fast1));
+        Assertions.assertEquals(3, statsByHost(selector).get(broken).getEjectionCount());
+    }
+
+    @Test
+    public void testAllHostsEjected() {
+        LatencyAwareHostSelector selector = new LatencyAwareHostSelector(1, 60000, Collections.singletonList(fast1));
+        selector.complete(fast1, 1000, true);
+        Assertions.assertFalse(statsByHost(selector).get(fast1).isHealthy());
+
+        // nothing to choose from, so the request goes where it was addressed
+        Assertions.assertEquals(slow, selector.select(slow));
+    }
+
+    @Test
+    public void testUnsampledRequests() {
+        LatencyAwareHostSelector selector = new LatencyAwareHostSelector(ERROR_THRESHOLD, EJECT_MS, Arrays.asList(fast1, slow));
+        selector.complete(fast1, 1_000_000, false);
+        selector.complete(slow, 1_000_000, false);
+
+        // uploads are counted, but their time does not change the latency
+        selector.complete(slow, -1, false);
+        Map<String, EndpointHostStats> stats = statsByHost(selector);
+        Assertions.assertEquals(1.0, stats.get(slow).getLatencyMs(), 0.001);
+        Assertions.assertEquals(2, stats.get(slow).getRequestCount());
+        Assertions.assertEquals(stats.get(fast1).getLatencyMs(), stats.get(slow).getLatencyMs(), 0.001);
+    }
+
+    private String startServer(long delayMs, AtomicBoolean failing) throws IOException {
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        HttpServer server = HttpServer.create(new InetSocketAddress(loopback, 0), 0);
+        server.createContext("/", exchange -> {
+            try {
+                if (delayMs > 0) Thread.sleep(delayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(failing != null && failing.get() ? 500 : 200, -1);
+            exchange.close();
+        });
+        server.start();
+        servers.add(server);
+        return loopback.getHostAddress() + ":" + server.getAddress().getPort();
+    }
+
+    // routes one request like LatencyAwareClientHandler does and returns the host it was sent to
+    private String sendRequest(LatencyAwareHostSelector selector, String requestedHost) throws IOException {
+        String host = selector.select(requestedHost);
+        long start = System.nanoTime();
+        boolean error = true;
+        try {
+            HttpURLConnection con = (HttpURLConnection) new URL("http://" + host + "/bucket/key").openConnection();
+            error = con.getResponseCode() >= 500;
+            InputStream in = error ? con.getErrorStream() : con.getInputStream();
+            if (in != null) in.close();
+        } finally {
+            selector.complete(host, System.nanoTime() - start, error);
+        }
+        return host;
+    }
+
+    private Map<String, EndpointHostStats> statsByHost(LatencyAwareHostSelector selector) {
+        return selector.getStats("Target").stream()
+                .collect(Collectors.toMap(EndpointHostStats::getHost, Function.identity()));
+    }
+}
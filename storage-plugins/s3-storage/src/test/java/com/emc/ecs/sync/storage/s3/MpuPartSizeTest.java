@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2026 Dell Inc. or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.emc.ecs.sync.storage.s3;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import static com.emc.ecs.sync.storage.s3.AbstractS3Storage.MAX_PART_COUNT;
+import static com.emc.ecs.sync.storage.s3.AbstractS3Storage.MAX_PART_SIZE;
+import static com.emc.ecs.sync.storage.s3.AbstractS3Storage.calculatePartSize;
+
+public class MpuPartSizeTest {
+    private static final long MB = 1024 * 1024;
+    private static final long GB = 1024 * MB;
+    private static final long TB = 1024 * GB;
+
+    @Test
+    public void testConfiguredPartSize() {
+        Assertions.assertEquals(128 * MB, calculatePartSize(GB, 128 * MB, MAX_PART_COUNT));
+        // exactly the target part count
+        Assertions.assertEquals(128 * MB, calculatePartSize(128 * MB * MAX_PART_COUNT, 128 * MB, MAX_PART_COUNT));
+    }
+
+    @Test
+    public void testLargeObject() {
+        // a 5TB object would need 1,310,720 parts of 4MB
+        long partSize = calculatePartSize(5 * TB, 4 * MB, MAX_PART_COUNT);
+        Assertions.assertEquals(0, partSize % MB);
+        Assertions.assertTrue((5 * TB + partSize - 1) / partSize <= MAX_PART_COUNT);
+        Assertions.assertEquals(525 * MB, partSize);
+    }
+
+    @Test
+    public void testTargetPartCount() {
+        long partSize = calculatePartSize(100 * GB, 128 * MB, 100);
+        Assertions.assertEquals(1024 * MB, partSize);
+
+        // the target can't exceed the S3 limit
+        Assertions.assertEquals(calculatePartSize(5 * TB, 5 * MB, MAX_PART_COUNT), calculatePartSize(5 * TB, 5 * MB, 50000));
+    }
+
+    @Test
+    public void testMaxPartSize() {
+        // with a low target, parts are capped at 5GB (the object then needs more parts than the target)
+        Assertions.assertEquals(MAX_PART_SIZE, calculatePartSize(TB, 128 * MB, 10));
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2026 Dell Inc. or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.emc.ecs.sync.storage.s3;
+
+import com.emc.ecs.sync.service.AbstractDbService;
+import com.emc.ecs.sync.service.InMemoryDbService;
+import com.emc.ecs.sync.service.MultipartUploadStateService;
+import com.emc.ecs.sync.service.MultipartUploadStateService.MultipartUploadState;
+import com.emc.object.s3.bean.MultipartPart;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class MultipartUploadTrackerTest {
+    private static final long SIZE = 100L * 1024 * 1024, PART_SIZE = 16L * 1024 * 1024, MTIME = 12345;
+
+    private AbstractDbService dbService;
+    private MultipartUploadStateService stateService;
+
+    @BeforeEach
+    public void setup() {
+        dbService = new InMemoryDbService(false);
+        stateService = new MultipartUploadStateService(dbService);
+        stateService.start();
+    }
+
+    @AfterEach
+    public void teardown() {
+        if (dbService != null) dbService.close();
+    }
+
+    private MultipartUploadTracker tracker(long mtime) {
+        return new MultipartUploadTracker(stateService, "source/foo", "target/foo", SIZE, PART_SIZE, mtime);
+    }
+
+    private static MultipartPart part(int partNumber, String eTag) {
+        MultipartPart part = new MultipartPart();
+        part.setPartNumber(partNumber);
+        part.setETag(eTag);
+        part.setSize(PART_SIZE);
+        return part;
+    }
+
+    @Test
+    public void testResume() {
+        // first attempt uploads 2 parts and is interrupted
+        MultipartUploadTracker tracker = tracker(MTIME);
+        Assertions.assertNull(tracker.getResumableUploadId(upload -> true, upload -> Assertions.fail("nothing to abort")));
+        tracker.uploadInitiated("upload-1");
+        tracker.partUploaded("upload-1", 1, "\"etag-1\"");
+        tracker.partUploaded("upload-1", 2, "etag-2");
+
+        // next attempt resumes the same upload
+        tracker = tracker(MTIME);
+        Assertions.assertEquals("upload-1", tracker.getResumableUploadId(upload -> true, upload -> Assertions.fail("should resume")));
+
+        // only listed parts that match a recorded part are kept (ETags may or may not be quoted)
+        List<MultipartPart> listedParts = Arrays.asList(part(1, "etag-1"), part(2, "\"etag-2\""),
+                part(3, "etag-3"), part(4, "etag-4"));
+        tracker.partUploaded("upload-1", 4, "etag-4-other");
+        List<Integer> kept = tracker.filterParts("upload-1", listedParts).stream()
+                .map(MultipartPart::getPartNumber).collect(Collectors.toList());
+        Assertions.assertEquals(Arrays.asList(1, 2), kept);
+
+        // completion removes the state
+        tracker.uploadFinished("upload-1");
+        Assertions.assertNull(stateService.getUpload("source/foo"));
+    }
+
+    @Test
+    public void testObsoleteUpload() {
+        MultipartUploadTracker tracker = tracker(MTIME);
+        tracker.uploadInitiated("upload-1");
+        tracker.partUploaded("upload-1", 1, "etag-1");
+
+        // the source object was modified, so the recorded upload must be aborted
+        List<String> aborted = new ArrayList<>();
+        tracker = tracker(MTIME + 1000);
+        Assertions.assertNull(tracker.getResumableUploadId(upload -> true, (MultipartUploadState upload) -> {
+            Assertions.assertEquals("target/foo", upload.getTargetKey());
+            aborted.add(upload.getUploadId());
+        }));
+        Assertions.assertEquals(Arrays.asList("upload-1"), aborted);
+        Assertions.assertNull(stateService.getUpload("source/foo"));
+
+        // listed parts of an upload that was not resumed are not filtered
+        List<MultipartPart> listedParts = Arrays.asList(part(1, "etag-1"), part(2, "etag-2"));
+        Assertions.assertEquals(listedParts, tracker.filterParts("upload-2", listedParts));
+    }
+
+    @Test
+    public void testUploadNoLongerExists() {
+        tracker(MTIME).uploadInitiated("upload-1");
+
+        // the upload was aborted or expired, so it is forgotten and a new upload is started right away
+        MultipartUploadTracker tracker = tracker(MTIME);
+        Assertions.assertNull(tracker.getResumableUploadId(upload -> false, upload -> Assertions.fail("nothing to abort")));
+        Assertions.assertNull(stateService.getUpload("source/foo"));
+
+        tracker.uploadInitiated("upload-2");
+        Assertions.assertEquals("upload-2", stateService.getUpload("source/foo").getUploadId());
+    }
+
+    @Test
+    public void testAbortFailure() {
+        tracker(MTIME).uploadInitiated("upload-1");
+
+        // if the obsolete upload cannot be aborted, it is forgotten anyway (it can be cleaned up as a stale MPU)
+        MultipartUploadTracker tracker = tracker(MTIME + 1000);
+        Assertions.assertNull(tracker.getResumableUploadId(upload -> true, upload -> {
+            throw new RuntimeException("abort failed");
+        }));
+        Assertions.assertTrue(stateService.getUploadIds().isEmpty());
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2026 Dell Inc. or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.emc.ecs.sync.storage.s3;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ObjectPackerTest {
+    @Test
+    public void testContainerLayout() throws Exception {
+        PackedContainer container = new PackedContainer("prefix/ecs-sync-packs/job-00000001.tar");
+        byte[] data1 = "hello".getBytes(StandardCharsets.UTF_8);
+        byte[] data2 = new byte[1000];
+        Arrays.fill(data2, (byte) 'x');
+        String longName = String.join("/", Collections.nCopies(30, "dir")) + "/file.txt"; // > 100 bytes
+
+        PackedEntry entry1 = container.add("a/b.txt", data1, 1600000000000L);
+        PackedEntry entry2 = container.add(longName, data2, 1600000001000L);
+
+        byte[] tar = container.toTar();
+        // data starts after each header, at a block boundary
+        Assertions.assertEquals(512, entry1.getOffset());
+        Assertions.assertEquals(0, entry2.getOffset() % 512);
+        Assertions.assertArrayEquals(data1, Arrays.copyOfRange(tar, (int) entry1.getOffset(), (int) (entry1.getOffset() + entry1.getLength())));
+        Assertions.assertArrayEquals(data2, Arrays.copyOfRange(tar, (int) entry2.getOffset(), (int) (entry2.getOffset() + entry2.getLength())));
+        // two zero blocks end the archive
+        Assertions.assertEquals(0, tar.length % 512);
+        Assertions.assertEquals(container.size() + 1024, tar.length);
+
+        // header checksum
+        long checksum = 0;
+        for (int i = 0; i < 512; i++) checksum += (i >= 148 && i < 156) ? ' ' : tar[i] & 0xff;
+        Assertions.assertEquals(checksum, Long.parseLong(new String(tar, 148, 6, StandardCharsets.US_ASCII), 8));
+        Assertions.assertEquals("a/b.txt", new String(tar, 0, 7, StandardCharsets.UTF_8));
+
+        // the index round-trips
+        List<PackedEntry> entries = PackedContainer.parseIndex(container.getKey(), new ByteArrayInputStream(container.toIndex()));
+        Assertions.assertEquals(2, entries.size());
+        Assertions.assertEquals(longName, entries.get(1).getRelativePath());
+        Assertions.assertEquals(entry2.getOffset(), entries.get(1).getOffset());
+        Assertions.assertEquals(entry2.getLength(), entries.get(1).getLength());
+        Assertions.assertEquals(entry2.getMtime(), entries.get(1).getMtime());
+    }
+
+    @Test
+    public void testIdentifier() {
+        PackedEntry entry = new PackedEntry("prefix/ecs-sync-packs/job-00000001.tar", 1536, 42, 1600000000000L, "dir/odd#name:with.tar#stuff");
+        Assertions.assertTrue(PackedEntry.isPackedIdentifier(entry.toIdentifier()));
+        Assertions.assertFalse(PackedEntry.isPackedIdentifier("prefix/dir/file.tar"));
+
+        PackedEntry parsed = PackedEntry.fromIdentifier(entry.toIdentifier());
+        Assertions.assertEquals(entry.getContainerKey(), parsed.getContainerKey());
+        Assertions.assertEquals(1536, parsed.getOffset());
+        Assertions.assertEquals(42, parsed.getLength());
+        Assertions.assertEquals(1600000000000L, parsed.getMtime());
+        Assertions.assertEquals("dir/odd#name:with.tar#stuff", parsed.getRelativePath());
+    }
+
+    @Test
+    public void testContainerRollover() {
+        List<PackedContainer> written = new ArrayList<>();
+        AtomicInteger keyCount = new AtomicInteger();
+        ObjectPacker packer = new ObjectPacker(4096, () -> "pack-" + keyCount.incrementAndGet() + ".tar",
+                written::add, (container, e) -> {
+                    throw e;
+                });
+
+        // each object takes 2 blocks (header + data), so 4 objects fill a container
+        for (int i = 0; i < 10; i++) {
+            packer.pack("object-" + i, new byte[100], 0);
+        }
+        Assertions.assertEquals(2, written.size());
+        packer.flush();
+        Assertions.assertEquals(3, written.size());
+
+        Assertions.assertEquals(Arrays.asList(4, 4, 2), Arrays.asList(written.get(0).getEntries().size(),
+                written.get(1).getEntries().size(), written.get(2).getEntries().size()));
+        Assertions.assertEquals("pack-3.tar", written.get(2).getKey());
+
+        // nothing left to flush
+        packer.flush();
+        Assertions.assertEquals(3, written.size());
+    }
+
+    @Test
+    public void testFailedContainer() {
+        List<PackedContainer> failed = new ArrayList<>();
+        AtomicInteger keyCount = new AtomicInteger();
+        ObjectPacker packer = new ObjectPacker(4096, () -> "pack-" + keyCount.incrementAndGet() + ".tar",
+                container -> {
+                    if (container.getKey().equals("pack-1.tar")) throw new RuntimeException("access denied");
+                }, (container, e) -> failed.add(container));
+
+        List<PackedEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            entries.add(packer.pack("object-" + i, new byte[100], 0));
+        }
+
+        // the object that triggered the write went into the next container, so it is not affected
+        Assertions.assertEquals(1, failed.size());
+        Assertions.assertEquals(4, failed.get(0).getEntries().size());
+        Assertions.assertEquals("pack-2.tar", entries.get(4).getContainerKey());
+        // a failed container is not pending anymore, so its objects are not found
+        Assertions.assertFalse(packer.isUnwritten("pack-1.tar"));
+        Assertions.assertTrue(packer.isUnwritten("pack-2.tar"));
+        // the lost objects are reported to their sync tasks
+        for (int i = 0; i < 4; i++) {
+            Assertions.assertTrue(entries.get(i).getWritten().isCompletedExceptionally());
+        }
+        Assertions.assertFalse(entries.get(4).getWritten().isDone());
+    }
+
+    @Test
+    public void testUnwrittenContainers() {
+        ObjectPacker packer = new ObjectPacker(4096, () -> "pack-1.tar", container -> {
+        }, (container, e) -> {
+            throw e;
+        });
+
+        PackedEntry entry = packer.pack("object", new byte[100], 0);
+        // the open container cannot be read yet, but its objects exist
+        Assertions.assertTrue(packer.isUnwritten(entry.getContainerKey()));
+        Assertions.assertFalse(entry.getWritten().isDone());
+        packer.flush();
+        Assertions.assertFalse(packer.isUnwritten(entry.getContainerKey()));
+        Assertions.assertTrue(entry.getWritten().isDone());
+        Assertions.assertFalse(entry.getWritten().isCompletedExceptionally());
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2026 Dell Inc. or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.emc.ecs.sync.storage.s3;
+
+import com.emc.ecs.sync.util.BufferPool;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.concurrent.*;
+
+public class SpooledMultipartSourceTest {
+    private static final int KB = 1024;
+
+    @Test
+    public void testParallelParts() throws Exception {
+        byte[] data = randomData(1000 * KB + 123);
+        long partSize = 64 * KB;
+        // room for 3 parts in memory; the rest are spooled to disk
+        Semaphore memoryKb = new Semaphore(3 * 64);
+        SpooledMultipartSource source = new SpooledMultipartSource(new OneShotInputStream(data), data.length, partSize, memoryKb);
+
+        List<Callable<byte[]>> parts = new ArrayList<>();
+        for (long offset = 0; offset < data.length; offset += partSize) {
+            long partOffset = offset, length = Math.min(partSize, data.length - offset);
+            int partNumber = (int) (offset / partSize) + 1;
+            parts.add(() -> {
+                try (InputStream in = source.getPartDataStream(partOffset, length)) {
+                    return readAll(in);
+                } finally {
+                    source.partUploaded(partNumber);
+                }
+            });
+        }
+        // request the parts out of order from several threads
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < parts.size(); i++) order.add(i);
+        Collections.shuffle(order, new Random(42));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Map<Integer, Future<byte[]>> futures = new HashMap<>();
+            for (int i : order) futures.put(i, executor.submit(parts.get(i)));
+            for (int i = 0; i < parts.size(); i++) {
+                int offset = (int) (i * partSize);
+                byte[] expected = Arrays.copyOfRange(data, offset, (int) Math.min(offset + partSize, data.length));
+                Assertions.assertArrayEquals(expected, futures.get(i).get(), "part " + i);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        Assertions.assertEquals(0, source.getSpooledPartCount());
+        Assertions.assertEquals(3 * 64, memoryKb.availablePermits());
+        source.close();
+    }
+
+    @Test
+    public void testPartRereadUntilUploaded() throws Exception {
+        byte[] data = randomData(100 * KB);
+        Semaphore memoryKb = new Semaphore(1024);
+        BufferPool bufferPool = new BufferPool(1024 * KB);
+        try (SpooledMultipartSource source = new SpooledMultipartSource(new OneShotInputStream(data), data.length, 50 * KB, memoryKb, bufferPool)) {
+            // the second part spools the first
+            Assertions.assertArrayEquals(Arrays.copyOfRange(data, 50 * KB, 100 * KB), readAll(source.getPartDataStream(50 * KB, 50 * KB)));
+            Assertions.assertEquals(2, source.getSpooledPartCount());
+            Assertions.assertArrayEquals(Arrays.copyOfRange(data, 0, 50 * KB), readAll(source.getPartDataStream(0, 50 * KB)));
+
+            // a failed part is read again from its spool
+            Assertions.assertArrayEquals(Arrays.copyOfRange(data, 0, 50 * KB), readAll(source.getPartDataStream(0, 50 * KB)));
+
+            // an uploaded part is released (and its buffer goes back to the pool)
+            source.partUploaded(1);
+            source.partUploaded(2);
+            Assertions.assertEquals(0, source.getSpooledPartCount());
+            Assertions.assertEquals(100 * KB, bufferPool.getPooledHeapBytes());
+            Assertions.assertThrows(IllegalStateException.class, () -> source.getPartDataStream(0, 50 * KB));
+            Assertions.assertThrows(IllegalStateException.class, source::getCompleteDataStream);
+        }
+        Assertions.assertEquals(1024, memoryKb.availablePermits());
+    }
+
+    @Test
+    public void testOpenPartIsNotFreed() throws Exception {
+        byte[] data = randomData(50 * KB);
+        Semaphore memoryKb = new Semaphore(1024);
+        BufferPool bufferPool = new BufferPool(1024 * KB);
+        SpooledMultipartSource source = new SpooledMultipartSource(new OneShotInputStream(data), data.length, 50 * KB, memoryKb, bufferPool);
+
+        InputStream part = source.getPartDataStream(0, 50 * KB);
+        source.partUploaded(1);
+        // the buffer cannot be reused while the stream is reading it
+        Assertions.assertEquals(0, bufferPool.getPooledHeapBytes());
+        Assertions.assertArrayEquals(data, readAll(part));
+        Assertions.assertEquals(50 * KB, bufferPool.getPooledHeapBytes());
+        Assertions.assertEquals(1024, memoryKb.availablePermits());
+        source.close();
+    }
+
+    @Test
+    public void testCloseReleasesSpools() throws Exception {
+        byte[] data = randomData(300 * KB);
+        Semaphore memoryKb = new Semaphore(150);
+        OneShotInputStream stream = new OneShotInputStream(data);
+        SpooledMultipartSource source = new SpooledMultipartSource(stream, data.length, 100 * KB, memoryKb);
+
+        // the first part fits in memory, the second goes to disk
+        InputStream lastPart = source.getPartDataStream(200 * KB, 100 * KB);
+        Assertions.assertEquals(3, source.getSpooledPartCount());
+        Assertions.assertEquals(50, memoryKb.availablePermits());
+
+        // e.g. the upload was aborted
+        source.close();
+        Assertions.assertEquals(0, source.getSpooledPartCount());
+        Assertions.assertTrue(stream.closed);
+        Assertions.assertArrayEquals(Arrays.copyOfRange(data, 200 * KB, 300 * KB), readAll(lastPart));
+        Assertions.assertEquals(150, memoryKb.availablePermits());
+        Assertions.assertThrows(IllegalStateException.class, () -> source.getPartDataStream(0, 100 * KB));
+    }
+
+    @Test
+    public void testTruncatedStream() throws Exception {
+        byte[] data = randomData(25 * KB);
+        Semaphore memoryKb = new Semaphore(1024);
+        SpooledMultipartSource source = new SpooledMultipartSource(new OneShotInputStream(data), 30 * KB, 10 * KB, memoryKb);
+
+        RuntimeException e = Assertions.assertThrows(RuntimeException.class, () -> source.getPartDataStream(20 * KB, 10 * KB));
+        Assertions.assertTrue(e.getCause() instanceof EOFException);
+        // no part can be read after an error (the stream position is unknown)
+        Assertions.assertThrows(IllegalStateException.class, () -> source.getPartDataStream(0, 10 * KB));
+
+        source.close();
+        Assertions.assertEquals(1024, memoryKb.availablePermits());
+    }
+
+    private static byte[] randomData(int size) {
+        byte[] data = new byte[size];
+        new Random().nextBytes(data);
+        return data;
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        try {
+            byte[] buffer = new byte[8 * KB];
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            int read;
+            while ((read = in.read(buffer)) >= 0) out.write(buffer, 0, read);
+            return out.toByteArray();
+        } finally {
+            in.close();
+        }
+    }
+
+    // a source stream that does not support mark/reset, and records when it is closed
+    private static class OneShotInputStream extends ByteArrayInputStream {
+        boolean closed;
+
+        OneShotInputStream(byte[] data) {
+            super(data);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}